@@ -1,25 +1,73 @@
 package com.banque.centralisateur.client;
 
+import com.banque.centralisateur.resilience.Disjoncteurs;
 import jakarta.json.*;
+import jakarta.json.stream.JsonParser;
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Client REST pour communiquer avec l'API Épargne (.NET)
  * Gère les requêtes HTTP vers http://localhost:5000/api
+ * Toutes les instances partagent un même HttpClient : les connexions HTTP/1.1
+ * sont maintenues ouvertes et réutilisées d'une requête à l'autre. Chaque
+ * échange, corps de la réponse compris, est borné par epargne.http.requestTimeoutMs
+ * (le délai de HttpRequest ne couvre que l'attente des en-têtes) ; le corps reçu
+ * est lu en flux (JsonParser) sans passer par une chaîne intermédiaire.
+ * Configuration (propriétés système) : epargne.api.url, epargne.http.connectTimeoutMs,
+ * epargne.http.requestTimeoutMs, epargne.http.threads. La taille du pool de
+ * connexions et leur durée de maintien relèvent des propriétés du JDK
+ * jdk.httpclient.connectionPoolSize et jdk.httpclient.keepalive.timeout.
+ * Chaque requête passe par le disjoncteur Disjoncteurs.EPARGNE : une erreur
+ * réseau, un délai dépassé ou une réponse 5xx à une lecture comptent comme
+ * défaillances ; seules les lectures (GET) sont rejouées.
  */
 public class EpargneRestClient {
     
     private static final Logger LOGGER = Logger.getLogger(EpargneRestClient.class.getName());
-    private static final String BASE_URL = "http://localhost:5000/api";
-    private static final int CONNECT_TIMEOUT = 5000;
-    private static final int READ_TIMEOUT = 10000;
+    private static final String BASE_URL = System.getProperty("epargne.api.url", "http://localhost:5000/api");
+    private static final Duration CONNECT_TIMEOUT = Duration.ofMillis(Long.getLong("epargne.http.connectTimeoutMs", 5000L));
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(Long.getLong("epargne.http.requestTimeoutMs", 10000L));
+    private static final int THREADS = Integer.getInteger("epargne.http.threads", 8);
+    
+    // Threads de lecture des réponses asynchrones, arrêtés avec l'application
+    // (voir CycleDeVieApplication) : un redéploiement ne laisse pas de threads orphelins
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, new FabriqueThreads());
+    
+    private static final HttpClient HTTP_CLIENT = creerClientHttp();
+    
+    /**
+     * Arrête les threads du client HTTP partagé ; les requêtes en cours sont
+     * interrompues. Appelé à l'arrêt de l'application.
+     */
+    public static void arreter() {
+        EXECUTOR.shutdownNow();
+        try {
+            if (!EXECUTOR.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOGGER.warning("Threads du client HTTP Épargne toujours actifs après l'arrêt");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
     
     /**
      * Inscrit un nouveau client dans le module Épargne
@@ -72,18 +120,7 @@ public class EpargneRestClient {
         try {
             LOGGER.info("Récupération des types de comptes épargne actifs");
             
-            JsonObject response = sendGetRequest("/typescomptes/actifs");
-            
-            if (response != null && response.getBoolean("success", false)) {
-                JsonArray data = response.getJsonArray("data");
-                List<JsonObject> types = new ArrayList<>();
-                for (int i = 0; i < data.size(); i++) {
-                    types.add(data.getJsonObject(i));
-                }
-                return types;
-            }
-            
-            return new ArrayList<>();
+            return sendGetListRequest("/typescomptes/actifs");
             
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de la récupération des types de comptes épargne", e);
@@ -98,18 +135,7 @@ public class EpargneRestClient {
         try {
             LOGGER.info("Récupération des comptes épargne du client: " + clientId);
             
-            JsonObject response = sendGetRequest("/comptesepargne/client/" + clientId);
-            
-            if (response != null && response.getBoolean("success", false)) {
-                JsonArray data = response.getJsonArray("data");
-                List<JsonObject> comptes = new ArrayList<>();
-                for (int i = 0; i < data.size(); i++) {
-                    comptes.add(data.getJsonObject(i));
-                }
-                return comptes;
-            }
-            
-            return new ArrayList<>();
+            return sendGetListRequest("/comptesepargne/client/" + clientId);
             
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de la récupération des comptes épargne", e);
@@ -124,18 +150,7 @@ public class EpargneRestClient {
         try {
             LOGGER.info("Récupération de tous les comptes épargne pour administration");
             
-            JsonObject response = sendGetRequest("/comptesepargne");
-            
-            if (response != null && response.getBoolean("success", false)) {
-                JsonArray data = response.getJsonArray("data");
-                List<JsonObject> comptes = new ArrayList<>();
-                for (int i = 0; i < data.size(); i++) {
-                    comptes.add(data.getJsonObject(i));
-                }
-                return comptes;
-            }
-            
-            return new ArrayList<>();
+            return sendGetListRequest("/comptesepargne");
             
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de la récupération de tous les comptes épargne", e);
@@ -313,18 +328,7 @@ public class EpargneRestClient {
             LOGGER.info("Récupération des opérations du compte épargne: " + compteId);
             
             String url = "/comptesepargne/" + compteId + "/operations?page=" + page + "&pageSize=" + pageSize;
-            JsonObject response = sendGetRequest(url);
-            
-            if (response != null && response.getBoolean("success", false)) {
-                JsonArray data = response.getJsonArray("data");
-                List<JsonObject> operations = new ArrayList<>();
-                for (int i = 0; i < data.size(); i++) {
-                    operations.add(data.getJsonObject(i));
-                }
-                return operations;
-            }
-            
-            return new ArrayList<>();
+            return sendGetListRequest(url);
             
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Erreur lors de la récupération des opérations épargne", e);
@@ -347,69 +351,185 @@ public class EpargneRestClient {
         }
     }
     
+    // ========== Variantes asynchrones (lecture) ==========
+    
+    /**
+     * Variante asynchrone de getTypesComptesActifs (liste vide en cas d'erreur)
+     */
+    public CompletableFuture<List<JsonObject>> getTypesComptesActifsAsync() {
+        return sendGetAsync("/typescomptes/actifs", EpargneRestClient::readJsonList, new ArrayList<>(),
+            "des types de comptes épargne");
+    }
+    
+    /**
+     * Variante asynchrone de getComptesClient (liste vide en cas d'erreur)
+     */
+    public CompletableFuture<List<JsonObject>> getComptesClientAsync(Long clientId) {
+        return sendGetAsync("/comptesepargne/client/" + clientId, EpargneRestClient::readJsonList, new ArrayList<>(),
+            "des comptes épargne du client " + clientId);
+    }
+    
+    /**
+     * Variante asynchrone de getAllComptes (liste vide en cas d'erreur)
+     */
+    public CompletableFuture<List<JsonObject>> getAllComptesAsync() {
+        return sendGetAsync("/comptesepargne", EpargneRestClient::readJsonList, new ArrayList<>(),
+            "de tous les comptes épargne");
+    }
+    
+    /**
+     * Variante asynchrone de getOperationsCompte (liste vide en cas d'erreur)
+     */
+    public CompletableFuture<List<JsonObject>> getOperationsCompteAsync(Long compteId, int page, int pageSize) {
+        String url = "/comptesepargne/" + compteId + "/operations?page=" + page + "&pageSize=" + pageSize;
+        return sendGetAsync(url, EpargneRestClient::readJsonList, new ArrayList<>(),
+            "des opérations du compte épargne " + compteId);
+    }
+    
+    /**
+     * Variante asynchrone de getCompteDetails (null en cas d'erreur)
+     */
+    public CompletableFuture<JsonObject> getCompteDetailsAsync(Long compteId) {
+        return sendGetAsync("/comptesepargne/" + compteId, EpargneRestClient::readJsonResponse, null,
+            "des détails du compte épargne " + compteId);
+    }
+    
+    /**
+     * Résumé du portefeuille épargne (nombre de clients et de comptes, soldes,
+     * comptes par statut), agrégé côté API sans renvoyer la liste des comptes
+     * @return Le résumé, ou null en cas d'erreur
+     */
+    public CompletableFuture<JsonObject> getStatistiquesAsync() {
+        return sendGetAsync("/admin/epargneadmin/statistiques", EpargneRestClient::readJsonResponse, null,
+            "des statistiques épargne");
+    }
+    
     // ========== Méthodes privées pour les requêtes HTTP ==========
     
     /**
      * Envoie une requête GET
      */
     private JsonObject sendGetRequest(String endpoint) throws IOException {
-        URL url = new URL(BASE_URL + endpoint);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        
-        try {
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("Accept", "application/json");
-            conn.setConnectTimeout(CONNECT_TIMEOUT);
-            conn.setReadTimeout(READ_TIMEOUT);
-            
-            int responseCode = conn.getResponseCode();
-            LOGGER.info("GET " + endpoint + " - Response Code: " + responseCode);
-            
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                return readJsonResponse(conn.getInputStream());
-            } else {
-                LOGGER.warning("Erreur HTTP " + responseCode + " lors de GET " + endpoint);
-                return readJsonResponse(conn.getErrorStream());
-            }
-            
-        } finally {
-            conn.disconnect();
-        }
+        return Disjoncteurs.EPARGNE.executer(() -> {
+            HttpResponse<byte[]> response = send(get(endpoint));
+            logStatus("GET", endpoint, response.statusCode());
+            return readJsonResponse(verifierDisponibilite(response, endpoint));
+        }, true);
+    }
+    
+    /**
+     * Envoie une requête GET dont la réponse contient une liste ("data" ou tableau racine)
+     */
+    private List<JsonObject> sendGetListRequest(String endpoint) throws IOException {
+        return Disjoncteurs.EPARGNE.executer(() -> {
+            HttpResponse<byte[]> response = send(get(endpoint));
+            logStatus("GET", endpoint, response.statusCode());
+            return readJsonList(verifierDisponibilite(response, endpoint));
+        }, true);
     }
     
     /**
      * Envoie une requête POST
      */
     private JsonObject sendPostRequest(String endpoint, JsonObject requestBody) throws IOException {
-        URL url = new URL(BASE_URL + endpoint);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        
+        HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + endpoint))
+            .timeout(READ_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString(), StandardCharsets.UTF_8))
+            .build();
+        // Jamais rejouée : l'opération a pu être exécutée malgré l'erreur
+        return Disjoncteurs.EPARGNE.executer(() -> {
+            HttpResponse<byte[]> response = send(request);
+            logStatus("POST", endpoint, response.statusCode());
+            return readJsonResponse(new ByteArrayInputStream(response.body()));
+        }, false);
+    }
+    
+    /**
+     * Envoie une requête GET sans bloquer l'appelant ; la réponse est lue par
+     * les threads du client HTTP
+     */
+    private <T> CompletableFuture<T> sendGetAsync(String endpoint, Function<InputStream, T> lecteur,
+                                                  T valeurParDefaut, String objet) {
+        return Disjoncteurs.EPARGNE.executerAsync(() ->
+                sendAsync(get(endpoint))
+                    .thenApply(response -> {
+                        logStatus("GET", endpoint, response.statusCode());
+                        try {
+                            return verifierDisponibilite(response, endpoint);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }))
+            .thenApply(lecteur)
+            .exceptionally(e -> {
+                LOGGER.log(Level.SEVERE, "Erreur lors de la récupération " + objet, e);
+                return valeurParDefaut;
+            });
+    }
+    
+    private HttpRequest get(String endpoint) {
+        return HttpRequest.newBuilder(URI.create(BASE_URL + endpoint))
+            .timeout(READ_TIMEOUT)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+    }
+    
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException {
+        CompletableFuture<HttpResponse<byte[]>> response = sendAsync(request);
         try {
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setRequestProperty("Accept", "application/json");
-            conn.setDoOutput(true);
-            conn.setConnectTimeout(CONNECT_TIMEOUT);
-            conn.setReadTimeout(READ_TIMEOUT);
-            
-            // Écrire le corps de la requête
-            try (OutputStream os = conn.getOutputStream()) {
-                byte[] input = requestBody.toString().getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
+            return response.get();
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Requête interrompue : " + request.uri(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
             }
-            
-            int responseCode = conn.getResponseCode();
-            LOGGER.info("POST " + endpoint + " - Response Code: " + responseCode);
-            
-            if (responseCode == HttpURLConnection.HTTP_OK || responseCode == HttpURLConnection.HTTP_CREATED) {
-                return readJsonResponse(conn.getInputStream());
-            } else {
-                LOGGER.warning("Erreur HTTP " + responseCode + " lors de POST " + endpoint);
-                return readJsonResponse(conn.getErrorStream());
+            if (cause instanceof TimeoutException) {
+                throw new HttpTimeoutException("Délai dépassé : " + request.uri());
             }
-            
-        } finally {
-            conn.disconnect();
+            throw new IOException("Échec de la requête : " + request.uri(), cause);
+        }
+    }
+    
+    /**
+     * Envoie une requête et reçoit tout le corps de la réponse dans le délai
+     * READ_TIMEOUT ; au-delà, l'échange est abandonné et sa connexion fermée
+     */
+    private static CompletableFuture<HttpResponse<byte[]>> sendAsync(HttpRequest request) {
+        CompletableFuture<HttpResponse<byte[]>> echange =
+            HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<HttpResponse<byte[]>> response = echange.copy()
+            .orTimeout(READ_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        response.whenComplete((valeur, erreur) -> {
+            if (erreur instanceof TimeoutException) {
+                echange.cancel(true);
+            }
+        });
+        return response;
+    }
+    
+    /**
+     * Une réponse 5xx à une lecture signale un service défaillant : elle est
+     * traitée comme une erreur réseau (comptée par le disjoncteur, rejouée)
+     */
+    private static InputStream verifierDisponibilite(HttpResponse<byte[]> response, String endpoint)
+            throws IOException {
+        if (response.statusCode() >= 500) {
+            throw new IOException("Erreur HTTP " + response.statusCode() + " lors de GET " + endpoint);
+        }
+        return new ByteArrayInputStream(response.body());
+    }
+    
+    private static void logStatus(String methode, String endpoint, int responseCode) {
+        LOGGER.info(methode + " " + endpoint + " - Response Code: " + responseCode);
+        if (responseCode != 200 && !("POST".equals(methode) && responseCode == 201)) {
+            LOGGER.warning("Erreur HTTP " + responseCode + " lors de " + methode + " " + endpoint);
         }
     }
     
@@ -417,26 +537,24 @@ public class EpargneRestClient {
      * Lit la réponse JSON depuis un flux
      * Gère à la fois les objets JSON et les tableaux JSON
      */
-    private JsonObject readJsonResponse(InputStream inputStream) {
-        if (inputStream == null) {
-            return Json.createObjectBuilder()
-                .add("success", false)
-                .add("message", "Aucune réponse du serveur")
-                .build();
-        }
-        
-        try (JsonReader jsonReader = Json.createReader(inputStream)) {
+    private static JsonObject readJsonResponse(InputStream inputStream) {
+        try (JsonParser parser = Json.createParser(inputStream)) {
             // Détecter si la réponse est un objet ou un tableau
-            JsonStructure structure = jsonReader.read();
+            JsonParser.Event event = parser.hasNext() ? parser.next() : null;
             
-            if (structure instanceof JsonObject) {
+            if (event == JsonParser.Event.START_OBJECT) {
                 // Réponse est un objet JSON
-                return (JsonObject) structure;
-            } else if (structure instanceof JsonArray) {
+                return parser.getObject();
+            } else if (event == JsonParser.Event.START_ARRAY) {
                 // Réponse est un tableau JSON - l'envelopper dans un objet standard
                 return Json.createObjectBuilder()
                     .add("success", true)
-                    .add("data", (JsonArray) structure)
+                    .add("data", parser.getArray())
+                    .build();
+            } else if (event == null) {
+                return Json.createObjectBuilder()
+                    .add("success", false)
+                    .add("message", "Aucune réponse du serveur")
                     .build();
             } else {
                 return Json.createObjectBuilder()
@@ -452,4 +570,87 @@ public class EpargneRestClient {
                 .build();
         }
     }
+    
+    /**
+     * Lit en flux une réponse de liste : { "success": true, "data": [...] } ou
+     * tableau racine. Chaque élément est construit directement dans la liste
+     * retournée ; le reste de l'enveloppe n'est pas conservé.
+     * @return Les éléments, ou une liste vide si success vaut false ou en cas d'erreur
+     */
+    private static List<JsonObject> readJsonList(InputStream inputStream) {
+        try (JsonParser parser = Json.createParser(inputStream)) {
+            JsonParser.Event event = parser.hasNext() ? parser.next() : null;
+            if (event == JsonParser.Event.START_ARRAY) {
+                return readElements(parser);
+            }
+            if (event != JsonParser.Event.START_OBJECT) {
+                return new ArrayList<>();
+            }
+            
+            boolean success = false;
+            List<JsonObject> elements = new ArrayList<>();
+            // Parcours de l'enveloppe jusqu'au bout : la connexion peut ensuite être réutilisée
+            while (parser.hasNext() && parser.next() == JsonParser.Event.KEY_NAME) {
+                String cle = parser.getString();
+                event = parser.next();
+                if ("success".equals(cle)) {
+                    success = event == JsonParser.Event.VALUE_TRUE;
+                } else if ("data".equals(cle) && event == JsonParser.Event.START_ARRAY) {
+                    elements = readElements(parser);
+                } else {
+                    parser.getValue(); // Valeur ignorée (objets et tableaux compris)
+                }
+            }
+            return success ? elements : new ArrayList<>();
+            
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Erreur lors de la lecture de la réponse JSON", e);
+            return new ArrayList<>();
+        }
+    }
+    
+    private static List<JsonObject> readElements(JsonParser parser) {
+        List<JsonObject> elements = new ArrayList<>();
+        while (parser.hasNext() && parser.next() != JsonParser.Event.END_ARRAY) {
+            JsonValue element = parser.getValue();
+            if (element instanceof JsonObject) {
+                elements.add((JsonObject) element);
+            }
+        }
+        return elements;
+    }
+    
+    /**
+     * Le client HTTP démarre son propre thread de sélection, qui hérite du chargeur
+     * de classes de contexte et ne s'arrête qu'une fois le client libéré : il est
+     * créé sous le chargeur de la plateforme pour ne pas retenir celui de l'application
+     */
+    private static HttpClient creerClientHttp() {
+        Thread courant = Thread.currentThread();
+        ClassLoader chargeur = courant.getContextClassLoader();
+        courant.setContextClassLoader(ClassLoader.getPlatformClassLoader());
+        try {
+            return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .executor(EXECUTOR)
+                .build();
+        } finally {
+            courant.setContextClassLoader(chargeur);
+        }
+    }
+    
+    /**
+     * Threads démons nommés pour le client HTTP Épargne
+     */
+    private static final class FabriqueThreads implements java.util.concurrent.ThreadFactory {
+        private final AtomicInteger compteur = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "epargne-http-" + compteur.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package com.banque.centralisateur.config;
+
+import com.banque.centralisateur.client.EpargneRestClient;
+import com.banque.centralisateur.service.TableauDeBordService;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+import java.util.logging.Logger;
+
+/**
+ * Arrêt des ressources partagées de l'application (pools de threads) lors de
+ * l'arrêt ou du redéploiement : sans cela, leurs threads survivraient au
+ * déploiement et retiendraient ses classes
+ */
+@WebListener
+public class CycleDeVieApplication implements ServletContextListener {
+
+    private static final Logger LOGGER = Logger.getLogger(CycleDeVieApplication.class.getName());
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        LOGGER.info("Arrêt du Centralisateur : arrêt des pools de threads");
+        EpargneRestClient.arreter();
+        TableauDeBordService.arreter();
+    }
+}
@@ -1,5 +1,6 @@
 package com.banque.centralisateur.ejb;
 
+import com.banque.centralisateur.resilience.Disjoncteurs;
 import com.banque.situationbancaire.ejb.remote.ClientServiceRemote;
 import com.banque.situationbancaire.ejb.remote.CompteCourantServiceRemote;
 import com.banque.situationbancaire.ejb.remote.OperationServiceRemote;
@@ -8,188 +9,83 @@ import com.banque.situationbancaire.ejb.remote.AuthenticationServiceRemote;
 import com.banque.situationbancaire.ejb.remote.MouvementAdminServiceRemote;
 import com.banque.situationbancaire.ejb.remote.UserSessionBeanRemote;
 
-import javax.naming.Context;
-import javax.naming.InitialContext;
-import javax.naming.NamingException;
-import java.util.Properties;
-import java.util.logging.Logger;
-import java.util.logging.Level;
+import java.util.Map;
 
 /**
  * Factory pour créer des clients EJB distants
- * Gère les lookups JNDI vers le module SituationBancaire
+ * Gère les lookups JNDI vers le module SituationBancaire : les proxies des
+ * beans sans état sont résolus une fois puis réutilisés (voir ServiceLocator)
  */
 public class EJBClientFactory {
     
-    private static final Logger LOGGER = Logger.getLogger(EJBClientFactory.class.getName());
-    
     // Nom JNDI de l'application SituationBancaire déployée sur WildFly
     // Pour un WAR avec EJB: le app-name est vide, module-name est le nom du WAR sans extension
-    private static final String APP_NAME = ""; // Vide pour un WAR simple
     private static final String MODULE_NAME = "situation-bancaire"; // Nom du WAR sans .war
-    private static final String DISTINCT_NAME = "";
     
-    private static Context context;
-    
-    /**
-     * Initialise le contexte JNDI
-     */
-    private static synchronized Context getContext() throws NamingException {
-        if (context == null) {
-            Properties props = new Properties();
-            props.put(Context.INITIAL_CONTEXT_FACTORY, "org.wildfly.naming.client.WildFlyInitialContextFactory");
-            props.put(Context.PROVIDER_URL, "http-remoting://localhost:8080");
-            props.put("jboss.naming.client.ejb.context", true);
-            
-            context = new InitialContext(props);
-            LOGGER.info("Contexte JNDI initialisé avec succès");
-        }
-        return context;
-    }
-    
-    /**
-     * Construit le nom JNDI pour un EJB distant
-     */
-    private static String buildJNDIName(String beanName, Class<?> interfaceClass) {
-        // Format pour WAR: ejb:/module-name/bean-name!interface-name
-        // Pour un WAR, APP_NAME doit être vide
-        String jndiName;
-        if (APP_NAME.isEmpty()) {
-            jndiName = String.format("ejb:/%s/%s!%s",
-                MODULE_NAME,
-                beanName,
-                interfaceClass.getName()
-            );
-        } else {
-            jndiName = String.format("ejb:%s/%s/%s/%s!%s",
-                APP_NAME,
-                MODULE_NAME,
-                DISTINCT_NAME,
-                beanName,
-                interfaceClass.getName()
-            );
-        }
-        LOGGER.info("JNDI Name: " + jndiName);
-        return jndiName;
-    }
+    private static final ServiceLocator LOCATOR =
+        new ServiceLocator("SituationBancaire", "http-remoting://localhost:8080",
+            MODULE_NAME, Disjoncteurs.SITUATION_BANCAIRE);
     
     /**
      * Récupère le service Client distant
      */
     public static ClientServiceRemote getClientService() {
-        try {
-            String jndiName = buildJNDIName("ClientServiceImpl", ClientServiceRemote.class);
-            ClientServiceRemote service = (ClientServiceRemote) getContext().lookup(jndiName);
-            LOGGER.info("ClientService EJB récupéré avec succès");
-            return service;
-        } catch (NamingException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération de ClientService", e);
-            throw new RuntimeException("Impossible de se connecter au service Client distant", e);
-        }
+        return LOCATOR.obtenir("ClientServiceImpl", ClientServiceRemote.class);
     }
     
     /**
      * Récupère le service CompteCourant distant
      */
     public static CompteCourantServiceRemote getCompteCourantService() {
-        try {
-            String jndiName = buildJNDIName("CompteCourantServiceImpl", CompteCourantServiceRemote.class);
-            CompteCourantServiceRemote service = (CompteCourantServiceRemote) getContext().lookup(jndiName);
-            LOGGER.info("CompteCourantService EJB récupéré avec succès");
-            return service;
-        } catch (NamingException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération de CompteCourantService", e);
-            throw new RuntimeException("Impossible de se connecter au service CompteCourant distant", e);
-        }
+        return LOCATOR.obtenir("CompteCourantServiceImpl", CompteCourantServiceRemote.class);
     }
     
     /**
      * Récupère le service Operation distant
      */
     public static OperationServiceRemote getOperationService() {
-        try {
-            String jndiName = buildJNDIName("OperationServiceImpl", OperationServiceRemote.class);
-            OperationServiceRemote service = (OperationServiceRemote) getContext().lookup(jndiName);
-            LOGGER.info("OperationService EJB récupéré avec succès");
-            return service;
-        } catch (NamingException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération de OperationService", e);
-            throw new RuntimeException("Impossible de se connecter au service Operation distant", e);
-        }
+        return LOCATOR.obtenir("OperationServiceImpl", OperationServiceRemote.class);
     }
     
     /**
      * Récupère le service TypeCompte distant
      */
     public static TypeCompteServiceRemote getTypeCompteService() {
-        try {
-            String jndiName = buildJNDIName("TypeCompteServiceImpl", TypeCompteServiceRemote.class);
-            TypeCompteServiceRemote service = (TypeCompteServiceRemote) getContext().lookup(jndiName);
-            LOGGER.info("TypeCompteService EJB récupéré avec succès");
-            return service;
-        } catch (NamingException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération de TypeCompteService", e);
-            throw new RuntimeException("Impossible de se connecter au service TypeCompte distant", e);
-        }
+        return LOCATOR.obtenir("TypeCompteServiceImpl", TypeCompteServiceRemote.class);
     }
     
     /**
      * Récupère le service Authentication distant
      */
     public static AuthenticationServiceRemote getAuthenticationService() {
-        try {
-            String jndiName = buildJNDIName("AuthenticationService", AuthenticationServiceRemote.class);
-            AuthenticationServiceRemote service = (AuthenticationServiceRemote) getContext().lookup(jndiName);
-            LOGGER.info("AuthenticationService EJB récupéré avec succès");
-            return service;
-        } catch (NamingException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération de AuthenticationService", e);
-            throw new RuntimeException("Impossible de se connecter au service Authentication distant", e);
-        }
+        return LOCATOR.obtenir("AuthenticationService", AuthenticationServiceRemote.class);
     }
     
     /**
      * Récupère le service MouvementAdmin distant
      */
     public static MouvementAdminServiceRemote getMouvementAdminService() {
-        try {
-            String jndiName = buildJNDIName("MouvementAdminService", MouvementAdminServiceRemote.class);
-            MouvementAdminServiceRemote service = (MouvementAdminServiceRemote) getContext().lookup(jndiName);
-            LOGGER.info("MouvementAdminService EJB récupéré avec succès");
-            return service;
-        } catch (NamingException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération de MouvementAdminService", e);
-            throw new RuntimeException("Impossible de se connecter au service MouvementAdmin distant", e);
-        }
+        return LOCATOR.obtenir("MouvementAdminService", MouvementAdminServiceRemote.class);
     }
     
     /**
-     * Crée une nouvelle instance de UserSessionBean distant
+     * Crée une nouvelle instance de UserSessionBean distant (bean avec état : jamais réutilisé)
      */
     public static UserSessionBeanRemote createUserSession() {
-        try {
-            String jndiName = buildJNDIName("UserSessionBean", UserSessionBeanRemote.class) + "?stateful";
-            UserSessionBeanRemote session = (UserSessionBeanRemote) getContext().lookup(jndiName);
-            LOGGER.info("UserSessionBean créé avec succès");
-            return session;
-        } catch (NamingException e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la création de UserSessionBean", e);
-            throw new RuntimeException("Impossible de créer la session utilisateur distante", e);
-        }
+        return LOCATOR.creerAvecEtat("UserSessionBean", UserSessionBeanRemote.class);
+    }
+    
+    /**
+     * Compteurs des résolutions JNDI (nombre, échecs, latence)
+     */
+    public static Map<String, Long> getStatistiques() {
+        return LOCATOR.getStatistiques();
     }
     
     /**
      * Ferme le contexte JNDI
      */
     public static void closeContext() {
-        if (context != null) {
-            try {
-                context.close();
-                context = null;
-                LOGGER.info("Contexte JNDI fermé");
-            } catch (NamingException e) {
-                LOGGER.log(Level.WARNING, "Erreur lors de la fermeture du contexte", e);
-            }
-        }
+        LOCATOR.fermer();
     }
 }
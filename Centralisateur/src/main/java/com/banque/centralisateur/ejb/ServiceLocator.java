@@ -0,0 +1,266 @@
+package com.banque.centralisateur.ejb;
+
+import com.banque.centralisateur.resilience.Disjoncteur;
+import jakarta.ejb.EJBException;
+import jakarta.ejb.NoSuchEJBException;
+
+import javax.naming.Context;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Localisateur de services EJB distants d'un serveur WildFly.
+ * Les proxies des beans sans état sont réutilisables : chacun n'est résolu
+ * qu'une fois par interface puis mis en cache. Le contexte JNDI est créé au
+ * premier besoin, sans verrou global.
+ * Chaque service est exposé derrière un proxy qui, si le bean distant n'existe
+ * plus (NoSuchEJBException, par exemple après un redéploiement), le résout de
+ * nouveau et rejoue l'appel une fois ; sur toute autre EJBException, le proxy
+ * mis en cache est abandonné (résolu de nouveau au prochain appel) et l'erreur
+ * est propagée sans rejouer l'appel.
+ * Résolutions et appels passent par le disjoncteur du serveur : les lectures
+ * (méthodes lister*, rechercher*, obtenir*...) sont rejouées en cas de
+ * défaillance technique, les écritures jamais.
+ */
+public class ServiceLocator {
+
+    private static final Logger LOGGER = Logger.getLogger(ServiceLocator.class.getName());
+
+    private final String nom;
+    private final String providerUrl;
+    private final String moduleName;
+    private final Disjoncteur disjoncteur;
+
+    private final AtomicReference<Context> contexte = new AtomicReference<>();
+
+    // Proxy exposé aux servlets, stable pour toute la durée de l'application
+    private final Map<Class<?>, Object> services = new ConcurrentHashMap<>();
+    // Proxy EJB résolu derrière chaque service ; retiré pour forcer une nouvelle résolution
+    private final Map<Class<?>, Object> cibles = new ConcurrentHashMap<>();
+
+    // Préfixes des méthodes distantes sans effet de bord, rejouables
+    private static final Set<String> PREFIXES_LECTURE = Set.of(
+        "lister", "rechercher", "obtenir", "get", "find", "existe", "verifier", "simuler",
+        "calculer", "compter", "is", "has");
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder reResolutions = new LongAdder();
+    private final AtomicLong dureeTotaleNs = new AtomicLong();
+    private final AtomicLong dureeMaxNs = new AtomicLong();
+
+    /**
+     * @param nom Nom du serveur pour les traces
+     * @param providerUrl URL du serveur (http-remoting://hote:port)
+     * @param moduleName Nom du WAR déployé, sans .war
+     * @param disjoncteur Disjoncteur protégeant les appels vers ce serveur
+     */
+    public ServiceLocator(String nom, String providerUrl, String moduleName, Disjoncteur disjoncteur) {
+        this.nom = nom;
+        this.providerUrl = providerUrl;
+        this.moduleName = moduleName;
+        this.disjoncteur = disjoncteur;
+    }
+
+    /**
+     * Retourne le service sans état demandé (résolu au premier appel, puis en cache)
+     * @param beanName Nom de la classe d'implémentation du bean
+     * @param interfaceClass Interface distante
+     */
+    public <T> T obtenir(String beanName, Class<T> interfaceClass) {
+        // Résolution immédiate : une erreur de connexion remonte à l'appelant comme avant
+        if (!cibles.containsKey(interfaceClass)) {
+            disjoncteur.executer(() -> cible(beanName, interfaceClass), true);
+        }
+        return interfaceClass.cast(services.computeIfAbsent(interfaceClass,
+            classe -> Proxy.newProxyInstance(interfaceClass.getClassLoader(), new Class<?>[] {interfaceClass},
+                new Relais(beanName, interfaceClass))));
+    }
+
+    /**
+     * Crée une nouvelle instance d'un bean avec état (jamais mise en cache)
+     */
+    public <T> T creerAvecEtat(String beanName, Class<T> interfaceClass) {
+        return interfaceClass.cast(lookup(buildJNDIName(beanName, interfaceClass) + "?stateful", beanName));
+    }
+
+    /**
+     * Compteurs : lookups, echecs, reResolutions, dureeMoyenneLookupUs, dureeMaxLookupUs, servicesEnCache
+     */
+    public Map<String, Long> getStatistiques() {
+        long nombre = lookups.sum();
+        Map<String, Long> statistiques = new LinkedHashMap<>();
+        statistiques.put("lookups", nombre);
+        statistiques.put("echecs", echecs.sum());
+        statistiques.put("reResolutions", reResolutions.sum());
+        statistiques.put("dureeMoyenneLookupUs", nombre == 0 ? 0 : dureeTotaleNs.get() / nombre / 1000);
+        statistiques.put("dureeMaxLookupUs", dureeMaxNs.get() / 1000);
+        statistiques.put("servicesEnCache", (long) cibles.size());
+        return statistiques;
+    }
+
+    /**
+     * Ferme le contexte JNDI et vide le cache des proxies
+     */
+    public void fermer() {
+        cibles.clear();
+        Context ancien = contexte.getAndSet(null);
+        if (ancien != null) {
+            fermer(ancien);
+            LOGGER.info("Contexte JNDI " + nom + " fermé");
+        }
+    }
+
+    private Object cible(String beanName, Class<?> interfaceClass) {
+        Object cible = cibles.get(interfaceClass);
+        if (cible == null) {
+            cible = cibles.computeIfAbsent(interfaceClass,
+                classe -> lookup(buildJNDIName(beanName, interfaceClass), beanName));
+        }
+        return cible;
+    }
+
+    private Object lookup(String jndiName, String beanName) {
+        long debut = System.nanoTime();
+        try {
+            Object resultat = contexte().lookup(jndiName);
+            LOGGER.fine(() -> "EJB " + jndiName + " résolu");
+            return resultat;
+        } catch (NamingException e) {
+            echecs.increment();
+            // Le contexte peut être inutilisable : il sera recréé à la prochaine résolution
+            Context ancien = contexte.getAndSet(null);
+            if (ancien != null) {
+                fermer(ancien);
+            }
+            LOGGER.log(Level.SEVERE, "Erreur lors de la récupération de " + beanName + " (" + nom + ")", e);
+            throw new RuntimeException("Impossible de se connecter au service " + beanName + " distant", e);
+        } finally {
+            long duree = System.nanoTime() - debut;
+            lookups.increment();
+            dureeTotaleNs.addAndGet(duree);
+            dureeMaxNs.accumulateAndGet(duree, Math::max);
+        }
+    }
+
+    private Context contexte() throws NamingException {
+        while (true) {
+            Context courant = contexte.get();
+            if (courant != null) {
+                return courant;
+            }
+            Properties props = new Properties();
+            props.put(Context.INITIAL_CONTEXT_FACTORY, "org.wildfly.naming.client.WildFlyInitialContextFactory");
+            props.put(Context.PROVIDER_URL, providerUrl);
+            props.put("jboss.naming.client.ejb.context", true);
+            Context nouveau = new InitialContext(props);
+            if (contexte.compareAndSet(null, nouveau)) {
+                LOGGER.info("Contexte JNDI " + nom + " initialisé (" + providerUrl + ")");
+                return nouveau;
+            }
+            // Un autre thread a initialisé le contexte entre-temps
+            fermer(nouveau);
+        }
+    }
+
+    /**
+     * Construit le nom JNDI d'un EJB distant déployé dans un WAR :
+     * ejb:/module-name/bean-name!interface-name
+     */
+    private String buildJNDIName(String beanName, Class<?> interfaceClass) {
+        return String.format("ejb:/%s/%s!%s", moduleName, beanName, interfaceClass.getName());
+    }
+
+    private void invalider(Class<?> interfaceClass, Object cible, Throwable cause) {
+        if (cibles.remove(interfaceClass, cible)) {
+            reResolutions.increment();
+            LOGGER.warning("Proxy " + interfaceClass.getSimpleName() + " (" + nom + ") abandonné : " + cause);
+        }
+    }
+
+    private static void fermer(Context context) {
+        try {
+            context.close();
+        } catch (NamingException e) {
+            LOGGER.log(Level.WARNING, "Erreur lors de la fermeture du contexte JNDI", e);
+        }
+    }
+
+    /**
+     * Délègue chaque appel au proxy EJB en cache et le remplace en cas d'erreur EJB
+     */
+    private final class Relais implements InvocationHandler {
+
+        private final String beanName;
+        private final Class<?> interfaceClass;
+
+        private Relais(String beanName, Class<?> interfaceClass) {
+            this.beanName = beanName;
+            this.interfaceClass = interfaceClass;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return invoquerObjet(proxy, method, args);
+            }
+            return disjoncteur.executer(() -> invoquerAvecReprise(method, args), estLecture(method));
+        }
+
+        private Object invoquerAvecReprise(Method method, Object[] args) throws Throwable {
+            Object cible = cible(beanName, interfaceClass);
+            try {
+                return invoquer(cible, method, args);
+            } catch (NoSuchEJBException e) {
+                // Le bean n'existe plus côté serveur : l'appel n'a pas été exécuté, il peut être rejoué
+                invalider(interfaceClass, cible, e);
+                return invoquer(cible(beanName, interfaceClass), method, args);
+            } catch (EJBException e) {
+                invalider(interfaceClass, cible, e);
+                throw e;
+            }
+        }
+
+        private boolean estLecture(Method method) {
+            String methode = method.getName();
+            int fin = 0;
+            while (fin < methode.length() && Character.isLowerCase(methode.charAt(fin))) {
+                fin++;
+            }
+            return PREFIXES_LECTURE.contains(methode.substring(0, fin));
+        }
+
+        private Object invoquerObjet(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "Service " + interfaceClass.getSimpleName() + " (" + nom + ")";
+            }
+        }
+
+        private Object invoquer(Object cible, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(cible, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
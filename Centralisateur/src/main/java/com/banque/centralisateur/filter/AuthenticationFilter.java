@@ -1,5 +1,6 @@
 package com.banque.centralisateur.filter;
 
+import com.banque.centralisateur.session.PermissionsSession;
 import com.banque.situationbancaire.ejb.remote.UserSessionBeanRemote;
 import jakarta.servlet.*;
 import jakarta.servlet.annotation.WebFilter;
@@ -11,6 +12,8 @@ import java.io.IOException;
 
 /**
  * Filtre d'authentification pour protéger les pages d'administration
+ * La session EJB distante n'est interrogée qu'à l'expiration de l'intervalle de
+ * revalidation de PermissionsSession : entre-temps, la copie locale suffit.
  */
 @WebFilter(filterName = "AuthenticationFilter", urlPatterns = {"/admin/*"})
 public class AuthenticationFilter implements Filter {
@@ -30,13 +33,23 @@ public class AuthenticationFilter implements Filter {
             return;
         }
         
-        // Vérifier si la session EJB est valide
-        UserSessionBeanRemote userSessionBean = (UserSessionBeanRemote) session.getAttribute("userSessionBean");
+        // Vérifier si la session EJB est valide (au plus une fois par intervalle)
+        PermissionsSession permissions = PermissionsSession.depuis(session);
+        long maintenant = System.currentTimeMillis();
         try {
-            if (!userSessionBean.isValid()) {
-                session.invalidate();
-                httpResponse.sendRedirect(httpRequest.getContextPath() + "/login");
-                return;
+            if (permissions == null || permissions.aRevalider(maintenant)) {
+                UserSessionBeanRemote userSessionBean = (UserSessionBeanRemote) session.getAttribute("userSessionBean");
+                long version = userSessionBean.getVersionPermissions();
+                if (version < 0) {
+                    session.invalidate();
+                    httpResponse.sendRedirect(httpRequest.getContextPath() + "/login");
+                    return;
+                }
+                // Permissions inchangées : seule la date de validation est mise à jour
+                permissions = permissions != null && permissions.getVersion() == version
+                    ? permissions.revalidee(maintenant)
+                    : PermissionsSession.charger(userSessionBean, version);
+                session.setAttribute(PermissionsSession.ATTRIBUT, permissions);
             }
         } catch (Exception e) {
             // La session EJB a expiré ou n'est plus valide
@@ -0,0 +1,268 @@
+package com.banque.centralisateur.resilience;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Protection des appels vers un service distant (un disjoncteur par service) :
+ * - cloisonnement : au plus N appels simultanés ; au-delà, l'appelant attend
+ *   brièvement une place puis est refusé, au lieu d'immobiliser un thread de servlet ;
+ * - disjoncteur : après plusieurs défaillances consécutives, les appels sont
+ *   refusés immédiatement pendant un délai, puis un seul appel de test (demi-ouvert)
+ *   décide de la refermeture ;
+ * - reprise : les lectures (appels idempotents) sont rejouées avec un délai
+ *   exponentiel aléatoire ; les écritures ne sont jamais rejouées.
+ * Seules les défaillances techniques (voir le prédicat) comptent : une erreur
+ * métier renvoyée par le service prouve qu'il répond.
+ */
+public class Disjoncteur {
+
+    private static final Logger LOGGER = Logger.getLogger(Disjoncteur.class.getName());
+
+    public enum Etat { FERME, OUVERT, DEMI_OUVERT }
+
+    /**
+     * Appel protégé ; E est l'exception contrôlée qu'il peut lever
+     */
+    @FunctionalInterface
+    public interface Appel<T, E extends Throwable> {
+        T appeler() throws E;
+    }
+
+    private final String nom;
+    private final int capacite;
+    private final long attentePlaceMs;
+    private final int seuilEchecs;
+    private final long dureeOuvertureMs;
+    private final int tentativesLecture;
+    private final long delaiRepriseMs;
+    private final Predicate<Throwable> estDefaillance;
+
+    private final Semaphore places;
+    private final AtomicReference<Etat> etat = new AtomicReference<>(Etat.FERME);
+    private final AtomicInteger echecsConsecutifs = new AtomicInteger();
+    // Date d'ouverture, puis date du dernier appel de test
+    private final AtomicLong dateOuverture = new AtomicLong();
+
+    private final LongAdder appels = new LongAdder();
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder rejetsCircuit = new LongAdder();
+    private final LongAdder rejetsSaturation = new LongAdder();
+    private final LongAdder reprises = new LongAdder();
+    private final LongAdder ouvertures = new LongAdder();
+
+    /**
+     * @param nom Nom du service pour les traces et la page de supervision
+     * @param capacite Nombre maximal d'appels simultanés
+     * @param attentePlaceMs Attente maximale d'une place avant refus
+     * @param seuilEchecs Défaillances consécutives provoquant l'ouverture
+     * @param dureeOuvertureMs Délai avant l'appel de test
+     * @param tentativesLecture Nombre total de tentatives pour une lecture
+     * @param delaiRepriseMs Délai de base de la première reprise (doublé ensuite)
+     * @param estDefaillance Distingue les défaillances techniques des erreurs métier
+     */
+    public Disjoncteur(String nom, int capacite, long attentePlaceMs, int seuilEchecs, long dureeOuvertureMs,
+                       int tentativesLecture, long delaiRepriseMs, Predicate<Throwable> estDefaillance) {
+        this.nom = nom;
+        this.capacite = capacite;
+        this.attentePlaceMs = attentePlaceMs;
+        this.seuilEchecs = seuilEchecs;
+        this.dureeOuvertureMs = dureeOuvertureMs;
+        this.tentativesLecture = Math.max(1, tentativesLecture);
+        this.delaiRepriseMs = delaiRepriseMs;
+        this.estDefaillance = estDefaillance;
+        this.places = new Semaphore(capacite);
+    }
+
+    /**
+     * Exécute l'appel sous la protection du disjoncteur
+     * @param idempotent true pour une lecture (peut être rejouée)
+     * @throws ServiceIndisponibleException si le circuit est ouvert ou le service saturé
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Throwable> T executer(Appel<T, E> appel, boolean idempotent) throws E {
+        int maxTentatives = idempotent ? tentativesLecture : 1;
+        for (int tentative = 1; ; tentative++) {
+            acquerirPlace();
+            Throwable defaillance;
+            boolean appelDeTest = false;
+            try {
+                appelDeTest = admettre();
+                appels.increment();
+                T resultat = appel.appeler();
+                enregistrerSucces(appelDeTest);
+                return resultat;
+            } catch (ServiceIndisponibleException e) {
+                throw e;
+            } catch (Throwable t) {
+                if (!estDefaillance.test(t)) {
+                    enregistrerSucces(appelDeTest);
+                    throw (E) t;
+                }
+                enregistrerEchec(t);
+                defaillance = t;
+            } finally {
+                places.release();
+            }
+            // Pas de reprise si le circuit vient de s'ouvrir : la tentative serait refusée
+            if (tentative >= maxTentatives || etat.get() != Etat.FERME || !attendreAvantReprise(tentative)) {
+                throw (E) defaillance;
+            }
+            reprises.increment();
+        }
+    }
+
+    /**
+     * Variante asynchrone (sans reprise) : la place est libérée à la fin de l'appel
+     * @return Un future en échec (ServiceIndisponibleException) si l'appel est refusé
+     */
+    public <T> CompletableFuture<T> executerAsync(Supplier<CompletableFuture<T>> appel) {
+        try {
+            acquerirPlace();
+        } catch (ServiceIndisponibleException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> future;
+        boolean appelDeTest;
+        try {
+            appelDeTest = admettre();
+            appels.increment();
+            future = appel.get();
+        } catch (RuntimeException e) {
+            places.release();
+            if (!(e instanceof ServiceIndisponibleException)) {
+                enregistrerEchec(e);
+            }
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((resultat, erreur) -> {
+            places.release();
+            Throwable cause = erreur instanceof CompletionException && erreur.getCause() != null
+                ? erreur.getCause() : erreur;
+            if (cause == null || !estDefaillance.test(cause)) {
+                enregistrerSucces(appelDeTest);
+            } else {
+                enregistrerEchec(cause);
+            }
+        });
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public Etat getEtat() {
+        return etat.get();
+    }
+
+    /**
+     * Compteurs : appels, succes, echecs, rejetsCircuit, rejetsSaturation, reprises,
+     * ouvertures, appelsEnCours, capacite, echecsConsecutifs
+     */
+    public Map<String, Long> getStatistiques() {
+        Map<String, Long> statistiques = new LinkedHashMap<>();
+        statistiques.put("appels", appels.sum());
+        statistiques.put("succes", succes.sum());
+        statistiques.put("echecs", echecs.sum());
+        statistiques.put("rejetsCircuit", rejetsCircuit.sum());
+        statistiques.put("rejetsSaturation", rejetsSaturation.sum());
+        statistiques.put("reprises", reprises.sum());
+        statistiques.put("ouvertures", ouvertures.sum());
+        statistiques.put("appelsEnCours", (long) (capacite - places.availablePermits()));
+        statistiques.put("capacite", (long) capacite);
+        statistiques.put("echecsConsecutifs", (long) echecsConsecutifs.get());
+        return statistiques;
+    }
+
+    private void acquerirPlace() {
+        boolean acquise;
+        try {
+            acquise = places.tryAcquire(attentePlaceMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquise = false;
+        }
+        if (!acquise) {
+            rejetsSaturation.increment();
+            throw new ServiceIndisponibleException("Service " + nom + " saturé, veuillez réessayer");
+        }
+    }
+
+    /**
+     * @return true si l'appel admis est l'appel de test du circuit demi-ouvert
+     */
+    private boolean admettre() {
+        Etat courant = etat.get();
+        if (courant == Etat.FERME) {
+            return false;
+        }
+        // Un seul appelant gagne la date : il devient l'appel de test. Si ce test
+        // reste sans réponse, un nouveau test est admis au terme d'un autre délai.
+        long maintenant = System.currentTimeMillis();
+        long depuis = dateOuverture.get();
+        if (maintenant - depuis >= dureeOuvertureMs && dateOuverture.compareAndSet(depuis, maintenant)) {
+            etat.set(Etat.DEMI_OUVERT);
+            LOGGER.info("Disjoncteur " + nom + " demi-ouvert : appel de test");
+            return true;
+        }
+        rejetsCircuit.increment();
+        throw new ServiceIndisponibleException("Service " + nom + " momentanément indisponible");
+    }
+
+    private void enregistrerSucces(boolean appelDeTest) {
+        succes.increment();
+        // Seul l'appel de test referme le circuit : un appel admis avant l'ouverture
+        // et terminé après, même pendant le test, ne lève pas la protection et ne
+        // remet pas à zéro les défaillances qui l'ont provoquée
+        if (appelDeTest) {
+            if (etat.compareAndSet(Etat.DEMI_OUVERT, Etat.FERME)) {
+                echecsConsecutifs.set(0);
+                LOGGER.info("Disjoncteur " + nom + " refermé");
+            }
+        } else if (etat.get() == Etat.FERME) {
+            echecsConsecutifs.set(0);
+        }
+    }
+
+    private void enregistrerEchec(Throwable cause) {
+        echecs.increment();
+        int consecutifs = echecsConsecutifs.incrementAndGet();
+        if (etat.get() == Etat.DEMI_OUVERT || consecutifs >= seuilEchecs) {
+            dateOuverture.set(System.currentTimeMillis());
+            if (etat.getAndSet(Etat.OUVERT) != Etat.OUVERT) {
+                ouvertures.increment();
+                LOGGER.warning("Disjoncteur " + nom + " ouvert pour " + dureeOuvertureMs + " ms après "
+                    + consecutifs + " défaillance(s) : " + cause);
+            }
+        }
+    }
+
+    /**
+     * Délai aléatoire entre 0 et delaiRepriseMs * 2^(tentative - 1), pour que les
+     * appelants ne rejouent pas tous au même instant
+     * @return false si le thread a été interrompu
+     */
+    private boolean attendreAvantReprise(int tentative) {
+        long plafond = delaiRepriseMs << Math.min(tentative - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(plafond + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
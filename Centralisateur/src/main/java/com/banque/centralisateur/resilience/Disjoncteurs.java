@@ -0,0 +1,56 @@
+package com.banque.centralisateur.resilience;
+
+import jakarta.ejb.NoSuchEJBException;
+
+import javax.naming.NamingException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Disjoncteurs des services distants appelés par le Centralisateur.
+ * Réglages par propriétés système, pour chaque service (epargne,
+ * situation-bancaire, pret) : resilience.&lt;service&gt;.capacite,
+ * .attentePlaceMs, .seuilEchecs, .ouvertureMs, .tentatives, .delaiRepriseMs
+ */
+public final class Disjoncteurs {
+
+    public static final Disjoncteur EPARGNE = creer("epargne", "Épargne");
+    public static final Disjoncteur SITUATION_BANCAIRE = creer("situation-bancaire", "SituationBancaire");
+    public static final Disjoncteur PRET = creer("pret", "Prêt");
+
+    private Disjoncteurs() {
+    }
+
+    public static List<Disjoncteur> tous() {
+        return List.of(SITUATION_BANCAIRE, EPARGNE, PRET);
+    }
+
+    /**
+     * Défaillance technique : le service n'a pas répondu (connexion, délai dépassé,
+     * bean introuvable, résolution JNDI). Les autres exceptions sont des réponses.
+     */
+    public static boolean estDefaillanceTechnique(Throwable erreur) {
+        for (Throwable t = erreur; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof IOException || t instanceof TimeoutException || t instanceof NamingException
+                    || t instanceof NoSuchEJBException
+                    // Client EJB WildFly : requête non transmise au serveur
+                    || "RequestSendFailedException".equals(t.getClass().getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Disjoncteur creer(String cle, String nom) {
+        String prefixe = "resilience." + cle + ".";
+        return new Disjoncteur(nom,
+            Integer.getInteger(prefixe + "capacite", 10),
+            Long.getLong(prefixe + "attentePlaceMs", 200L),
+            Integer.getInteger(prefixe + "seuilEchecs", 5),
+            Long.getLong(prefixe + "ouvertureMs", 30000L),
+            Integer.getInteger(prefixe + "tentatives", 3),
+            Long.getLong(prefixe + "delaiRepriseMs", 100L),
+            Disjoncteurs::estDefaillanceTechnique);
+    }
+}
@@ -0,0 +1,14 @@
+package com.banque.centralisateur.resilience;
+
+/**
+ * Levée sans appeler le service distant quand son disjoncteur est ouvert ou
+ * que toutes ses places d'appel concurrent sont occupées
+ */
+public class ServiceIndisponibleException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServiceIndisponibleException(String message) {
+        super(message);
+    }
+}
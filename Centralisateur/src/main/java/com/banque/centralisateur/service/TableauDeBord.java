@@ -0,0 +1,60 @@
+package com.banque.centralisateur.service;
+
+import com.banque.pret.dto.StatistiquesPortefeuilleDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chiffres du tableau de bord, agrégés depuis les trois modules.
+ * Une source qui n'a pas répondu à temps laisse ses chiffres à null et
+ * figure dans sourcesIndisponibles ; les autres sont affichées normalement.
+ */
+public class TableauDeBord {
+
+    // Situation bancaire
+    private Map<String, Long> comptesCourantsParStatut;
+    private Long nombreComptesCourants;
+
+    // Prêts
+    private StatistiquesPortefeuilleDTO statistiquesPrets;
+
+    // Épargne
+    private Long nombreClientsEpargne;
+    private Long nombreComptesEpargne;
+    private BigDecimal soldeTotalEpargne;
+
+    private final List<String> sourcesIndisponibles = new ArrayList<>();
+    private long dureeMs;
+
+    public Map<String, Long> getComptesCourantsParStatut() { return comptesCourantsParStatut; }
+    public void setComptesCourantsParStatut(Map<String, Long> comptesCourantsParStatut) {
+        this.comptesCourantsParStatut = comptesCourantsParStatut;
+    }
+
+    public Long getNombreComptesCourants() { return nombreComptesCourants; }
+    public void setNombreComptesCourants(Long nombreComptesCourants) { this.nombreComptesCourants = nombreComptesCourants; }
+
+    public StatistiquesPortefeuilleDTO getStatistiquesPrets() { return statistiquesPrets; }
+    public void setStatistiquesPrets(StatistiquesPortefeuilleDTO statistiquesPrets) { this.statistiquesPrets = statistiquesPrets; }
+
+    public Long getNombreClientsEpargne() { return nombreClientsEpargne; }
+    public void setNombreClientsEpargne(Long nombreClientsEpargne) { this.nombreClientsEpargne = nombreClientsEpargne; }
+
+    public Long getNombreComptesEpargne() { return nombreComptesEpargne; }
+    public void setNombreComptesEpargne(Long nombreComptesEpargne) { this.nombreComptesEpargne = nombreComptesEpargne; }
+
+    public BigDecimal getSoldeTotalEpargne() { return soldeTotalEpargne; }
+    public void setSoldeTotalEpargne(BigDecimal soldeTotalEpargne) { this.soldeTotalEpargne = soldeTotalEpargne; }
+
+    public List<String> getSourcesIndisponibles() { return sourcesIndisponibles; }
+
+    public long getDureeMs() { return dureeMs; }
+    public void setDureeMs(long dureeMs) { this.dureeMs = dureeMs; }
+
+    public boolean isSituationDisponible() { return comptesCourantsParStatut != null; }
+    public boolean isPretsDisponible() { return statistiquesPrets != null; }
+    public boolean isEpargneDisponible() { return nombreComptesEpargne != null; }
+}
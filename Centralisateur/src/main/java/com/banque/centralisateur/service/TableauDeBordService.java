@@ -0,0 +1,169 @@
+package com.banque.centralisateur.service;
+
+import com.banque.centralisateur.client.EpargneRestClient;
+import com.banque.centralisateur.ejb.EJBClientFactory;
+import com.banque.centralisateur.ejb.PretEJBClientFactory;
+import com.banque.centralisateur.resilience.ServiceIndisponibleException;
+import com.banque.centralisateur.util.JsonHelper;
+import com.banque.pret.dto.StatistiquesPortefeuilleDTO;
+import jakarta.json.JsonObject;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Agrégation du tableau de bord : les trois modules sont interrogés en même
+ * temps, chacun par son point d'entrée de synthèse (comptes par statut,
+ * statistiques du portefeuille de prêts, résumé épargne) plutôt que par ses
+ * listes complètes. Le temps de réponse est celui de la source la plus lente,
+ * plafonné par dashboard.timeoutMs ; une source en retard ou en erreur est
+ * signalée comme indisponible sans bloquer les autres.
+ * Les appels EJB bloquants passent par un pool borné (dashboard.threads) dont
+ * la file d'attente l'est aussi (dashboard.fileAttente) : quand les modules ne
+ * répondent plus, les requêtes suivantes ne s'empilent pas, leur source est
+ * aussitôt signalée indisponible. Un appel dont le délai expire est interrompu.
+ */
+public class TableauDeBordService {
+
+    private static final Logger LOGGER = Logger.getLogger(TableauDeBordService.class.getName());
+
+    private static final long TIMEOUT_MS = Long.getLong("dashboard.timeoutMs", 3000L);
+
+    private static final AtomicInteger COMPTEUR_THREADS = new AtomicInteger();
+
+    private static final int THREADS = Integer.getInteger("dashboard.threads", 4);
+
+    // Appels EJB bloquants : pool et file bornés, partagés par toutes les requêtes du
+    // tableau de bord ; au-delà, l'appel est refusé (AbortPolicy). Arrêté avec l'application
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS,
+        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Integer.getInteger("dashboard.fileAttente", 2 * THREADS)),
+        r -> {
+            Thread thread = new Thread(r, "tableau-de-bord-" + COMPTEUR_THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+
+    private final EpargneRestClient epargneClient;
+
+    public TableauDeBordService(EpargneRestClient epargneClient) {
+        this.epargneClient = epargneClient;
+    }
+
+    /**
+     * Interroge les trois modules en parallèle
+     * @return Les chiffres disponibles dans le délai imparti
+     */
+    public TableauDeBord agreger() {
+        long debut = System.currentTimeMillis();
+
+        CompletableFuture<Map<String, Long>> situation = source("SituationBancaire", appelBloquant(
+            () -> EJBClientFactory.getCompteCourantService().compterComptesParStatut()));
+        CompletableFuture<StatistiquesPortefeuilleDTO> prets = source("Prêt", appelBloquant(
+            () -> PretEJBClientFactory.getPretService().obtenirStatistiquesPortefeuille()));
+        CompletableFuture<JsonObject> epargne = source("Épargne", epargneClient.getStatistiquesAsync());
+
+        // Chaque source se termine (valeur ou null) au plus tard à l'expiration de son délai
+        CompletableFuture.allOf(situation, prets, epargne).join();
+
+        TableauDeBord tableauDeBord = new TableauDeBord();
+
+        Map<String, Long> comptesParStatut = situation.join();
+        if (comptesParStatut != null) {
+            tableauDeBord.setComptesCourantsParStatut(comptesParStatut);
+            tableauDeBord.setNombreComptesCourants(comptesParStatut.values().stream().mapToLong(Long::longValue).sum());
+        } else {
+            tableauDeBord.getSourcesIndisponibles().add("Situation bancaire");
+        }
+
+        StatistiquesPortefeuilleDTO statistiquesPrets = prets.join();
+        if (statistiquesPrets != null) {
+            tableauDeBord.setStatistiquesPrets(statistiquesPrets);
+        } else {
+            tableauDeBord.getSourcesIndisponibles().add("Prêts");
+        }
+
+        JsonObject resumeEpargne = epargne.join();
+        Long nombreComptesEpargne = resumeEpargne != null ? JsonHelper.getSafeLong(resumeEpargne, "nombreComptes") : null;
+        if (nombreComptesEpargne != null) {
+            tableauDeBord.setNombreComptesEpargne(nombreComptesEpargne);
+            tableauDeBord.setNombreClientsEpargne(JsonHelper.getSafeLong(resumeEpargne, "nombreClients", 0L));
+            tableauDeBord.setSoldeTotalEpargne(
+                JsonHelper.getSafeBigDecimal(resumeEpargne, "soldeTotal", BigDecimal.ZERO));
+        } else {
+            tableauDeBord.getSourcesIndisponibles().add("Épargne");
+        }
+
+        tableauDeBord.setDureeMs(System.currentTimeMillis() - debut);
+        LOGGER.info("Tableau de bord agrégé en " + tableauDeBord.getDureeMs() + " ms"
+            + (tableauDeBord.getSourcesIndisponibles().isEmpty() ? ""
+                : " (indisponible : " + String.join(", ", tableauDeBord.getSourcesIndisponibles()) + ")"));
+        return tableauDeBord;
+    }
+
+    /**
+     * Arrête le pool des appels EJB ; les appels en cours sont interrompus.
+     * Appelé à l'arrêt de l'application.
+     */
+    public static void arreter() {
+        EXECUTOR.shutdownNow();
+        try {
+            if (!EXECUTOR.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOGGER.warning("Threads du tableau de bord toujours actifs après l'arrêt");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Exécute un appel bloquant sur le pool du tableau de bord. Le future est en
+     * échec si le pool est saturé ; s'il expire (orTimeout), le thread de l'appel
+     * est interrompu au lieu de rester occupé jusqu'à la réponse.
+     */
+    static <T> CompletableFuture<T> appelBloquant(Supplier<T> appel) {
+        CompletableFuture<T> resultat = new CompletableFuture<>();
+        Future<?> tache;
+        try {
+            tache = EXECUTOR.submit(() -> {
+                try {
+                    resultat.complete(appel.get());
+                } catch (Throwable e) {
+                    resultat.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            resultat.completeExceptionally(new ServiceIndisponibleException("Tableau de bord saturé"));
+            return resultat;
+        }
+        resultat.whenComplete((valeur, erreur) -> {
+            if (erreur instanceof TimeoutException) {
+                tache.cancel(true);
+            }
+        });
+        return resultat;
+    }
+
+    /**
+     * Borne la durée d'une source ; en cas d'erreur ou de dépassement, sa valeur est null
+     */
+    static <T> CompletableFuture<T> source(String nom, CompletableFuture<T> appel) {
+        return appel
+            .orTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            .exceptionally(e -> {
+                LOGGER.log(Level.WARNING, "Source " + nom + " indisponible pour le tableau de bord", e);
+                return null;
+            });
+    }
+}
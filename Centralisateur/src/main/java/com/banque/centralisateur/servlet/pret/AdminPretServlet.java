@@ -4,8 +4,10 @@ import com.banque.centralisateur.config.ThymeleafConfig;
 import com.banque.centralisateur.ejb.PretEJBClientFactory;
 import com.banque.pret.dto.PretDTO;
 import com.banque.pret.dto.EcheanceDTO;
+import com.banque.pret.dto.StatistiquesPortefeuilleDTO;
 import com.banque.pret.ejb.remote.PretServiceRemote;
 import com.banque.pret.ejb.remote.EcheanceServiceRemote;
+import com.banque.pret.entity.enums.StatutPret;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -128,31 +130,34 @@ public class AdminPretServlet extends HttpServlet {
         try {
             PretServiceRemote pretService = PretEJBClientFactory.getPretService();
             
-            // Récupérer tous les prêts
-            List<PretDTO> tousLesPrets = pretService.listerTousLesPrets();
-            
-            // Séparer par statut pour faciliter l'affichage
-            List<PretDTO> demandesEnAttente = tousLesPrets.stream()
-                .filter(p -> "EN_ATTENTE".equals(p.getStatut()))
-                .toList();
-                
-            List<PretDTO> pretsApprouves = tousLesPrets.stream()
-                .filter(p -> "APPROUVE".equals(p.getStatut()))
-                .toList();
-                
-            List<PretDTO> pretsRefuses = tousLesPrets.stream()
-                .filter(p -> "REFUSE".equals(p.getStatut()))
-                .toList();
+            // Compteurs calculés par le module Prêt : la liste complète n'est plus rapatriée
+            StatistiquesPortefeuilleDTO statistiques = pretService.obtenirStatistiquesPortefeuille();
+            
+            // Sans filtre : les demandes à traiter ; "Tous les statuts" (statut vide) : tout le portefeuille
+            String statutParam = request.getParameter("statut");
+            String statutSelectionne = statutParam == null ? StatutPret.EN_ATTENTE.name() : statutParam.trim();
+            List<PretDTO> prets;
+            if (statutSelectionne.isEmpty()) {
+                prets = pretService.listerTousLesPrets();
+            } else {
+                prets = statutValide(statutSelectionne)
+                    ? pretService.listerPretsParStatut(StatutPret.valueOf(statutSelectionne))
+                    : List.of();
+            }
             
             // Ajouter les variables au contexte
             context.setVariable("pageTitle", "Administration des Prêts");
             context.setVariable("currentPage", "admin-pret");
             context.setVariable("moduleName", "Prêts");
             
-            context.setVariable("demandesEnAttente", demandesEnAttente);
-            context.setVariable("pretsApprouves", pretsApprouves);
-            context.setVariable("pretsRefuses", pretsRefuses);
-            context.setVariable("totalPrets", tousLesPrets.size());
+            context.setVariable("statistiques", statistiques);
+            context.setVariable("statutSelectionne", statutSelectionne);
+            context.setVariable("prets", prets);
+            context.setVariable("hasPrets", !prets.isEmpty());
+            context.setVariable("totalPrets", statistiques.getNombreTotal());
+            context.setVariable("pretsEnAttente", statistiques.getNombreParStatut(StatutPret.EN_ATTENTE.name()));
+            context.setVariable("pretsEnCours", statistiques.getNombreParStatut(StatutPret.EN_COURS.name()));
+            context.setVariable("pretsEnRetard", statistiques.getNombreParStatut(StatutPret.EN_RETARD.name()));
             
             // Messages de session
             String successMessage = (String) session.getAttribute("successMessage");
@@ -177,6 +182,15 @@ public class AdminPretServlet extends HttpServlet {
         }
     }
     
+    private boolean statutValide(String statut) {
+        for (StatutPret valeur : StatutPret.values()) {
+            if (valeur.name().equals(statut)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Affiche le détail d'un prêt avec son tableau d'amortissement
      */
@@ -2,11 +2,11 @@ package com.banque.centralisateur.servlet.pret;
 
 import com.banque.centralisateur.config.ThymeleafConfig;
 import com.banque.centralisateur.ejb.PretEJBClientFactory;
+import com.banque.pret.dto.DossierPretDTO;
 import com.banque.pret.dto.EcheanceDTO;
 import com.banque.pret.dto.PretDTO;
 import com.banque.pret.dto.RemboursementDTO;
 import com.banque.pret.ejb.remote.EcheanceServiceRemote;
-import com.banque.pret.ejb.remote.PretServiceRemote;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -154,23 +154,17 @@ public class AdminRemboursementServlet extends HttpServlet {
         WebContext context = new WebContext(webExchange);
         
         try {
-            PretServiceRemote pretService = PretEJBClientFactory.getPretService();
             EcheanceServiceRemote echeanceService = PretEJBClientFactory.getEcheanceService();
             
-            // RÃ©cupÃ©rer le prÃªt
-            PretDTO pret = pretService.rechercherPretParId(pretId);
-            if (pret == null) {
+            // Un seul appel : prÃªt, Ã©chÃ©ances, impayÃ©s, remboursements et agrÃ©gats
+            DossierPretDTO dossier = echeanceService.obtenirDossierPret(pretId);
+            if (dossier == null) {
                 throw new IllegalArgumentException("PrÃªt non trouvÃ© : " + pretId);
             }
-            
-            // RÃ©cupÃ©rer toutes les Ã©chÃ©ances du prÃªt
-            List<EcheanceDTO> echeances = echeanceService.obtenirTableauAmortissement(pretId);
-            
-            // RÃ©cupÃ©rer les Ã©chÃ©ances impayÃ©es
-            List<EcheanceDTO> echeancesImpayees = echeanceService.listerEcheancesImpayees(pretId);
-            
-            // RÃ©cupÃ©rer l'historique des remboursements
-            List<RemboursementDTO> remboursements = echeanceService.listerRemboursementsParPret(pretId);
+            PretDTO pret = dossier.getPret();
+            List<EcheanceDTO> echeances = dossier.getEcheances();
+            List<EcheanceDTO> echeancesImpayees = dossier.getEcheancesImpayees();
+            List<RemboursementDTO> remboursements = dossier.getRemboursements();
             
             // Ajouter les variables au contexte
             context.setVariable("pageTitle", "Ã‰chÃ©ances - PrÃªt nÂ°" + pret.getNumeroPret());
@@ -182,6 +176,12 @@ public class AdminRemboursementServlet extends HttpServlet {
             context.setVariable("hasEcheances", !echeances.isEmpty());
             context.setVariable("hasEcheancesImpayees", !echeancesImpayees.isEmpty());
             context.setVariable("hasRemboursements", !remboursements.isEmpty());
+            context.setVariable("totalPaye", dossier.getTotalPaye());
+            context.setVariable("capitalRestantDu", dossier.getCapitalRestantDu());
+            context.setVariable("resteAPayer", dossier.getResteAPayer());
+            context.setVariable("montantArriere", dossier.getMontantArriere());
+            context.setVariable("penalitesRestantes", dossier.getPenalitesRestantes());
+            context.setVariable("nombreEcheancesEnRetard", dossier.getNombreEcheancesEnRetard());
             
             // Rendre le template
             response.setContentType("text/html;charset=UTF-8");
@@ -228,6 +228,7 @@ public class AdminRemboursementServlet extends HttpServlet {
             // CrÃ©er le DTO de remboursement
             RemboursementDTO remboursementDTO = RemboursementDTO.builder()
                 .idEcheance(echeanceId)
+                .montant(montantPaye)
                 .montantPaye(montantPaye)
                 .datePaiement(dateRemboursementStr != null && !dateRemboursementStr.trim().isEmpty() ? 
                     LocalDate.parse(dateRemboursementStr).atStartOfDay() : LocalDateTime.now())
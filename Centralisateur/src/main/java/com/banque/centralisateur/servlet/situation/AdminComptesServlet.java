@@ -2,9 +2,10 @@ package com.banque.centralisateur.servlet.situation;
 
 import com.banque.centralisateur.config.ThymeleafConfig;
 import com.banque.centralisateur.ejb.EJBClientFactory;
+import com.banque.centralisateur.session.PermissionsSession;
 import com.banque.situationbancaire.dto.CompteCourantDTO;
+import com.banque.situationbancaire.dto.PageDTO;
 import com.banque.situationbancaire.ejb.remote.CompteCourantServiceRemote;
-import com.banque.situationbancaire.ejb.remote.UserSessionBeanRemote;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -19,6 +20,7 @@ import org.thymeleaf.web.servlet.JakartaServletWebApplication;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -30,6 +32,7 @@ import java.util.logging.Logger;
 public class AdminComptesServlet extends HttpServlet {
     
     private static final Logger LOGGER = Logger.getLogger(AdminComptesServlet.class.getName());
+    private static final int TAILLE_PAGE = 50;
     private TemplateEngine templateEngine;
     private JakartaServletWebApplication application;
 
@@ -51,8 +54,7 @@ public class AdminComptesServlet extends HttpServlet {
         }
         
         // Vérifier les autorisations ActionRole
-        UserSessionBeanRemote userSessionBean = (UserSessionBeanRemote) session.getAttribute("userSessionBean");
-        if (!userSessionBean.hasPermission("compte_courant", "READ")) {
+        if (!PermissionsSession.autorise(session, "compte_courant", "READ")) {
             session.setAttribute("errorMessage", "Vous n'avez pas l'autorisation de consulter les comptes");
             response.sendRedirect(request.getContextPath() + "/dashboard");
             return;
@@ -66,14 +68,16 @@ public class AdminComptesServlet extends HttpServlet {
         try {
             // RÃ©cupÃ©rer tous les comptes
             CompteCourantServiceRemote compteService = EJBClientFactory.getCompteCourantService();
-            List<CompteCourantDTO> comptes = compteService.findAll();
+            String statut = request.getParameter("statut");
+            int page = parsePage(request.getParameter("page"));
+            PageDTO<CompteCourantDTO> pageComptes = compteService.listerComptes(statut, page, TAILLE_PAGE);
+            List<CompteCourantDTO> comptes = pageComptes.getElements();
             
-            // Statistiques simples
-            long comptesActifs = comptes.stream()
-                .filter(c -> c.getStatut() == null || !"FERME".equals(c.getStatut()))
-                .count();
-            
-            long comptesFermes = comptes.size() - comptesActifs;
+            // Statistiques sur l'ensemble des comptes (une requête groupée)
+            Map<String, Long> comptesParStatut = compteService.compterComptesParStatut();
+            long nombreTotalComptes = comptesParStatut.values().stream().mapToLong(Long::longValue).sum();
+            long comptesFermes = comptesParStatut.getOrDefault("FERME", 0L);
+            long comptesActifs = nombreTotalComptes - comptesFermes;
             
             // Ajouter les variables au contexte
             context.setVariable("pageTitle", "Gestion des Comptes - Administration");
@@ -81,14 +85,17 @@ public class AdminComptesServlet extends HttpServlet {
             context.setVariable("moduleName", "Situation Bancaire");
             context.setVariable("comptes", comptes);
             context.setVariable("hasComptes", !comptes.isEmpty());
-            context.setVariable("nombreTotalComptes", comptes.size());
+            context.setVariable("pageComptes", pageComptes);
+            context.setVariable("statutFiltre", statut);
+            context.setVariable("comptesParStatut", comptesParStatut);
+            context.setVariable("nombreTotalComptes", nombreTotalComptes);
             context.setVariable("nombreComptesActifs", comptesActifs);
             context.setVariable("nombreComptesFermes", comptesFermes);
             
             // Vérifier les autorisations pour les actions
-            context.setVariable("peutCreer", userSessionBean.hasPermission("compte_courant", "CREATE"));
-            context.setVariable("peutModifier", userSessionBean.hasPermission("compte_courant", "UPDATE"));
-            context.setVariable("peutSupprimer", userSessionBean.hasPermission("compte_courant", "DELETE"));
+            context.setVariable("peutCreer", PermissionsSession.autorise(session, "compte_courant", "CREATE"));
+            context.setVariable("peutModifier", PermissionsSession.autorise(session, "compte_courant", "UPDATE"));
+            context.setVariable("peutSupprimer", PermissionsSession.autorise(session, "compte_courant", "DELETE"));
             
             // Messages de session
             String errorMessage = (String) session.getAttribute("errorMessage");
@@ -119,9 +126,8 @@ public class AdminComptesServlet extends HttpServlet {
             throws ServletException, IOException {
         
         HttpSession session = request.getSession(false);
-        UserSessionBeanRemote userSessionBean = (UserSessionBeanRemote) session.getAttribute("userSessionBean");
         
-        if (userSessionBean == null || !userSessionBean.isValid()) {
+        if (PermissionsSession.depuis(session) == null) {
             response.sendRedirect(request.getContextPath() + "/login");
             return;
         }
@@ -146,7 +152,7 @@ public class AdminComptesServlet extends HttpServlet {
             
             switch (action) {
                 case "bloquer":
-                    if (!userSessionBean.hasPermission("compte_courant", "UPDATE")) {
+                    if (!PermissionsSession.autorise(session, "compte_courant", "UPDATE")) {
                         throw new SecurityException("Autorisation insuffisante pour bloquer un compte");
                     }
                     compteService.bloquerCompte(compte.getNumeroCompte());
@@ -155,7 +161,7 @@ public class AdminComptesServlet extends HttpServlet {
                     break;
                     
                 case "debloquer":
-                    if (!userSessionBean.hasPermission("compte_courant", "UPDATE")) {
+                    if (!PermissionsSession.autorise(session, "compte_courant", "UPDATE")) {
                         throw new SecurityException("Autorisation insuffisante pour débloquer un compte");
                     }
                     compteService.debloquerCompte(compte.getNumeroCompte());
@@ -164,7 +170,7 @@ public class AdminComptesServlet extends HttpServlet {
                     break;
                     
                 case "fermer":
-                    if (!userSessionBean.hasPermission("compte_courant", "DELETE")) {
+                    if (!PermissionsSession.autorise(session, "compte_courant", "DELETE")) {
                         throw new SecurityException("Autorisation insuffisante pour fermer un compte");
                     }
                     compteService.fermerCompte(compte.getNumeroCompte(), "Compte fermÃ© par l'administration");
@@ -191,4 +197,15 @@ public class AdminComptesServlet extends HttpServlet {
         
         response.sendRedirect(request.getContextPath() + "/admin/situation/comptes");
     }
+    
+    private int parsePage(String page) {
+        if (page == null || page.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(page.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
 }
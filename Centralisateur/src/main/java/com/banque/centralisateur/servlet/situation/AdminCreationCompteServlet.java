@@ -2,9 +2,9 @@ package com.banque.centralisateur.servlet.situation;
 
 import com.banque.centralisateur.config.ThymeleafConfig;
 import com.banque.centralisateur.ejb.EJBClientFactory;
+import com.banque.centralisateur.session.PermissionsSession;
 import com.banque.situationbancaire.dto.ClientDTO;
 import com.banque.situationbancaire.dto.CompteCourantDTO;
-import com.banque.situationbancaire.dto.ActionRoleDTO;
 import com.banque.situationbancaire.dto.UtilisateurDTO;
 import com.banque.situationbancaire.ejb.remote.ClientServiceRemote;
 import com.banque.situationbancaire.ejb.remote.CompteCourantServiceRemote;
@@ -55,7 +55,7 @@ public class AdminCreationCompteServlet extends HttpServlet {
         }
         
         // VÃ©rifier les autorisations ActionRole
-        if (!verifierAutorisation(session, "compte_courant", "CREATE")) {
+        if (!PermissionsSession.autorise(session, "compte_courant", "CREATE")) {
             session.setAttribute("errorMessage", "Vous n'avez pas l'autorisation de crÃ©er des comptes");
             response.sendRedirect(request.getContextPath() + "/dashboard");
             return;
@@ -119,7 +119,7 @@ public class AdminCreationCompteServlet extends HttpServlet {
         }
         
         // VÃ©rifier les autorisations ActionRole
-        if (!verifierAutorisation(session, "compte_courant", "CREATE")) {
+        if (!PermissionsSession.autorise(session, "compte_courant", "CREATE")) {
             session.setAttribute("errorMessage", "Vous n'avez pas l'autorisation de crÃ©er des comptes");
             response.sendRedirect(request.getContextPath() + "/admin/situation/nouveau-compte");
             return;
@@ -190,32 +190,4 @@ public class AdminCreationCompteServlet extends HttpServlet {
             response.sendRedirect(request.getContextPath() + "/admin/situation/nouveau-compte");
         }
     }
-    
-    /**
-     * VÃ©rifie si l'utilisateur a l'autorisation pour effectuer une action sur une table
-     */
-    @SuppressWarnings("unchecked")
-    private boolean verifierAutorisation(HttpSession session, String nomTable, String action) {
-        try {
-            UtilisateurDTO utilisateur = (UtilisateurDTO) session.getAttribute("utilisateur");
-            List<ActionRoleDTO> autorisations = (List<ActionRoleDTO>) session.getAttribute("autorisations");
-            
-            if (utilisateur == null || autorisations == null) {
-                LOGGER.warning("Utilisateur ou autorisations manquants en session");
-                return false;
-            }
-            
-            Integer roleUtilisateur = utilisateur.getRoleUtilisateur();
-            
-            // VÃ©rifier si l'utilisateur a l'autorisation pour cette action sur cette table
-            return autorisations.stream()
-                .anyMatch(auth -> nomTable.equals(auth.getNomTable()) && 
-                                action.equals(auth.getActionAutorisee()) && 
-                                roleUtilisateur.equals(auth.getRoleRequis()));
-                                
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la vÃ©rification des autorisations", e);
-            return false;
-        }
-    }
 }
@@ -0,0 +1,133 @@
+package com.banque.centralisateur.servlet.situation;
+
+import com.banque.centralisateur.config.ThymeleafConfig;
+import com.banque.centralisateur.ejb.EJBClientFactory;
+import com.banque.centralisateur.session.PermissionsSession;
+import com.banque.situationbancaire.dto.CompteCourantDTO;
+import com.banque.situationbancaire.dto.MouvementDTO;
+import com.banque.situationbancaire.dto.PageCurseurDTO;
+import com.banque.situationbancaire.ejb.remote.CompteCourantServiceRemote;
+import com.banque.situationbancaire.ejb.remote.MouvementAdminServiceRemote;
+import com.banque.situationbancaire.ejb.remote.UserSessionBeanRemote;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servlet pour l'historique des mouvements - Administration
+ * Affiche l'historique page par page (pagination par curseur)
+ */
+@WebServlet(name = "AdminHistoriqueServlet", urlPatterns = {"/admin/situation/historique"})
+public class AdminHistoriqueServlet extends HttpServlet {
+
+    private static final Logger LOGGER = Logger.getLogger(AdminHistoriqueServlet.class.getName());
+    private static final int TAILLE_PAGE = 50;
+    private TemplateEngine templateEngine;
+    private JakartaServletWebApplication application;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.application = JakartaServletWebApplication.buildApplication(getServletContext());
+        this.templateEngine = ThymeleafConfig.getTemplateEngine(getServletContext());
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("userSessionBean") == null) {
+            response.sendRedirect(request.getContextPath() + "/login");
+            return;
+        }
+
+        // Vérifier les autorisations ActionRole
+        if (!PermissionsSession.autorise(session, "mouvement", "SELECT")) {
+            session.setAttribute("errorMessage", "Vous n'avez pas l'autorisation de consulter l'historique");
+            response.sendRedirect(request.getContextPath() + "/dashboard");
+            return;
+        }
+
+        UserSessionBeanRemote userSessionBean = (UserSessionBeanRemote) session.getAttribute("userSessionBean");
+
+        IWebExchange webExchange = this.application.buildExchange(request, response);
+        WebContext context = new WebContext(webExchange);
+
+        try {
+            String compteIdStr = request.getParameter("compteId");
+            String numeroCompte = request.getParameter("numeroCompte");
+            String dateDebutStr = request.getParameter("dateDebut");
+            String dateFinStr = request.getParameter("dateFin");
+
+            CompteCourantServiceRemote compteService = EJBClientFactory.getCompteCourantService();
+            MouvementAdminServiceRemote mouvementService = EJBClientFactory.getMouvementAdminService();
+
+            // Filtre par numéro saisi (formulaire) ou par identifiant (liens des autres pages)
+            CompteCourantDTO compteSelectionne = null;
+            boolean compteIntrouvable = false;
+            if (numeroCompte != null && !numeroCompte.isBlank()) {
+                compteSelectionne = compteService.rechercherCompteParNumero(numeroCompte.trim());
+                compteIntrouvable = compteSelectionne == null;
+            } else if (compteIdStr != null && !compteIdStr.isBlank()) {
+                compteSelectionne = compteService.rechercherCompteParId(Long.parseLong(compteIdStr));
+                compteIntrouvable = compteSelectionne == null;
+            }
+
+            PageCurseurDTO<MouvementDTO> pageMouvements = compteIntrouvable ? PageCurseurDTO.<MouvementDTO>builder().build()
+                : mouvementService.findPage(
+                    compteSelectionne != null ? compteSelectionne.getIdCompte() : null,
+                    parseDate(dateDebutStr), parseDate(dateFinStr),
+                    request.getParameter("curseur"), TAILLE_PAGE, userSessionBean);
+            List<MouvementDTO> mouvements = pageMouvements.getElements();
+
+            context.setVariable("pageTitle", "Historique des Mouvements - Administration");
+            context.setVariable("currentPage", "admin-historique");
+            context.setVariable("moduleName", "Situation Bancaire");
+            if (compteIntrouvable) {
+                context.setVariable("errorMessage", "Aucun compte ne correspond à "
+                    + (numeroCompte != null && !numeroCompte.isBlank() ? "ce numéro : " + numeroCompte.trim() : "cet identifiant"));
+            }
+            context.setVariable("numeroCompte", compteSelectionne != null ? compteSelectionne.getNumeroCompte() : numeroCompte);
+            context.setVariable("compteIdSelectionne", compteSelectionne != null ? compteSelectionne.getIdCompte() : null);
+            context.setVariable("compteSelectionne", compteSelectionne);
+            context.setVariable("dateDebut", dateDebutStr);
+            context.setVariable("dateFin", dateFinStr);
+            context.setVariable("mouvements", mouvements);
+            context.setVariable("hasMouvements", !mouvements.isEmpty());
+            context.setVariable("curseurSuivant", pageMouvements.getCurseurSuivant());
+
+            response.setContentType("text/html;charset=UTF-8");
+            templateEngine.process("situation/admin-historique", context, response.getWriter());
+
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            LOGGER.log(Level.WARNING, "Paramètres d'historique invalides: " + e.getMessage(), e);
+            session.setAttribute("errorMessage", "Paramètres de recherche invalides");
+            response.sendRedirect(request.getContextPath() + "/admin/situation/comptes");
+
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors du chargement de l'historique", e);
+            session.setAttribute("errorMessage", "Impossible de charger l'historique. Veuillez réessayer.");
+            response.sendRedirect(request.getContextPath() + "/dashboard");
+        }
+    }
+
+    private LocalDate parseDate(String date) {
+        return date != null && !date.isBlank() ? LocalDate.parse(date) : null;
+    }
+}
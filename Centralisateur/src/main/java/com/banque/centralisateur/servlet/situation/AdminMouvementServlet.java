@@ -2,7 +2,9 @@ package com.banque.centralisateur.servlet.situation;
 
 import com.banque.centralisateur.config.ThymeleafConfig;
 import com.banque.centralisateur.ejb.EJBClientFactory;
+import com.banque.centralisateur.session.PermissionsSession;
 import com.banque.situationbancaire.dto.MouvementDTO;
+import com.banque.situationbancaire.dto.PageCurseurDTO;
 import com.banque.situationbancaire.ejb.remote.MouvementAdminServiceRemote;
 import com.banque.situationbancaire.ejb.remote.UserSessionBeanRemote;
 
@@ -27,6 +29,8 @@ import java.util.List;
 @WebServlet("/admin/mouvements")
 public class AdminMouvementServlet extends HttpServlet {
 
+    private static final int TAILLE_PAGE = 50;
+
     private TemplateEngine templateEngine;
     private JakartaServletWebApplication application;
 
@@ -53,8 +57,10 @@ public class AdminMouvementServlet extends HttpServlet {
             // Obtenir le service distant
             MouvementAdminServiceRemote mouvementService = EJBClientFactory.getMouvementAdminService();
             
-            // Récupérer tous les mouvements (sans cast d'entité)
-            List<MouvementDTO> mouvements = mouvementService.findAll(userSessionBean);
+            // Récupérer une page de mouvements (sans cast d'entité)
+            PageCurseurDTO<MouvementDTO> pageMouvements = mouvementService.findPage(
+                null, null, null, request.getParameter("curseur"), TAILLE_PAGE, userSessionBean);
+            List<MouvementDTO> mouvements = pageMouvements.getElements();
             
             // Utiliser Thymeleaf pour rendre la page
             IWebExchange webExchange = this.application.buildExchange(request, response);
@@ -62,9 +68,10 @@ public class AdminMouvementServlet extends HttpServlet {
             
             context.setVariable("pageTitle", "Gestion des Mouvements");
             context.setVariable("mouvements", mouvements);
-            context.setVariable("canInsert", userSessionBean.hasPermission("mouvement", "INSERT"));
-            context.setVariable("canUpdate", userSessionBean.hasPermission("mouvement", "UPDATE"));
-            context.setVariable("canDelete", userSessionBean.hasPermission("mouvement", "DELETE"));
+            context.setVariable("curseurSuivant", pageMouvements.getCurseurSuivant());
+            context.setVariable("canInsert", PermissionsSession.autorise(session, "mouvement", "INSERT"));
+            context.setVariable("canUpdate", PermissionsSession.autorise(session, "mouvement", "UPDATE"));
+            context.setVariable("canDelete", PermissionsSession.autorise(session, "mouvement", "DELETE"));
             
             response.setContentType("text/html;charset=UTF-8");
             templateEngine.process("situation/admin-mouvements", context, response.getWriter());
@@ -0,0 +1,119 @@
+package com.banque.centralisateur.servlet.situation;
+
+import com.banque.centralisateur.ejb.EJBClientFactory;
+import com.banque.centralisateur.session.PermissionsSession;
+import com.banque.situationbancaire.dto.BlocReleveDTO;
+import com.banque.situationbancaire.dto.CompteCourantDTO;
+import com.banque.situationbancaire.ejb.remote.OperationServiceRemote;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servlet d'export du relevé d'un compte au format CSV - Administration
+ * Le relevé est écrit bloc par bloc dans la réponse : la mémoire utilisée
+ * ne dépend pas du nombre de mouvements exportés
+ */
+@WebServlet(name = "AdminReleveServlet", urlPatterns = {"/admin/situation/releve"})
+public class AdminReleveServlet extends HttpServlet {
+
+    private static final Logger LOGGER = Logger.getLogger(AdminReleveServlet.class.getName());
+    private static final int TAILLE_BLOC = 5000;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("userSessionBean") == null) {
+            response.sendRedirect(request.getContextPath() + "/login");
+            return;
+        }
+
+        // Vérifier les autorisations ActionRole
+        if (!PermissionsSession.autorise(session, "mouvement", "SELECT")) {
+            session.setAttribute("errorMessage", "Vous n'avez pas l'autorisation d'exporter les relevés");
+            response.sendRedirect(request.getContextPath() + "/dashboard");
+            return;
+        }
+
+        String numeroCompte;
+        LocalDate dateDebut;
+        LocalDate dateFin;
+        try {
+            numeroCompte = resoudreNumeroCompte(request);
+            dateDebut = parseDate(request.getParameter("dateDebut"));
+            dateFin = parseDate(request.getParameter("dateFin"));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            LOGGER.log(Level.WARNING, "Paramètres d'export invalides: " + e.getMessage(), e);
+            session.setAttribute("errorMessage", "Paramètres d'export invalides");
+            response.sendRedirect(request.getContextPath() + "/admin/situation/historique");
+            return;
+        }
+
+        LOGGER.info("Export du relevé CSV du compte " + numeroCompte);
+        OperationServiceRemote operationService = EJBClientFactory.getOperationService();
+
+        // Premier bloc avant l'envoi des en-têtes : une erreur peut encore être redirigée
+        BlocReleveDTO bloc;
+        try {
+            bloc = operationService.exporterReleveCsv(numeroCompte, dateDebut, dateFin, null, TAILLE_BLOC);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de l'export du relevé", e);
+            session.setAttribute("errorMessage", "Impossible d'exporter le relevé. Veuillez réessayer.");
+            response.sendRedirect(request.getContextPath() + "/admin/situation/historique");
+            return;
+        }
+
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition",
+            "attachment; filename=\"releve_" + numeroCompte + "_" + LocalDate.now() + ".csv\"");
+
+        PrintWriter writer = response.getWriter();
+        writer.write('\uFEFF'); // BOM pour l'ouverture directe dans Excel
+        long lignes = 0;
+        while (true) {
+            writer.write(bloc.getContenuCsv());
+            writer.flush();
+            lignes += bloc.getNombreLignes();
+            if (bloc.getCurseurSuivant() == null) {
+                break;
+            }
+            bloc = operationService.exporterReleveCsv(numeroCompte, dateDebut, dateFin,
+                bloc.getCurseurSuivant(), TAILLE_BLOC);
+        }
+        LOGGER.info("Relevé du compte " + numeroCompte + " exporté : " + lignes + " mouvements");
+    }
+
+    private String resoudreNumeroCompte(HttpServletRequest request) {
+        String numeroCompte = request.getParameter("numeroCompte");
+        if (numeroCompte != null && !numeroCompte.isBlank()) {
+            return numeroCompte.trim();
+        }
+        String compteIdStr = request.getParameter("compteId");
+        if (compteIdStr == null || compteIdStr.isBlank()) {
+            throw new IllegalArgumentException("Compte non spécifié");
+        }
+        CompteCourantDTO compte = EJBClientFactory.getCompteCourantService()
+            .rechercherCompteParId(Long.parseLong(compteIdStr));
+        if (compte == null) {
+            throw new IllegalArgumentException("Compte introuvable");
+        }
+        return compte.getNumeroCompte();
+    }
+
+    private LocalDate parseDate(String date) {
+        return date != null && !date.isBlank() ? LocalDate.parse(date) : null;
+    }
+}
@@ -2,9 +2,9 @@ package com.banque.centralisateur.servlet.situation;
 
 import com.banque.centralisateur.config.ThymeleafConfig;
 import com.banque.centralisateur.ejb.EJBClientFactory;
+import com.banque.centralisateur.session.PermissionsSession;
 import com.banque.situationbancaire.dto.CompteCourantDTO;
 import com.banque.situationbancaire.dto.MouvementDTO;
-import com.banque.situationbancaire.dto.ActionRoleDTO;
 import com.banque.situationbancaire.dto.UtilisateurDTO;
 import com.banque.situationbancaire.ejb.remote.CompteCourantServiceRemote;
 import com.banque.situationbancaire.ejb.remote.OperationServiceRemote;
@@ -55,7 +55,7 @@ public class AdminRetraitServlet extends HttpServlet {
         }
         
         // VÃ©rifier les autorisations ActionRole
-        if (!verifierAutorisation(session, "mouvement", "CREATE")) {
+        if (!PermissionsSession.autorise(session, "mouvement", "CREATE")) {
             session.setAttribute("errorMessage", "Vous n'avez pas l'autorisation d'effectuer des retraits");
             response.sendRedirect(request.getContextPath() + "/dashboard");
             return;
@@ -113,7 +113,7 @@ public class AdminRetraitServlet extends HttpServlet {
         }
         
         // VÃ©rifier les autorisations ActionRole
-        if (!verifierAutorisation(session, "operation", "CREATE")) {
+        if (!PermissionsSession.autorise(session, "operation", "CREATE")) {
             session.setAttribute("errorMessage", "Vous n'avez pas l'autorisation d'effectuer des retraits");
             response.sendRedirect(request.getContextPath() + "/admin/situation/retrait");
             return;
@@ -190,32 +190,4 @@ public class AdminRetraitServlet extends HttpServlet {
             response.sendRedirect(request.getContextPath() + "/admin/situation/retrait");
         }
     }
-    
-    /**
-     * VÃ©rifie si l'utilisateur a l'autorisation pour effectuer une action sur une table
-     */
-    @SuppressWarnings("unchecked")
-    private boolean verifierAutorisation(HttpSession session, String nomTable, String action) {
-        try {
-            UtilisateurDTO utilisateur = (UtilisateurDTO) session.getAttribute("utilisateur");
-            List<ActionRoleDTO> autorisations = (List<ActionRoleDTO>) session.getAttribute("autorisations");
-            
-            if (utilisateur == null || autorisations == null) {
-                LOGGER.warning("Utilisateur ou autorisations manquants en session");
-                return false;
-            }
-            
-            Integer roleUtilisateur = utilisateur.getRoleUtilisateur();
-            
-            // VÃ©rifier si l'utilisateur a l'autorisation pour cette action sur cette table
-            return autorisations.stream()
-                .anyMatch(auth -> nomTable.equals(auth.getNomTable()) && 
-                                action.equals(auth.getActionAutorisee()) && 
-                                roleUtilisateur.equals(auth.getRoleRequis()));
-                                
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la vÃ©rification des autorisations", e);
-            return false;
-        }
-    }
 }
@@ -2,11 +2,11 @@ package com.banque.centralisateur.servlet.situation;
 
 import com.banque.centralisateur.config.ThymeleafConfig;
 import com.banque.centralisateur.ejb.EJBClientFactory;
+import com.banque.centralisateur.session.PermissionsSession;
 import com.banque.situationbancaire.dto.CompteCourantDTO;
 import com.banque.situationbancaire.dto.VirementDTO;
 
 import com.banque.situationbancaire.dto.UtilisateurDTO;
-import com.banque.situationbancaire.ejb.remote.UserSessionBeanRemote;
 import com.banque.situationbancaire.ejb.remote.CompteCourantServiceRemote;
 import com.banque.situationbancaire.ejb.remote.OperationServiceRemote;
 
@@ -56,8 +56,7 @@ public class AdminVirementServlet extends HttpServlet {
         }
         
         // VÃ©rifier les autorisations ActionRole
-        UserSessionBeanRemote userSessionBean = (UserSessionBeanRemote) session.getAttribute("userSessionBean");
-        if (!userSessionBean.hasPermission("virement", "CREATE")) {
+        if (!PermissionsSession.autorise(session, "virement", "CREATE")) {
             session.setAttribute("errorMessage", "Vous n'avez pas l'autorisation d'effectuer des virements");
             response.sendRedirect(request.getContextPath() + "/dashboard");
             return;
@@ -115,8 +114,7 @@ public class AdminVirementServlet extends HttpServlet {
         }
         
         // VÃ©rifier les autorisations ActionRole
-        UserSessionBeanRemote userSessionBean = (UserSessionBeanRemote) session.getAttribute("userSessionBean");
-        if (!userSessionBean.hasPermission("operation", "CREATE")) {
+        if (!PermissionsSession.autorise(session, "operation", "CREATE")) {
             session.setAttribute("errorMessage", "Vous n'avez pas l'autorisation d'effectuer des virements");
             response.sendRedirect(request.getContextPath() + "/admin/situation/virement");
             return;
@@ -175,8 +173,7 @@ public class AdminVirementServlet extends HttpServlet {
             }
             
             // RÃ©cupÃ©rer l'ID de l'utilisateur admin
-            UserSessionBeanRemote userSessionBean = (UserSessionBeanRemote) session.getAttribute("userSessionBean");
-            UtilisateurDTO utilisateur = userSessionBean.getUtilisateur();
+            UtilisateurDTO utilisateur = (UtilisateurDTO) session.getAttribute("utilisateur");
             Long idAdministrateur = utilisateur != null ? utilisateur.getIdUtilisateur() : 1L;
             
             // Effectuer le virement via EJB avec traÃ§abilitÃ© admin
@@ -214,33 +211,4 @@ public class AdminVirementServlet extends HttpServlet {
             response.sendRedirect(request.getContextPath() + "/admin/situation/virement");
         }
     }
-    
-    /**
-     * VÃ©rifie si l'utilisateur a l'autorisation pour effectuer une action sur une table
-     */
-    @SuppressWarnings("unchecked")
-    private boolean verifierAutorisation(HttpSession session, String nomTable, String action) {
-        try {
-            UserSessionBeanRemote userSessionBean = (UserSessionBeanRemote) session.getAttribute("userSessionBean");
-            UtilisateurDTO utilisateur = userSessionBean.getUtilisateur();
-            List<ActionRoleDTO> autorisations = (List<ActionRoleDTO>) session.getAttribute("autorisations");
-            
-            if (utilisateur == null || autorisations == null) {
-                LOGGER.warning("Utilisateur ou autorisations manquants en session");
-                return false;
-            }
-            
-            Integer roleUtilisateur = utilisateur.getRoleUtilisateur();
-            
-            // VÃ©rifier si l'utilisateur a l'autorisation pour cette action sur cette table
-            return autorisations.stream()
-                .anyMatch(auth -> nomTable.equals(auth.getNomTable()) && 
-                                action.equals(auth.getActionAutorisee()) && 
-                                roleUtilisateur.equals(auth.getRoleRequis()));
-                                
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de la vÃ©rification des autorisations", e);
-            return false;
-        }
-    }
 }
@@ -0,0 +1,83 @@
+package com.banque.centralisateur.servlet.utils;
+
+import com.banque.centralisateur.config.ThymeleafConfig;
+import com.banque.centralisateur.ejb.EJBClientFactory;
+import com.banque.centralisateur.ejb.PretEJBClientFactory;
+import com.banque.centralisateur.resilience.Disjoncteur;
+import com.banque.centralisateur.resilience.Disjoncteurs;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Supervision des services distants : état des disjoncteurs, appels en cours,
+ * refus et reprises, ainsi que les compteurs des résolutions JNDI
+ * URL : /admin/resilience
+ */
+@WebServlet(name = "AdminResilienceServlet", urlPatterns = {"/admin/resilience"})
+public class AdminResilienceServlet extends HttpServlet {
+
+    private TemplateEngine templateEngine;
+    private JakartaServletWebApplication application;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.application = JakartaServletWebApplication.buildApplication(getServletContext());
+        this.templateEngine = ThymeleafConfig.getTemplateEngine(getServletContext());
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("userSessionBean") == null) {
+            response.sendRedirect(request.getContextPath() + "/login");
+            return;
+        }
+
+        try {
+            IWebExchange webExchange = this.application.buildExchange(request, response);
+            WebContext context = new WebContext(webExchange);
+
+            List<Map<String, Object>> services = new ArrayList<>();
+            for (Disjoncteur disjoncteur : Disjoncteurs.tous()) {
+                Map<String, Object> service = new LinkedHashMap<>();
+                service.put("nom", disjoncteur.getNom());
+                service.put("etat", disjoncteur.getEtat().name());
+                service.put("statistiques", disjoncteur.getStatistiques());
+                services.add(service);
+            }
+
+            Map<String, Map<String, Long>> resolutions = new LinkedHashMap<>();
+            resolutions.put("SituationBancaire", EJBClientFactory.getStatistiques());
+            resolutions.put("Prêt", PretEJBClientFactory.getStatistiques());
+
+            String utilisateurLogin = (String) session.getAttribute("utilisateurLogin");
+            context.setVariable("pageTitle", "Supervision des services - Administration");
+            context.setVariable("currentPage", "admin-resilience");
+            context.setVariable("currentUser", utilisateurLogin != null ? utilisateurLogin : "Admin");
+            context.setVariable("services", services);
+            context.setVariable("resolutions", resolutions);
+
+            response.setContentType("text/html;charset=UTF-8");
+            templateEngine.process("utils/resilience", context, response.getWriter());
+        } catch (Exception e) {
+            throw new ServletException("Erreur lors du rendu de la supervision des services", e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.banque.centralisateur.servlet.utils;
 
+import com.banque.centralisateur.client.EpargneRestClient;
 import com.banque.centralisateur.config.ThymeleafConfig;
+import com.banque.centralisateur.service.TableauDeBordService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -17,18 +19,21 @@ import java.io.IOException;
 /**
  * Servlet centralisé pour le tableau de bord administrateur
  * URL de base : /dashboard
+ * Les chiffres des trois modules sont obtenus en parallèle (voir TableauDeBordService)
  */
 @WebServlet(name = "DashboardServlet", urlPatterns = {"/dashboard"})
 public class DashboardServlet extends HttpServlet {
 
     private TemplateEngine templateEngine;
     private JakartaServletWebApplication application;
+    private TableauDeBordService tableauDeBordService;
 
     @Override
     public void init() throws ServletException {
         super.init();
         this.application = JakartaServletWebApplication.buildApplication(getServletContext());
         this.templateEngine = ThymeleafConfig.getTemplateEngine(getServletContext());
+        this.tableauDeBordService = new TableauDeBordService(new EpargneRestClient());
     }
 
     @Override
@@ -52,6 +57,8 @@ public class DashboardServlet extends HttpServlet {
             String utilisateurLogin = (String) session.getAttribute("utilisateurLogin");
             context.setVariable("pageTitle", "Dashboard - Administration Bancaire");
             context.setVariable("currentUser", utilisateurLogin != null ? utilisateurLogin : "Admin");
+            context.setVariable("currentPage", "dashboard");
+            context.setVariable("tableauDeBord", tableauDeBordService.agreger());
             
             response.setContentType("text/html;charset=UTF-8");
             templateEngine.process("utils/dashboard", context, response.getWriter());
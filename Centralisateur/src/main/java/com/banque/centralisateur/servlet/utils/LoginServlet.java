@@ -2,6 +2,7 @@ package com.banque.centralisateur.servlet.utils;
 
 import com.banque.centralisateur.config.ThymeleafConfig;
 import com.banque.centralisateur.ejb.EJBClientFactory;
+import com.banque.centralisateur.session.PermissionsSession;
 import com.banque.situationbancaire.dto.LoginRequestDTO;
 import com.banque.situationbancaire.dto.LoginResponseDTO;
 import com.banque.situationbancaire.ejb.remote.AuthenticationServiceRemote;
@@ -82,7 +83,11 @@ public class LoginServlet extends HttpServlet {
                 // Récupérer et stocker l'utilisateur et les autorisations
                 httpSession.setAttribute("utilisateur", loginResponse.getUtilisateur());
                 httpSession.setAttribute("utilisateurLogin", loginResponse.getUtilisateur().getLoginUtilisateur());
-                httpSession.setAttribute("autorisations", userSessionBean.getActionsAutorisees());
+                // Copie locale des permissions : les servlets ne rappellent plus le bean distant
+                httpSession.setAttribute(PermissionsSession.ATTRIBUT, PermissionsSession.creer(
+                    userSessionBean.getActionsAutorisees(),
+                    loginResponse.getUtilisateur().getRoleUtilisateur(),
+                    userSessionBean.getVersionPermissions()));
 
                 // Rediriger vers le dashboard admin
                 response.sendRedirect(request.getContextPath() + "/dashboard");
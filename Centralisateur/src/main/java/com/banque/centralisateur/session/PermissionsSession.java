@@ -0,0 +1,136 @@
+package com.banque.centralisateur.session;
+
+import com.banque.situationbancaire.dto.ActionRoleDTO;
+import com.banque.situationbancaire.ejb.remote.UserSessionBeanRemote;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Copie locale, immuable, des permissions de l'utilisateur connecté, conservée
+ * dans la session HTTP : chaque table est associée à l'ensemble (BitSet) des
+ * actions que le rôle de l'utilisateur y est autorisé à faire. Les vérifications
+ * des servlets se font ainsi sans appel au UserSessionBean distant.
+ * La copie est revalidée auprès du bean distant (AuthenticationFilter) au plus
+ * une fois par intervalle (propriété session.permissions.revalidationMs) ; elle
+ * est rechargée si la version des permissions a changé entre-temps.
+ * Mêmes règles que UserSessionBean.hasPermission : table et action comparées
+ * sans tenir compte de la casse, action réservée au rôle de l'utilisateur.
+ */
+public final class PermissionsSession implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ATTRIBUT = "permissions";
+
+    private static final long INTERVALLE_REVALIDATION_MS =
+        Long.getLong("session.permissions.revalidationMs", 60000L);
+
+    private final long version;
+    private final Integer role;
+    private final Map<String, Integer> indexActions;
+    private final Map<String, BitSet> actionsParTable;
+    private final long dateValidation;
+
+    private PermissionsSession(long version, Integer role, Map<String, Integer> indexActions,
+                               Map<String, BitSet> actionsParTable, long dateValidation) {
+        this.version = version;
+        this.role = role;
+        this.indexActions = indexActions;
+        this.actionsParTable = actionsParTable;
+        this.dateValidation = dateValidation;
+    }
+
+    /**
+     * Construit la copie à partir des actions autorisées du rôle
+     * @param actions Actions renvoyées par UserSessionBean.getActionsAutorisees()
+     * @param role Rôle de l'utilisateur (seules ses actions sont retenues)
+     * @param version Version des permissions de la session distante
+     */
+    public static PermissionsSession creer(List<ActionRoleDTO> actions, Integer role, long version) {
+        Map<String, Integer> indexActions = new HashMap<>();
+        Map<String, BitSet> actionsParTable = new HashMap<>();
+        if (actions != null && role != null) {
+            for (ActionRoleDTO action : actions) {
+                if (action.getNomTable() == null || action.getActionAutorisee() == null
+                        || !role.equals(action.getRoleRequis())) {
+                    continue;
+                }
+                int index = indexActions.computeIfAbsent(cle(action.getActionAutorisee()), a -> indexActions.size());
+                actionsParTable.computeIfAbsent(cle(action.getNomTable()), t -> new BitSet()).set(index);
+            }
+        }
+        return new PermissionsSession(version, role, Collections.unmodifiableMap(indexActions),
+            Collections.unmodifiableMap(actionsParTable), System.currentTimeMillis());
+    }
+
+    /**
+     * Charge la copie depuis la session distante (deux appels distants)
+     */
+    public static PermissionsSession charger(UserSessionBeanRemote userSessionBean, long version) {
+        return creer(userSessionBean.getActionsAutorisees(), userSessionBean.getUserRole(), version);
+    }
+
+    /**
+     * @return La copie conservée dans la session HTTP, ou null
+     */
+    public static PermissionsSession depuis(HttpSession session) {
+        return session != null ? (PermissionsSession) session.getAttribute(ATTRIBUT) : null;
+    }
+
+    /**
+     * Vérifie une permission d'après la copie de la session HTTP
+     * @return false si la session n'a pas de permissions
+     */
+    public static boolean autorise(HttpSession session, String nomTable, String action) {
+        PermissionsSession permissions = depuis(session);
+        return permissions != null && permissions.hasPermission(nomTable, action);
+    }
+
+    /**
+     * Vérifie si l'utilisateur a la permission d'effectuer une action sur une table
+     */
+    public boolean hasPermission(String nomTable, String action) {
+        if (nomTable == null || action == null) {
+            return false;
+        }
+        Integer index = indexActions.get(cle(action));
+        if (index == null) {
+            return false;
+        }
+        BitSet actions = actionsParTable.get(cle(nomTable));
+        return actions != null && actions.get(index);
+    }
+
+    /**
+     * @return true si l'intervalle de revalidation est écoulé
+     */
+    public boolean aRevalider(long maintenant) {
+        return maintenant - dateValidation >= INTERVALLE_REVALIDATION_MS;
+    }
+
+    /**
+     * @return La même copie, marquée comme revalidée à cet instant
+     */
+    public PermissionsSession revalidee(long maintenant) {
+        return new PermissionsSession(version, role, indexActions, actionsParTable, maintenant);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Integer getRole() {
+        return role;
+    }
+
+    private static String cle(String valeur) {
+        return valeur.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,182 @@
+package com.banque.centralisateur.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.json.JsonObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lecture des réponses de l'API Épargne, simulée par un serveur HTTP local.
+ * Les réglages du client et de son disjoncteur sont lus au chargement des
+ * classes : ils sont posés avant le premier appel.
+ */
+class EpargneRestClientTest {
+
+    private static final long DELAI_REQUETE_MS = 300;
+
+    private static HttpServer serveur;
+    private static final Map<String, Reponse> reponses = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> requetes = new ConcurrentHashMap<>();
+
+    private EpargneRestClient client;
+
+    @BeforeAll
+    static void demarrerServeur() throws IOException {
+        serveur = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serveur.createContext("/api", EpargneRestClientTest::repondre);
+        // Une réponse en attente n'empêche pas de servir les suivantes
+        serveur.setExecutor(Executors.newCachedThreadPool());
+        serveur.start();
+
+        System.setProperty("epargne.api.url", "http://localhost:" + serveur.getAddress().getPort() + "/api");
+        System.setProperty("epargne.http.requestTimeoutMs", String.valueOf(DELAI_REQUETE_MS));
+        // Deux tentatives par lecture, sans ouverture du circuit entre les tests
+        System.setProperty("resilience.epargne.tentatives", "2");
+        System.setProperty("resilience.epargne.delaiRepriseMs", "1");
+        System.setProperty("resilience.epargne.seuilEchecs", "1000");
+    }
+
+    @AfterAll
+    static void arreterServeur() {
+        serveur.stop(0);
+    }
+
+    @BeforeEach
+    void preparer() {
+        reponses.clear();
+        requetes.clear();
+        client = new EpargneRestClient();
+    }
+
+    @Test
+    void listeDansLEnveloppe() {
+        reponses.put("/api/comptesepargne/client/7", new Reponse(200,
+            "{\"success\":true,\"message\":\"ok\",\"data\":[{\"id\":1,\"solde\":1500.5},{\"id\":2,\"solde\":0}],\"total\":2}"));
+
+        List<JsonObject> comptes = client.getComptesClient(7L);
+
+        assertEquals(2, comptes.size());
+        assertEquals(1, comptes.get(0).getInt("id"));
+        assertEquals(2, comptes.get(1).getInt("id"));
+    }
+
+    @Test
+    void objetSeul() {
+        reponses.put("/api/comptesepargne/3", new Reponse(200,
+            "{\"id\":3,\"numeroCompte\":\"EP-0003\",\"solde\":25000.75}"));
+
+        JsonObject compte = client.getCompteDetails(3L);
+
+        assertEquals(3, compte.getInt("id"));
+        assertEquals("EP-0003", compte.getString("numeroCompte"));
+    }
+
+    @Test
+    void listeRefuseeParLApi() {
+        reponses.put("/api/comptesepargne", new Reponse(200,
+            "{\"success\":false,\"message\":\"Accès refusé\",\"data\":[{\"id\":1}]}"));
+
+        assertTrue(client.getAllComptes().isEmpty());
+    }
+
+    @Test
+    void erreurServeurRejoueeUneFoisPuisListeVide() {
+        reponses.put("/api/typescomptes/actifs", new Reponse(503, "{\"success\":false}"));
+
+        assertTrue(client.getTypesComptesActifs().isEmpty());
+        assertEquals(2, requetes.get("/api/typescomptes/actifs").get());
+    }
+
+    @Test
+    void delaiDepasse() {
+        reponses.put("/api/comptesepargne/9", new Reponse(200, "{\"id\":9}", 3 * DELAI_REQUETE_MS));
+
+        long debut = System.currentTimeMillis();
+        assertNull(client.getCompteDetails(9L));
+        assertNull(client.getCompteDetailsAsync(9L).join());
+        // Deux tentatives en lecture synchrone, une seule en asynchrone
+        assertTrue(System.currentTimeMillis() - debut < 6 * DELAI_REQUETE_MS);
+    }
+
+    @Test
+    void delaiDepassePendantLaLectureDuCorps() {
+        // En-têtes envoyés aussitôt, puis le corps s'interrompt à mi-chemin
+        reponses.put("/api/comptesepargne/10", new Reponse(200, "{\"id\":10,\"numeroCompte\":\"EP-0010\"}",
+            0, 10 * DELAI_REQUETE_MS));
+
+        long debut = System.currentTimeMillis();
+        assertNull(client.getCompteDetails(10L));
+        assertNull(client.getCompteDetailsAsync(10L).join());
+        assertTrue(System.currentTimeMillis() - debut < 6 * DELAI_REQUETE_MS);
+    }
+
+    private static void repondre(HttpExchange echange) throws IOException {
+        String chemin = echange.getRequestURI().getPath();
+        requetes.computeIfAbsent(chemin, c -> new AtomicInteger()).incrementAndGet();
+        Reponse reponse = reponses.getOrDefault(chemin, new Reponse(404, "{\"success\":false}"));
+        try {
+            if (reponse.attenteMs > 0) {
+                Thread.sleep(reponse.attenteMs);
+            }
+            byte[] corps = reponse.corps.getBytes(StandardCharsets.UTF_8);
+            echange.getResponseHeaders().add("Content-Type", "application/json");
+            echange.sendResponseHeaders(reponse.statut, corps.length);
+            try (OutputStream sortie = echange.getResponseBody()) {
+                if (reponse.pauseCorpsMs > 0) {
+                    sortie.write(corps, 0, corps.length / 2);
+                    sortie.flush();
+                    Thread.sleep(reponse.pauseCorpsMs);
+                    sortie.write(corps, corps.length / 2, corps.length - corps.length / 2);
+                } else {
+                    sortie.write(corps);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client parti après le délai dépassé
+        } finally {
+            echange.close();
+        }
+    }
+
+    private static final class Reponse {
+        private final int statut;
+        private final String corps;
+        private final long attenteMs;
+        private final long pauseCorpsMs;
+
+        private Reponse(int statut, String corps) {
+            this(statut, corps, 0);
+        }
+
+        private Reponse(int statut, String corps, long attenteMs) {
+            this(statut, corps, attenteMs, 0);
+        }
+
+        private Reponse(int statut, String corps, long attenteMs, long pauseCorpsMs) {
+            this.statut = statut;
+            this.corps = corps;
+            this.attenteMs = attenteMs;
+            this.pauseCorpsMs = pauseCorpsMs;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.banque.centralisateur.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Transitions d'état du disjoncteur
+ */
+class DisjoncteurTest {
+
+    private static final long OUVERTURE_MS = 100;
+
+    // Ouverture à la première défaillance, sans reprise
+    private final Disjoncteur disjoncteur = new Disjoncteur("test", 10, 50, 1, OUVERTURE_MS, 1, 1,
+        erreur -> erreur instanceof IOException);
+
+    @Test
+    void succesTardifNeRefermePasLeCircuitOuvert() throws Exception {
+        CountDownLatch appelEnCours = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+
+        // Appel lent admis pendant que le circuit est fermé
+        CompletableFuture<String> lent = CompletableFuture.supplyAsync(() -> disjoncteur.executer(() -> {
+            appelEnCours.countDown();
+            attendre(liberer);
+            return "ok";
+        }, true));
+        appelEnCours.await();
+
+        ouvrir();
+
+        liberer.countDown();
+        assertEquals("ok", lent.join());
+        assertEquals(Disjoncteur.Etat.OUVERT, disjoncteur.getEtat());
+        assertThrows(ServiceIndisponibleException.class, () -> disjoncteur.executer(() -> "refusé", true));
+    }
+
+    @Test
+    void succesTardifPendantLAppelDeTestNeRefermePasLeCircuit() throws Exception {
+        CountDownLatch lentEnCours = new CountDownLatch(1);
+        CountDownLatch libererLent = new CountDownLatch(1);
+        CountDownLatch testEnCours = new CountDownLatch(1);
+        CountDownLatch libererTest = new CountDownLatch(1);
+
+        // Appel lent admis pendant que le circuit est fermé
+        CompletableFuture<String> lent = CompletableFuture.supplyAsync(() -> disjoncteur.executer(() -> {
+            lentEnCours.countDown();
+            attendre(libererLent);
+            return "lent";
+        }, true));
+        lentEnCours.await();
+
+        ouvrir();
+        Thread.sleep(OUVERTURE_MS + 20);
+
+        // Appel de test admis, encore sans réponse
+        CompletableFuture<String> test = CompletableFuture.supplyAsync(() -> disjoncteur.executer(() -> {
+            testEnCours.countDown();
+            attendre(libererTest);
+            return "test";
+        }, true));
+        testEnCours.await();
+        assertEquals(Disjoncteur.Etat.DEMI_OUVERT, disjoncteur.getEtat());
+
+        // L'appel lent réussit pendant le test : le circuit reste demi-ouvert
+        libererLent.countDown();
+        assertEquals("lent", lent.join());
+        assertEquals(Disjoncteur.Etat.DEMI_OUVERT, disjoncteur.getEtat());
+        assertEquals(1L, disjoncteur.getStatistiques().get("echecsConsecutifs"));
+        assertThrows(ServiceIndisponibleException.class, () -> disjoncteur.executer(() -> "refusé", true));
+
+        // Seule la réussite de l'appel de test referme le circuit
+        libererTest.countDown();
+        assertEquals("test", test.join());
+        assertEquals(Disjoncteur.Etat.FERME, disjoncteur.getEtat());
+        assertEquals(0L, disjoncteur.getStatistiques().get("echecsConsecutifs"));
+    }
+
+    @Test
+    void appelDeTestReussiRefermeLeCircuit() throws Exception {
+        ouvrir();
+        Thread.sleep(OUVERTURE_MS + 20);
+
+        assertEquals("ok", disjoncteur.executer(() -> "ok", true));
+        assertEquals(Disjoncteur.Etat.FERME, disjoncteur.getEtat());
+    }
+
+    @Test
+    void appelDeTestEnEchecRouvreLeCircuit() throws Exception {
+        ouvrir();
+        Thread.sleep(OUVERTURE_MS + 20);
+
+        ouvrir();
+        assertThrows(ServiceIndisponibleException.class, () -> disjoncteur.executer(() -> "refusé", true));
+    }
+
+    private static void attendre(CountDownLatch signal) {
+        try {
+            signal.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ouvrir() {
+        assertThrows(IOException.class, () -> disjoncteur.executer(() -> {
+            throw new IOException("connexion refusée");
+        }, true));
+        assertEquals(Disjoncteur.Etat.OUVERT, disjoncteur.getEtat());
+    }
+}
@@ -0,0 +1,81 @@
+package com.banque.centralisateur.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pool des appels bloquants du tableau de bord : saturé, il refuse l'appel
+ * (source indisponible) ; un appel expiré libère son thread
+ */
+class TableauDeBordServiceTest {
+
+    private static final long TIMEOUT_MS = 300;
+
+    @BeforeAll
+    static void configurer() {
+        // Lu au chargement de la classe : un thread, une place en file
+        System.setProperty("dashboard.threads", "1");
+        System.setProperty("dashboard.fileAttente", "1");
+        System.setProperty("dashboard.timeoutMs", Long.toString(TIMEOUT_MS));
+    }
+
+    @Test
+    void poolSatureSignaleLaSourceIndisponibleSansAttendre() throws Exception {
+        CountDownLatch appelEnCours = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+
+        CompletableFuture<String> enCours = TableauDeBordService.appelBloquant(() -> {
+            appelEnCours.countDown();
+            attendre(liberer);
+            return "premier";
+        });
+        appelEnCours.await();
+        CompletableFuture<String> enFile = TableauDeBordService.appelBloquant(() -> "second");
+
+        long debut = System.nanoTime();
+        String refuse = TableauDeBordService.source("test", TableauDeBordService.appelBloquant(() -> "refusé")).join();
+        long duree = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut);
+
+        assertNull(refuse);
+        assertTrue(duree < TIMEOUT_MS, "refus attendu sans délai, obtenu en " + duree + " ms");
+
+        liberer.countDown();
+        assertEquals("premier", enCours.join());
+        assertEquals("second", enFile.join());
+    }
+
+    @Test
+    void appelExpireEstInterrompu() throws Exception {
+        CountDownLatch interrompu = new CountDownLatch(1);
+
+        String resultat = TableauDeBordService.source("test", TableauDeBordService.<String>appelBloquant(() -> {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrompu.countDown();
+            }
+            return "trop tard";
+        })).join();
+
+        assertNull(resultat);
+        assertTrue(interrompu.await(1, TimeUnit.SECONDS), "le thread de l'appel expiré n'a pas été interrompu");
+        // Le thread est de nouveau disponible
+        assertEquals("ok", TableauDeBordService.appelBloquant(() -> "ok").get(1, TimeUnit.SECONDS));
+    }
+
+    private static void attendre(CountDownLatch verrou) {
+        try {
+            verrou.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -175,26 +175,14 @@ public class EpargneAdminController : ControllerBase
     }
 
     /// <summary>
-    /// Récupère les statistiques des comptes épargne
+    /// Récupère les statistiques des comptes épargne (agrégées en base)
     /// </summary>
     [HttpGet("statistiques")]
-    public async Task<ActionResult<object>> GetStatistiques()
+    public async Task<ActionResult<ResumeEpargneDTO>> GetStatistiques()
     {
         try
         {
-            var comptes = await _compteService.GetAllComptesAsync();
-            var clients = await _clientService.GetAllClientsAsync();
-
-            var statistiques = new
-            {
-                NombreClients = clients.Count(),
-                NombreComptes = comptes.Count(),
-                SoldeTotal = comptes.Sum(c => c.Solde),
-                SoldeMoyen = comptes.Any() ? comptes.Average(c => c.Solde) : 0,
-                ComptesParStatut = comptes.GroupBy(c => c.Statut)
-                    .ToDictionary(g => g.Key, g => g.Count())
-            };
-
+            var statistiques = await _compteService.GetResumeAsync();
             return Ok(statistiques);
         }
         catch (Exception ex)
@@ -0,0 +1,13 @@
+namespace Epargne.Models.DTOs;
+
+/// <summary>
+/// DTO du résumé des comptes épargne (tableau de bord)
+/// </summary>
+public class ResumeEpargneDTO
+{
+    public int NombreClients { get; set; }
+    public int NombreComptes { get; set; }
+    public decimal SoldeTotal { get; set; }
+    public decimal SoldeMoyen { get; set; }
+    public Dictionary<string, int> ComptesParStatut { get; set; } = new();
+}
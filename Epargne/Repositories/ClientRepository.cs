@@ -19,6 +19,7 @@ public interface IClientRepository
     Task DeleteAsync(long id);
     Task<bool> ExistsByEmailAsync(string email);
     Task<bool> ExistsByNumCinAsync(string numCin);
+    Task<int> CountAsync();
 }
 
 public class ClientRepository : IClientRepository
@@ -98,4 +99,9 @@ public class ClientRepository : IClientRepository
     {
         return await _context.Clients.AnyAsync(c => c.NumCin == numCin);
     }
+
+    public async Task<int> CountAsync()
+    {
+        return await _context.Clients.CountAsync();
+    }
 }
@@ -1,6 +1,7 @@
 using Microsoft.EntityFrameworkCore;
 using Epargne.Data;
 using Epargne.Models.Entities;
+using Epargne.Models.Enums;
 
 namespace Epargne.Repositories;
 
@@ -16,6 +17,7 @@ public interface ICompteEpargneRepository
     Task<CompteEpargne> CreateAsync(CompteEpargne compte);
     Task<CompteEpargne> UpdateAsync(CompteEpargne compte);
     Task DeleteAsync(int id);
+    Task<Dictionary<CompteStatut, (int Nombre, decimal SoldeTotal)>> CompterParStatutAsync();
 }
 
 public class CompteEpargneRepository : ICompteEpargneRepository
@@ -84,4 +86,16 @@ public class CompteEpargneRepository : ICompteEpargneRepository
             await _context.SaveChangesAsync();
         }
     }
+
+    /// <summary>
+    /// Nombre de comptes et solde total par statut, calculés en base (GROUP BY)
+    /// </summary>
+    public async Task<Dictionary<CompteStatut, (int Nombre, decimal SoldeTotal)>> CompterParStatutAsync()
+    {
+        var lignes = await _context.ComptesEpargne
+            .GroupBy(c => c.Statut)
+            .Select(g => new { Statut = g.Key, Nombre = g.Count(), SoldeTotal = g.Sum(c => c.Solde) })
+            .ToListAsync();
+        return lignes.ToDictionary(l => l.Statut, l => (l.Nombre, l.SoldeTotal));
+    }
 }
@@ -21,6 +21,7 @@ public interface ICompteEpargneService
     Task<OperationEpargneDTO> EffectuerRetraitAsync(RetraitDTO retrait);
     Task<IEnumerable<OperationEpargneDTO>> GetHistoriqueOperationsAsync(int compteId);
     Task<decimal> GetSoldeDisponibleAsync(int compteId);
+    Task<ResumeEpargneDTO> GetResumeAsync();
 }
 
 public class CompteEpargneService : ICompteEpargneService
@@ -280,6 +281,27 @@ public class CompteEpargneService : ICompteEpargneService
         return compte.SoldeDisponible;
     }
 
+    /// <summary>
+    /// Résumé du portefeuille épargne, sans charger les comptes
+    /// </summary>
+    public async Task<ResumeEpargneDTO> GetResumeAsync()
+    {
+        var parStatut = await _compteRepository.CompterParStatutAsync();
+        var nombreClients = await _clientRepository.CountAsync();
+
+        var nombreComptes = parStatut.Values.Sum(v => v.Nombre);
+        var soldeTotal = parStatut.Values.Sum(v => v.SoldeTotal);
+
+        return new ResumeEpargneDTO
+        {
+            NombreClients = nombreClients,
+            NombreComptes = nombreComptes,
+            SoldeTotal = soldeTotal,
+            SoldeMoyen = nombreComptes > 0 ? soldeTotal / nombreComptes : 0,
+            ComptesParStatut = parStatut.ToDictionary(p => p.Key.ToString(), p => p.Value.Nombre)
+        };
+    }
+
     private static CompteEpargneDTO MapToDTO(CompteEpargne compte)
     {
         return new CompteEpargneDTO
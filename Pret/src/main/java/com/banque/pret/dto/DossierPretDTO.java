@@ -0,0 +1,36 @@
+package com.banque.pret.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO du dossier complet d'un prêt : le prêt, son tableau d'amortissement,
+ * ses échéances impayées, l'historique des remboursements et les agrégats
+ * de suivi (calculés en base)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DossierPretDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private PretDTO pret;
+    private List<EcheanceDTO> echeances;
+    private List<EcheanceDTO> echeancesImpayees;
+    private List<RemboursementDTO> remboursements;
+
+    // ===== AGRÉGATS =====
+    private BigDecimal totalPaye;            // Somme payée, pénalités comprises
+    private BigDecimal capitalRestantDu;
+    private BigDecimal resteAPayer;          // Échéances non soldées, pénalités comprises
+    private BigDecimal montantArriere;       // Part de resteAPayer déjà échue
+    private BigDecimal penalitesRestantes;
+    private long nombreEcheances;
+    private long nombreEcheancesImpayees;
+    private long nombreEcheancesEnRetard;
+}
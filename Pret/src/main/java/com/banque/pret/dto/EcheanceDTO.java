@@ -30,4 +30,6 @@ public class EcheanceDTO implements Serializable {
     private BigDecimal penaliteAppliquee;
     private Integer joursRetard;
     private LocalDate dateCalculPenalite;
+    private BigDecimal montantPaye;
+    private BigDecimal penalitePayee;
 }
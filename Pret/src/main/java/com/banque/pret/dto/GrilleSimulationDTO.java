@@ -0,0 +1,39 @@
+package com.banque.pret.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO d'une grille de simulations : un scénario par combinaison
+ * (type de prêt, montant, durée), sans tableau d'amortissement
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GrilleSimulationDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Long> idsTypePret;
+    private List<BigDecimal> montants;
+    private List<Integer> dureesMois;
+
+    // Ordre : type de prêt, puis durée, puis montant
+    private List<ScenarioSimulationDTO> scenarios;
+
+    /**
+     * @return Le scénario de la combinaison demandée, ou null
+     */
+    public ScenarioSimulationDTO getScenario(Long idTypePret, BigDecimal montant, Integer dureeMois) {
+        return scenarios.stream()
+            .filter(s -> s.getIdTypePret().equals(idTypePret)
+                && s.getMontantDemande().compareTo(montant) == 0
+                && s.getDureeMois().equals(dureeMois))
+            .findFirst()
+            .orElse(null);
+    }
+}
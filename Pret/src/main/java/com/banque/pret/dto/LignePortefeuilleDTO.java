@@ -0,0 +1,25 @@
+package com.banque.pret.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Ligne d'agrégat du portefeuille de prêts (par statut, type de prêt,
+ * mois de demande ou tranche de retard)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LignePortefeuilleDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String cle;                 // Statut, ID du type, mois (yyyy-MM) ou tranche
+    private String libelle;
+    private long nombre;
+    private BigDecimal montantAccorde;
+    private BigDecimal encours;         // Capital restant dû (ou montant en retard pour les tranches)
+}
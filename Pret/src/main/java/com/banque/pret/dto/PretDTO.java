@@ -28,6 +28,7 @@ public class PretDTO implements Serializable {
     private BigDecimal tauxInteretAnnuel;
     private BigDecimal montantTotalDu;
     private BigDecimal mensualite;
+    private BigDecimal capitalRestantDu;
     private BigDecimal totalPenalites;
     private LocalDate dateDemande;
     private LocalDate dateApprobation;
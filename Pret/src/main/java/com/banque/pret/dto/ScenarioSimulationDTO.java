@@ -0,0 +1,33 @@
+package com.banque.pret.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * DTO d'un scénario (type de prêt, montant, durée) d'une grille de simulation
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScenarioSimulationDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Paramètres du scénario
+    private Long idTypePret;
+    private BigDecimal montantDemande;
+    private Integer dureeMois;
+    private BigDecimal tauxInteretAnnuel;
+
+    // Résultats (null si le scénario est hors des plafonds du type de prêt)
+    private BigDecimal mensualite;
+    private BigDecimal montantTotalDu;
+    private BigDecimal totalInterets;
+    private BigDecimal coutTotalCredit;
+
+    private boolean valide;
+    private String motifInvalidite;
+}
@@ -0,0 +1,40 @@
+package com.banque.pret.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO des statistiques du portefeuille de prêts, calculées en base par agrégation
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatistiquesPortefeuilleDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LocalDateTime dateCalcul;
+    private long nombreTotal;
+    private BigDecimal montantAccordeTotal;
+    private BigDecimal encoursTotal;
+
+    private List<LignePortefeuilleDTO> parStatut;
+    private List<LignePortefeuilleDTO> parTypePret;
+    private List<LignePortefeuilleDTO> parMoisDemande;      // Plus récent en premier
+    private List<LignePortefeuilleDTO> parTrancheRetard;    // 0-30, 30-90, 90+ jours
+
+    /**
+     * @return Le nombre de prêts ayant ce statut (0 si aucun)
+     */
+    public long getNombreParStatut(String statut) {
+        return parStatut.stream()
+            .filter(l -> l.getCle().equals(statut))
+            .mapToLong(LignePortefeuilleDTO::getNombre)
+            .sum();
+    }
+}
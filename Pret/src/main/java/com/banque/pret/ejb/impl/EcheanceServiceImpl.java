@@ -1,16 +1,20 @@
 package com.banque.pret.ejb.impl;
 
+import com.banque.pret.dto.DossierPretDTO;
 import com.banque.pret.dto.EcheanceDTO;
 import com.banque.pret.dto.RemboursementDTO;
 import com.banque.pret.ejb.remote.EcheanceServiceRemote;
 import com.banque.pret.entity.*;
 import com.banque.pret.entity.enums.StatutEcheance;
 import com.banque.pret.mapper.EcheanceMapper;
+import com.banque.pret.mapper.PretMapper;
 import com.banque.pret.mapper.RemboursementMapper;
 import com.banque.pret.repository.*;
+import com.banque.pret.service.AllocationRemboursementService;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,6 +36,12 @@ public class EcheanceServiceImpl implements EcheanceServiceRemote {
     @Inject
     private RemboursementRepository remboursementRepository;
 
+    @Inject
+    private PretRepository pretRepository;
+
+    @Inject
+    private AllocationRemboursementService allocationRemboursementService;
+
     @Override
     public List<EcheanceDTO> obtenirTableauAmortissement(Long idPret) {
         LOGGER.info("Récupération du tableau d'amortissement pour le prêt ID: " + idPret);
@@ -67,40 +77,29 @@ public class EcheanceServiceImpl implements EcheanceServiceRemote {
         }
         Echeance echeance = echeanceOpt.get();
 
-        // Validation du montant
-        if (remboursementDTO.getMontant() == null || 
-            remboursementDTO.getMontant().compareTo(java.math.BigDecimal.ZERO) <= 0) {
+        // Validation du montant (montantPaye est le champ renseigné par l'écran d'administration)
+        BigDecimal montant = remboursementDTO.getMontant() != null
+            ? remboursementDTO.getMontant() : remboursementDTO.getMontantPaye();
+        if (montant == null || montant.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Le montant doit être positif");
         }
 
-        // Création du remboursement avec traçabilité admin
-        Remboursement remboursement = Remboursement.builder()
-                .echeance(echeance)
+        // Informations communes aux remboursements créés, avec traçabilité admin
+        Remboursement modele = Remboursement.builder()
                 .idCompte(remboursementDTO.getIdCompte())
-                .montant(remboursementDTO.getMontant())
-                .montantEcheance(remboursementDTO.getMontantEcheance())
-                .montantPenalite(remboursementDTO.getMontantPenalite() != null ? 
-                    remboursementDTO.getMontantPenalite() : java.math.BigDecimal.ZERO)
                 .numeroTransaction(remboursementDTO.getNumeroTransaction())
-                .datePaiement(remboursementDTO.getDateOperation() != null ? 
-                    remboursementDTO.getDateOperation() : LocalDateTime.now())
+                .datePaiement(remboursementDTO.getDateOperation() != null ? remboursementDTO.getDateOperation()
+                    : remboursementDTO.getDatePaiement() != null ? remboursementDTO.getDatePaiement() : LocalDateTime.now())
                 .typePaiement(remboursementDTO.getTypePaiement())
                 .idAdministrateur(remboursementDTO.getIdAdministrateur()) // TRAÇABILITÉ ADMIN
                 .build();
 
-        // Sauvegarde
-        Remboursement remboursementCree = remboursementRepository.save(remboursement);
-
-        // Mise à jour du statut de l'échéance si payée entièrement
-        if (remboursement.getMontant().compareTo(echeance.getMontantEcheance()) >= 0) {
-            echeance.setStatut(StatutEcheance.PAYE);
-            echeance.setDatePaiement(LocalDate.now());
-            echeanceRepository.update(echeance);
-        }
+        // Affectation : pénalités, intérêts, capital, puis échéances suivantes
+        List<Remboursement> remboursements = allocationRemboursementService.affecter(echeance, montant, modele);
 
         LOGGER.info("✅ Remboursement enregistré avec succès par l'admin ID: " + remboursementDTO.getIdAdministrateur());
         
-        return RemboursementMapper.toDTO(remboursementCree);
+        return RemboursementMapper.toDTO(remboursements.get(0));
     }
 
     @Override
@@ -127,10 +126,7 @@ public class EcheanceServiceImpl implements EcheanceServiceRemote {
     public List<EcheanceDTO> listerEcheancesImpayees(Long idPret) {
         LOGGER.info("Liste des échéances impayées pour le prêt ID: " + idPret);
         
-        List<Echeance> echeances = echeanceRepository.findByPretIdAndStatut(idPret, StatutEcheance.A_VENIR);
-        List<Echeance> echeancesRetard = echeanceRepository.findByPretIdAndStatut(idPret, StatutEcheance.EN_RETARD);
-        echeances.addAll(echeancesRetard);
-        
+        List<Echeance> echeances = echeanceRepository.findImpayeesByPretId(idPret);
         return echeances.stream()
                 .map(EcheanceMapper::toDTO)
                 .collect(Collectors.toList());
@@ -145,4 +141,48 @@ public class EcheanceServiceImpl implements EcheanceServiceRemote {
                 .map(EcheanceMapper::toDTO)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    @Override
+    public DossierPretDTO obtenirDossierPret(Long idPret) {
+        LOGGER.info("Récupération du dossier du prêt ID: " + idPret);
+
+        Optional<Pret> pretOpt = pretRepository.findByIdAvecDetails(idPret);
+        if (pretOpt.isEmpty()) {
+            return null;
+        }
+        Pret pret = pretOpt.get();
+
+        List<EcheanceDTO> echeances = echeanceRepository.findByPretId(idPret).stream()
+                .map(EcheanceMapper::toDTO)
+                .collect(Collectors.toList());
+        // Les impayées sont extraites du tableau déjà chargé (déjà trié par numéro)
+        List<EcheanceDTO> echeancesImpayees = echeances.stream()
+                .filter(e -> !StatutEcheance.PAYE.name().equals(e.getStatut())
+                          && !StatutEcheance.PAYE_AVEC_RETARD.name().equals(e.getStatut()))
+                .collect(Collectors.toList());
+        List<RemboursementDTO> remboursements = remboursementRepository.findByPretId(idPret).stream()
+                .map(RemboursementMapper::toDTO)
+                .collect(Collectors.toList());
+
+        Object[] agregats = echeanceRepository.agregerParPret(idPret, LocalDate.now());
+        // capitalRestantDu est tenu à jour par les remboursements ; les prêts plus
+        // anciens retombent sur le capital des échéances non soldées
+        BigDecimal capitalRestantDu = pret.getCapitalRestantDu() != null
+                ? pret.getCapitalRestantDu() : (BigDecimal) agregats[1];
+
+        return DossierPretDTO.builder()
+                .pret(PretMapper.toDTO(pret))
+                .echeances(echeances)
+                .echeancesImpayees(echeancesImpayees)
+                .remboursements(remboursements)
+                .totalPaye((BigDecimal) agregats[0])
+                .capitalRestantDu(capitalRestantDu)
+                .resteAPayer((BigDecimal) agregats[2])
+                .montantArriere((BigDecimal) agregats[3])
+                .penalitesRestantes((BigDecimal) agregats[4])
+                .nombreEcheances(((Number) agregats[5]).longValue())
+                .nombreEcheancesImpayees(((Number) agregats[6]).longValue())
+                .nombreEcheancesEnRetard(((Number) agregats[7]).longValue())
+                .build();
+    }
+}
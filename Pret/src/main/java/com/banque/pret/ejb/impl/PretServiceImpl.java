@@ -1,24 +1,40 @@
 package com.banque.pret.ejb.impl;
 
 import com.banque.pret.dto.EcheanceDTO;
+import com.banque.pret.dto.GrilleSimulationDTO;
 import com.banque.pret.dto.PretDTO;
+import com.banque.pret.dto.ScenarioSimulationDTO;
 import com.banque.pret.dto.SimulationPretDTO;
+import com.banque.pret.dto.StatistiquesPortefeuilleDTO;
+import com.banque.pret.dto.TypePretDTO;
 import com.banque.pret.ejb.remote.PretServiceRemote;
 import com.banque.pret.entity.*;
+import com.banque.pret.entity.enums.MethodeAmortissement;
 import com.banque.pret.entity.enums.StatutEcheance;
 import com.banque.pret.entity.enums.StatutPret;
 import com.banque.pret.mapper.EcheanceMapper;
 import com.banque.pret.mapper.PretMapper;
+import com.banque.pret.mapper.TypePretMapper;
 import com.banque.pret.repository.*;
+import com.banque.pret.service.SimulationCache;
+import com.banque.pret.service.StatistiquesPortefeuilleService;
 import com.banque.pret.util.CalculPretUtil;
+import com.banque.pret.util.MoteurAmortissement;
+import jakarta.annotation.Resource;
 import jakarta.ejb.Stateless;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 import jakarta.inject.Inject;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -31,6 +47,8 @@ public class PretServiceImpl implements PretServiceRemote {
 
     private static final Logger LOGGER = Logger.getLogger(PretServiceImpl.class.getName());
 
+    private static final int TAILLE_GRILLE_MAX = 1000;
+
     @Inject
     private PretRepository pretRepository;
 
@@ -43,6 +61,15 @@ public class PretServiceImpl implements PretServiceRemote {
     @Inject
     private EcheanceRepository echeanceRepository;
 
+    @Inject
+    private SimulationCache simulationCache;
+
+    @Inject
+    private StatistiquesPortefeuilleService statistiquesPortefeuilleService;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
     @Override
     public SimulationPretDTO simulerPret(SimulationPretDTO simulationDTO) {
         LOGGER.info(" PHASE 1 : SIMULATION - Montant: " + simulationDTO.getMontantDemande() + 
@@ -54,6 +81,49 @@ public class PretServiceImpl implements PretServiceRemote {
             throw new IllegalArgumentException("Paramètres de simulation incomplets (montant, durée, type de prêt)");
         }
 
+        // RÈGLE : Affichage du tableau d'amortissement prévisionnel
+        LocalDate datePremiereEcheance = LocalDate.now().plusMonths(1);
+
+        // Les résultats ne dépendent que du type de prêt, du montant, de la durée et de la date
+        SimulationCache.Cle cle = simulationCache.cle(simulationDTO.getIdTypePret(),
+            simulationDTO.getMontantDemande(), simulationDTO.getDureeMois(), datePremiereEcheance);
+        SimulationPretDTO simulation = simulationCache.get(cle);
+        if (simulation == null) {
+            simulation = calculerSimulation(simulationDTO, datePremiereEcheance);
+            simulationCache.put(cle, simulation);
+        }
+
+        // RÈGLE : Vérification 33% du revenu (si revenu fourni)
+        BigDecimal mensualite = simulation.getMensualite();
+        if (simulationDTO.getRevenuMensuel() != null && simulationDTO.getRevenuMensuel().compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal seuilEndettement = simulationDTO.getRevenuMensuel()
+                .multiply(BigDecimal.valueOf(0.33))
+                .setScale(2, RoundingMode.HALF_UP);
+            
+            if (mensualite.compareTo(seuilEndettement) > 0) {
+                throw new IllegalArgumentException(
+                    String.format(" La mensualité (%s) dépasse 33%% de votre revenu mensuel (%s). Seuil maximum : %s", 
+                                 mensualite, simulationDTO.getRevenuMensuel(), seuilEndettement)
+                );
+            }
+        }
+
+        // Copie : l'instance en cache est partagée entre les appels
+        SimulationPretDTO resultat = simulation.toBuilder()
+                .revenuMensuel(simulationDTO.getRevenuMensuel())
+                .build();
+
+        LOGGER.info("✅ PHASE 1 terminée - Mensualité: " + mensualite + 
+                   ", Coût total: " + resultat.getCoutTotalCredit() + ", Tableau: " + resultat.getTableauAmortissement().size() + " échéances");
+
+        return resultat;
+    }
+
+    /**
+     * Calcule une simulation (plafonds du type de prêt, mensualité, totaux et tableau)
+     * indépendamment du revenu du demandeur
+     */
+    private SimulationPretDTO calculerSimulation(SimulationPretDTO simulationDTO, LocalDate datePremiereEcheance) {
         // Récupération du type de prêt pour les plafonds
         Optional<TypePret> typePretOpt = typePretRepository.findById(simulationDTO.getIdTypePret());
         if (typePretOpt.isEmpty()) {
@@ -81,25 +151,12 @@ public class PretServiceImpl implements PretServiceRemote {
         }
 
         // RÈGLE : Calcul de la mensualité selon la formule M = [C × i] / [1 - (1 + i)^-n]
-        BigDecimal mensualite = CalculPretUtil.calculerMensualite(
+        MoteurAmortissement moteur = MoteurAmortissement.pour(
             simulationDTO.getMontantDemande(),
             typePret.getTauxInteretAnnuel(),
             simulationDTO.getDureeMois()
         );
-
-        // RÈGLE : Vérification 33% du revenu (si revenu fourni)
-        if (simulationDTO.getRevenuMensuel() != null && simulationDTO.getRevenuMensuel().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal seuilEndettement = simulationDTO.getRevenuMensuel()
-                .multiply(BigDecimal.valueOf(0.33))
-                .setScale(2, RoundingMode.HALF_UP);
-            
-            if (mensualite.compareTo(seuilEndettement) > 0) {
-                throw new IllegalArgumentException(
-                    String.format(" La mensualité (%s) dépasse 33%% de votre revenu mensuel (%s). Seuil maximum : %s", 
-                                 mensualite, simulationDTO.getRevenuMensuel(), seuilEndettement)
-                );
-            }
-        }
+        BigDecimal mensualite = moteur.getMensualite();
 
         // Calcul du montant total dû
         BigDecimal montantTotalDu = CalculPretUtil.calculerMontantTotalDu(
@@ -107,14 +164,8 @@ public class PretServiceImpl implements PretServiceRemote {
             simulationDTO.getDureeMois()
         );
 
-        // RÈGLE : Affichage du tableau d'amortissement prévisionnel
-        LocalDate datePremiereEcheance = LocalDate.now().plusMonths(1);
-        List<EcheanceDTO> tableauAmortissement = CalculPretUtil.genererTableauAmortissement(
-            simulationDTO.getMontantDemande(),
-            typePret.getTauxInteretAnnuel(),
-            simulationDTO.getDureeMois(),
-            datePremiereEcheance
-        );
+        List<EcheanceDTO> tableauAmortissement = moteur.tableau(
+            MethodeAmortissement.ANNUITE_CONSTANTE, datePremiereEcheance);
 
         // Calcul du total des intérêts
         BigDecimal totalInterets = CalculPretUtil.calculerTotalInterets(tableauAmortissement);
@@ -128,8 +179,7 @@ public class PretServiceImpl implements PretServiceRemote {
             frais
         );
 
-        // Construction de la réponse
-        SimulationPretDTO resultat = SimulationPretDTO.builder()
+        return SimulationPretDTO.builder()
                 .idTypePret(typePret.getIdTypePret())
                 .montantDemande(simulationDTO.getMontantDemande())
                 .dureeMois(simulationDTO.getDureeMois())
@@ -140,14 +190,103 @@ public class PretServiceImpl implements PretServiceRemote {
                 .coutTotalCredit(coutTotalCredit)
                 .totalInterets(totalInterets)
                 .totalFrais(frais)
-                .revenuMensuel(simulationDTO.getRevenuMensuel())
-                .tableauAmortissement(tableauAmortissement)
+                .tableauAmortissement(List.copyOf(tableauAmortissement))
                 .build();
+    }
 
-        LOGGER.info("✅ PHASE 1 terminée - Mensualité: " + mensualite + 
-                   ", Coût total: " + coutTotalCredit + ", Tableau: " + tableauAmortissement.size() + " échéances");
+    @Override
+    public Map<String, Long> obtenirStatistiquesCacheSimulation() {
+        return new HashMap<>(simulationCache.getStatistiques());
+    }
 
-        return resultat;
+    @Override
+    public StatistiquesPortefeuilleDTO obtenirStatistiquesPortefeuille() {
+        return statistiquesPortefeuilleService.obtenir();
+    }
+
+    @Override
+    public GrilleSimulationDTO simulerGrille(List<Long> idsTypePret, List<BigDecimal> montants, List<Integer> dureesMois) {
+        if (idsTypePret == null || idsTypePret.isEmpty() || montants == null || montants.isEmpty()
+            || dureesMois == null || dureesMois.isEmpty()) {
+            throw new IllegalArgumentException("Paramètres de grille incomplets (types de prêt, montants, durées)");
+        }
+        if ((long) idsTypePret.size() * montants.size() * dureesMois.size() > TAILLE_GRILLE_MAX) {
+            throw new IllegalArgumentException("La grille ne peut pas dépasser " + TAILLE_GRILLE_MAX + " scénarios");
+        }
+        LOGGER.info("Simulation d'une grille de " + idsTypePret.size() + " types x " + montants.size()
+            + " montants x " + dureesMois.size() + " durées");
+
+        // Chaque type de prêt n'est lu qu'une fois ; les calculs ne manipulent que des DTO
+        List<TypePretDTO> typesPret = new ArrayList<>(idsTypePret.size());
+        for (Long idTypePret : idsTypePret) {
+            TypePret typePret = typePretRepository.findById(idTypePret)
+                .orElseThrow(() -> new IllegalArgumentException("Type de prêt non trouvé : " + idTypePret));
+            typesPret.add(TypePretMapper.toDTO(typePret));
+        }
+
+        // Une tâche par couple (type, durée), réparties sur les threads du serveur
+        List<Future<List<ScenarioSimulationDTO>>> lignes = new ArrayList<>();
+        for (TypePretDTO typePret : typesPret) {
+            for (Integer dureeMois : dureesMois) {
+                lignes.add(managedExecutorService.submit(() -> simulerLigne(typePret, dureeMois, montants)));
+            }
+        }
+
+        List<ScenarioSimulationDTO> scenarios = new ArrayList<>(idsTypePret.size() * montants.size() * dureesMois.size());
+        try {
+            for (Future<List<ScenarioSimulationDTO>> ligne : lignes) {
+                scenarios.addAll(ligne.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation de la grille interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur lors de la simulation de la grille", e.getCause());
+        }
+
+        return GrilleSimulationDTO.builder()
+                .idsTypePret(List.copyOf(idsTypePret))
+                .montants(List.copyOf(montants))
+                .dureesMois(List.copyOf(dureesMois))
+                .scenarios(scenarios)
+                .build();
+    }
+
+    /**
+     * Calcule les scénarios d'un type de prêt et d'une durée pour tous les montants
+     * (totaux calculés sans construire le tableau d'amortissement)
+     */
+    private static List<ScenarioSimulationDTO> simulerLigne(TypePretDTO typePret, Integer dureeMois, List<BigDecimal> montants) {
+        List<ScenarioSimulationDTO> ligne = new ArrayList<>(montants.size());
+        boolean dureeValide = CalculPretUtil.estDureeValide(dureeMois, typePret.getDureeMin(), typePret.getDureeMax());
+        BigDecimal frais = typePret.getFraisDossier() != null ? typePret.getFraisDossier() : BigDecimal.ZERO;
+
+        for (BigDecimal montant : montants) {
+            ScenarioSimulationDTO scenario = ScenarioSimulationDTO.builder()
+                    .idTypePret(typePret.getIdTypePret())
+                    .montantDemande(montant)
+                    .dureeMois(dureeMois)
+                    .tauxInteretAnnuel(typePret.getTauxInteretAnnuel())
+                    .build();
+
+            if (!dureeValide) {
+                scenario.setMotifInvalidite(String.format("La durée doit être entre %d et %d mois pour ce type de prêt",
+                    typePret.getDureeMin(), typePret.getDureeMax()));
+            } else if (!CalculPretUtil.estMontantValide(montant, typePret.getMontantMin(), typePret.getMontantMax())) {
+                scenario.setMotifInvalidite(String.format("Le montant doit être entre %s et %s pour ce type de prêt",
+                    typePret.getMontantMin(), typePret.getMontantMax()));
+            } else {
+                MoteurAmortissement moteur = MoteurAmortissement.pour(montant, typePret.getTauxInteretAnnuel(), dureeMois);
+                BigDecimal montantTotalDu = CalculPretUtil.calculerMontantTotalDu(moteur.getMensualite(), dureeMois);
+                scenario.setMensualite(moteur.getMensualite());
+                scenario.setMontantTotalDu(montantTotalDu);
+                scenario.setTotalInterets(moteur.totalInterets());
+                scenario.setCoutTotalCredit(CalculPretUtil.calculerCoutTotalCredit(montantTotalDu, montant, frais));
+                scenario.setValide(true);
+            }
+            ligne.add(scenario);
+        }
+        return ligne;
     }
 
     @Override
@@ -217,6 +356,7 @@ public class PretServiceImpl implements PretServiceRemote {
 
         // Sauvegarde
         Pret pretCree = pretRepository.save(pret);
+        statistiquesPortefeuilleService.invalider();
 
         LOGGER.info("✅ PHASE 2 terminée - Demande créée: " + pretCree.getNumeroPret() + 
                    " - Statut: EN_ATTENTE - Notification à l'agent de crédit");
@@ -345,6 +485,7 @@ public class PretServiceImpl implements PretServiceRemote {
         pret.setStatut(StatutPret.EN_COURS);
 
         Pret pretApprouve = pretRepository.update(pret);
+        statistiquesPortefeuilleService.invalider();
 
         LOGGER.info("📊 PHASE 4 terminée - Tableau d'amortissement généré: " + pretApprouve.getNumeroPret());
 
@@ -372,6 +513,7 @@ public class PretServiceImpl implements PretServiceRemote {
                           motifRefus : "Critères d'éligibilité non respectés");
 
         Pret pretRefuse = pretRepository.update(pret);
+        statistiquesPortefeuilleService.invalider();
 
         LOGGER.info(" PHASE 3 terminée - Prêt refusé: " + pretRefuse.getNumeroPret() + 
                    " - Motif: " + pretRefuse.getMotifRefus());
@@ -382,7 +524,7 @@ public class PretServiceImpl implements PretServiceRemote {
     @Override
     public PretDTO rechercherPretParId(Long idPret) {
         LOGGER.info("Recherche du prêt par ID: " + idPret);
-        Optional<Pret> pret = pretRepository.findById(idPret);
+        Optional<Pret> pret = pretRepository.findByIdAvecDetails(idPret);
         return pret.map(PretMapper::toDTO).orElse(null);
     }
 
@@ -446,6 +588,7 @@ public class PretServiceImpl implements PretServiceRemote {
         }
 
         pretRepository.deleteById(idPret);
+        statistiquesPortefeuilleService.invalider();
     }
 
     /**
@@ -504,6 +647,7 @@ public class PretServiceImpl implements PretServiceRemote {
         LocalDate datePremiereEcheance = pret.getDateApprobation().plusMonths(1);
         
         // Mise à jour de la date dans le prêt
+        pret.setCapitalRestantDu(pret.getMontantAccorde());
         pret.setDatePremiereEcheance(datePremiereEcheance);
         pret.setDateDerniereEcheance(datePremiereEcheance.plusMonths(pret.getDureeMois() - 1));
 
@@ -516,12 +660,14 @@ public class PretServiceImpl implements PretServiceRemote {
         );
 
         // RÈGLE : Conversion et sauvegarde des échéances avec statut initial A_VENIR
+        List<Echeance> echeances = new ArrayList<>(tableauDTO.size());
         for (EcheanceDTO echeanceDTO : tableauDTO) {
             Echeance echeance = EcheanceMapper.toEntity(echeanceDTO);
             echeance.setPret(pret);
             echeance.setStatut(StatutEcheance.A_VENIR); // Statut initial = "A_VENIR"
-            echeanceRepository.save(echeance);
+            echeances.add(echeance);
         }
+        echeanceRepository.saveAll(echeances);
 
         LOGGER.info("PHASE 4 terminée - " + tableauDTO.size() + " échéances générées automatiquement");
     }
@@ -549,6 +695,7 @@ public class PretServiceImpl implements PretServiceRemote {
         pret.setDateApprobation(LocalDate.now());
         
         Pret pretMisAJour = pretRepository.save(pret);
+        statistiquesPortefeuilleService.invalider();
         
         // Génération du tableau d'amortissement
         genererTableauAmortissementDefinitif(pretMisAJour);
@@ -572,6 +719,7 @@ public class PretServiceImpl implements PretServiceRemote {
         pret.setMotifRefus(motifRefus);
         
         Pret pretMisAJour = pretRepository.save(pret);
+        statistiquesPortefeuilleService.invalider();
         
         LOGGER.info("❌ ADMIN - Prêt refusé par l'administrateur ID: " + idAdministrateur);
         return PretMapper.toDTO(pretMisAJour);
@@ -5,6 +5,7 @@ import com.banque.pret.ejb.remote.TypePretServiceRemote;
 import com.banque.pret.entity.TypePret;
 import com.banque.pret.mapper.TypePretMapper;
 import com.banque.pret.repository.TypePretRepository;
+import com.banque.pret.service.SimulationCache;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
 
@@ -24,6 +25,9 @@ public class TypePretServiceImpl implements TypePretServiceRemote {
     @Inject
     private TypePretRepository typePretRepository;
 
+    @Inject
+    private SimulationCache simulationCache;
+
     @Override
     public TypePretDTO creerTypePret(TypePretDTO typePretDTO) {
         LOGGER.info("Création d'un nouveau type de prêt : " + typePretDTO.getLibelle());
@@ -81,6 +85,7 @@ public class TypePretServiceImpl implements TypePretServiceRemote {
         // Mettre à jour
         TypePretMapper.updateEntity(existant, typePretDTO);
         TypePret typePretModifie = typePretRepository.update(existant);
+        simulationCache.invaliderApresValidation(typePretModifie.getIdTypePret());
         
         return TypePretMapper.toDTO(typePretModifie);
     }
@@ -120,5 +125,6 @@ public class TypePretServiceImpl implements TypePretServiceRemote {
         }
         
         typePretRepository.deleteById(idTypePret);
+        simulationCache.invaliderApresValidation(idTypePret);
     }
 }
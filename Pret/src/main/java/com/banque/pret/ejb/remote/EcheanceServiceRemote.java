@@ -1,5 +1,6 @@
 package com.banque.pret.ejb.remote;
 
+import com.banque.pret.dto.DossierPretDTO;
 import com.banque.pret.dto.EcheanceDTO;
 import com.banque.pret.dto.RemboursementDTO;
 import jakarta.ejb.Remote;
@@ -47,7 +48,7 @@ public interface EcheanceServiceRemote {
     List<RemboursementDTO> listerRemboursementsParPret(Long idPret);
     
     /**
-     * Liste les échéances impayées d'un prêt
+     * Liste les échéances impayées d'un prêt (non soldées), par numéro d'échéance
      * @param idPret L'ID du prêt
      * @return La liste des échéances impayées
      */
@@ -58,4 +59,13 @@ public interface EcheanceServiceRemote {
      * @return La liste des échéances en retard
      */
     List<EcheanceDTO> listerEcheancesEnRetard();
+
+    /**
+     * Récupère en un seul appel le dossier d'un prêt : le prêt, son tableau
+     * d'amortissement, ses échéances impayées, l'historique des remboursements
+     * et les agrégats de suivi (total payé, capital restant dû, arriéré)
+     * @param idPret L'ID du prêt
+     * @return Le dossier du prêt ou null si le prêt n'existe pas
+     */
+    DossierPretDTO obtenirDossierPret(Long idPret);
 }
@@ -1,10 +1,14 @@
 package com.banque.pret.ejb.remote;
 
+import com.banque.pret.dto.GrilleSimulationDTO;
 import com.banque.pret.dto.PretDTO;
 import com.banque.pret.dto.SimulationPretDTO;
+import com.banque.pret.dto.StatistiquesPortefeuilleDTO;
 import com.banque.pret.entity.enums.StatutPret;
 import jakarta.ejb.Remote;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface remote pour le service de gestion des prêts
@@ -19,6 +23,25 @@ public interface PretServiceRemote {
      */
     SimulationPretDTO simulerPret(SimulationPretDTO simulationDTO);
     
+    /**
+     * Compteurs du cache des simulations (succes, echecs, evictions, taille)
+     * @return Les compteurs par nom
+     */
+    Map<String, Long> obtenirStatistiquesCacheSimulation();
+    
+    /**
+     * Simule en une fois toutes les combinaisons de types de prêt, montants et durées
+     * (mensualité et coût total). Les scénarios hors des plafonds d'un type sont
+     * marqués invalides. Les tableaux d'amortissement ne sont pas calculés et la
+     * grille n'alimente pas le cache des simulations : le tableau d'un scénario
+     * s'obtient ensuite avec simulerPret.
+     * @param idsTypePret Les types de prêt à comparer
+     * @param montants Les montants à comparer
+     * @param dureesMois Les durées à comparer
+     * @return La grille des scénarios (1000 au maximum)
+     */
+    GrilleSimulationDTO simulerGrille(List<Long> idsTypePret, List<BigDecimal> montants, List<Integer> dureesMois);
+    
     /**
      * Crée une demande de prêt
      * @param pretDTO Le prêt à créer
@@ -107,6 +130,15 @@ public interface PretServiceRemote {
      */
     List<PretDTO> listerPretsParClientEtStatut(Long idClient, StatutPret statut);
     
+    /**
+     * Statistiques du portefeuille de prêts : nombre, montant accordé et encours
+     * par statut, par type de prêt et par mois de demande (12 derniers mois),
+     * et prêts en retard par tranche (0-30, 30-90, 90+ jours).
+     * Calculées en base et conservées une minute.
+     * @return Les statistiques du portefeuille
+     */
+    StatistiquesPortefeuilleDTO obtenirStatistiquesPortefeuille();
+    
     /**
      * Supprime un prêt
      * @param idPret L'ID du prêt à supprimer
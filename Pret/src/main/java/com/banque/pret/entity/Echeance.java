@@ -17,6 +17,8 @@ import java.util.List;
 @Entity
 @Table(name = "echeance", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"id_pret", "numero_echeance"})
+}, indexes = {
+    @Index(name = "idx_echeance_statut_date", columnList = "statut, date_echeance")
 })
 @Data
 @NoArgsConstructor
@@ -27,7 +29,8 @@ public class Echeance implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "echeance_seq")
+    @SequenceGenerator(name = "echeance_seq", sequenceName = "echeance_id_echeance_seq", allocationSize = 50)
     @Column(name = "id_echeance")
     private Long idEcheance;
 
@@ -81,8 +84,44 @@ public class Echeance implements Serializable {
     @Column(name = "date_calcul_penalite")
     private LocalDate dateCalculPenalite;
 
+    // Cumul des paiements reçus (pénalités comprises), tenu à jour à chaque remboursement
+    @Column(name = "montant_paye", precision = 15, scale = 2)
+    @Builder.Default
+    private BigDecimal montantPaye = BigDecimal.ZERO;
+
+    // Part du cumul affectée aux pénalités
+    @Column(name = "penalite_payee", precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal penalitePayee = BigDecimal.ZERO;
+
     @OneToMany(mappedBy = "echeance", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @ToString.Exclude
     @Builder.Default
     private List<Remboursement> remboursements = new ArrayList<>();
+
+    /**
+     * Pénalités appliquées non encore payées
+     */
+    public BigDecimal penaliteRestante() {
+        return valeur(penaliteAppliquee).subtract(valeur(penalitePayee)).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * Part du montant de l'échéance (intérêts et capital) non encore payée
+     */
+    public BigDecimal resteAPayerHorsPenalite() {
+        return montantEcheance.subtract(valeur(montantPaye).subtract(valeur(penalitePayee))).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * Part du capital déjà payée (les paiements couvrent les intérêts avant le capital)
+     */
+    public BigDecimal capitalPaye() {
+        BigDecimal payeHorsPenalite = valeur(montantPaye).subtract(valeur(penalitePayee));
+        return payeHorsPenalite.subtract(interet).max(BigDecimal.ZERO).min(capital);
+    }
+
+    private static BigDecimal valeur(BigDecimal montant) {
+        return montant != null ? montant : BigDecimal.ZERO;
+    }
 }
@@ -1,6 +1,7 @@
 package com.banque.pret.entity;
 
 import com.banque.pret.entity.enums.StatutPret;
+import com.banque.pret.util.GenerateurReference;
 import lombok.*;
 
 import jakarta.persistence.*;
@@ -26,7 +27,8 @@ public class Pret implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pret_seq")
+    @SequenceGenerator(name = "pret_seq", sequenceName = "pret_id_pret_seq", allocationSize = 50)
     @Column(name = "id_pret")
     private Long idPret;
 
@@ -71,6 +73,10 @@ public class Pret implements Serializable {
     @NotNull(message = "La mensualité est obligatoire")
     private BigDecimal mensualite;
 
+    // Capital restant dû, diminué à chaque remboursement (null avant l'approbation)
+    @Column(name = "capital_restant_du", precision = 15, scale = 2)
+    private BigDecimal capitalRestantDu;
+
     @Column(name = "total_penalites", precision = 10, scale = 2)
     @Builder.Default
     private BigDecimal totalPenalites = BigDecimal.ZERO;
@@ -122,11 +128,9 @@ public class Pret implements Serializable {
 
     /**
      * Génère un numéro de prêt automatiquement
-     * Format: PRET + timestamp + 4 chiffres aléatoires
+     * Format: PRET + identifiant unique (voir GenerateurReference)
      */
     private String generateNumeroPret() {
-        long timestamp = System.currentTimeMillis();
-        int random = (int) (Math.random() * 9999);
-        return String.format("PRET%d%04d", timestamp, random);
+        return GenerateurReference.genererReference("PRET");
     }
 }
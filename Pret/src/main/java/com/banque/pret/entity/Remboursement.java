@@ -23,7 +23,8 @@ public class Remboursement implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "remboursement_seq")
+    @SequenceGenerator(name = "remboursement_seq", sequenceName = "remboursement_id_remboursement_seq", allocationSize = 50)
     @Column(name = "id_remboursement")
     private Long idRemboursement;
 
@@ -67,6 +68,8 @@ public class Remboursement implements Serializable {
 
     @PrePersist
     protected void onCreate() {
-        this.datePaiement = LocalDateTime.now();
+        if (this.datePaiement == null) {
+            this.datePaiement = LocalDateTime.now();
+        }
     }
 }
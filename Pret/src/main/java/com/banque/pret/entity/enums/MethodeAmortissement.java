@@ -0,0 +1,9 @@
+package com.banque.pret.entity.enums;
+
+/**
+ * Méthode d'amortissement d'un prêt
+ */
+public enum MethodeAmortissement {
+    ANNUITE_CONSTANTE,  // Mensualité identique, part de capital croissante
+    CAPITAL_CONSTANT    // Part de capital identique, mensualité décroissante
+}
@@ -31,6 +31,8 @@ public class EcheanceMapper {
                 .penaliteAppliquee(echeance.getPenaliteAppliquee())
                 .joursRetard(echeance.getJoursRetard())
                 .dateCalculPenalite(echeance.getDateCalculPenalite())
+                .montantPaye(echeance.getMontantPaye())
+                .penalitePayee(echeance.getPenalitePayee())
                 .build();
     }
 
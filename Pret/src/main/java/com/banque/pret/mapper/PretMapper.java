@@ -28,6 +28,7 @@ public class PretMapper {
                 .tauxInteretAnnuel(pret.getTauxInteretAnnuel())
                 .montantTotalDu(pret.getMontantTotalDu())
                 .mensualite(pret.getMensualite())
+                .capitalRestantDu(pret.getCapitalRestantDu())
                 .totalPenalites(pret.getTotalPenalites())
                 .dateDemande(pret.getDateDemande())
                 .dateApprobation(pret.getDateApprobation())
@@ -2,12 +2,17 @@ package com.banque.pret.repository;
 
 import com.banque.pret.entity.Echeance;
 import com.banque.pret.entity.enums.StatutEcheance;
+import com.banque.pret.entity.enums.StatutPret;
 import jakarta.ejb.Stateless;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
@@ -20,6 +25,9 @@ public class EcheanceRepository {
 
     private static final Logger LOGGER = Logger.getLogger(EcheanceRepository.class.getName());
 
+    // Aligné sur hibernate.jdbc.batch_size (persistence.xml)
+    private static final int TAILLE_LOT = 20;
+
     @PersistenceContext(unitName = "PretPU")
     private EntityManager entityManager;
 
@@ -28,11 +36,30 @@ public class EcheanceRepository {
      */
     public Echeance save(Echeance echeance) {
         LOGGER.info("Sauvegarde de l'échéance n°" + echeance.getNumeroEcheance());
+        // Pas de flush : l'INSERT part dans le lot JDBC à la fin de la transaction
         entityManager.persist(echeance);
-        entityManager.flush();
         return echeance;
     }
 
+    /**
+     * Sauvegarde en masse les échéances d'un tableau d'amortissement.
+     * Les INSERT sont envoyés par lots JDBC et les échéances déjà écrites sont
+     * détachées au fur et à mesure : le contexte de persistance (et le coût du
+     * flush) reste borné quelle que soit la durée du prêt.
+     */
+    public void saveAll(List<Echeance> echeances) {
+        LOGGER.info("Sauvegarde de " + echeances.size() + " échéances");
+        List<Echeance> lot = new ArrayList<>(TAILLE_LOT);
+        for (Echeance echeance : echeances) {
+            entityManager.persist(echeance);
+            lot.add(echeance);
+            if (lot.size() == TAILLE_LOT) {
+                ecrireLot(lot);
+            }
+        }
+        ecrireLot(lot);
+    }
+
     /**
      * Met à jour une échéance
      */
@@ -73,6 +100,19 @@ public class EcheanceRepository {
         return query.getResultList();
     }
 
+    /**
+     * Récupère les échéances non soldées d'un prêt, dans l'ordre du tableau
+     */
+    public List<Echeance> findImpayeesByPretId(Long pretId) {
+        LOGGER.info("Récupération des échéances impayées du prêt : " + pretId);
+        TypedQuery<Echeance> query = entityManager.createQuery(
+            "SELECT e FROM Echeance e WHERE e.pret.idPret = :pretId AND e.statut NOT IN :soldees " +
+            "ORDER BY e.numeroEcheance ASC", Echeance.class);
+        query.setParameter("pretId", pretId);
+        query.setParameter("soldees", List.of(StatutEcheance.PAYE, StatutEcheance.PAYE_AVEC_RETARD));
+        return query.getResultList();
+    }
+
     /**
      * Récupère les échéances à échoir avant une date donnée
      */
@@ -96,6 +136,160 @@ public class EcheanceRepository {
         return query.getResultList();
     }
 
+    /**
+     * Récupère un lot d'IDs d'échéances échues ou à échoir à la date donnée,
+     * non payées, de prêts en cours, et dont le retard n'a pas encore été
+     * calculé pour cette date (parcours de l'index (statut, date_echeance))
+     * @param date Date de calcul
+     * @param dernierId Dernier ID traité (exclu)
+     * @param taille Nombre maximal d'IDs retournés
+     */
+    public List<Long> findIdsARelancer(LocalDate date, Long dernierId, int taille) {
+        TypedQuery<Long> query = entityManager.createQuery(
+            "SELECT e.idEcheance FROM Echeance e " +
+            "WHERE e.statut IN :statuts AND e.dateEcheance <= :date AND e.idEcheance > :dernierId " +
+            "AND (e.dateCalculPenalite IS NULL OR e.dateCalculPenalite < :date) " +
+            "AND e.pret.statut IN :statutsPret " +
+            "ORDER BY e.idEcheance", Long.class);
+        query.setParameter("statuts", List.of(StatutEcheance.A_VENIR, StatutEcheance.ECHEANCE_AUJOURDHUI,
+                                              StatutEcheance.EN_RETARD));
+        query.setParameter("date", date);
+        query.setParameter("dernierId", dernierId);
+        query.setParameter("statutsPret", List.of(StatutPret.APPROUVE, StatutPret.EN_COURS, StatutPret.EN_RETARD));
+        query.setMaxResults(taille);
+        return query.getResultList();
+    }
+
+    /**
+     * Charge des échéances avec leur prêt et le type de prêt, verrouillées en écriture
+     */
+    public List<Echeance> findByIdsForUpdate(Collection<Long> ids) {
+        TypedQuery<Echeance> query = entityManager.createQuery(
+            "SELECT e FROM Echeance e JOIN FETCH e.pret p JOIN FETCH p.typePret " +
+            "WHERE e.idEcheance IN :ids ORDER BY e.idEcheance", Echeance.class);
+        query.setParameter("ids", ids);
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        return query.getResultList();
+    }
+
+    /**
+     * IDs distincts, en ordre croissant, des prêts d'un lot d'échéances
+     */
+    public List<Long> findIdsPretsDesEcheances(Collection<Long> ids) {
+        TypedQuery<Long> query = entityManager.createQuery(
+            "SELECT DISTINCT e.pret.idPret FROM Echeance e WHERE e.idEcheance IN :ids " +
+            "ORDER BY e.pret.idPret", Long.class);
+        query.setParameter("ids", ids);
+        return query.getResultList();
+    }
+
+    /**
+     * Totalise par prêt les pénalités et le nombre d'échéances en retard
+     * @return [idPret, somme des pénalités, nombre d'échéances EN_RETARD]
+     */
+    public List<Object[]> sommerPenalitesParPret(Collection<Long> idsPret) {
+        TypedQuery<Object[]> query = entityManager.createQuery(
+            "SELECT e.pret.idPret, COALESCE(SUM(e.penaliteAppliquee), 0), " +
+            "SUM(CASE WHEN e.statut = :enRetard THEN 1 ELSE 0 END) " +
+            "FROM Echeance e WHERE e.pret.idPret IN :ids GROUP BY e.pret.idPret", Object[].class);
+        query.setParameter("enRetard", StatutEcheance.EN_RETARD);
+        query.setParameter("ids", idsPret);
+        return query.getResultList();
+    }
+
+    /**
+     * Verrouille en écriture une échéance déjà chargée et relit son état en base.
+     * Une requête verrouillante ne relit pas une entité déjà présente dans le
+     * contexte de persistance : sans relecture, ses cumuls de paiement pourraient
+     * dater d'avant l'obtention du verrou.
+     */
+    public void verrouiller(Echeance echeance) {
+        entityManager.refresh(echeance, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * Charge, verrouillées en écriture et dans l'ordre, les échéances non soldées
+     * d'un prêt à partir d'un numéro d'échéance
+     */
+    public List<Echeance> findImpayeesAPartirDeForUpdate(Long pretId, Integer numeroEcheance) {
+        TypedQuery<Echeance> query = entityManager.createQuery(
+            "SELECT e FROM Echeance e WHERE e.pret.idPret = :pretId AND e.numeroEcheance >= :numero " +
+            "AND e.statut NOT IN :soldees ORDER BY e.numeroEcheance ASC", Echeance.class);
+        query.setParameter("pretId", pretId);
+        query.setParameter("numero", numeroEcheance);
+        query.setParameter("soldees", List.of(StatutEcheance.PAYE, StatutEcheance.PAYE_AVEC_RETARD));
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        return query.getResultList();
+    }
+
+    /**
+     * Compte les échéances non soldées d'un prêt et, parmi elles, celles en retard
+     * @return [nombre non soldées, nombre EN_RETARD]
+     */
+    public long[] compterImpayees(Long pretId) {
+        TypedQuery<Object[]> query = entityManager.createQuery(
+            "SELECT COUNT(e), COALESCE(SUM(CASE WHEN e.statut = :enRetard THEN 1 ELSE 0 END), 0) " +
+            "FROM Echeance e WHERE e.pret.idPret = :pretId AND e.statut NOT IN :soldees", Object[].class);
+        query.setParameter("enRetard", StatutEcheance.EN_RETARD);
+        query.setParameter("pretId", pretId);
+        query.setParameter("soldees", List.of(StatutEcheance.PAYE, StatutEcheance.PAYE_AVEC_RETARD));
+        Object[] resultat = query.getSingleResult();
+        return new long[] {((Number) resultat[0]).longValue(), ((Number) resultat[1]).longValue()};
+    }
+
+    /**
+     * Somme du capital des échéances soldées d'un prêt
+     */
+    public BigDecimal sommerCapitalSolde(Long pretId) {
+        TypedQuery<BigDecimal> query = entityManager.createQuery(
+            "SELECT COALESCE(SUM(e.capital), 0) FROM Echeance e " +
+            "WHERE e.pret.idPret = :pretId AND e.statut IN :soldees", BigDecimal.class);
+        query.setParameter("pretId", pretId);
+        query.setParameter("soldees", List.of(StatutEcheance.PAYE, StatutEcheance.PAYE_AVEC_RETARD));
+        return query.getSingleResult();
+    }
+
+    /**
+     * Agrégats de suivi d'un prêt, en une requête
+     * @param date Date de référence pour l'arriéré (échéances antérieures non soldées)
+     * @return [total payé, capital des échéances non soldées, reste à payer, arriéré,
+     *          pénalités restantes, nombre d'échéances, nombre non soldées, nombre EN_RETARD]
+     */
+    public Object[] agregerParPret(Long pretId, LocalDate date) {
+        String impayee = "e.statut <> :paye AND e.statut <> :payeRetard";
+        String reste = "e.montantEcheance + COALESCE(e.penaliteAppliquee, 0) - COALESCE(e.montantPaye, 0)";
+        TypedQuery<Object[]> query = entityManager.createQuery(
+            "SELECT COALESCE(SUM(e.montantPaye), 0), " +
+            "COALESCE(SUM(CASE WHEN " + impayee + " THEN e.capital ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN " + impayee + " THEN " + reste + " ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN " + impayee + " AND e.dateEcheance < :date THEN " + reste + " ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN " + impayee + " THEN COALESCE(e.penaliteAppliquee, 0) - COALESCE(e.penalitePayee, 0) ELSE 0 END), 0), " +
+            "COUNT(e), " +
+            "COALESCE(SUM(CASE WHEN " + impayee + " THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN e.statut = :enRetard THEN 1 ELSE 0 END), 0) " +
+            "FROM Echeance e WHERE e.pret.idPret = :pretId", Object[].class);
+        query.setParameter("paye", StatutEcheance.PAYE);
+        query.setParameter("payeRetard", StatutEcheance.PAYE_AVEC_RETARD);
+        query.setParameter("enRetard", StatutEcheance.EN_RETARD);
+        query.setParameter("date", date);
+        query.setParameter("pretId", pretId);
+        return query.getSingleResult();
+    }
+
+    /**
+     * Retard par prêt : uniquement les prêts ayant au moins une échéance non soldée en retard
+     * @return [idPret, plus grand nombre de jours de retard, montant en retard pénalités comprises]
+     */
+    public List<Object[]> agregerRetardParPret() {
+        TypedQuery<Object[]> query = entityManager.createQuery(
+            "SELECT e.pret.idPret, MAX(e.joursRetard), " +
+            "COALESCE(SUM(e.montantEcheance + COALESCE(e.penaliteAppliquee, 0) - COALESCE(e.montantPaye, 0)), 0) " +
+            "FROM Echeance e WHERE e.statut NOT IN :soldees AND e.joursRetard > 0 " +
+            "GROUP BY e.pret.idPret", Object[].class);
+        query.setParameter("soldees", List.of(StatutEcheance.PAYE, StatutEcheance.PAYE_AVEC_RETARD));
+        return query.getResultList();
+    }
+
     /**
      * Supprime une échéance
      */
@@ -116,4 +310,19 @@ public class EcheanceRepository {
             "SELECT e FROM Echeance e ORDER BY e.pret.idPret, e.numeroEcheance ASC", Echeance.class);
         return query.getResultList();
     }
+
+    /**
+     * Écrit un lot d'échéances puis les détache, sans toucher au prêt
+     * ni aux autres entités gérées de la transaction
+     */
+    private void ecrireLot(List<Echeance> lot) {
+        if (lot.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        for (Echeance echeance : lot) {
+            entityManager.detach(echeance);
+        }
+        lot.clear();
+    }
 }
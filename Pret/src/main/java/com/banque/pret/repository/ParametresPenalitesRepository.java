@@ -0,0 +1,39 @@
+package com.banque.pret.repository;
+
+import com.banque.pret.entity.ParametresPenalites;
+import jakarta.ejb.Stateless;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pour les paramètres de pénalités
+ */
+@Stateless
+public class ParametresPenalitesRepository {
+
+    @PersistenceContext(unitName = "PretPU")
+    private EntityManager entityManager;
+
+    /**
+     * Recherche les paramètres actifs d'un type de pénalité en vigueur à une date
+     * (les plus récents s'il en existe plusieurs)
+     * @param typePenalite Type de pénalité ('RETARD', ...)
+     * @param date Date de calcul
+     */
+    public Optional<ParametresPenalites> findActif(String typePenalite, LocalDate date) {
+        TypedQuery<ParametresPenalites> query = entityManager.createQuery(
+            "SELECT p FROM ParametresPenalites p WHERE p.typePenalite = :type AND p.actif = true " +
+            "AND (p.dateDebut IS NULL OR p.dateDebut <= :date) AND (p.dateFin IS NULL OR p.dateFin >= :date) " +
+            "ORDER BY p.dateCreation DESC", ParametresPenalites.class);
+        query.setParameter("type", typePenalite);
+        query.setParameter("date", date);
+        query.setMaxResults(1);
+        List<ParametresPenalites> resultats = query.getResultList();
+        return resultats.isEmpty() ? Optional.empty() : Optional.of(resultats.get(0));
+    }
+}
@@ -4,9 +4,11 @@ import com.banque.pret.entity.Pret;
 import com.banque.pret.entity.enums.StatutPret;
 import jakarta.ejb.Stateless;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
@@ -19,6 +21,16 @@ public class PretRepository {
 
     private static final Logger LOGGER = Logger.getLogger(PretRepository.class.getName());
 
+    // Encours d'un prêt vivant : capital restant dû, ou montant accordé pour les
+    // prêts approuvés avant le suivi du capital restant
+    private static final String ENCOURS =
+        "COALESCE(SUM(CASE WHEN p.statut IN :actifs THEN COALESCE(p.capitalRestantDu, p.montantAccorde) ELSE 0 END), 0)";
+    // Associations lues par PretMapper, chargées avec les prêts des requêtes de liste
+    private static final String DETAILS = "LEFT JOIN FETCH p.client LEFT JOIN FETCH p.typePret ";
+
+    private static final List<StatutPret> STATUTS_ACTIFS =
+        List.of(StatutPret.APPROUVE, StatutPret.EN_COURS, StatutPret.EN_RETARD);
+
     @PersistenceContext(unitName = "PretPU")
     private EntityManager entityManager;
 
@@ -27,8 +39,8 @@ public class PretRepository {
      */
     public Pret save(Pret pret) {
         LOGGER.info("Sauvegarde du prêt : " + pret.getNumeroPret());
+        // Pas de flush : l'INSERT part dans le lot JDBC à la fin de la transaction
         entityManager.persist(pret);
-        entityManager.flush();
         return pret;
     }
 
@@ -49,13 +61,33 @@ public class PretRepository {
         return Optional.ofNullable(pret);
     }
 
+    /**
+     * Recherche un prêt par son ID avec son client et son type de prêt
+     * (une seule requête pour l'affichage du dossier)
+     */
+    public Optional<Pret> findByIdAvecDetails(Long id) {
+        TypedQuery<Pret> query = entityManager.createQuery(
+            "SELECT p FROM Pret p " + DETAILS + "WHERE p.idPret = :id", Pret.class);
+        query.setParameter("id", id);
+        return query.getResultStream().findFirst();
+    }
+
+    /**
+     * Recherche un prêt par son ID en le verrouillant en écriture
+     * (sérialise les remboursements d'un même prêt)
+     */
+    public Optional<Pret> findByIdForUpdate(Long id) {
+        Pret pret = entityManager.find(Pret.class, id, LockModeType.PESSIMISTIC_WRITE);
+        return Optional.ofNullable(pret);
+    }
+
     /**
      * Recherche un prêt par son numéro
      */
     public Optional<Pret> findByNumeroPret(String numeroPret) {
         LOGGER.info("Recherche du prêt par numéro : " + numeroPret);
         TypedQuery<Pret> query = entityManager.createQuery(
-            "SELECT p FROM Pret p WHERE p.numeroPret = :numeroPret", Pret.class);
+            "SELECT p FROM Pret p " + DETAILS + "WHERE p.numeroPret = :numeroPret", Pret.class);
         query.setParameter("numeroPret", numeroPret);
         
         List<Pret> results = query.getResultList();
@@ -68,7 +100,7 @@ public class PretRepository {
     public List<Pret> findAll() {
         LOGGER.info("Récupération de tous les prêts");
         TypedQuery<Pret> query = entityManager.createQuery(
-            "SELECT p FROM Pret p ORDER BY p.dateDemande DESC", Pret.class);
+            "SELECT p FROM Pret p " + DETAILS + "ORDER BY p.dateDemande DESC", Pret.class);
         return query.getResultList();
     }
 
@@ -78,7 +110,7 @@ public class PretRepository {
     public List<Pret> findByClientId(Long clientId) {
         LOGGER.info("Récupération des prêts du client : " + clientId);
         TypedQuery<Pret> query = entityManager.createQuery(
-            "SELECT p FROM Pret p WHERE p.client.idClient = :clientId ORDER BY p.dateDemande DESC", Pret.class);
+            "SELECT p FROM Pret p " + DETAILS + "WHERE p.client.idClient = :clientId ORDER BY p.dateDemande DESC", Pret.class);
         query.setParameter("clientId", clientId);
         return query.getResultList();
     }
@@ -89,7 +121,7 @@ public class PretRepository {
     public List<Pret> findByStatut(StatutPret statut) {
         LOGGER.info("Récupération des prêts avec statut : " + statut);
         TypedQuery<Pret> query = entityManager.createQuery(
-            "SELECT p FROM Pret p WHERE p.statut = :statut ORDER BY p.dateDemande DESC", Pret.class);
+            "SELECT p FROM Pret p " + DETAILS + "WHERE p.statut = :statut ORDER BY p.dateDemande DESC", Pret.class);
         query.setParameter("statut", statut);
         return query.getResultList();
     }
@@ -100,12 +132,51 @@ public class PretRepository {
     public List<Pret> findByClientIdAndStatut(Long clientId, StatutPret statut) {
         LOGGER.info("Récupération des prêts du client " + clientId + " avec statut : " + statut);
         TypedQuery<Pret> query = entityManager.createQuery(
-            "SELECT p FROM Pret p WHERE p.client.idClient = :clientId AND p.statut = :statut ORDER BY p.dateDemande DESC", Pret.class);
+            "SELECT p FROM Pret p " + DETAILS + "WHERE p.client.idClient = :clientId AND p.statut = :statut ORDER BY p.dateDemande DESC", Pret.class);
         query.setParameter("clientId", clientId);
         query.setParameter("statut", statut);
         return query.getResultList();
     }
 
+    /**
+     * Agrège le portefeuille par statut
+     * @return [statut, nombre, montant accordé, encours]
+     */
+    public List<Object[]> agregerParStatut() {
+        TypedQuery<Object[]> query = entityManager.createQuery(
+            "SELECT p.statut, COUNT(p), COALESCE(SUM(p.montantAccorde), 0), " + ENCOURS + " " +
+            "FROM Pret p GROUP BY p.statut ORDER BY p.statut", Object[].class);
+        query.setParameter("actifs", STATUTS_ACTIFS);
+        return query.getResultList();
+    }
+
+    /**
+     * Agrège le portefeuille par type de prêt
+     * @return [ID du type, libellé, nombre, montant accordé, encours]
+     */
+    public List<Object[]> agregerParTypePret() {
+        TypedQuery<Object[]> query = entityManager.createQuery(
+            "SELECT t.idTypePret, t.libelle, COUNT(p), COALESCE(SUM(p.montantAccorde), 0), " + ENCOURS + " " +
+            "FROM Pret p JOIN p.typePret t GROUP BY t.idTypePret, t.libelle ORDER BY t.libelle", Object[].class);
+        query.setParameter("actifs", STATUTS_ACTIFS);
+        return query.getResultList();
+    }
+
+    /**
+     * Agrège par mois de demande les prêts demandés depuis une date
+     * @return [année, mois, nombre, montant accordé, encours], du plus récent au plus ancien
+     */
+    public List<Object[]> agregerParMoisDemande(LocalDate depuis) {
+        TypedQuery<Object[]> query = entityManager.createQuery(
+            "SELECT YEAR(p.dateDemande), MONTH(p.dateDemande), COUNT(p), COALESCE(SUM(p.montantAccorde), 0), " +
+            ENCOURS + " FROM Pret p WHERE p.dateDemande >= :depuis " +
+            "GROUP BY YEAR(p.dateDemande), MONTH(p.dateDemande) " +
+            "ORDER BY YEAR(p.dateDemande) DESC, MONTH(p.dateDemande) DESC", Object[].class);
+        query.setParameter("actifs", STATUTS_ACTIFS);
+        query.setParameter("depuis", depuis);
+        return query.getResultList();
+    }
+
     /**
      * Supprime un prêt
      */
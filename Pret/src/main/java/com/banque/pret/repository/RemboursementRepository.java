@@ -26,8 +26,8 @@ public class RemboursementRepository {
      */
     public Remboursement save(Remboursement remboursement) {
         LOGGER.info("Sauvegarde du remboursement");
+        // Pas de flush : l'INSERT part dans le lot JDBC à la fin de la transaction
         entityManager.persist(remboursement);
-        entityManager.flush();
         return remboursement;
     }
 
@@ -65,7 +65,8 @@ public class RemboursementRepository {
     public List<Remboursement> findByPretId(Long pretId) {
         LOGGER.info("Récupération des remboursements du prêt : " + pretId);
         TypedQuery<Remboursement> query = entityManager.createQuery(
-            "SELECT r FROM Remboursement r WHERE r.echeance.pret.idPret = :pretId ORDER BY r.datePaiement DESC", Remboursement.class);
+            "SELECT r FROM Remboursement r JOIN r.echeance e WHERE e.pret.idPret = :pretId " +
+            "ORDER BY r.datePaiement DESC, r.idRemboursement DESC", Remboursement.class);
         query.setParameter("pretId", pretId);
         return query.getResultList();
     }
@@ -0,0 +1,149 @@
+package com.banque.pret.service;
+
+import com.banque.pret.entity.Echeance;
+import com.banque.pret.entity.Pret;
+import com.banque.pret.entity.Remboursement;
+import com.banque.pret.entity.enums.StatutEcheance;
+import com.banque.pret.entity.enums.StatutPret;
+import com.banque.pret.entity.enums.TypePaiement;
+import com.banque.pret.repository.EcheanceRepository;
+import com.banque.pret.repository.PretRepository;
+import com.banque.pret.repository.RemboursementRepository;
+
+import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Service d'affectation des remboursements aux échéances d'un prêt.
+ * Un paiement est affecté à l'échéance visée puis, pour l'excédent, aux
+ * échéances suivantes dans l'ordre ; sur chaque échéance il couvre d'abord
+ * les pénalités, puis les intérêts, puis le capital. Les paiements partiels
+ * sont cumulés sur l'échéance (montant_paye, penalite_payee) : le reste dû
+ * se lit sans relire les remboursements précédents.
+ */
+@Stateless
+public class AllocationRemboursementService {
+
+    private static final Logger LOGGER = Logger.getLogger(AllocationRemboursementService.class.getName());
+
+    @Inject
+    private PretRepository pretRepository;
+
+    @Inject
+    private EcheanceRepository echeanceRepository;
+
+    @Inject
+    private RemboursementRepository remboursementRepository;
+
+    /**
+     * Affecte un paiement à partir d'une échéance
+     * @param echeanceVisee Échéance désignée par le paiement
+     * @param montant Montant payé
+     * @param modele Remboursement portant les informations communes (compte,
+     *               transaction, type de paiement, date, administrateur)
+     * @return Les remboursements créés, un par échéance réglée, le premier
+     *         concernant l'échéance visée
+     */
+    public List<Remboursement> affecter(Echeance echeanceVisee, BigDecimal montant, Remboursement modele) {
+        Long idPret = echeanceVisee.getPret().getIdPret();
+
+        // Le verrou du prêt sérialise les paiements concurrents d'un même prêt
+        Pret pret = pretRepository.findByIdForUpdate(idPret)
+            .orElseThrow(() -> new IllegalArgumentException("Prêt non trouvé"));
+        // L'échéance visée a été lue avant le verrou : relue sous verrou, elle reflète
+        // les paiements validés entre-temps (la requête suivante la renvoie telle quelle)
+        echeanceRepository.verrouiller(echeanceVisee);
+        List<Echeance> echeances = echeanceRepository.findImpayeesAPartirDeForUpdate(
+            idPret, echeanceVisee.getNumeroEcheance());
+        if (echeances.isEmpty() || !echeances.get(0).getIdEcheance().equals(echeanceVisee.getIdEcheance())) {
+            throw new IllegalStateException("L'échéance est déjà soldée");
+        }
+
+        BigDecimal totalDu = echeances.stream()
+            .map(e -> e.penaliteRestante().add(e.resteAPayerHorsPenalite()))
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (montant.compareTo(totalDu) > 0) {
+            throw new IllegalArgumentException(String.format(
+                "Le montant (%s) dépasse le total restant dû sur le prêt (%s)", montant, totalDu));
+        }
+
+        if (pret.getCapitalRestantDu() == null) {
+            // Prêt approuvé avant le suivi du capital restant dû
+            pret.setCapitalRestantDu(pret.getMontantAccorde().subtract(echeanceRepository.sommerCapitalSolde(idPret)));
+        }
+
+        List<Remboursement> remboursements = new ArrayList<>();
+        BigDecimal reste = montant;
+        BigDecimal capitalRembourse = BigDecimal.ZERO;
+
+        for (Echeance echeance : echeances) {
+            if (reste.signum() <= 0) {
+                break;
+            }
+            BigDecimal capitalAvant = echeance.capitalPaye();
+
+            BigDecimal partPenalite = reste.min(echeance.penaliteRestante());
+            reste = reste.subtract(partPenalite);
+            BigDecimal partEcheance = reste.min(echeance.resteAPayerHorsPenalite());
+            reste = reste.subtract(partEcheance);
+
+            BigDecimal partTotale = partPenalite.add(partEcheance);
+            echeance.setPenalitePayee(valeur(echeance.getPenalitePayee()).add(partPenalite));
+            echeance.setMontantPaye(valeur(echeance.getMontantPaye()).add(partTotale));
+            capitalRembourse = capitalRembourse.add(echeance.capitalPaye().subtract(capitalAvant));
+
+            if (echeance.penaliteRestante().signum() == 0 && echeance.resteAPayerHorsPenalite().signum() == 0) {
+                solder(echeance, modele.getDatePaiement());
+            }
+
+            remboursements.add(remboursementRepository.save(Remboursement.builder()
+                .echeance(echeance)
+                .idCompte(modele.getIdCompte())
+                .montant(partTotale)
+                .montantEcheance(echeance.getMontantEcheance())
+                .montantPenalite(partPenalite)
+                .numeroTransaction(modele.getNumeroTransaction())
+                .datePaiement(modele.getDatePaiement())
+                .typePaiement(modele.getTypePaiement() != null ? modele.getTypePaiement() : TypePaiement.VIREMENT)
+                .idAdministrateur(modele.getIdAdministrateur())
+                .build()));
+        }
+
+        mettreAJourPret(pret, capitalRembourse);
+        LOGGER.info("Paiement de " + montant + " affecté sur " + remboursements.size() + " échéance(s) du prêt "
+            + pret.getNumeroPret() + ", capital restant dû : " + pret.getCapitalRestantDu());
+        return remboursements;
+    }
+
+    private void solder(Echeance echeance, LocalDateTime datePaiement) {
+        LocalDateTime date = datePaiement != null ? datePaiement : LocalDateTime.now();
+        boolean enRetard = echeance.getStatut() == StatutEcheance.EN_RETARD
+            || date.toLocalDate().isAfter(echeance.getDateEcheance());
+        echeance.setStatut(enRetard ? StatutEcheance.PAYE_AVEC_RETARD : StatutEcheance.PAYE);
+        echeance.setDatePaiement(date.toLocalDate());
+    }
+
+    /**
+     * Met à jour le capital restant dû et le statut du prêt après un paiement
+     */
+    private void mettreAJourPret(Pret pret, BigDecimal capitalRembourse) {
+        pret.setCapitalRestantDu(pret.getCapitalRestantDu().subtract(capitalRembourse).max(BigDecimal.ZERO));
+
+        long[] impayees = echeanceRepository.compterImpayees(pret.getIdPret());
+        if (impayees[0] == 0) {
+            pret.setStatut(StatutPret.TERMINE);
+        } else if (impayees[1] == 0
+            && (pret.getStatut() == StatutPret.APPROUVE || pret.getStatut() == StatutPret.EN_RETARD)) {
+            pret.setStatut(StatutPret.EN_COURS);
+        }
+    }
+
+    private static BigDecimal valeur(BigDecimal montant) {
+        return montant != null ? montant : BigDecimal.ZERO;
+    }
+}
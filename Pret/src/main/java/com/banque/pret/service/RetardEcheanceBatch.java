@@ -0,0 +1,79 @@
+package com.banque.pret.service;
+
+import com.banque.pret.repository.EcheanceRepository;
+
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Traitement quotidien des retards de paiement.
+ * Les échéances échues non payées sont traitées par lots, chaque lot dans sa
+ * propre transaction. Le traitement est reprenable : une échéance dont le
+ * retard est déjà calculé pour la date n'est plus sélectionnée, une relance
+ * après incident reprend donc là où le traitement s'est arrêté.
+ */
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class RetardEcheanceBatch {
+
+    private static final Logger LOGGER = Logger.getLogger(RetardEcheanceBatch.class.getName());
+
+    private static final int TAILLE_LOT = 200;
+
+    @Inject
+    private EcheanceRepository echeanceRepository;
+
+    @Inject
+    private RetardEcheanceService retardEcheanceService;
+
+    /**
+     * Calcule chaque nuit les retards à la date du jour
+     */
+    @Schedule(hour = "1", minute = "0", persistent = false)
+    public void executerTraitementQuotidien() {
+        calculerRetards(LocalDate.now());
+    }
+
+    /**
+     * Calcule les retards et pénalités de toutes les échéances échues à une date
+     * @param date Date de calcul
+     * @return Le nombre d'échéances en retard
+     */
+    public int calculerRetards(LocalDate date) {
+        LOGGER.info("Début du calcul des retards de paiement au " + date);
+
+        int echeancesTraitees = 0;
+        int echeancesEnRetard = 0;
+        int lotsEnEchec = 0;
+        Long dernierId = 0L;
+        List<Long> lot;
+
+        do {
+            lot = echeanceRepository.findIdsARelancer(date, dernierId, TAILLE_LOT);
+            if (lot.isEmpty()) {
+                break;
+            }
+            try {
+                echeancesEnRetard += retardEcheanceService.traiterLot(date, lot);
+            } catch (Exception e) {
+                // Le lot est annulé et sera repris à la prochaine exécution
+                lotsEnEchec++;
+                LOGGER.log(Level.SEVERE, "Échec du lot d'échéances " + lot.get(0) + " à "
+                    + lot.get(lot.size() - 1) + " pour les retards au " + date, e);
+            }
+            echeancesTraitees += lot.size();
+            dernierId = lot.get(lot.size() - 1);
+        } while (lot.size() == TAILLE_LOT);
+
+        LOGGER.info("Retards au " + date + " : " + echeancesTraitees + " échéances traitées, "
+            + echeancesEnRetard + " en retard, " + lotsEnEchec + " lots en échec");
+        return echeancesEnRetard;
+    }
+}
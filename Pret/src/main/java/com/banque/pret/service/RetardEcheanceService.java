@@ -0,0 +1,162 @@
+package com.banque.pret.service;
+
+import com.banque.pret.entity.Echeance;
+import com.banque.pret.entity.ParametresPenalites;
+import com.banque.pret.entity.Pret;
+import com.banque.pret.entity.TypePret;
+import com.banque.pret.entity.enums.StatutEcheance;
+import com.banque.pret.entity.enums.StatutPret;
+import com.banque.pret.repository.EcheanceRepository;
+import com.banque.pret.repository.ParametresPenalitesRepository;
+import com.banque.pret.repository.PretRepository;
+
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Service de suivi des retards de paiement des échéances.
+ * Le retard d'une échéance est recalculé à partir des dates. La pénalité est
+ * cumulée depuis la date du dernier calcul : chaque jour facturable ajoute le
+ * reste à payer de l'échéance ce jour-là × taux / 30, les jours facturables
+ * étant les jours de retard au-delà du délai de tolérance. Un paiement partiel
+ * ne réduit donc que les pénalités à venir, jamais celles déjà constatées, et
+ * un calcul relancé pour une date déjà traitée n'ajoute rien.
+ * Le cumul est borné par les montants minimum et maximum des paramètres, sans
+ * jamais descendre sous la part de pénalité déjà payée.
+ */
+@Stateless
+public class RetardEcheanceService {
+
+    private static final Logger LOGGER = Logger.getLogger(RetardEcheanceService.class.getName());
+
+    private static final String TYPE_PENALITE_RETARD = "RETARD";
+    private static final BigDecimal JOURS_PAR_MOIS = BigDecimal.valueOf(30);
+
+    @Inject
+    private EcheanceRepository echeanceRepository;
+
+    @Inject
+    private ParametresPenalitesRepository parametresPenalitesRepository;
+
+    @Inject
+    private PretRepository pretRepository;
+
+    /**
+     * Met à jour le retard d'un lot d'échéances et les totaux de leurs prêts,
+     * dans sa propre transaction. Les prêts sont verrouillés en premier.
+     * @param date Date de calcul
+     * @param idsEcheances IDs des échéances du lot
+     * @return Le nombre d'échéances en retard dans le lot
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int traiterLot(LocalDate date, List<Long> idsEcheances) {
+        Optional<ParametresPenalites> parametres = parametresPenalitesRepository.findActif(TYPE_PENALITE_RETARD, date);
+        Map<Long, Pret> prets = new HashMap<>();
+        int echeancesEnRetard = 0;
+
+        // Prêts verrouillés avant leurs échéances et dans l'ordre des IDs, comme pour un
+        // paiement : pas d'interblocage, et les totaux s'écrivent sur l'état validé du prêt
+        for (Long idPret : echeanceRepository.findIdsPretsDesEcheances(idsEcheances)) {
+            pretRepository.findByIdForUpdate(idPret).ifPresent(pret -> prets.put(idPret, pret));
+        }
+
+        for (Echeance echeance : echeanceRepository.findByIdsForUpdate(idsEcheances)) {
+            if (calculerRetard(echeance, date, parametres.orElse(null))) {
+                echeancesEnRetard++;
+            }
+        }
+
+        // Totaux des prêts recalculés sur l'ensemble de leurs échéances
+        for (Object[] ligne : echeanceRepository.sommerPenalitesParPret(prets.keySet())) {
+            Pret pret = prets.get((Long) ligne[0]);
+            pret.setTotalPenalites((BigDecimal) ligne[1]);
+            if (((Number) ligne[2]).longValue() > 0 && pret.getStatut() != StatutPret.EN_RETARD) {
+                LOGGER.info("Prêt " + pret.getNumeroPret() + " en retard de paiement");
+                pret.setStatut(StatutPret.EN_RETARD);
+            }
+        }
+        return echeancesEnRetard;
+    }
+
+    /**
+     * Met à jour le statut, les jours de retard et la pénalité d'une échéance à une date
+     * @return true si l'échéance est en retard
+     */
+    private boolean calculerRetard(Echeance echeance, LocalDate date, ParametresPenalites parametres) {
+        LocalDate dernierCalcul = echeance.getDateCalculPenalite();
+        if (dernierCalcul == null || date.isAfter(dernierCalcul)) {
+            echeance.setDateCalculPenalite(date);
+        }
+        long joursRetard = ChronoUnit.DAYS.between(echeance.getDateEcheance(), date);
+        if (joursRetard <= 0) {
+            echeance.setStatut(StatutEcheance.ECHEANCE_AUJOURDHUI);
+            return false;
+        }
+
+        echeance.setStatut(StatutEcheance.EN_RETARD);
+        echeance.setJoursRetard((int) joursRetard);
+        echeance.setPenaliteAppliquee(calculerPenalite(echeance, dernierCalcul, joursRetard, parametres));
+        return true;
+    }
+
+    /**
+     * Pénalité cumulée : pénalité déjà constatée plus celle des jours facturables
+     * écoulés depuis le dernier calcul, sur le reste à payer actuel
+     */
+    private BigDecimal calculerPenalite(Echeance echeance, LocalDate dernierCalcul, long joursRetard,
+                                        ParametresPenalites parametres) {
+        // À défaut de paramètres actifs, taux et tolérance du type de prêt
+        TypePret typePret = echeance.getPret().getTypePret();
+        BigDecimal taux = parametres != null ? parametres.getTauxPenalite() : typePret.getPenaliteRetardTaux();
+        Integer tolerance = parametres != null ? parametres.getDelaiToleranceJours() : typePret.getDelaiToleranceJours();
+        long joursTolerance = tolerance != null ? tolerance : 0;
+
+        BigDecimal penalite = valeur(echeance.getPenaliteAppliquee());
+        long joursFacturables = joursRetard - joursTolerance;
+        long joursDejaFactures = dernierCalcul == null ? 0
+            : Math.max(0, ChronoUnit.DAYS.between(echeance.getDateEcheance(), dernierCalcul) - joursTolerance);
+        long joursNouveaux = joursFacturables - joursDejaFactures;
+        if (taux == null || taux.signum() <= 0 || joursNouveaux <= 0) {
+            return penalite;
+        }
+
+        BigDecimal minimum = parametres != null ? parametres.getMontantMinPenalite() : null;
+        if (minimum != null && penalite.compareTo(minimum) == 0) {
+            // Pénalité relevée au minimum : le cumul réel des jours déjà facturés
+            // (au plus le minimum) est réestimé sur le reste à payer actuel
+            penalite = penaliteSurJours(echeance, taux, joursDejaFactures).min(minimum);
+        }
+        penalite = penalite.add(penaliteSurJours(echeance, taux, joursNouveaux));
+        if (minimum != null && penalite.compareTo(minimum) < 0) {
+            penalite = minimum;
+        }
+        if (parametres != null && parametres.getMontantMaxPenalite() != null
+            && penalite.compareTo(parametres.getMontantMaxPenalite()) > 0) {
+            penalite = parametres.getMontantMaxPenalite();
+        }
+        // La part déjà payée reste due : la pénalité ne descend jamais en dessous
+        return penalite.max(valeur(echeance.getPenalitePayee()));
+    }
+
+    private static BigDecimal penaliteSurJours(Echeance echeance, BigDecimal taux, long jours) {
+        return echeance.resteAPayerHorsPenalite()
+            .multiply(taux)
+            .multiply(BigDecimal.valueOf(jours))
+            .divide(JOURS_PAR_MOIS, 2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal valeur(BigDecimal montant) {
+        return montant != null ? montant : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,204 @@
+package com.banque.pret.service;
+
+import com.banque.pret.dto.SimulationPretDTO;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Cache des résultats de simulation de prêt (mensualité, totaux et tableau
+ * d'amortissement), borné en taille (LRU) et en durée de vie.
+ * La clé comprend une version par type de prêt : toute modification d'un type
+ * (taux, frais, plafonds) incrémente sa version à la validation de la
+ * transaction qui le modifie, ce qui rend inaccessibles dès ce moment les
+ * résultats calculés avec les anciennes valeurs, y compris ceux d'un calcul en
+ * cours. Incrémentée avant la validation, la version laisserait une simulation
+ * lire l'ancien taux encore validé et le ranger sous la nouvelle version.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class SimulationCache {
+
+    private static final Logger LOGGER = Logger.getLogger(SimulationCache.class.getName());
+
+    private static final int TAILLE_MAX = 2000;
+    private static final long DUREE_VIE_MS = 15 * 60 * 1000L;
+
+    @Resource
+    private TransactionSynchronizationRegistry registreTransactions;
+
+    private final Map<Long, AtomicLong> versionsTypePret = new ConcurrentHashMap<>();
+
+    private final AtomicLong succes = new AtomicLong();
+    private final AtomicLong echecs = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Ordre d'accès : l'entrée la moins récemment lue est évincée en premier
+    private final LinkedHashMap<Cle, Entree> entrees = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Cle, Entree> eldest) {
+            if (size() > TAILLE_MAX) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Clé d'une simulation pour la version courante du type de prêt
+     */
+    public Cle cle(Long idTypePret, BigDecimal montant, Integer dureeMois, LocalDate datePremiereEcheance) {
+        long version = versionsTypePret.computeIfAbsent(idTypePret, id -> new AtomicLong()).get();
+        return new Cle(idTypePret, montant.stripTrailingZeros(), dureeMois, datePremiereEcheance, version);
+    }
+
+    /**
+     * @return La simulation en cache, ou null si absente ou expirée
+     */
+    public SimulationPretDTO get(Cle cle) {
+        Entree entree;
+        synchronized (entrees) {
+            entree = entrees.get(cle);
+            if (entree != null && entree.expiration < System.currentTimeMillis()) {
+                entrees.remove(cle);
+                evictions.incrementAndGet();
+                entree = null;
+            }
+        }
+        if (entree == null) {
+            echecs.incrementAndGet();
+            return null;
+        }
+        succes.incrementAndGet();
+        return entree.simulation;
+    }
+
+    public void put(Cle cle, SimulationPretDTO simulation) {
+        Entree entree = new Entree(simulation, System.currentTimeMillis() + DUREE_VIE_MS);
+        synchronized (entrees) {
+            entrees.put(cle, entree);
+        }
+    }
+
+    /**
+     * Invalide les simulations d'un type de prêt à la validation de la transaction
+     * courante (à appeler lors de toute modification du type) ; sans effet si elle
+     * est annulée, immédiat hors transaction
+     */
+    public void invaliderApresValidation(Long idTypePret) {
+        if (registreTransactions == null || registreTransactions.getTransactionKey() == null) {
+            invalider(idTypePret);
+            return;
+        }
+        registreTransactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // Rien à faire avant la validation
+            }
+
+            @Override
+            public void afterCompletion(int statut) {
+                if (statut == Status.STATUS_COMMITTED) {
+                    invalider(idTypePret);
+                }
+            }
+        });
+    }
+
+    /**
+     * Invalide immédiatement les simulations d'un type de prêt
+     */
+    public void invalider(Long idTypePret) {
+        versionsTypePret.computeIfAbsent(idTypePret, id -> new AtomicLong()).incrementAndGet();
+        int supprimees = 0;
+        synchronized (entrees) {
+            var iterateur = entrees.keySet().iterator();
+            while (iterateur.hasNext()) {
+                if (iterateur.next().idTypePret.equals(idTypePret)) {
+                    iterateur.remove();
+                    supprimees++;
+                }
+            }
+        }
+        LOGGER.info("Cache des simulations invalidé pour le type de prêt " + idTypePret
+            + " (" + supprimees + " entrées supprimées) - " + getStatistiques());
+    }
+
+    /**
+     * Compteurs du cache : succes, echecs, evictions, taille
+     */
+    public Map<String, Long> getStatistiques() {
+        long taille;
+        synchronized (entrees) {
+            taille = entrees.size();
+        }
+        Map<String, Long> statistiques = new LinkedHashMap<>();
+        statistiques.put("succes", succes.get());
+        statistiques.put("echecs", echecs.get());
+        statistiques.put("evictions", evictions.get());
+        statistiques.put("taille", taille);
+        return statistiques;
+    }
+
+    public static final class Cle {
+        private final Long idTypePret;
+        private final BigDecimal montant;
+        private final Integer dureeMois;
+        private final LocalDate datePremiereEcheance;
+        private final long version;
+
+        private Cle(Long idTypePret, BigDecimal montant, Integer dureeMois,
+                    LocalDate datePremiereEcheance, long version) {
+            this.idTypePret = idTypePret;
+            this.montant = montant;
+            this.dureeMois = dureeMois;
+            this.datePremiereEcheance = datePremiereEcheance;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Cle)) {
+                return false;
+            }
+            Cle autre = (Cle) o;
+            return version == autre.version
+                && idTypePret.equals(autre.idTypePret)
+                && montant.equals(autre.montant)
+                && dureeMois.equals(autre.dureeMois)
+                && datePremiereEcheance.equals(autre.datePremiereEcheance);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idTypePret, montant, dureeMois, datePremiereEcheance, version);
+        }
+    }
+
+    private static final class Entree {
+        private final SimulationPretDTO simulation;
+        private final long expiration;
+
+        private Entree(SimulationPretDTO simulation, long expiration) {
+            this.simulation = simulation;
+            this.expiration = expiration;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.banque.pret.service;
+
+import com.banque.pret.dto.LignePortefeuilleDTO;
+import com.banque.pret.dto.StatistiquesPortefeuilleDTO;
+import com.banque.pret.repository.EcheanceRepository;
+import com.banque.pret.repository.PretRepository;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Statistiques du portefeuille de prêts (répartition par statut, par type,
+ * par mois de demande et par tranche de retard), calculées en base par
+ * GROUP BY puis conservées quelques instants : les écrans d'administration
+ * n'ont plus besoin de rapatrier l'ensemble des prêts pour compter.
+ * Un seul calcul à la fois ; les appelants concurrents attendent son résultat.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class StatistiquesPortefeuilleService {
+
+    private static final Logger LOGGER = Logger.getLogger(StatistiquesPortefeuilleService.class.getName());
+
+    private static final long DUREE_VIE_MS = 60 * 1000L;
+    private static final int NOMBRE_MOIS = 12;
+
+    private static final String[] TRANCHES_RETARD = {"0-30", "30-90", "90+"};
+
+    @Inject
+    private PretRepository pretRepository;
+
+    @Inject
+    private EcheanceRepository echeanceRepository;
+
+    private final Object verrouCalcul = new Object();
+
+    // Incrémentée à chaque invalidation : un calcul démarré avant n'est pas conservé
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Instantane instantane;
+
+    /**
+     * @return Les statistiques du portefeuille, recalculées si elles ont expiré
+     */
+    public StatistiquesPortefeuilleDTO obtenir() {
+        Instantane courant = instantane;
+        if (courant != null && courant.expiration > System.currentTimeMillis()) {
+            return courant.statistiques;
+        }
+        synchronized (verrouCalcul) {
+            courant = instantane;
+            if (courant != null && courant.expiration > System.currentTimeMillis()) {
+                return courant.statistiques;
+            }
+            long generationCalcul = generation.get();
+            StatistiquesPortefeuilleDTO statistiques = calculer();
+            if (generation.get() == generationCalcul) {
+                instantane = new Instantane(statistiques, System.currentTimeMillis() + DUREE_VIE_MS);
+            }
+            return statistiques;
+        }
+    }
+
+    /**
+     * Invalide les statistiques (à appeler après création, approbation ou refus d'un prêt)
+     */
+    public void invalider() {
+        generation.incrementAndGet();
+        instantane = null;
+    }
+
+    private StatistiquesPortefeuilleDTO calculer() {
+        long debut = System.currentTimeMillis();
+
+        List<LignePortefeuilleDTO> parStatut = new ArrayList<>();
+        long nombreTotal = 0;
+        BigDecimal montantAccordeTotal = BigDecimal.ZERO;
+        BigDecimal encoursTotal = BigDecimal.ZERO;
+        for (Object[] ligne : pretRepository.agregerParStatut()) {
+            String statut = ligne[0].toString();
+            LignePortefeuilleDTO dto = ligne(statut, statut, ligne[1], ligne[2], ligne[3]);
+            parStatut.add(dto);
+            nombreTotal += dto.getNombre();
+            montantAccordeTotal = montantAccordeTotal.add(dto.getMontantAccorde());
+            encoursTotal = encoursTotal.add(dto.getEncours());
+        }
+
+        List<LignePortefeuilleDTO> parTypePret = new ArrayList<>();
+        for (Object[] ligne : pretRepository.agregerParTypePret()) {
+            parTypePret.add(ligne(String.valueOf(ligne[0]), (String) ligne[1], ligne[2], ligne[3], ligne[4]));
+        }
+
+        LocalDate depuis = LocalDate.now().withDayOfMonth(1).minusMonths(NOMBRE_MOIS - 1);
+        List<LignePortefeuilleDTO> parMoisDemande = new ArrayList<>();
+        for (Object[] ligne : pretRepository.agregerParMoisDemande(depuis)) {
+            String mois = String.format("%04d-%02d", ((Number) ligne[0]).intValue(), ((Number) ligne[1]).intValue());
+            parMoisDemande.add(ligne(mois, mois, ligne[2], ligne[3], ligne[4]));
+        }
+
+        // Une ligne par prêt en retard : la tranche dépend de son échéance la plus ancienne
+        long[] nombresRetard = new long[TRANCHES_RETARD.length];
+        BigDecimal[] montantsRetard = {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO};
+        for (Object[] ligne : echeanceRepository.agregerRetardParPret()) {
+            int jours = ((Number) ligne[1]).intValue();
+            int tranche = jours <= 30 ? 0 : jours <= 90 ? 1 : 2;
+            nombresRetard[tranche]++;
+            montantsRetard[tranche] = montantsRetard[tranche].add((BigDecimal) ligne[2]);
+        }
+        List<LignePortefeuilleDTO> parTrancheRetard = new ArrayList<>();
+        for (int i = 0; i < TRANCHES_RETARD.length; i++) {
+            parTrancheRetard.add(LignePortefeuilleDTO.builder()
+                .cle(TRANCHES_RETARD[i])
+                .libelle(TRANCHES_RETARD[i] + " jours")
+                .nombre(nombresRetard[i])
+                .montantAccorde(BigDecimal.ZERO)
+                .encours(montantsRetard[i])
+                .build());
+        }
+
+        LOGGER.info("Statistiques du portefeuille calculées en " + (System.currentTimeMillis() - debut)
+            + " ms (" + nombreTotal + " prêts)");
+
+        return StatistiquesPortefeuilleDTO.builder()
+            .dateCalcul(LocalDateTime.now())
+            .nombreTotal(nombreTotal)
+            .montantAccordeTotal(montantAccordeTotal)
+            .encoursTotal(encoursTotal)
+            .parStatut(parStatut)
+            .parTypePret(parTypePret)
+            .parMoisDemande(parMoisDemande)
+            .parTrancheRetard(parTrancheRetard)
+            .build();
+    }
+
+    private static LignePortefeuilleDTO ligne(String cle, String libelle, Object nombre,
+                                              Object montantAccorde, Object encours) {
+        return LignePortefeuilleDTO.builder()
+            .cle(cle)
+            .libelle(libelle)
+            .nombre(((Number) nombre).longValue())
+            .montantAccorde((BigDecimal) montantAccorde)
+            .encours((BigDecimal) encours)
+            .build();
+    }
+
+    private static final class Instantane {
+        private final StatistiquesPortefeuilleDTO statistiques;
+        private final long expiration;
+
+        private Instantane(StatistiquesPortefeuilleDTO statistiques, long expiration) {
+            this.statistiques = statistiques;
+            this.expiration = expiration;
+        }
+    }
+}
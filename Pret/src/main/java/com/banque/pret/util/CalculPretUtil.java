@@ -1,12 +1,11 @@
 package com.banque.pret.util;
 
 import com.banque.pret.dto.EcheanceDTO;
-import com.banque.pret.entity.enums.StatutEcheance;
+import com.banque.pret.entity.enums.MethodeAmortissement;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -23,83 +22,35 @@ public class CalculPretUtil {
         if (montant == null || tauxAnnuel == null || dureeMois == null || dureeMois <= 0) {
             throw new IllegalArgumentException("Paramètres invalides pour le calcul de la mensualité");
         }
-
-        // Taux mensuel
-        BigDecimal tauxMensuel = tauxAnnuel.divide(BigDecimal.valueOf(12), 10, RoundingMode.HALF_UP)
-                                           .divide(BigDecimal.valueOf(100), 10, RoundingMode.HALF_UP);
-
-        // Si taux = 0, mensualité simple
-        if (tauxMensuel.compareTo(BigDecimal.ZERO) == 0) {
-            return montant.divide(BigDecimal.valueOf(dureeMois), 2, RoundingMode.HALF_UP);
-        }
-
-        // Formule : M = C * (t / (1 - (1 + t)^-n))
-        BigDecimal unPlusTaux = BigDecimal.ONE.add(tauxMensuel);
-        BigDecimal puissance = BigDecimal.valueOf(Math.pow(unPlusTaux.doubleValue(), -dureeMois));
-        BigDecimal denominateur = BigDecimal.ONE.subtract(puissance);
-        BigDecimal mensualite = montant.multiply(tauxMensuel).divide(denominateur, 2, RoundingMode.HALF_UP);
-
-        return mensualite;
+        return MoteurAmortissement.pour(montant, tauxAnnuel, dureeMois).getMensualite();
     }
 
     /**
-     * Génère le tableau d'amortissement complet
+     * Génère le tableau d'amortissement complet (annuité constante)
      */
     public static List<EcheanceDTO> genererTableauAmortissement(
             BigDecimal montant, 
             BigDecimal tauxAnnuel, 
             Integer dureeMois,
             LocalDate datePremiereEcheance) {
+        return genererTableauAmortissement(montant, tauxAnnuel, dureeMois, datePremiereEcheance,
+                                           MethodeAmortissement.ANNUITE_CONSTANTE);
+    }
+
+    /**
+     * Génère le tableau d'amortissement complet selon la méthode choisie
+     */
+    public static List<EcheanceDTO> genererTableauAmortissement(
+            BigDecimal montant, 
+            BigDecimal tauxAnnuel, 
+            Integer dureeMois,
+            LocalDate datePremiereEcheance,
+            MethodeAmortissement methode) {
         
         if (montant == null || tauxAnnuel == null || dureeMois == null || datePremiereEcheance == null) {
             throw new IllegalArgumentException("Paramètres invalides pour la génération du tableau d'amortissement");
         }
-
-        List<EcheanceDTO> tableau = new ArrayList<>();
-        
-        BigDecimal mensualite = calculerMensualite(montant, tauxAnnuel, dureeMois);
-        BigDecimal tauxMensuel = tauxAnnuel.divide(BigDecimal.valueOf(12), 10, RoundingMode.HALF_UP)
-                                           .divide(BigDecimal.valueOf(100), 10, RoundingMode.HALF_UP);
-        
-        BigDecimal capitalRestant = montant;
-        LocalDate dateEcheance = datePremiereEcheance;
-
-        for (int i = 1; i <= dureeMois; i++) {
-            // Calcul des intérêts
-            BigDecimal interet = capitalRestant.multiply(tauxMensuel).setScale(2, RoundingMode.HALF_UP);
-            
-            // Calcul du capital remboursé
-            BigDecimal capital = mensualite.subtract(interet);
-            
-            // Ajustement pour la dernière échéance (arrondi)
-            if (i == dureeMois) {
-                capital = capitalRestant;
-                mensualite = capital.add(interet);
-            }
-            
-            // Nouveau capital restant
-            capitalRestant = capitalRestant.subtract(capital);
-            
-            // Création de l'échéance
-            EcheanceDTO echeance = EcheanceDTO.builder()
-                    .numeroEcheance(i)
-                    .montantEcheance(mensualite)
-                    .capital(capital)
-                    .interet(interet)
-                    .capitalRestant(capitalRestant)
-                    .dateEcheance(dateEcheance)
-                    .statut(StatutEcheance.A_VENIR.name())
-                    .penaliteAppliquee(BigDecimal.ZERO)
-                    .joursRetard(0)
-                    .build();
-            
-            tableau.add(echeance);
-            
-            // Date de la prochaine échéance
-            dateEcheance = dateEcheance.plusMonths(1);
-        }
-
-        return tableau;
+        return MoteurAmortissement.pour(montant, tauxAnnuel, dureeMois).tableau(methode, datePremiereEcheance);
     }
 
     /**
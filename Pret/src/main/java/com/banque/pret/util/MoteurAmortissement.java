@@ -0,0 +1,187 @@
+package com.banque.pret.util;
+
+import com.banque.pret.dto.EcheanceDTO;
+import com.banque.pret.entity.enums.MethodeAmortissement;
+import com.banque.pret.entity.enums.StatutEcheance;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moteur de calcul d'amortissement d'un prêt (montant, taux annuel, durée).
+ * Le taux mensuel et le facteur (1 + t)^n sont calculés une seule fois, en
+ * décimal exact (aucun passage par double). Les montants sont arrondis au
+ * centime (HALF_UP) ligne par ligne, la dernière échéance absorbant l'écart
+ * d'arrondi. Pour les simulations qui n'ont besoin que des totaux, un calcul
+ * en centimes (long) évite toute allocation par échéance.
+ * Les instances sont immuables et peuvent être partagées entre threads.
+ */
+public final class MoteurAmortissement {
+
+    // 34 chiffres significatifs : largement au-delà du centime sur 50 ans
+    private static final MathContext PRECISION = MathContext.DECIMAL128;
+    private static final BigDecimal DOUZE = BigDecimal.valueOf(12);
+    private static final BigDecimal CENT = BigDecimal.valueOf(100);
+    // Le taux mensuel est arrondi à 10 décimales, comme dans les calculs historiques
+    private static final int ECHELLE_TAUX = 10;
+    private static final long UNITE_TAUX = 10_000_000_000L;
+
+    private final BigDecimal montant;
+    private final BigDecimal tauxMensuel;
+    private final int dureeMois;
+    private final BigDecimal mensualite;
+
+    private MoteurAmortissement(BigDecimal montant, BigDecimal tauxMensuel, int dureeMois) {
+        this.montant = montant;
+        this.tauxMensuel = tauxMensuel;
+        this.dureeMois = dureeMois;
+        this.mensualite = calculerAnnuite();
+    }
+
+    /**
+     * @param montant Capital emprunté
+     * @param tauxAnnuel Taux annuel en pourcentage (ex. 5.5)
+     * @param dureeMois Durée en mois
+     */
+    public static MoteurAmortissement pour(BigDecimal montant, BigDecimal tauxAnnuel, Integer dureeMois) {
+        if (montant == null || tauxAnnuel == null || dureeMois == null || dureeMois <= 0) {
+            throw new IllegalArgumentException("Paramètres invalides pour le calcul d'amortissement");
+        }
+        return new MoteurAmortissement(montant, tauxMensuel(tauxAnnuel), dureeMois);
+    }
+
+    /**
+     * Taux mensuel décimal correspondant à un taux annuel en pourcentage
+     */
+    public static BigDecimal tauxMensuel(BigDecimal tauxAnnuel) {
+        return tauxAnnuel.divide(DOUZE, ECHELLE_TAUX, RoundingMode.HALF_UP)
+                         .divide(CENT, ECHELLE_TAUX, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Mensualité constante M = C × t / (1 - (1 + t)^-n), arrondie au centime (HALF_UP)
+     */
+    public BigDecimal getMensualite() {
+        return mensualite;
+    }
+
+    public BigDecimal getTauxMensuel() {
+        return tauxMensuel;
+    }
+
+    /**
+     * Génère le tableau d'amortissement complet
+     * @param methode Méthode d'amortissement
+     * @param datePremiereEcheance Date de la première échéance (les suivantes sont mensuelles)
+     */
+    public List<EcheanceDTO> tableau(MethodeAmortissement methode, LocalDate datePremiereEcheance) {
+        if (methode == null || datePremiereEcheance == null) {
+            throw new IllegalArgumentException("Paramètres invalides pour la génération du tableau d'amortissement");
+        }
+
+        List<EcheanceDTO> tableau = new ArrayList<>(dureeMois);
+        BigDecimal capitalConstant = montant.divide(BigDecimal.valueOf(dureeMois), 2, RoundingMode.HALF_UP);
+        BigDecimal capitalRestant = montant;
+        LocalDate dateEcheance = datePremiereEcheance;
+
+        for (int i = 1; i <= dureeMois; i++) {
+            BigDecimal interet = capitalRestant.multiply(tauxMensuel).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal capital;
+            if (i == dureeMois) {
+                capital = capitalRestant; // Ajustement d'arrondi sur la dernière échéance
+            } else if (methode == MethodeAmortissement.CAPITAL_CONSTANT) {
+                capital = capitalConstant;
+            } else {
+                capital = mensualite.subtract(interet);
+            }
+            BigDecimal montantEcheance = methode == MethodeAmortissement.ANNUITE_CONSTANTE && i < dureeMois
+                ? mensualite : capital.add(interet);
+            capitalRestant = capitalRestant.subtract(capital);
+
+            EcheanceDTO echeance = new EcheanceDTO();
+            echeance.setNumeroEcheance(i);
+            echeance.setMontantEcheance(montantEcheance);
+            echeance.setCapital(capital);
+            echeance.setInteret(interet);
+            echeance.setCapitalRestant(capitalRestant);
+            echeance.setDateEcheance(dateEcheance);
+            echeance.setStatut(StatutEcheance.A_VENIR.name());
+            echeance.setPenaliteAppliquee(BigDecimal.ZERO);
+            echeance.setJoursRetard(0);
+            tableau.add(echeance);
+
+            // Date de la prochaine échéance, à partir de la précédente comme historiquement
+            dateEcheance = dateEcheance.plusMonths(1);
+        }
+        return tableau;
+    }
+
+    /**
+     * Total des intérêts du tableau à annuité constante, calculé en centimes
+     * sans construire le tableau. Identique au centime à la somme des intérêts
+     * de {@link #tableau}. Repli sur le calcul décimal si le capital n'est pas
+     * exprimé en centimes ou si les produits dépassent la capacité d'un long.
+     */
+    public BigDecimal totalInterets() {
+        long mensualiteCentimes;
+        long capitalCentimes;
+        long taux;
+        try {
+            mensualiteCentimes = mensualite.movePointRight(2).longValueExact();
+            capitalCentimes = montant.movePointRight(2).longValueExact();
+            taux = tauxMensuel.movePointRight(ECHELLE_TAUX).longValueExact();
+        } catch (ArithmeticException e) {
+            return totalInteretsDecimal();
+        }
+
+        long totalCentimes = 0;
+        long capitalRestant = capitalCentimes;
+        try {
+            for (int i = 1; i <= dureeMois; i++) {
+                long interet = diviserArrondi(Math.multiplyExact(capitalRestant, taux), UNITE_TAUX);
+                totalCentimes += interet;
+                capitalRestant -= mensualiteCentimes - interet;
+            }
+        } catch (ArithmeticException e) {
+            return totalInteretsDecimal();
+        }
+        return BigDecimal.valueOf(totalCentimes, 2);
+    }
+
+    private BigDecimal totalInteretsDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal capitalRestant = montant;
+        for (int i = 1; i <= dureeMois; i++) {
+            BigDecimal interet = capitalRestant.multiply(tauxMensuel).setScale(2, RoundingMode.HALF_UP);
+            total = total.add(interet);
+            capitalRestant = capitalRestant.subtract(mensualite.subtract(interet));
+        }
+        return total;
+    }
+
+    private BigDecimal calculerAnnuite() {
+        if (tauxMensuel.signum() == 0) {
+            return montant.divide(BigDecimal.valueOf(dureeMois), 2, RoundingMode.HALF_UP);
+        }
+        // pow(n, MathContext) procède par élévations au carré successives à précision fixe.
+        // Forme équivalente C × t × (1 + t)^n / ((1 + t)^n - 1) : la puissance positive est
+        // exacte tant qu'elle tient sur 34 chiffres, alors que (1 + t)^-n ne l'est jamais,
+        // ce qui faisait tomber une mensualité exactement à mi-centime du mauvais côté
+        BigDecimal facteur = BigDecimal.ONE.add(tauxMensuel).pow(dureeMois, PRECISION);
+        BigDecimal denominateur = facteur.subtract(BigDecimal.ONE);
+        return montant.multiply(tauxMensuel).multiply(facteur)
+                      .divide(denominateur, 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Division entière arrondie HALF_UP (à l'écart de zéro), comme BigDecimal
+     */
+    private static long diviserArrondi(long dividende, long diviseur) {
+        long quotient = (Math.abs(dividende) + diviseur / 2) / diviseur;
+        return dividende < 0 ? -quotient : quotient;
+    }
+}
@@ -0,0 +1,120 @@
+package com.banque.pret.ejb.impl;
+
+import com.banque.pret.dto.DossierPretDTO;
+import com.banque.pret.entity.Client;
+import com.banque.pret.entity.Echeance;
+import com.banque.pret.entity.Pret;
+import com.banque.pret.entity.Remboursement;
+import com.banque.pret.entity.TypePret;
+import com.banque.pret.entity.enums.StatutEcheance;
+import com.banque.pret.repository.EcheanceRepository;
+import com.banque.pret.repository.PretRepository;
+import com.banque.pret.repository.RemboursementRepository;
+import com.banque.pret.support.BaseDeDonneesTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Nombre d'ordres SQL du dossier d'un prêt : le prêt avec son client et son
+ * type, les échéances, les remboursements et les agrégats, quel que soit le
+ * nombre d'échéances et de remboursements
+ */
+class EcheanceServiceImplTest extends BaseDeDonneesTest {
+
+    private static final int ECHEANCES = 12;
+    private static final int ECHEANCES_PAYEES = 5;
+
+    private EcheanceServiceImpl echeanceService;
+
+    private Pret pret;
+
+    @BeforeEach
+    void preparer() {
+        echeanceService = new EcheanceServiceImpl();
+        injecter(echeanceService, "pretRepository", injecter(new PretRepository(), "entityManager", em));
+        injecter(echeanceService, "echeanceRepository", injecter(new EcheanceRepository(), "entityManager", em));
+        injecter(echeanceService, "remboursementRepository",
+            injecter(new RemboursementRepository(), "entityManager", em));
+
+        creerJeuDeDonnees();
+    }
+
+    @Test
+    void dossierEnQuatreRequetes() {
+        statistiques().clear();
+
+        DossierPretDTO dossier = echeanceService.obtenirDossierPret(pret.getIdPret());
+
+        assertEquals("DIOP", dossier.getPret().getNomClient());
+        assertEquals(ECHEANCES, dossier.getEcheances().size());
+        assertEquals(ECHEANCES - ECHEANCES_PAYEES, dossier.getEcheancesImpayees().size());
+        assertEquals(ECHEANCES_PAYEES, dossier.getRemboursements().size());
+        assertEquals(4, statistiques().getPrepareStatementCount());
+    }
+
+    private void creerJeuDeDonnees() {
+        Client client = Client.builder()
+            .nom("DIOP").prenom("Fatou")
+            .dateNaissance(LocalDate.of(1990, 4, 12))
+            .numCin("CIN-DOSSIER-1")
+            .email("fatou.diop@banque.test")
+            .motDePasse("secret")
+            .build();
+        TypePret typePret = TypePret.builder()
+            .codeType("CONSO")
+            .libelle("Prêt consommation")
+            .tauxInteretAnnuel(new BigDecimal("12"))
+            .dureeMin(1).dureeMax(60)
+            .montantMin(new BigDecimal("100000")).montantMax(new BigDecimal("10000000"))
+            .build();
+        LocalDate premiereEcheance = LocalDate.of(2025, 2, 1);
+        pret = Pret.builder()
+            .client(client)
+            .typePret(typePret)
+            .montantDemande(new BigDecimal("1200000"))
+            .montantAccorde(new BigDecimal("1200000"))
+            .capitalRestantDu(new BigDecimal("700000"))
+            .dureeMois(ECHEANCES)
+            .tauxInteretAnnuel(new BigDecimal("12"))
+            .montantTotalDu(new BigDecimal("1279200"))
+            .mensualite(new BigDecimal("106600"))
+            .datePremiereEcheance(premiereEcheance)
+            .dateDerniereEcheance(premiereEcheance.plusMonths(ECHEANCES - 1))
+            .build();
+
+        List<Object> entites = new ArrayList<>(List.of(client, typePret, pret));
+        for (int n = 1; n <= ECHEANCES; n++) {
+            Echeance echeance = Echeance.builder()
+                .pret(pret)
+                .numeroEcheance(n)
+                .montantEcheance(new BigDecimal("106600.00"))
+                .capital(new BigDecimal("100000.00"))
+                .interet(new BigDecimal("6600.00"))
+                .capitalRestant(new BigDecimal(100000 * (ECHEANCES - n)))
+                .dateEcheance(premiereEcheance.plusMonths(n - 1))
+                .build();
+            entites.add(echeance);
+            if (n <= ECHEANCES_PAYEES) {
+                echeance.setMontantPaye(echeance.getMontantEcheance());
+                echeance.setStatut(StatutEcheance.PAYE);
+                entites.add(Remboursement.builder()
+                    .echeance(echeance)
+                    .idCompte(1L)
+                    .montant(echeance.getMontantEcheance())
+                    .montantEcheance(echeance.getMontantEcheance())
+                    .datePaiement(LocalDateTime.of(premiereEcheance.plusMonths(n - 1), LocalTime.NOON))
+                    .build());
+            }
+        }
+        enregistrer(entites.toArray());
+    }
+}
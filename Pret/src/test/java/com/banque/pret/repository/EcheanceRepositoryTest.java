@@ -0,0 +1,121 @@
+package com.banque.pret.repository;
+
+import com.banque.pret.entity.Client;
+import com.banque.pret.entity.Echeance;
+import com.banque.pret.entity.Pret;
+import com.banque.pret.entity.TypePret;
+import com.banque.pret.support.BaseDeDonneesTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Allers-retours JDBC à l'approbation d'un prêt sur 240 mois : le prêt et ses
+ * échéances sont insérés par lots de 20 (hibernate.jdbc.batch_size), avec un
+ * appel de séquence pour 50 identifiants (optimiseur pooled-lo)
+ */
+class EcheanceRepositoryTest extends BaseDeDonneesTest {
+
+    private static final int DUREE_MOIS = 240;
+
+    private PretRepository pretRepository;
+    private EcheanceRepository echeanceRepository;
+
+    private Client client;
+    private TypePret typePret;
+
+    @BeforeEach
+    void preparer() {
+        pretRepository = injecter(new PretRepository(), "entityManager", em);
+        echeanceRepository = injecter(new EcheanceRepository(), "entityManager", em);
+
+        client = Client.builder()
+            .nom("SARR").prenom("Fatou")
+            .dateNaissance(LocalDate.of(1985, 6, 1))
+            .numCin("CIN-PRET-1")
+            .email("fatou.sarr@banque.test")
+            .motDePasse("secret")
+            .revenuMensuel(new BigDecimal("900000"))
+            .build();
+        typePret = TypePret.builder()
+            .codeType("IMMO")
+            .libelle("Prêt immobilier")
+            .tauxInteretAnnuel(new BigDecimal("0.0600"))
+            .dureeMin(12).dureeMax(300)
+            .montantMin(new BigDecimal("1000000")).montantMax(new BigDecimal("100000000"))
+            .build();
+        enregistrer(client, typePret);
+    }
+
+    @Test
+    void approbationEcritLeTableauParLots() {
+        Pret pret = pret();
+        List<Echeance> echeances = echeances(pret);
+        remettreAZero();
+
+        em.getTransaction().begin();
+        pretRepository.save(pret);
+        echeanceRepository.saveAll(echeances);
+        em.getTransaction().commit();
+
+        // 1 séquence pour le prêt, 5 pour 240 échéances (50 par appel),
+        // 1 INSERT du prêt, 12 lots de 20 échéances
+        assertEquals(1 + 5 + 1 + 12, allersRetours());
+        assertEquals((long) DUREE_MOIS, em.createQuery("SELECT COUNT(e) FROM Echeance e", Long.class).getSingleResult());
+    }
+
+    @Test
+    void sauvegardeUnitaireEcritAussiParLots() {
+        Pret pret = pret();
+        List<Echeance> echeances = echeances(pret);
+        remettreAZero();
+
+        em.getTransaction().begin();
+        pretRepository.save(pret);
+        for (Echeance echeance : echeances) {
+            echeanceRepository.save(echeance);
+        }
+        em.getTransaction().commit();
+
+        // Sans flush par échéance, les INSERT partent par lots au commit
+        assertEquals(1 + 5 + 1 + 12, allersRetours());
+    }
+
+    private Pret pret() {
+        LocalDate premiere = LocalDate.of(2025, 2, 5);
+        return Pret.builder()
+            .client(em.find(Client.class, client.getIdClient()))
+            .typePret(em.find(TypePret.class, typePret.getIdTypePret()))
+            .montantDemande(new BigDecimal("30000000"))
+            .montantAccorde(new BigDecimal("30000000"))
+            .dureeMois(DUREE_MOIS)
+            .tauxInteretAnnuel(new BigDecimal("0.0600"))
+            .montantTotalDu(new BigDecimal("51582000"))
+            .mensualite(new BigDecimal("214929.00"))
+            .datePremiereEcheance(premiere)
+            .dateDerniereEcheance(premiere.plusMonths(DUREE_MOIS - 1))
+            .build();
+    }
+
+    private static List<Echeance> echeances(Pret pret) {
+        List<Echeance> echeances = new ArrayList<>(DUREE_MOIS);
+        for (int numero = 1; numero <= DUREE_MOIS; numero++) {
+            echeances.add(Echeance.builder()
+                .pret(pret)
+                .numeroEcheance(numero)
+                .montantEcheance(new BigDecimal("214929.00"))
+                .capital(new BigDecimal("64929.00"))
+                .interet(new BigDecimal("150000.00"))
+                .capitalRestant(new BigDecimal("30000000"))
+                .dateEcheance(pret.getDatePremiereEcheance().plusMonths(numero - 1))
+                .build());
+        }
+        return echeances;
+    }
+}
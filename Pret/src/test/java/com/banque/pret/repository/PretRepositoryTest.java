@@ -0,0 +1,127 @@
+package com.banque.pret.repository;
+
+import com.banque.pret.dto.PretDTO;
+import com.banque.pret.entity.Client;
+import com.banque.pret.entity.Pret;
+import com.banque.pret.entity.TypePret;
+import com.banque.pret.entity.enums.StatutPret;
+import com.banque.pret.mapper.PretMapper;
+import com.banque.pret.support.BaseDeDonneesTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Nombre d'ordres SQL des consultations de prêts (listerTousLesPrets,
+ * listerPretsParStatut, rechercherPretParId : requête puis PretMapper) : le
+ * client et le type de prêt viennent avec les prêts, pas d'une requête par ligne
+ */
+class PretRepositoryTest extends BaseDeDonneesTest {
+
+    private static final int CLIENTS = 3;
+    private static final int PRETS_PAR_CLIENT = 4;
+
+    private PretRepository pretRepository;
+
+    private Pret premierPret;
+
+    @BeforeEach
+    void preparer() {
+        pretRepository = injecter(new PretRepository(), "entityManager", em);
+
+        creerJeuDeDonnees();
+    }
+
+    @Test
+    void listeDesPretsEnUneRequete() {
+        statistiques().clear();
+
+        List<PretDTO> prets = enDTO(pretRepository.findAll());
+
+        assertEquals(CLIENTS * PRETS_PAR_CLIENT, prets.size());
+        prets.forEach(pret -> assertNotNull(pret.getLibelleTypePret()));
+        assertEquals(1, statistiques().getPrepareStatementCount());
+    }
+
+    @Test
+    void listeParStatutEnUneRequete() {
+        statistiques().clear();
+
+        List<PretDTO> prets = enDTO(pretRepository.findByStatut(StatutPret.EN_COURS));
+
+        assertEquals(CLIENTS * PRETS_PAR_CLIENT / 2, prets.size());
+        prets.forEach(pret -> assertNotNull(pret.getNomClient()));
+        assertEquals(1, statistiques().getPrepareStatementCount());
+    }
+
+    @Test
+    void pretParIdEnUneRequete() {
+        statistiques().clear();
+
+        PretDTO pret = pretRepository.findByIdAvecDetails(premierPret.getIdPret()).map(PretMapper::toDTO).orElseThrow();
+
+        assertEquals(premierPret.getNumeroPret(), pret.getNumeroPret());
+        assertNotNull(pret.getNomClient());
+        assertNotNull(pret.getLibelleTypePret());
+        assertEquals(1, statistiques().getPrepareStatementCount());
+    }
+
+    private static List<PretDTO> enDTO(List<Pret> prets) {
+        return prets.stream().map(PretMapper::toDTO).collect(Collectors.toList());
+    }
+
+    private void creerJeuDeDonnees() {
+        List<Object> entites = new ArrayList<>();
+        List<TypePret> types = List.of(typePret("CONSO", "Prêt consommation"), typePret("IMMO", "Prêt immobilier"));
+        entites.addAll(types);
+        for (int c = 0; c < CLIENTS; c++) {
+            Client client = Client.builder()
+                .nom("NDIAYE" + c).prenom("Moussa")
+                .dateNaissance(LocalDate.of(1985, 1, 1))
+                .numCin("CIN-LISTE-" + c)
+                .email("client" + c + "@banque.test")
+                .motDePasse("secret")
+                .build();
+            entites.add(client);
+            for (int p = 0; p < PRETS_PAR_CLIENT; p++) {
+                Pret pret = Pret.builder()
+                    .client(client)
+                    .typePret(types.get(p % types.size()))
+                    .numeroPret("PRET-" + c + "-" + p)
+                    .montantDemande(new BigDecimal("500000"))
+                    .montantAccorde(new BigDecimal("500000"))
+                    .dureeMois(12)
+                    .tauxInteretAnnuel(new BigDecimal("12"))
+                    .montantTotalDu(new BigDecimal("533000"))
+                    .mensualite(new BigDecimal("44424.39"))
+                    .datePremiereEcheance(LocalDate.of(2025, 2, 1))
+                    .dateDerniereEcheance(LocalDate.of(2026, 1, 1))
+                    .statut(p % 2 == 0 ? StatutPret.EN_COURS : StatutPret.EN_ATTENTE)
+                    .build();
+                if (premierPret == null) {
+                    premierPret = pret;
+                }
+                entites.add(pret);
+            }
+        }
+        enregistrer(entites.toArray());
+    }
+
+    private static TypePret typePret(String code, String libelle) {
+        return TypePret.builder()
+            .codeType(code)
+            .libelle(libelle)
+            .tauxInteretAnnuel(new BigDecimal("12"))
+            .dureeMin(1).dureeMax(60)
+            .montantMin(new BigDecimal("100000")).montantMax(new BigDecimal("10000000"))
+            .build();
+    }
+}
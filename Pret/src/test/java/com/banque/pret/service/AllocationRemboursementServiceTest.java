@@ -0,0 +1,112 @@
+package com.banque.pret.service;
+
+import com.banque.pret.entity.Client;
+import com.banque.pret.entity.Echeance;
+import com.banque.pret.entity.Pret;
+import com.banque.pret.entity.Remboursement;
+import com.banque.pret.entity.TypePret;
+import com.banque.pret.entity.enums.StatutEcheance;
+import com.banque.pret.repository.EcheanceRepository;
+import com.banque.pret.repository.PretRepository;
+import com.banque.pret.repository.RemboursementRepository;
+import com.banque.pret.support.BaseDeDonneesTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Affectation d'un paiement quand l'échéance visée a été lue avant qu'un
+ * paiement concurrent soit validé
+ */
+class AllocationRemboursementServiceTest extends BaseDeDonneesTest {
+
+    private EcheanceRepository echeanceRepository;
+    private AllocationRemboursementService allocationRemboursementService;
+
+    private Echeance premiere;
+    private Echeance seconde;
+
+    @BeforeEach
+    void preparer() {
+        echeanceRepository = injecter(new EcheanceRepository(), "entityManager", em);
+        allocationRemboursementService = new AllocationRemboursementService();
+        injecter(allocationRemboursementService, "pretRepository", injecter(new PretRepository(), "entityManager", em));
+        injecter(allocationRemboursementService, "echeanceRepository", echeanceRepository);
+        injecter(allocationRemboursementService, "remboursementRepository",
+            injecter(new RemboursementRepository(), "entityManager", em));
+
+        Client client = Client.builder()
+            .nom("BA").prenom("Ousmane")
+            .dateNaissance(LocalDate.of(1980, 3, 12))
+            .numCin("CIN-ALLOC-1")
+            .email("ousmane.ba@banque.test")
+            .motDePasse("secret")
+            .build();
+        TypePret typePret = TypePret.builder()
+            .codeType("CONSO")
+            .libelle("Prêt consommation")
+            .tauxInteretAnnuel(new BigDecimal("12"))
+            .dureeMin(1).dureeMax(60)
+            .montantMin(new BigDecimal("100000")).montantMax(new BigDecimal("10000000"))
+            .build();
+        LocalDate date = LocalDate.of(2025, 2, 5);
+        Pret pret = Pret.builder()
+            .client(client)
+            .typePret(typePret)
+            .montantDemande(new BigDecimal("198000"))
+            .montantAccorde(new BigDecimal("198000"))
+            .capitalRestantDu(new BigDecimal("198000"))
+            .dureeMois(2)
+            .tauxInteretAnnuel(new BigDecimal("12"))
+            .montantTotalDu(new BigDecimal("200000"))
+            .mensualite(new BigDecimal("100000"))
+            .datePremiereEcheance(date)
+            .dateDerniereEcheance(date.plusMonths(1))
+            .build();
+        premiere = echeance(pret, 1, date);
+        seconde = echeance(pret, 2, date.plusMonths(1));
+        enregistrer(client, typePret, pret, premiere, seconde);
+    }
+
+    @Test
+    void paiementAffecteSurLEtatValideSousVerrou() {
+        em.getTransaction().begin();
+        Echeance visee = echeanceRepository.findById(premiere.getIdEcheance()).orElseThrow();
+
+        // Paiement de 60 000 validé par une autre transaction après la lecture
+        EntityManager autre = emf.createEntityManager();
+        autre.getTransaction().begin();
+        autre.find(Echeance.class, premiere.getIdEcheance()).setMontantPaye(new BigDecimal("60000.00"));
+        autre.getTransaction().commit();
+        autre.close();
+
+        allocationRemboursementService.affecter(visee, new BigDecimal("40000.00"),
+            Remboursement.builder().datePaiement(LocalDateTime.of(2025, 2, 5, 10, 0)).build());
+        em.getTransaction().commit();
+        em.clear();
+
+        // Les 40 000 soldent la première échéance, sans écraser le paiement concurrent
+        Echeance premiereRelue = em.find(Echeance.class, premiere.getIdEcheance());
+        assertEquals(0, new BigDecimal("100000").compareTo(premiereRelue.getMontantPaye()));
+        assertEquals(StatutEcheance.PAYE, premiereRelue.getStatut());
+        assertEquals(0, em.find(Echeance.class, seconde.getIdEcheance()).getMontantPaye().signum());
+    }
+
+    private static Echeance echeance(Pret pret, int numero, LocalDate dateEcheance) {
+        return Echeance.builder()
+            .pret(pret)
+            .numeroEcheance(numero)
+            .montantEcheance(new BigDecimal("100000.00"))
+            .capital(new BigDecimal("99000.00"))
+            .interet(new BigDecimal("1000.00"))
+            .capitalRestant(numero == 1 ? new BigDecimal("99000.00") : BigDecimal.ZERO)
+            .dateEcheance(dateEcheance)
+            .build();
+    }
+}
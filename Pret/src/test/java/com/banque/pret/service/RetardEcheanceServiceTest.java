@@ -0,0 +1,204 @@
+package com.banque.pret.service;
+
+import com.banque.pret.entity.Client;
+import com.banque.pret.entity.Echeance;
+import com.banque.pret.entity.Pret;
+import com.banque.pret.entity.Remboursement;
+import com.banque.pret.entity.TypePret;
+import com.banque.pret.entity.enums.StatutPret;
+import com.banque.pret.repository.EcheanceRepository;
+import com.banque.pret.repository.ParametresPenalitesRepository;
+import com.banque.pret.repository.PretRepository;
+import com.banque.pret.repository.RemboursementRepository;
+import com.banque.pret.support.BaseDeDonneesTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cumul des pénalités de retard : un paiement partiel ne réduit que les
+ * pénalités des jours suivants. Le lot verrouille les prêts avant leurs
+ * échéances, comme un paiement : les deux ne s'interbloquent pas.
+ */
+class RetardEcheanceServiceTest extends BaseDeDonneesTest {
+
+    private static final LocalDate DATE_ECHEANCE = LocalDate.of(2025, 3, 1);
+
+    private RetardEcheanceService retardEcheanceService;
+
+    private Pret pret;
+    private Echeance echeance;
+
+    @BeforeEach
+    void preparer() {
+        retardEcheanceService = new RetardEcheanceService();
+        injecter(retardEcheanceService, "echeanceRepository", injecter(new EcheanceRepository(), "entityManager", em));
+        injecter(retardEcheanceService, "pretRepository", injecter(new PretRepository(), "entityManager", em));
+        injecter(retardEcheanceService, "parametresPenalitesRepository",
+            injecter(new ParametresPenalitesRepository(), "entityManager", em));
+
+        Client client = Client.builder()
+            .nom("GUEYE").prenom("Aminata")
+            .dateNaissance(LocalDate.of(1988, 9, 20))
+            .numCin("CIN-RETARD-1")
+            .email("aminata.gueye@banque.test")
+            .motDePasse("secret")
+            .build();
+        // Sans paramètres de pénalité actifs : 3 % par mois de retard, sans tolérance
+        TypePret typePret = TypePret.builder()
+            .codeType("CONSO")
+            .libelle("Prêt consommation")
+            .tauxInteretAnnuel(new BigDecimal("12"))
+            .dureeMin(1).dureeMax(60)
+            .montantMin(new BigDecimal("100000")).montantMax(new BigDecimal("10000000"))
+            .penaliteRetardTaux(new BigDecimal("0.03"))
+            .delaiToleranceJours(0)
+            .build();
+        pret = Pret.builder()
+            .client(client)
+            .typePret(typePret)
+            .montantDemande(new BigDecimal("99000"))
+            .montantAccorde(new BigDecimal("99000"))
+            .capitalRestantDu(new BigDecimal("99000"))
+            .dureeMois(1)
+            .tauxInteretAnnuel(new BigDecimal("12"))
+            .montantTotalDu(new BigDecimal("100000"))
+            .mensualite(new BigDecimal("100000"))
+            .datePremiereEcheance(DATE_ECHEANCE)
+            .dateDerniereEcheance(DATE_ECHEANCE)
+            .build();
+        echeance = Echeance.builder()
+            .pret(pret)
+            .numeroEcheance(1)
+            .montantEcheance(new BigDecimal("100000.00"))
+            .capital(new BigDecimal("99000.00"))
+            .interet(new BigDecimal("1000.00"))
+            .capitalRestant(BigDecimal.ZERO)
+            .dateEcheance(DATE_ECHEANCE)
+            .build();
+        enregistrer(client, typePret, pret, echeance);
+    }
+
+    @Test
+    void paiementPartielNeReduitPasLesPenalitesConstatees() {
+        traiter(DATE_ECHEANCE.plusDays(10));
+        // 100 000 × 3 % × 10 / 30
+        assertEquals(new BigDecimal("1000.00"), penalite());
+
+        // Paiement de 60 000 : la pénalité de 1 000, puis 59 000 sur l'échéance
+        em.getTransaction().begin();
+        Echeance payee = em.find(Echeance.class, echeance.getIdEcheance());
+        payee.setPenalitePayee(new BigDecimal("1000.00"));
+        payee.setMontantPaye(new BigDecimal("60000.00"));
+        em.getTransaction().commit();
+        em.clear();
+
+        traiter(DATE_ECHEANCE.plusDays(20));
+        // 1 000 déjà constatés + 41 000 × 3 % × 10 / 30, et non 41 000 × 3 % × 20 / 30 = 820
+        assertEquals(new BigDecimal("1410.00"), penalite());
+
+        // Relancé pour la même date, le calcul n'ajoute rien
+        traiter(DATE_ECHEANCE.plusDays(20));
+        assertEquals(new BigDecimal("1410.00"), penalite());
+    }
+
+    @Test
+    void lotPendantUnPaiementAttendLePretSansInterblocage() throws Exception {
+        CountDownLatch pretVerrouille = new CountDownLatch(1);
+        AtomicBoolean paiementValide = new AtomicBoolean();
+        AtomicBoolean echeancesVerrouilleesApresPaiement = new AtomicBoolean();
+        injecter(retardEcheanceService, "echeanceRepository", injecter(new EcheanceRepository() {
+            @Override
+            public List<Echeance> findByIdsForUpdate(Collection<Long> ids) {
+                echeancesVerrouilleesApresPaiement.set(paiementValide.get());
+                return super.findByIdsForUpdate(ids);
+            }
+        }, "entityManager", em));
+
+        // Le paiement de 60 000 marque une pause entre le verrou du prêt et celui des échéances
+        CompletableFuture<Void> paiement = CompletableFuture.runAsync(() -> payer(pretVerrouille, paiementValide));
+        assertTrue(pretVerrouille.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> lot = CompletableFuture.runAsync(() -> traiter(DATE_ECHEANCE.plusDays(10)));
+
+        paiement.get(10, TimeUnit.SECONDS);
+        lot.get(10, TimeUnit.SECONDS);
+
+        // Le lot attend le verrou du prêt avant de prendre celui des échéances : s'il
+        // tenait les échéances en attendant le prêt, le paiement s'interbloquerait avec lui
+        assertTrue(echeancesVerrouilleesApresPaiement.get());
+
+        // Le lot s'applique après le paiement, sur le capital qu'il a laissé :
+        // 40 000 × 3 % × 10 / 30, et le capital remboursé n'est pas écrasé
+        assertEquals(new BigDecimal("400.00"), penalite());
+        Pret pretRelu = em.find(Pret.class, pret.getIdPret());
+        assertEquals(0, new BigDecimal("40000").compareTo(pretRelu.getCapitalRestantDu()));
+        assertEquals(0, new BigDecimal("400").compareTo(pretRelu.getTotalPenalites()));
+        assertEquals(StatutPret.EN_RETARD, pretRelu.getStatut());
+    }
+
+    private void payer(CountDownLatch pretVerrouille, AtomicBoolean paiementValide) {
+        EntityManager autre = emf.createEntityManager();
+        PretRepository pretRepository = new PretRepository() {
+            @Override
+            public Optional<Pret> findByIdForUpdate(Long id) {
+                Optional<Pret> verrouille = super.findByIdForUpdate(id);
+                pretVerrouille.countDown();
+                attendre(300);
+                return verrouille;
+            }
+        };
+        try {
+            EcheanceRepository echeanceRepository = injecter(new EcheanceRepository(), "entityManager", autre);
+            AllocationRemboursementService allocation = new AllocationRemboursementService();
+            injecter(allocation, "pretRepository", injecter(pretRepository, "entityManager", autre));
+            injecter(allocation, "echeanceRepository", echeanceRepository);
+            injecter(allocation, "remboursementRepository", injecter(new RemboursementRepository(), "entityManager", autre));
+
+            autre.getTransaction().begin();
+            allocation.affecter(echeanceRepository.findById(echeance.getIdEcheance()).orElseThrow(),
+                new BigDecimal("60000.00"),
+                Remboursement.builder().datePaiement(LocalDateTime.of(2025, 3, 11, 10, 0)).build());
+            // Positionné avant la validation : les verrous ne sont relâchés qu'après
+            paiementValide.set(true);
+            autre.getTransaction().commit();
+        } finally {
+            if (autre.getTransaction().isActive()) {
+                autre.getTransaction().rollback();
+            }
+            autre.close();
+        }
+    }
+
+    private static void attendre(long millisecondes) {
+        try {
+            Thread.sleep(millisecondes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void traiter(LocalDate date) {
+        em.getTransaction().begin();
+        retardEcheanceService.traiterLot(date, List.of(echeance.getIdEcheance()));
+        em.getTransaction().commit();
+        em.clear();
+    }
+
+    private BigDecimal penalite() {
+        return em.find(Echeance.class, echeance.getIdEcheance()).getPenaliteAppliquee();
+    }
+}
@@ -0,0 +1,86 @@
+package com.banque.pret.service;
+
+import com.banque.pret.dto.SimulationPretDTO;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Invalidation des simulations d'un type de prêt : la version n'est
+ * incrémentée qu'à la validation de la transaction qui modifie le type
+ */
+class SimulationCacheTest {
+
+    private static final Long ID_TYPE_PRET = 7L;
+    private static final LocalDate DATE = LocalDate.of(2025, 4, 1);
+
+    private final SimulationCache simulationCache = new SimulationCache();
+
+    // Synchronisations enregistrées dans la transaction en cours de la modification
+    private final List<Synchronization> synchronisations = new ArrayList<>();
+
+    @BeforeEach
+    void preparer() throws Exception {
+        TransactionSynchronizationRegistry registre = (TransactionSynchronizationRegistry) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] {TransactionSynchronizationRegistry.class},
+            (proxy, methode, arguments) -> {
+                switch (methode.getName()) {
+                    case "getTransactionKey":
+                        return "transaction-modification";
+                    case "registerInterposedSynchronization":
+                        synchronisations.add((Synchronization) arguments[0]);
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(methode.getName());
+                }
+            });
+        Field champ = SimulationCache.class.getDeclaredField("registreTransactions");
+        champ.setAccessible(true);
+        champ.set(simulationCache, registre);
+    }
+
+    @Test
+    void simulationPendantLaModificationNEstPasServieApresValidation() {
+        simulationCache.invaliderApresValidation(ID_TYPE_PRET);
+
+        // Simulation calculée avant la validation, sur l'ancien taux encore validé
+        SimulationCache.Cle cleAvantValidation = cle();
+        simulationCache.put(cleAvantValidation, new SimulationPretDTO());
+        assertNotNull(simulationCache.get(cle()));
+
+        terminer(Status.STATUS_COMMITTED);
+
+        assertNull(simulationCache.get(cle()));
+    }
+
+    @Test
+    void modificationAnnuleeConserveLesSimulations() {
+        simulationCache.put(cle(), new SimulationPretDTO());
+
+        simulationCache.invaliderApresValidation(ID_TYPE_PRET);
+        terminer(Status.STATUS_ROLLEDBACK);
+
+        assertNotNull(simulationCache.get(cle()));
+    }
+
+    private SimulationCache.Cle cle() {
+        return simulationCache.cle(ID_TYPE_PRET, new BigDecimal("500000"), 12, DATE);
+    }
+
+    private void terminer(int statut) {
+        synchronisations.forEach(synchronisation -> synchronisation.afterCompletion(statut));
+        synchronisations.clear();
+    }
+}
@@ -0,0 +1,158 @@
+package com.banque.pret.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Base des tests de requêtes : l'unité de persistance PretPU (mêmes entités
+ * et mêmes réglages de lots et de séquences qu'en production) sur une base H2
+ * en mémoire. Les exécutions JDBC sont comptées : un lot (executeBatch)
+ * compte pour un seul aller-retour, comme un ordre isolé. Les statistiques
+ * Hibernate comptent en plus les ordres SQL préparés par appel de service.
+ */
+public abstract class BaseDeDonneesTest {
+
+    private static final AtomicInteger COMPTEUR_BASES = new AtomicInteger();
+
+    private final AtomicInteger allersRetours = new AtomicInteger();
+
+    protected EntityManagerFactory emf;
+    protected EntityManager em;
+
+    @BeforeEach
+    void ouvrirBase() {
+        JdbcDataSource source = new JdbcDataSource();
+        source.setURL("jdbc:h2:mem:pret" + COMPTEUR_BASES.incrementAndGet()
+            + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+        // La source JTA du serveur est remplacée par la base H2, en transactions locales
+        Map<String, Object> proprietes = new HashMap<>();
+        proprietes.put("jakarta.persistence.transactionType", "RESOURCE_LOCAL");
+        proprietes.put("jakarta.persistence.jtaDataSource", compterAllersRetours(source));
+        proprietes.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        proprietes.put("hibernate.hbm2ddl.auto", "create-drop");
+        proprietes.put("hibernate.show_sql", "false");
+        proprietes.put("hibernate.generate_statistics", "true");
+        emf = Persistence.createEntityManagerFactory("PretPU", proprietes);
+        em = emf.createEntityManager();
+    }
+
+    @AfterEach
+    void fermerBase() {
+        if (em != null && em.isOpen()) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    /**
+     * Nombre d'exécutions JDBC (ordres isolés et lots) depuis la dernière remise à zéro
+     */
+    protected int allersRetours() {
+        return allersRetours.get();
+    }
+
+    protected void remettreAZero() {
+        allersRetours.set(0);
+    }
+
+    /**
+     * Statistiques de la fabrique, à remettre à zéro avant l'appel mesuré
+     */
+    protected Statistics statistiques() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Persiste les entités dans une transaction, puis vide le contexte de persistance
+     */
+    protected void enregistrer(Object... entites) {
+        em.getTransaction().begin();
+        for (Object entite : entites) {
+            em.persist(entite);
+        }
+        em.getTransaction().commit();
+        em.clear();
+    }
+
+    /**
+     * Renseigne un champ injecté par le conteneur (@PersistenceContext, @EJB, @Inject)
+     */
+    protected static <T> T injecter(T cible, String champ, Object valeur) {
+        Class<?> type = cible.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(champ);
+                field.setAccessible(true);
+                field.set(cible, valeur);
+                return cible;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException("Champ introuvable : " + champ);
+    }
+
+    private DataSource compterAllersRetours(DataSource source) {
+        return envelopper(DataSource.class, source, connexion -> connexion instanceof Connection
+            ? envelopper(Connection.class, connexion, this::compterExecutions)
+            : connexion);
+    }
+
+    private Object compterExecutions(Object ordre) {
+        if (ordre instanceof CallableStatement) {
+            return envelopper(CallableStatement.class, ordre, resultat -> resultat);
+        }
+        if (ordre instanceof PreparedStatement) {
+            return envelopper(PreparedStatement.class, ordre, resultat -> resultat);
+        }
+        if (ordre instanceof Statement) {
+            return envelopper(Statement.class, ordre, resultat -> resultat);
+        }
+        return ordre;
+    }
+
+    /**
+     * Enveloppe la cible derrière son interface JDBC : les appels execute* sont
+     * comptés, les objets retournés passent par la fonction suite
+     */
+    private <T> T envelopper(Class<T> type, Object cible, UnaryOperator<Object> suite) {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type},
+            (proxy, methode, arguments) -> {
+                if (methode.getName().startsWith("execute")) {
+                    allersRetours.incrementAndGet();
+                }
+                try {
+                    return suite.apply(methode.invoke(cible, arguments));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }));
+    }
+}
@@ -0,0 +1,74 @@
+package com.banque.pret.util;
+
+import com.banque.pret.dto.EcheanceDTO;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Non-régression du moteur d'amortissement : les valeurs attendues sont celles
+ * produites par l'ancien calcul de CalculPretUtil (facteur (1 + t)^-n en double),
+ * pour une première échéance au 31 janvier 2025
+ */
+class MoteurAmortissementTest {
+
+    private static final LocalDate PREMIERE_ECHEANCE = LocalDate.of(2025, 1, 31);
+    private static final BigDecimal UN_CENTIME = new BigDecimal("0.01");
+
+    @ParameterizedTest(name = "{0} à {1} % sur {2} mois")
+    @CsvSource({
+        // montant, taux annuel, durée, mensualité, total des intérêts, dernière échéance, date de la dernière échéance
+        "1000000,     0,    12,  83333.33,   0.00,          83333.37,   2025-12-28",
+        "5000000,     6.5,  60,  97830.74,   869844.46,     97830.80,   2029-12-28",
+        "25000000,    8.75, 120, 313316.88,  12598024.92,   313316.20,  2034-12-28",
+        "30000000,    6,    240, 214929.32,  21583035.66,   214928.18,  2044-12-28",
+        "500000000,   12,   360, 5143062.98, 1351502688.58, 5143078.76, 2054-12-28",
+        "100000,      25,   1,   102083.33,  2083.33,       102083.33,  2025-01-31",
+        "2500000,     15,   36,  86663.32,   619879.60,     86663.40,   2027-12-28",
+        "750000.50,   3.25, 24,  32318.93,   25653.87,      32318.98,   2026-12-28",
+        "10000000,    0.01, 180, 55597.46,   7543.51,       55598.17,   2039-12-28",
+        "45000000,    9.9,  84,  744730.21,  17557337.68,   744730.25,  2031-12-28"
+    })
+    void tableauIdentiqueAuCalculHistorique(BigDecimal montant, BigDecimal tauxAnnuel, int dureeMois,
+                                            BigDecimal mensualite, BigDecimal totalInterets,
+                                            BigDecimal derniereEcheance, LocalDate dateDerniereEcheance) {
+        List<EcheanceDTO> tableau = CalculPretUtil.genererTableauAmortissement(
+            montant, tauxAnnuel, dureeMois, PREMIERE_ECHEANCE);
+
+        assertEquals(mensualite, CalculPretUtil.calculerMensualite(montant, tauxAnnuel, dureeMois));
+        assertEquals(dureeMois, tableau.size());
+        assertEquals(totalInterets, CalculPretUtil.calculerTotalInterets(tableau));
+        assertEquals(totalInterets, MoteurAmortissement.pour(montant, tauxAnnuel, dureeMois).totalInterets());
+        assertEquals(derniereEcheance, tableau.get(dureeMois - 1).getMontantEcheance());
+        assertEquals(dateDerniereEcheance, tableau.get(dureeMois - 1).getDateEcheance());
+        assertEquals(0, tableau.get(dureeMois - 1).getCapitalRestant().signum());
+    }
+
+    /**
+     * Mensualités à mi-centime ou juste à côté : l'erreur d'arrondi du double
+     * faisait parfois tomber l'ancien calcul un centime à côté. Le moteur donne
+     * l'arrondi HALF_UP de la valeur exacte.
+     */
+    @ParameterizedTest(name = "{0} à {1} % sur {2} mois")
+    @CsvSource({
+        // montant, taux annuel, durée, ancienne mensualité, mensualité exacte
+        "155020380, 0.90, 1,   155136645.28, 155136645.29",
+        "140281714, 1.64, 207, 778522.26,    778522.27",
+        "408185453, 0.39, 9,   45427671.31,  45427671.30",
+        // Sur un mois, M = C × (1 + t) = 412783097.825 exactement
+        "406682855, 18,   1,   412783097.83, 412783097.83"
+    })
+    void mensualiteArrondieSurLaValeurExacte(BigDecimal montant, BigDecimal tauxAnnuel, int dureeMois,
+                                             BigDecimal ancienneMensualite, BigDecimal mensualiteExacte) {
+        BigDecimal mensualite = CalculPretUtil.calculerMensualite(montant, tauxAnnuel, dureeMois);
+
+        assertEquals(mensualiteExacte, mensualite);
+        assertTrue(mensualite.subtract(ancienneMensualite).abs().compareTo(UN_CENTIME) <= 0);
+    }
+}
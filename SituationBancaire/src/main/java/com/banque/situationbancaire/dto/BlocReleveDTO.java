@@ -0,0 +1,23 @@
+package com.banque.situationbancaire.dto;
+
+import lombok.*;
+import java.io.Serializable;
+
+/**
+ * DTO pour un bloc de relevé de compte au format CSV.
+ * Les blocs sont demandés successivement avec le curseur du bloc précédent
+ * jusqu'à ce que curseurSuivant soit null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlocReleveDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Lignes CSV du bloc (avec l'en-tête pour le premier bloc)
+    private String contenuCsv;
+    private int nombreLignes;
+    private String curseurSuivant;
+}
@@ -0,0 +1,30 @@
+package com.banque.situationbancaire.dto;
+
+import lombok.*;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO générique pour une page de résultats paginée par curseur (keyset).
+ * Le curseur suivant est opaque : il est renvoyé tel quel pour obtenir la
+ * page suivante, et vaut null lorsqu'il n'y a plus de résultats.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageCurseurDTO<T extends Serializable> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Builder.Default
+    private List<T> elements = new ArrayList<>();
+
+    private int taille;
+    private String curseurSuivant;
+
+    public boolean isDerniere() {
+        return curseurSuivant == null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.banque.situationbancaire.dto;
+
+import lombok.*;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO générique pour une page de résultats
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageDTO<T extends Serializable> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Builder.Default
+    private List<T> elements = new ArrayList<>();
+
+    // Numéro de page, à partir de 0
+    private int page;
+    private int taille;
+    private long totalElements;
+
+    public int getTotalPages() {
+        return taille > 0 ? (int) ((totalElements + taille - 1) / taille) : 0;
+    }
+
+    public boolean isPremiere() {
+        return page == 0;
+    }
+
+    public boolean isDerniere() {
+        return page + 1 >= getTotalPages();
+    }
+}
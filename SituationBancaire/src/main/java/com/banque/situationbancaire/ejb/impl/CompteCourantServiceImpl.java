@@ -1,16 +1,22 @@
 package com.banque.situationbancaire.ejb.impl;
 
 import com.banque.situationbancaire.dto.CompteCourantDTO;
+import com.banque.situationbancaire.dto.PageDTO;
 import com.banque.situationbancaire.ejb.remote.CompteCourantServiceRemote;
 import com.banque.situationbancaire.entity.*;
 import com.banque.situationbancaire.entity.enums.StatutCompte;
 import com.banque.situationbancaire.mapper.CompteCourantMapper;
 import com.banque.situationbancaire.repository.*;
+import com.banque.situationbancaire.service.ReferentielCache;
+import com.banque.situationbancaire.service.SoldeCompteService;
+import com.banque.situationbancaire.util.GenerateurReference;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.logging.Logger;
@@ -23,6 +29,8 @@ public class CompteCourantServiceImpl implements CompteCourantServiceRemote {
 
     private static final Logger LOGGER = Logger.getLogger(CompteCourantServiceImpl.class.getName());
 
+    private static final int TAILLE_PAGE_MAX = 500;
+
     @Inject
     private CompteCourantRepository compteCourantRepository;
     
@@ -33,7 +41,10 @@ public class CompteCourantServiceImpl implements CompteCourantServiceRemote {
     private TypeCompteRepository typeCompteRepository;
     
     @Inject
-    private MouvementRepository mouvementRepository;
+    private SoldeCompteService soldeCompteService;
+
+    @Inject
+    private ReferentielCache referentielCache;
 
     @Override
         public CompteCourantDTO creerCompte(CompteCourantDTO compteDTO, Long idClient, Long idTypeCompte) {
@@ -74,8 +85,9 @@ public class CompteCourantServiceImpl implements CompteCourantServiceRemote {
     @Override
     public CompteCourantDTO rechercherCompteParId(Long idCompte) {
         LOGGER.info("Recherche du compte par ID : " + idCompte);
-        Optional<CompteCourant> compte = compteCourantRepository.findById(idCompte);
-        return compte.map(CompteCourantMapper::toDTO).orElse(null);
+        // Résumé sans la collection des mouvements (jamais lue par les appelants distants)
+        Optional<CompteCourant> compte = compteCourantRepository.findByIdAvecDetails(idCompte);
+        return compte.map(c -> toDTOsAvecSoldes(List.of(c)).get(0)).orElse(null);
     }
 
     @Override
@@ -83,9 +95,9 @@ public class CompteCourantServiceImpl implements CompteCourantServiceRemote {
         LOGGER.info("Recherche du compte par numéro : " + numeroCompte);
         Optional<CompteCourant> compte = compteCourantRepository.findByNumeroCompte(numeroCompte);
         if (compte.isPresent()) {
-            CompteCourantDTO dto = CompteCourantMapper.toDTO(compte.get());
+            CompteCourantDTO dto = CompteCourantMapper.toResumeDTO(compte.get());
             // Calculer le solde actuel
-            dto.setSolde(calculerSoldeActuel(numeroCompte));
+            dto.setSolde(soldeCompteService.obtenirSolde(compte.get()));
             return dto;
         }
         return null;
@@ -94,14 +106,7 @@ public class CompteCourantServiceImpl implements CompteCourantServiceRemote {
     @Override
     public List<CompteCourantDTO> listerComptesParClient(Long idClient) {
         LOGGER.info("Listing des comptes pour le client : " + idClient);
-        List<CompteCourant> comptes = compteCourantRepository.findByClientId(idClient);
-        return comptes.stream()
-                .map(compte -> {
-                    CompteCourantDTO dto = CompteCourantMapper.toDTO(compte);
-                    dto.setSolde(calculerSoldeActuel(compte.getNumeroCompte()));
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDTOsAvecSoldes(compteCourantRepository.findByClientId(idClient));
     }
 
     @Override
@@ -113,13 +118,8 @@ public class CompteCourantServiceImpl implements CompteCourantServiceRemote {
             throw new IllegalArgumentException("Compte non trouvé : " + numeroCompte);
         }
         
-        CompteCourant compte = compteOpt.get();
-        
-        // Solde = solde initial + somme de tous les mouvements
-        BigDecimal soldeInitial = compte.getSoldeInitial();
-        BigDecimal totalMouvements = mouvementRepository.calculerSoldeMouvements(compte.getIdCompte());
-        
-        return soldeInitial.add(totalMouvements != null ? totalMouvements : BigDecimal.ZERO);
+        // Solde matérialisé, maintenu à chaque mouvement (solde initial + mouvements)
+        return soldeCompteService.obtenirSolde(compteOpt.get());
     }
 
     @Override
@@ -132,12 +132,13 @@ public class CompteCourantServiceImpl implements CompteCourantServiceRemote {
         }
         
         CompteCourant compte = compteOpt.get();
-        CompteCourantDTO dto = CompteCourantMapper.toDTO(compte);
+        CompteCourantDTO dto = CompteCourantMapper.toResumeDTO(compte);
         
         // Enrichir avec le solde actuel et découvert autorisé
-        dto.setSolde(calculerSoldeActuel(numeroCompte));
-        if (compte.getTypeCompte() != null && compte.getTypeCompte().getParametreActuel() != null) {
-            dto.setDecouvertAutorise(compte.getTypeCompte().getParametreActuel().getMontantDecouvertAutorise());
+        dto.setSolde(soldeCompteService.obtenirSolde(compte));
+        if (compte.getTypeCompte() != null) {
+            referentielCache.getParametres(compte.getTypeCompte().getIdTypeCompte())
+                .ifPresent(parametres -> dto.setDecouvertAutorise(parametres.getMontantDecouvertAutorise()));
         }
         
         return dto;
@@ -252,11 +253,63 @@ public class CompteCourantServiceImpl implements CompteCourantServiceRemote {
     public List<CompteCourantDTO> findAll() {
         LOGGER.info("Récupération de tous les comptes courants pour l'administration");
         
-        List<CompteCourant> comptes = compteCourantRepository.findAll();
+        return toDTOsAvecSoldes(compteCourantRepository.findAll());
+    }
+
+    @Override
+    public PageDTO<CompteCourantDTO> listerComptes(String statut, int page, int taille) {
+        if (page < 0 || taille <= 0) {
+            throw new IllegalArgumentException("Pagination invalide : page " + page + ", taille " + taille);
+        }
+        StatutCompte statutFiltre = null;
+        if (statut != null && !statut.isBlank()) {
+            try {
+                statutFiltre = StatutCompte.valueOf(statut.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Statut de compte inconnu : " + statut);
+            }
+        }
+        int tailleEffective = Math.min(taille, TAILLE_PAGE_MAX);
+        LOGGER.info("Récupération de la page " + page + " des comptes (statut " + statutFiltre + ")");
+
+        List<CompteCourant> comptes = compteCourantRepository.findPage(statutFiltre, page * tailleEffective, tailleEffective);
+        return PageDTO.<CompteCourantDTO>builder()
+                .elements(toDTOsAvecSoldes(comptes))
+                .page(page)
+                .taille(tailleEffective)
+                .totalElements(compteCourantRepository.countByStatut(statutFiltre))
+                .build();
+    }
+
+    @Override
+    public Map<String, Long> compterComptesParStatut() {
+        Map<StatutCompte, Long> compteurs = compteCourantRepository.countGroupByStatut();
+        Map<String, Long> resultat = new LinkedHashMap<>();
+        for (StatutCompte statut : StatutCompte.values()) {
+            resultat.put(statut.name(), compteurs.getOrDefault(statut, 0L));
+        }
+        return resultat;
+    }
+
+    /**
+     * Convertit une liste de comptes avec leurs soldes sans requête par compte :
+     * le solde matérialisé est lu sur l'entité, et les comptes non encore
+     * matérialisés sont calculés ensemble par une seule requête groupée
+     */
+    private List<CompteCourantDTO> toDTOsAvecSoldes(List<CompteCourant> comptes) {
+        List<Long> nonMaterialises = comptes.stream()
+                .filter(compte -> compte.getSoldeActuel() == null)
+                .map(CompteCourant::getIdCompte)
+                .collect(Collectors.toList());
+        Map<Long, BigDecimal> totauxMouvements = compteCourantRepository.sommerMouvementsParCompte(nonMaterialises);
+
         return comptes.stream()
                 .map(compte -> {
-                    CompteCourantDTO dto = CompteCourantMapper.toDTO(compte);
-                    dto.setSolde(calculerSoldeActuel(compte.getNumeroCompte()));
+                    CompteCourantDTO dto = CompteCourantMapper.toResumeDTO(compte);
+                    if (dto.getSolde() == null) {
+                        dto.setSolde(compte.getSoldeInitial().add(
+                            totauxMouvements.getOrDefault(compte.getIdCompte(), BigDecimal.ZERO)));
+                    }
                     return dto;
                 })
                 .collect(Collectors.toList());
@@ -279,8 +332,6 @@ public class CompteCourantServiceImpl implements CompteCourantServiceRemote {
      * Génère un numéro de compte unique
      */
     private String genererNumeroCompte() {
-        long timestamp = System.currentTimeMillis();
-        int random = (int) (Math.random() * 999);
-        return String.format("CC%d%03d", timestamp, random);
+        return GenerateurReference.genererReference("CC");
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.banque.situationbancaire.ejb.impl;
 
+import com.banque.situationbancaire.dto.BlocReleveDTO;
 import com.banque.situationbancaire.dto.MouvementDTO;
+import com.banque.situationbancaire.dto.PageCurseurDTO;
 import com.banque.situationbancaire.dto.VirementDTO;
 import com.banque.situationbancaire.ejb.remote.OperationServiceRemote;
 import com.banque.situationbancaire.entity.*;
@@ -8,10 +10,17 @@ import com.banque.situationbancaire.entity.enums.StatutCompte;
 import com.banque.situationbancaire.mapper.MouvementMapper;
 import com.banque.situationbancaire.mapper.VirementMapper;
 import com.banque.situationbancaire.repository.*;
+import com.banque.situationbancaire.service.CumulJournalierService;
+import com.banque.situationbancaire.service.FraisTenueService;
+import com.banque.situationbancaire.service.HistoriqueMouvementService;
+import com.banque.situationbancaire.service.InteretDecouvertService;
+import com.banque.situationbancaire.service.ReferentielCache;
+import com.banque.situationbancaire.service.ReleveCompteService;
+import com.banque.situationbancaire.service.SoldeCompteService;
+import com.banque.situationbancaire.util.GenerateurReference;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,11 +43,29 @@ public class OperationServiceImpl implements OperationServiceRemote {
     private MouvementRepository mouvementRepository;
     
     @Inject
-    private TypeOperationRepository typeOperationRepository;
+    private ReferentielCache referentielCache;
     
     @Inject
     private VirementRepository virementRepository;
 
+    @Inject
+    private SoldeCompteService soldeCompteService;
+
+    @Inject
+    private CumulJournalierService cumulJournalierService;
+
+    @Inject
+    private HistoriqueMouvementService historiqueMouvementService;
+
+    @Inject
+    private ReleveCompteService releveCompteService;
+
+    @Inject
+    private InteretDecouvertService interetDecouvertService;
+
+    @Inject
+    private FraisTenueService fraisTenueService;
+
     @Override
     public MouvementDTO effectuerDepot(String numeroCompte, BigDecimal montant, String libelle) {
         LOGGER.info("Dépôt de " + montant + " XOF sur le compte " + numeroCompte);
@@ -48,7 +75,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
         }
         
         // Vérifier l'existence et le statut du compte
-        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompte(numeroCompte);
+        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompteForUpdate(numeroCompte);
         if (compteOpt.isEmpty()) {
             throw new IllegalArgumentException("Compte non trouvé : " + numeroCompte);
         }
@@ -59,7 +86,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
         }
         
         // Récupérer le type d'opération DEPOT
-        Optional<TypeOperation> typeDepotOpt = typeOperationRepository.findByCode("DEPOT");
+        Optional<TypeOperation> typeDepotOpt = referentielCache.getTypeOperation("DEPOT");
         if (typeDepotOpt.isEmpty()) {
             throw new IllegalStateException("Type d'opération DEPOT non configuré");
         }
@@ -79,10 +106,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
             .reference(genererReference("DEP"))
             .build();
         
-        Mouvement mouvementCree = mouvementRepository.save(mouvement);
-        
-        // Appliquer les intérêts de découvert si nécessaire après le dépôt
-        gererInteretsDecouvertAutomatique(compte);
+        Mouvement mouvementCree = soldeCompteService.enregistrerMouvement(mouvement);
         
         return MouvementMapper.toDTO(mouvementCree);
     }
@@ -96,7 +120,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
         }
         
         // Vérifier l'existence et le statut du compte
-        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompte(numeroCompte);
+        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompteForUpdate(numeroCompte);
         if (compteOpt.isEmpty()) {
             throw new IllegalArgumentException("Compte non trouvé : " + numeroCompte);
         }
@@ -107,7 +131,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
         }
         
         // Vérifier les plafonds de retrait journalier
-        if (!verifierPlafonds(numeroCompte, montant, "RETRAIT")) {
+        if (!verifierPlafonds(compte, montant, "RETRAIT")) {
             throw new IllegalStateException("Plafond de retrait journalier dépassé");
         }
         
@@ -116,17 +140,15 @@ public class OperationServiceImpl implements OperationServiceRemote {
         BigDecimal nouveauSolde = soldeAvant.subtract(montant);
         
         // Vérifier le découvert autorisé
-        BigDecimal decouvertAutorise = BigDecimal.ZERO;
-        if (compte.getTypeCompte() != null && compte.getTypeCompte().getParametreActuel() != null) {
-            decouvertAutorise = compte.getTypeCompte().getParametreActuel().getMontantDecouvertAutorise();
-        }
+        ParametresCompte parametres = parametresDuCompte(compte);
+        BigDecimal decouvertAutorise = parametres != null ? parametres.getMontantDecouvertAutorise() : BigDecimal.ZERO;
         
         if (nouveauSolde.compareTo(decouvertAutorise.negate()) < 0) {
             throw new IllegalStateException("Solde insuffisant. Découvert autorisé : " + decouvertAutorise + " XOF");
         }
         
         // Récupérer le type d'opération RETRAIT
-        Optional<TypeOperation> typeRetraitOpt = typeOperationRepository.findByCode("RETRAIT");
+        Optional<TypeOperation> typeRetraitOpt = referentielCache.getTypeOperation("RETRAIT");
         if (typeRetraitOpt.isEmpty()) {
             throw new IllegalStateException("Type d'opération RETRAIT non configuré");
         }
@@ -143,10 +165,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
             .reference(genererReference("RET"))
             .build();
         
-        Mouvement mouvementCree = mouvementRepository.save(mouvement);
-        
-        // Appliquer les intérêts de découvert si nécessaire après le retrait
-        gererInteretsDecouvertAutomatique(compte);
+        Mouvement mouvementCree = soldeCompteService.enregistrerMouvement(mouvement);
         
         return MouvementMapper.toDTO(mouvementCree);
     }
@@ -163,19 +182,10 @@ public class OperationServiceImpl implements OperationServiceRemote {
             throw new IllegalArgumentException("Les comptes débiteur et créditeur doivent être différents");
         }
         
-        // Vérifier l'existence des deux comptes
-        Optional<CompteCourant> compteDebiteurOpt = compteCourantRepository.findByNumeroCompte(numeroCompteDebiteur);
-        if (compteDebiteurOpt.isEmpty()) {
-            throw new IllegalArgumentException("Compte débiteur non trouvé : " + numeroCompteDebiteur);
-        }
-        
-        Optional<CompteCourant> compteCrediteurOpt = compteCourantRepository.findByNumeroCompte(numeroCompteCrediteur);
-        if (compteCrediteurOpt.isEmpty()) {
-            throw new IllegalArgumentException("Compte créditeur non trouvé : " + numeroCompteCrediteur);
-        }
-        
-        CompteCourant compteDebiteur = compteDebiteurOpt.get();
-        CompteCourant compteCrediteur = compteCrediteurOpt.get();
+        // Vérifier l'existence des deux comptes et les verrouiller dans un ordre déterministe
+        CompteCourant[] comptes = verrouillerComptesVirement(numeroCompteDebiteur, numeroCompteCrediteur);
+        CompteCourant compteDebiteur = comptes[0];
+        CompteCourant compteCrediteur = comptes[1];
         
         // Vérifier le statut des comptes
         if (compteDebiteur.getStatut() != StatutCompte.OUVERT) {
@@ -187,7 +197,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
         }
         
         // Vérifier les plafonds de virement journalier
-        if (!verifierPlafonds(numeroCompteDebiteur, montant, "VIREMENT")) {
+        if (!verifierPlafonds(compteDebiteur, montant, "VIREMENT")) {
             throw new IllegalStateException("Plafond de virement journalier dépassé");
         }
         
@@ -196,17 +206,15 @@ public class OperationServiceImpl implements OperationServiceRemote {
         BigDecimal nouveauSoldeDebiteur = soldeAvantDebiteur.subtract(montant);
         
         // Vérifier le découvert autorisé du compte débiteur
-        BigDecimal decouvertAutorise = BigDecimal.ZERO;
-        if (compteDebiteur.getTypeCompte() != null && compteDebiteur.getTypeCompte().getParametreActuel() != null) {
-            decouvertAutorise = compteDebiteur.getTypeCompte().getParametreActuel().getMontantDecouvertAutorise();
-        }
+        ParametresCompte parametres = parametresDuCompte(compteDebiteur);
+        BigDecimal decouvertAutorise = parametres != null ? parametres.getMontantDecouvertAutorise() : BigDecimal.ZERO;
         
         if (nouveauSoldeDebiteur.compareTo(decouvertAutorise.negate()) < 0) {
             throw new IllegalStateException("Solde insuffisant. Découvert autorisé : " + decouvertAutorise + " XOF");
         }
         
         // Récupérer le type d'opération VIREMENT
-        Optional<TypeOperation> typeVirementOpt = typeOperationRepository.findByCode("VIREMENT");
+        Optional<TypeOperation> typeVirementOpt = referentielCache.getTypeOperation("VIREMENT");
         if (typeVirementOpt.isEmpty()) {
             throw new IllegalStateException("Type d'opération VIREMENT non configuré");
         }
@@ -226,7 +234,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
             .reference(genererReference("VIR"))
             .build();
         
-        Mouvement mouvementDebitCree = mouvementRepository.save(mouvementDebit);
+        Mouvement mouvementDebitCree = soldeCompteService.enregistrerMouvement(mouvementDebit);
         
         // Créer le mouvement de crédit
         Mouvement mouvementCredit = Mouvement.builder()
@@ -240,7 +248,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
             .reference(genererReference("VIR"))
             .build();
         
-        Mouvement mouvementCreditCree = mouvementRepository.save(mouvementCredit);
+        Mouvement mouvementCreditCree = soldeCompteService.enregistrerMouvement(mouvementCredit);
         
         // Créer l'entité Virement qui lie les deux mouvements
         Virement virement = Virement.builder()
@@ -252,10 +260,6 @@ public class OperationServiceImpl implements OperationServiceRemote {
         
         Virement virementCree = virementRepository.save(virement);
         
-        // Appliquer les intérêts de découvert si nécessaire après le virement
-        gererInteretsDecouvertAutomatique(compteDebiteur);
-        gererInteretsDecouvertAutomatique(compteCrediteur);
-        
         // Créer le DTO de retour
         VirementDTO virementDTO = VirementMapper.toDTO(virementCree);
         virementDTO.setNumeroCompteDebiteur(numeroCompteDebiteur);
@@ -292,76 +296,60 @@ public class OperationServiceImpl implements OperationServiceRemote {
     }
 
     @Override
-    public MouvementDTO appliquerFraisTenueCompte(String numeroCompte) {
-        LOGGER.info("Application des frais de tenue de compte pour : " + numeroCompte);
+    public PageCurseurDTO<MouvementDTO> obtenirHistoriquePagine(String numeroCompte, LocalDate dateDebut, LocalDate dateFin,
+                                                                String curseur, int taille) {
+        LOGGER.info("Récupération paginée de l'historique pour le compte : " + numeroCompte);
 
-        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompte(numeroCompte);
-        if (compteOpt.isEmpty()) {
-            throw new IllegalArgumentException("Compte non trouvé : " + numeroCompte);
-        }
+        Long idCompte = compteCourantRepository.findIdByNumeroCompte(numeroCompte)
+            .orElseThrow(() -> new IllegalArgumentException("Compte non trouvé : " + numeroCompte));
 
-        CompteCourant compte = compteOpt.get();
-        if (compte.getStatut() != StatutCompte.OUVERT) {
-            return null; // Pas de frais sur les comptes fermés ou bloqués
-        }
+        return historiqueMouvementService.paginer(idCompte,
+            dateDebut != null ? dateDebut.atStartOfDay() : null,
+            dateFin != null ? dateFin.atTime(23, 59, 59) : null,
+            curseur, taille, MouvementMapper::toDTO);
+    }
 
-        // Récupérer les paramètres du compte
-        if (compte.getTypeCompte() == null || compte.getTypeCompte().getParametreActuel() == null) {
-            throw new IllegalStateException("Aucun paramètre configuré pour le compte");
-        }
+    @Override
+    public BlocReleveDTO exporterReleveCsv(String numeroCompte, LocalDate dateDebut, LocalDate dateFin,
+                                           String curseur, int tailleBloc) {
+        LOGGER.info("Export du relevé pour le compte : " + numeroCompte);
 
-        ParametresCompte parametres = compte.getTypeCompte().getParametreActuel();
-        BigDecimal fraisTenue = parametres.getFraisTenueCompte();
+        Long idCompte = compteCourantRepository.findIdByNumeroCompte(numeroCompte)
+            .orElseThrow(() -> new IllegalArgumentException("Compte non trouvé : " + numeroCompte));
 
-        // Récupérer le type d'opération "FRAIS"
-        Optional<TypeOperation> typeFraisOpt = typeOperationRepository.findByCode("FRAIS");
-        if (typeFraisOpt.isEmpty()) {
-            throw new IllegalStateException("Type d'opération FRAIS non configuré");
-        }
+        return releveCompteService.exporterBloc(idCompte,
+            dateDebut != null ? dateDebut.atStartOfDay() : null,
+            dateFin != null ? dateFin.atTime(23, 59, 59) : null,
+            curseur, tailleBloc);
+    }
 
-        BigDecimal soldeAvant = calculerSoldeCompte(compte);
+    @Override
+    public MouvementDTO appliquerFraisTenueCompte(String numeroCompte) {
+        LOGGER.info("Application des frais de tenue de compte pour : " + numeroCompte);
 
-        Mouvement mouvement = Mouvement.builder()
-            .compte(compte)
-            .typeOperation(typeFraisOpt.get())
-            .montant(fraisTenue.negate()) // Négatif car c'est un débit
-            .soldeAvantOperation(soldeAvant)
-            .soldeApresOperation(soldeAvant.subtract(fraisTenue))
-            .dateOperation(LocalDateTime.now())
-            .libelleOperation("Frais de tenue de compte - " + LocalDate.now().getMonth())
-            .reference(genererReference("FRA"))
-            .build();
+        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompteForUpdate(numeroCompte);
+        if (compteOpt.isEmpty()) {
+            throw new IllegalArgumentException("Compte non trouvé : " + numeroCompte);
+        }
 
-        Mouvement mouvementCree = mouvementRepository.save(mouvement);
-        return MouvementMapper.toDTO(mouvementCree);
+        Mouvement mouvementCree = fraisTenueService.appliquerFraisPeriode(compteOpt.get(), LocalDate.now());
+        return mouvementCree != null ? MouvementMapper.toDTO(mouvementCree) : null;
     }
 
     @Override
     public MouvementDTO appliquerInteretsDecouvert(String numeroCompte) {
         LOGGER.info("Application manuelle des intérêts de découvert pour : " + numeroCompte);
 
-        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompte(numeroCompte);
+        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompteForUpdate(numeroCompte);
         if (compteOpt.isEmpty()) {
             throw new IllegalArgumentException("Compte non trouvé : " + numeroCompte);
         }
 
-        CompteCourant compte = compteOpt.get();
-        BigDecimal solde = calculerSoldeCompte(compte);
-
-        // Intérêts seulement si le compte est à découvert
-        if (solde.compareTo(BigDecimal.ZERO) >= 0) {
-            return null; // Pas d'intérêts si le solde est positif ou nul
-        }
-
-        calculerEtAppliquerInteretsDecouvert(compte, solde);
-
-        // Retourner le dernier mouvement d'intérêts créé
-        List<Mouvement> derniersMouvements = mouvementRepository.findByCompteId(compte.getIdCompte());
-        if (!derniersMouvements.isEmpty()) {
-            return MouvementMapper.toDTO(derniersMouvements.get(0)); // Le plus récent
-        }
-
-        return null;
+        // Intérêts de la veille, jour clos : même clé que le traitement nocturne,
+        // qui ne les recalculera pas. La journée en cours reste à son traitement.
+        Mouvement mouvementInterets = interetDecouvertService.appliquerInteretsJour(
+            compteOpt.get(), LocalDate.now().minusDays(1));
+        return MouvementMapper.toDTO(mouvementInterets);
     }
 
     @Override
@@ -373,45 +361,32 @@ public class OperationServiceImpl implements OperationServiceRemote {
             return false;
         }
         
-        CompteCourant compte = compteOpt.get();
-        
+        return verifierPlafonds(compteOpt.get(), montant, typeOperation);
+    }
+
+    /**
+     * Vérifie les plafonds journaliers d'un compte déjà chargé à partir de
+     * ses cumuls du jour (une seule lecture indexée)
+     */
+    private boolean verifierPlafonds(CompteCourant compte, BigDecimal montant, String typeOperation) {
         // Récupérer les paramètres du compte
-        if (compte.getTypeCompte() == null || compte.getTypeCompte().getParametreActuel() == null) {
-            LOGGER.warning("Aucun paramètre configuré pour le compte : " + numeroCompte);
+        ParametresCompte parametres = parametresDuCompte(compte);
+        if (parametres == null) {
+            LOGGER.warning("Aucun paramètre configuré pour le compte : " + compte.getNumeroCompte());
             return false;
         }
         
-        ParametresCompte parametres = compte.getTypeCompte().getParametreActuel();
-        
-        // Calculer les totaux du jour
-        LocalDateTime debutJour = LocalDate.now().atStartOfDay();
-        LocalDateTime finJour = LocalDate.now().atTime(23, 59, 59);
-        
-        List<Mouvement> mouvementsJour = mouvementRepository.findByCompteIdBetweenDates(
-            compte.getIdCompte(), debutJour, finJour);
-        
-        BigDecimal totalRetraitsJour = BigDecimal.ZERO;
-        BigDecimal totalVirementsJour = BigDecimal.ZERO;
-        
-        for (Mouvement mvt : mouvementsJour) {
-            String codeOperation = mvt.getTypeOperation().getCodeOperation();
-            BigDecimal montantAbs = mvt.getMontant().abs();
-            
-            if ("RETRAIT".equals(codeOperation) && mvt.getMontant().compareTo(BigDecimal.ZERO) < 0) {
-                totalRetraitsJour = totalRetraitsJour.add(montantAbs);
-            } else if ("VIREMENT".equals(codeOperation) && mvt.getMontant().compareTo(BigDecimal.ZERO) < 0) {
-                totalVirementsJour = totalVirementsJour.add(montantAbs);
-            }
-        }
+        // Cumuls du jour maintenus à chaque mouvement
+        CumulJournalier cumul = cumulJournalierService.obtenirCumul(compte, LocalDate.now());
         
         // Vérifier les plafonds selon le type d'opération
         switch (typeOperation.toUpperCase()) {
             case "RETRAIT":
-                BigDecimal nouveauTotalRetraits = totalRetraitsJour.add(montant);
+                BigDecimal nouveauTotalRetraits = cumul.getTotalRetraits().add(montant);
                 return nouveauTotalRetraits.compareTo(parametres.getPlafondRetraitJournalier()) <= 0;
                 
             case "VIREMENT":
-                BigDecimal nouveauTotalVirements = totalVirementsJour.add(montant);
+                BigDecimal nouveauTotalVirements = cumul.getTotalVirements().add(montant);
                 return nouveauTotalVirements.compareTo(parametres.getPlafondVirementJournalier()) <= 0;
                 
             default:
@@ -428,37 +403,54 @@ public class OperationServiceImpl implements OperationServiceRemote {
     }
 
     /**
-     * Calcule le solde actuel d'un compte
+     * Verrouille les comptes débiteur et créditeur d'un virement.
+     * Les verrous sont toujours pris par ID croissant afin que deux virements
+     * croisés (A vers B et B vers A) ne puissent pas s'interbloquer.
+     * @return [compte débiteur, compte créditeur]
      */
-    private BigDecimal calculerSoldeCompte(CompteCourant compte) {
-        BigDecimal soldeInitial = compte.getSoldeInitial();
-        BigDecimal totalMouvements = mouvementRepository.calculerSoldeMouvements(compte.getIdCompte());
-        return soldeInitial.add(totalMouvements != null ? totalMouvements : BigDecimal.ZERO);
+    private CompteCourant[] verrouillerComptesVirement(String numeroCompteDebiteur, String numeroCompteCrediteur) {
+        Long idDebiteur = compteCourantRepository.findIdByNumeroCompte(numeroCompteDebiteur)
+            .orElseThrow(() -> new IllegalArgumentException("Compte débiteur non trouvé : " + numeroCompteDebiteur));
+        Long idCrediteur = compteCourantRepository.findIdByNumeroCompte(numeroCompteCrediteur)
+            .orElseThrow(() -> new IllegalArgumentException("Compte créditeur non trouvé : " + numeroCompteCrediteur));
+
+        boolean debiteurEnPremier = idDebiteur < idCrediteur;
+        CompteCourant premier = verrouillerCompte(debiteurEnPremier ? idDebiteur : idCrediteur);
+        CompteCourant second = verrouillerCompte(debiteurEnPremier ? idCrediteur : idDebiteur);
+
+        return debiteurEnPremier
+            ? new CompteCourant[] { premier, second }
+            : new CompteCourant[] { second, premier };
+    }
+
+    private CompteCourant verrouillerCompte(Long idCompte) {
+        return compteCourantRepository.findByIdForUpdate(idCompte)
+            .orElseThrow(() -> new IllegalArgumentException("Compte non trouvé : " + idCompte));
     }
 
     /**
-     * Génère une référence unique pour un mouvement
+     * Retourne les paramètres actuels du type de compte depuis le cache de
+     * référence, sans initialiser le proxy du type de compte
      */
-    private String genererReference(String prefixe) {
-        long timestamp = System.currentTimeMillis();
-        int random = (int) (Math.random() * 9999);
-        return String.format("%s%d%04d", prefixe, timestamp, random);
+    private ParametresCompte parametresDuCompte(CompteCourant compte) {
+        if (compte.getTypeCompte() == null) {
+            return null;
+        }
+        return referentielCache.getParametres(compte.getTypeCompte().getIdTypeCompte()).orElse(null);
     }
 
     /**
-     * Gère automatiquement les intérêts de découvert après chaque opération
+     * Retourne le solde actuel (matérialisé) d'un compte
      */
-    private void gererInteretsDecouvertAutomatique(CompteCourant compte) {
-        try {
-            BigDecimal soldeActuel = calculerSoldeCompte(compte);
-            
-            // Appliquer les intérêts seulement si le compte est en découvert
-            if (soldeActuel.compareTo(BigDecimal.ZERO) < 0) {
-                calculerEtAppliquerInteretsDecouvert(compte, soldeActuel);
-            }
-        } catch (Exception e) {
-            LOGGER.warning("Erreur lors de l'application automatique des intérêts : " + e.getMessage());
-        }
+    private BigDecimal calculerSoldeCompte(CompteCourant compte) {
+        return soldeCompteService.obtenirSolde(compte);
+    }
+
+    /**
+     * Génère une référence unique pour un mouvement
+     */
+    private String genererReference(String prefixe) {
+        return GenerateurReference.genererReference(prefixe);
     }
 
     @Override
@@ -470,7 +462,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
         }
         
         // Vérifier l'existence et le statut du compte
-        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompte(numeroCompte);
+        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompteForUpdate(numeroCompte);
         if (compteOpt.isEmpty()) {
             throw new IllegalArgumentException("Compte non trouvé : " + numeroCompte);
         }
@@ -481,7 +473,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
         }
         
         // Récupérer le type d'opération DEPOT
-        Optional<TypeOperation> typeDepotOpt = typeOperationRepository.findByCode("DEPOT");
+        Optional<TypeOperation> typeDepotOpt = referentielCache.getTypeOperation("DEPOT");
         if (typeDepotOpt.isEmpty()) {
             throw new IllegalStateException("Type d'opération DEPOT non configuré");
         }
@@ -502,10 +494,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
             .idAdministrateur(idAdministrateur.intValue()) // Traçabilité admin
             .build();
         
-        Mouvement mouvementCree = mouvementRepository.save(mouvement);
-        
-        // Appliquer les intérêts de découvert si nécessaire après le dépôt
-        gererInteretsDecouvertAutomatique(compte);
+        Mouvement mouvementCree = soldeCompteService.enregistrerMouvement(mouvement);
         
         LOGGER.info("Traçabilité: Dépôt effectué par l'administrateur " + idAdministrateur + " - Référence: " + mouvementCree.getReference());
         
@@ -521,7 +510,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
         }
         
         // Vérifier l'existence et le statut du compte
-        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompte(numeroCompte);
+        Optional<CompteCourant> compteOpt = compteCourantRepository.findByNumeroCompteForUpdate(numeroCompte);
         if (compteOpt.isEmpty()) {
             throw new IllegalArgumentException("Compte non trouvé : " + numeroCompte);
         }
@@ -536,17 +525,15 @@ public class OperationServiceImpl implements OperationServiceRemote {
         BigDecimal nouveauSolde = soldeAvant.subtract(montant);
         
         // Vérifier le découvert autorisé (admin peut bypasser les plafonds journaliers)
-        BigDecimal decouvertAutorise = BigDecimal.ZERO;
-        if (compte.getTypeCompte() != null && compte.getTypeCompte().getParametreActuel() != null) {
-            decouvertAutorise = compte.getTypeCompte().getParametreActuel().getMontantDecouvertAutorise();
-        }
+        ParametresCompte parametres = parametresDuCompte(compte);
+        BigDecimal decouvertAutorise = parametres != null ? parametres.getMontantDecouvertAutorise() : BigDecimal.ZERO;
         
         if (nouveauSolde.compareTo(decouvertAutorise.negate()) < 0) {
             throw new IllegalStateException("Solde insuffisant. Découvert autorisé : " + decouvertAutorise + " XOF");
         }
         
         // Récupérer le type d'opération RETRAIT
-        Optional<TypeOperation> typeRetraitOpt = typeOperationRepository.findByCode("RETRAIT");
+        Optional<TypeOperation> typeRetraitOpt = referentielCache.getTypeOperation("RETRAIT");
         if (typeRetraitOpt.isEmpty()) {
             throw new IllegalStateException("Type d'opération RETRAIT non configuré");
         }
@@ -564,10 +551,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
             .idAdministrateur(idAdministrateur.intValue()) // Traçabilité admin
             .build();
         
-        Mouvement mouvementCree = mouvementRepository.save(mouvement);
-        
-        // Appliquer les intérêts de découvert si nécessaire après le retrait
-        gererInteretsDecouvertAutomatique(compte);
+        Mouvement mouvementCree = soldeCompteService.enregistrerMouvement(mouvement);
         
         LOGGER.info("Traçabilité: Retrait effectué par l'administrateur " + idAdministrateur + " - Référence: " + mouvementCree.getReference());
         
@@ -586,19 +570,10 @@ public class OperationServiceImpl implements OperationServiceRemote {
             throw new IllegalArgumentException("Les comptes débiteur et créditeur doivent être différents");
         }
         
-        // Vérifier l'existence des deux comptes
-        Optional<CompteCourant> compteDebiteurOpt = compteCourantRepository.findByNumeroCompte(numeroCompteDebiteur);
-        if (compteDebiteurOpt.isEmpty()) {
-            throw new IllegalArgumentException("Compte débiteur non trouvé : " + numeroCompteDebiteur);
-        }
-        
-        Optional<CompteCourant> compteCrediteurOpt = compteCourantRepository.findByNumeroCompte(numeroCompteCrediteur);
-        if (compteCrediteurOpt.isEmpty()) {
-            throw new IllegalArgumentException("Compte créditeur non trouvé : " + numeroCompteCrediteur);
-        }
-        
-        CompteCourant compteDebiteur = compteDebiteurOpt.get();
-        CompteCourant compteCrediteur = compteCrediteurOpt.get();
+        // Vérifier l'existence des deux comptes et les verrouiller dans un ordre déterministe
+        CompteCourant[] comptes = verrouillerComptesVirement(numeroCompteDebiteur, numeroCompteCrediteur);
+        CompteCourant compteDebiteur = comptes[0];
+        CompteCourant compteCrediteur = comptes[1];
         
         // Vérifier le statut des comptes
         if (compteDebiteur.getStatut() != StatutCompte.OUVERT) {
@@ -614,17 +589,15 @@ public class OperationServiceImpl implements OperationServiceRemote {
         BigDecimal nouveauSoldeDebiteur = soldeAvantDebiteur.subtract(montant);
         
         // Vérifier le découvert autorisé du compte débiteur (admin peut bypasser les plafonds journaliers)
-        BigDecimal decouvertAutorise = BigDecimal.ZERO;
-        if (compteDebiteur.getTypeCompte() != null && compteDebiteur.getTypeCompte().getParametreActuel() != null) {
-            decouvertAutorise = compteDebiteur.getTypeCompte().getParametreActuel().getMontantDecouvertAutorise();
-        }
+        ParametresCompte parametres = parametresDuCompte(compteDebiteur);
+        BigDecimal decouvertAutorise = parametres != null ? parametres.getMontantDecouvertAutorise() : BigDecimal.ZERO;
         
         if (nouveauSoldeDebiteur.compareTo(decouvertAutorise.negate()) < 0) {
             throw new IllegalStateException("Solde insuffisant. Découvert autorisé : " + decouvertAutorise + " XOF");
         }
         
         // Récupérer le type d'opération VIREMENT
-        Optional<TypeOperation> typeVirementOpt = typeOperationRepository.findByCode("VIREMENT");
+        Optional<TypeOperation> typeVirementOpt = referentielCache.getTypeOperation("VIREMENT");
         if (typeVirementOpt.isEmpty()) {
             throw new IllegalStateException("Type d'opération VIREMENT non configuré");
         }
@@ -645,7 +618,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
             .idAdministrateur(idAdministrateur.intValue()) // Traçabilité admin
             .build();
         
-        Mouvement mouvementDebitCree = mouvementRepository.save(mouvementDebit);
+        Mouvement mouvementDebitCree = soldeCompteService.enregistrerMouvement(mouvementDebit);
         
         // Créer le mouvement de crédit avec traçabilité admin
         Mouvement mouvementCredit = Mouvement.builder()
@@ -660,7 +633,7 @@ public class OperationServiceImpl implements OperationServiceRemote {
             .idAdministrateur(idAdministrateur.intValue()) // Traçabilité admin
             .build();
         
-        Mouvement mouvementCreditCree = mouvementRepository.save(mouvementCredit);
+        Mouvement mouvementCreditCree = soldeCompteService.enregistrerMouvement(mouvementCredit);
         
         // Créer l'entité Virement qui lie les deux mouvements avec traçabilité admin
         Virement virement = Virement.builder()
@@ -673,10 +646,6 @@ public class OperationServiceImpl implements OperationServiceRemote {
         
         Virement virementCree = virementRepository.save(virement);
         
-        // Appliquer les intérêts de découvert si nécessaire après le virement
-        gererInteretsDecouvertAutomatique(compteDebiteur);
-        gererInteretsDecouvertAutomatique(compteCrediteur);
-        
         // Créer le DTO de retour
         VirementDTO virementDTO = VirementMapper.toDTO(virementCree);
         virementDTO.setNumeroCompteDebiteur(numeroCompteDebiteur);
@@ -688,43 +657,4 @@ public class OperationServiceImpl implements OperationServiceRemote {
         
         return virementDTO;
     }
-
-    /**
-     * Calcule et applique les intérêts de découvert
-     */
-    private void calculerEtAppliquerInteretsDecouvert(CompteCourant compte, BigDecimal montantDecouvert) {
-        if (compte.getTypeCompte() == null || compte.getTypeCompte().getParametreActuel() == null) {
-            return;
-        }
-
-        ParametresCompte parametres = compte.getTypeCompte().getParametreActuel();
-        BigDecimal tauxAnnuel = parametres.getTauxDecouvert().getTauxAnnuel();
-        
-        // Convertir le taux annuel en taux journalier (divisé par 365)
-        BigDecimal tauxJournalier = tauxAnnuel.divide(new BigDecimal("365"), 6, RoundingMode.HALF_UP);
-        BigDecimal interets = montantDecouvert.abs().multiply(tauxJournalier).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-        
-        // Seuil minimum pour appliquer les intérêts (1 XOF)
-        if (interets.compareTo(BigDecimal.ONE) >= 0) {
-            // Récupérer le type d'opération INTERETS
-            Optional<TypeOperation> typeInteretsOpt = typeOperationRepository.findByCode("INTERETS");
-            if (typeInteretsOpt.isPresent()) {
-                BigDecimal soldeAvant = calculerSoldeCompte(compte);
-                
-                Mouvement mouvementInterets = Mouvement.builder()
-                    .compte(compte)
-                    .typeOperation(typeInteretsOpt.get())
-                    .montant(interets.negate()) // Négatif car c'est un débit
-                    .soldeAvantOperation(soldeAvant)
-                    .soldeApresOperation(soldeAvant.subtract(interets))
-                    .dateOperation(LocalDateTime.now())
-                    .libelleOperation("Intérêts découvert journalier")
-                    .reference(genererReference("INT"))
-                    .build();
-                
-                mouvementRepository.save(mouvementInterets);
-                LOGGER.info("Intérêts de découvert appliqués : " + interets + " XOF sur le compte " + compte.getNumeroCompte());
-            }
-        }
-    }
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package com.banque.situationbancaire.ejb.impl;
 
+import com.banque.situationbancaire.dto.BlocReleveDTO;
 import com.banque.situationbancaire.dto.MouvementDTO;
+import com.banque.situationbancaire.dto.PageCurseurDTO;
 import com.banque.situationbancaire.dto.VirementDTO;
 import com.banque.situationbancaire.ejb.remote.OperationServiceRemote;
 import java.math.BigDecimal;
@@ -58,6 +60,24 @@ public class OperationServiceImplTemp implements OperationServiceRemote {
         return virement;
     }
 
+    @Override
+    public PageCurseurDTO<MouvementDTO> obtenirHistoriquePagine(String numeroCompte, LocalDate dateDebut, LocalDate dateFin,
+                                                                String curseur, int taille) {
+        LOGGER.info("Récupération paginée de l'historique pour le compte " + numeroCompte);
+        
+        // TODO: Implémentation complète
+        return new PageCurseurDTO<>();
+    }
+
+    @Override
+    public BlocReleveDTO exporterReleveCsv(String numeroCompte, LocalDate dateDebut, LocalDate dateFin,
+                                           String curseur, int tailleBloc) {
+        LOGGER.info("Export du relevé du compte " + numeroCompte);
+        
+        // TODO: Implémentation complète
+        return new BlocReleveDTO();
+    }
+
     @Override
     public List<MouvementDTO> obtenirHistoriqueMouvements(String numeroCompte, LocalDate dateDebut, LocalDate dateFin) {
         LOGGER.info("Récupération de l'historique pour le compte " + numeroCompte);
@@ -5,6 +5,7 @@ import com.banque.situationbancaire.ejb.remote.TypeCompteServiceRemote;
 import com.banque.situationbancaire.entity.TypeCompte;
 import com.banque.situationbancaire.mapper.TypeCompteMapper;
 import com.banque.situationbancaire.repository.TypeCompteRepository;
+import com.banque.situationbancaire.service.ReferentielCache;
 
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
@@ -24,6 +25,9 @@ public class TypeCompteServiceImpl implements TypeCompteServiceRemote {
     @Inject
     private TypeCompteRepository typeCompteRepository;
     
+    @Inject
+    private ReferentielCache referentielCache;
+    
     @Override
     public List<TypeCompteDTO> listerTousLesTypesCompte() {
         try {
@@ -83,4 +87,9 @@ public class TypeCompteServiceImpl implements TypeCompteServiceRemote {
             return false;
         }
     }
-}
\ No newline at end of file
+    
+    @Override
+    public void invaliderCacheReferentiel() {
+        referentielCache.invalider();
+    }
+}
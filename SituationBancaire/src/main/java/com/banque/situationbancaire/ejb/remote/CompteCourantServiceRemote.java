@@ -1,9 +1,11 @@
 package com.banque.situationbancaire.ejb.remote;
 
 import com.banque.situationbancaire.dto.CompteCourantDTO;
+import com.banque.situationbancaire.dto.PageDTO;
 import jakarta.ejb.Remote;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface Remote pour la gestion des comptes courants
@@ -109,4 +111,20 @@ public interface CompteCourantServiceRemote {
      * @return Liste de tous les comptes avec leurs soldes calculés
      */
     List<CompteCourantDTO> findAll();
+    
+    /**
+     * Récupère une page de comptes courants avec leurs soldes, pour l'administration.
+     * Le nombre de requêtes est constant quelle que soit la taille de la page.
+     * @param statut Statut à filtrer (OUVERT, BLOQUE, FERME, SUSPENDU), ou null pour tous
+     * @param page Numéro de page, à partir de 0
+     * @param taille Nombre de comptes par page (borné à 500)
+     * @return La page de comptes demandée
+     */
+    PageDTO<CompteCourantDTO> listerComptes(String statut, int page, int taille);
+    
+    /**
+     * Compte les comptes courants par statut
+     * @return Nombre de comptes par nom de statut
+     */
+    Map<String, Long> compterComptesParStatut();
 }
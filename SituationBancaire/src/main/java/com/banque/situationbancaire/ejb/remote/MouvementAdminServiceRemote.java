@@ -1,8 +1,10 @@
 package com.banque.situationbancaire.ejb.remote;
 
 import com.banque.situationbancaire.dto.MouvementDTO;
+import com.banque.situationbancaire.dto.PageCurseurDTO;
 
 import jakarta.ejb.Remote;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +20,17 @@ public interface MouvementAdminServiceRemote {
     
     List<MouvementDTO> findAll(UserSessionBeanRemote userSession);
     
+    /**
+     * Récupère une page de mouvements, du plus récent au plus ancien
+     * @param idCompte ID du compte à filtrer, ou null pour tous les comptes
+     * @param dateDebut Date de début (optionnelle)
+     * @param dateFin Date de fin (optionnelle)
+     * @param curseur Curseur renvoyé par la page précédente, ou null pour la première page
+     * @param taille Nombre de mouvements par page (borné à 200)
+     */
+    PageCurseurDTO<MouvementDTO> findPage(Long idCompte, LocalDate dateDebut, LocalDate dateFin, String curseur, int taille,
+                                          UserSessionBeanRemote userSession);
+    
     MouvementDTO update(MouvementDTO mouvementDTO, UserSessionBeanRemote userSession);
     
     void delete(Long id, UserSessionBeanRemote userSession);
@@ -1,6 +1,8 @@
 package com.banque.situationbancaire.ejb.remote;
 
+import com.banque.situationbancaire.dto.BlocReleveDTO;
 import com.banque.situationbancaire.dto.MouvementDTO;
+import com.banque.situationbancaire.dto.PageCurseurDTO;
 import com.banque.situationbancaire.dto.VirementDTO;
 import jakarta.ejb.Remote;
 import java.math.BigDecimal;
@@ -82,14 +84,44 @@ public interface OperationServiceRemote {
     List<MouvementDTO> obtenirHistoriqueMouvements(String numeroCompte, LocalDate dateDebut, LocalDate dateFin);
     
     /**
-     * Applique les frais de tenue de compte périodiques
+     * Récupère une page de l'historique des mouvements d'un compte, du plus récent
+     * au plus ancien, par pagination sur curseur
      * @param numeroCompte Numéro du compte
-     * @return Le mouvement de frais créé
+     * @param dateDebut Date de début (optionnelle)
+     * @param dateFin Date de fin (optionnelle)
+     * @param curseur Curseur renvoyé par la page précédente, ou null pour la première page
+     * @param taille Nombre de mouvements par page (borné à 200)
+     * @return La page de mouvements et le curseur de la page suivante
+     */
+    PageCurseurDTO<MouvementDTO> obtenirHistoriquePagine(String numeroCompte, LocalDate dateDebut, LocalDate dateFin,
+                                                         String curseur, int taille);
+    
+    /**
+     * Exporte un bloc du relevé d'un compte au format CSV (séparateur ;), par ordre
+     * chronologique. Les blocs sont demandés successivement avec le curseur renvoyé
+     * jusqu'à ce qu'il soit null, ce qui permet d'écrire le relevé au fil de l'eau.
+     * @param numeroCompte Numéro du compte
+     * @param dateDebut Date de début (optionnelle)
+     * @param dateFin Date de fin (optionnelle)
+     * @param curseur Curseur du bloc précédent, ou null pour le premier bloc (avec en-tête)
+     * @param tailleBloc Nombre de lignes par bloc (borné à 10000)
+     * @return Le bloc CSV et le curseur du bloc suivant
+     */
+    BlocReleveDTO exporterReleveCsv(String numeroCompte, LocalDate dateDebut, LocalDate dateFin,
+                                    String curseur, int tailleBloc);
+    
+    /**
+     * Applique les frais de tenue de compte de la période en cours
+     * (mois, trimestre ou année selon le type de compte)
+     * @param numeroCompte Numéro du compte
+     * @return Le mouvement de frais créé, ou null si les frais de la période
+     *         sont déjà prélevés ou si le compte n'est pas ouvert
      */
     MouvementDTO appliquerFraisTenueCompte(String numeroCompte);
     
     /**
-     * Calcule et applique les intérêts de découvert
+     * Calcule et applique les intérêts de découvert de la veille, sans attendre
+     * le traitement nocturne (qui ne les prélèvera pas une seconde fois)
      * @param numeroCompte Numéro du compte
      * @return Le mouvement d'intérêts créé (si applicable)
      */
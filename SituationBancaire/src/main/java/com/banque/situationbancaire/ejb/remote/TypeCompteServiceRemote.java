@@ -36,4 +36,10 @@ public interface TypeCompteServiceRemote {
      * @return true si le type existe, false sinon
      */
     boolean existeParCode(String codeType);
-}
\ No newline at end of file
+    
+    /**
+     * Recharge le cache des types de compte et de leurs paramètres.
+     * À appeler après toute modification des paramètres de compte.
+     */
+    void invaliderCacheReferentiel();
+}
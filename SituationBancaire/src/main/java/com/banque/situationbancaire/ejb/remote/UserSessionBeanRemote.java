@@ -27,6 +27,13 @@ public interface UserSessionBeanRemote {
     
     boolean isValid();
     
+    /**
+     * Version des permissions de la session, modifiée à chaque initialisation ;
+     * -1 si la session n'est plus valide. Permet au client de savoir en un seul
+     * appel si sa copie locale des permissions est toujours à jour.
+     */
+    long getVersionPermissions();
+    
     String getSessionId();
     
     UtilisateurDTO getUtilisateur();
@@ -2,6 +2,7 @@ package com.banque.situationbancaire.entity;
 
 import com.banque.situationbancaire.entity.enums.SituationFamiliale;
 import com.banque.situationbancaire.entity.enums.StatutClient;
+import com.banque.situationbancaire.util.GenerateurReference;
 import lombok.*;
 
 import jakarta.persistence.*;
@@ -31,7 +32,7 @@ public class Client implements Serializable {
     @Column(name = "id_client")
     private Long idClient;
 
-    @Column(name = "numero_client", unique = true, nullable = false, length = 20)
+    @Column(name = "numero_client", unique = true, nullable = false, length = 32)
     private String numeroClient;
 
     @Column(name = "nom", nullable = false, length = 100)
@@ -120,11 +121,9 @@ public class Client implements Serializable {
 
     /**
      * Génère un numéro de client automatiquement
-     * Format: CLI + timestamp + 4 chiffres aléatoires
+     * Format: CLI + identifiant unique (voir GenerateurReference)
      */
     private String generateNumeroClient() {
-        long timestamp = System.currentTimeMillis();
-        int random = (int) (Math.random() * 9999);
-        return String.format("CLI%d%04d", timestamp, random);
+        return GenerateurReference.genererReference("CLI");
     }
 }
@@ -24,7 +24,8 @@ public class CompteCourant implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compte_courant_seq")
+    @SequenceGenerator(name = "compte_courant_seq", sequenceName = "compte_courant_id_compte_seq", allocationSize = 50)
     @Column(name = "id_compte")
     private Long idCompte;
 
@@ -71,6 +72,20 @@ public class CompteCourant implements Serializable {
     @DecimalMin(value = "0.0", inclusive = true, message = "Le solde initial doit être positif ou nul")
     private java.math.BigDecimal soldeInitial;
 
+    /**
+     * Solde courant matérialisé (solde initial + somme des mouvements),
+     * maintenu dans la même transaction que chaque insertion de mouvement.
+     * Null uniquement pour les comptes antérieurs à la colonne, le temps
+     * de leur initialisation depuis le grand livre.
+     */
+    @Column(name = "solde_actuel", precision = 15, scale = 2)
+    private java.math.BigDecimal soldeActuel;
+
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    @Builder.Default
+    private Long version = 0L;
+
     @OneToMany(mappedBy = "compte", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @ToString.Exclude
     @Builder.Default
@@ -85,4 +100,21 @@ public class CompteCourant implements Serializable {
     @ToString.Exclude
     @Builder.Default
     private List<FraisTenueHistorique> fraisTenus = new ArrayList<>();
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.soldeActuel == null) {
+            this.soldeActuel = this.soldeInitial;
+        }
+    }
+
+    /**
+     * Applique le montant signé d'un mouvement au solde matérialisé
+     * @param montant Montant du mouvement (positif au crédit, négatif au débit)
+     * @return Le nouveau solde
+     */
+    public java.math.BigDecimal appliquerMouvement(java.math.BigDecimal montant) {
+        this.soldeActuel = this.soldeActuel.add(montant);
+        return this.soldeActuel;
+    }
 }
@@ -0,0 +1,63 @@
+package com.banque.situationbancaire.entity;
+
+import lombok.*;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entité représentant les cumuls de débits d'un compte pour une journée,
+ * utilisés pour le contrôle des plafonds journaliers
+ */
+@Entity
+@Table(name = "cumul_journalier", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_cumul_journalier_compte_jour", columnNames = {"id_compte", "date_jour"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CumulJournalier implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cumul_journalier_seq")
+    @SequenceGenerator(name = "cumul_journalier_seq", sequenceName = "cumul_journalier_id_cumul_seq", allocationSize = 50)
+    @Column(name = "id_cumul")
+    private Long idCumul;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_compte", nullable = false)
+    @NotNull(message = "Le compte est obligatoire")
+    @ToString.Exclude
+    private CompteCourant compte;
+
+    @Column(name = "date_jour", nullable = false)
+    @NotNull(message = "La date est obligatoire")
+    private LocalDate dateJour;
+
+    @Column(name = "total_retraits", nullable = false, precision = 15, scale = 2)
+    @Builder.Default
+    private BigDecimal totalRetraits = BigDecimal.ZERO;
+
+    @Column(name = "total_virements", nullable = false, precision = 15, scale = 2)
+    @Builder.Default
+    private BigDecimal totalVirements = BigDecimal.ZERO;
+
+    /**
+     * Ajoute (ou retire si négatif) un montant au cumul correspondant au code d'opération
+     * @param codeOperation Code du type d'opération (RETRAIT ou VIREMENT)
+     * @param montant Montant absolu du débit
+     */
+    public void cumuler(String codeOperation, BigDecimal montant) {
+        if ("RETRAIT".equals(codeOperation)) {
+            this.totalRetraits = this.totalRetraits.add(montant);
+        } else if ("VIREMENT".equals(codeOperation)) {
+            this.totalVirements = this.totalVirements.add(montant);
+        }
+    }
+}
@@ -26,7 +26,8 @@ public class Decouvert implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "decouvert_seq")
+    @SequenceGenerator(name = "decouvert_seq", sequenceName = "decouvert_id_decouvert_seq", allocationSize = 50)
     @Column(name = "id_decouvert")
     private Long idDecouvert;
 
@@ -11,9 +11,12 @@ import java.time.LocalDateTime;
 
 /**
  * Entité représentant l'historique des frais de tenue de compte prélevés
+ * (au plus une ligne par compte et par période, ce qui empêche un double prélèvement)
  */
 @Entity
-@Table(name = "frais_tenue_historique")
+@Table(name = "frais_tenue_historique", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_frais_compte_periode", columnNames = {"id_compte", "periode_debut"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,7 +26,8 @@ public class FraisTenueHistorique implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "frais_tenue_historique_seq")
+    @SequenceGenerator(name = "frais_tenue_historique_seq", sequenceName = "frais_tenue_historique_id_frais_seq", allocationSize = 50)
     @Column(name = "id_frais")
     private Long idFrais;
 
@@ -10,9 +10,12 @@ import java.time.LocalDate;
 
 /**
  * Entité représentant le calcul journalier des intérêts pour un compte
+ * (au plus une ligne par compte et par jour)
  */
 @Entity
-@Table(name = "interet_journalier")
+@Table(name = "interet_journalier", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_interet_compte_jour", columnNames = {"id_compte", "date_jour"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,7 +25,8 @@ public class InteretJournalier implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "interet_journalier_seq")
+    @SequenceGenerator(name = "interet_journalier_seq", sequenceName = "interet_journalier_id_interet_seq", allocationSize = 50)
     @Column(name = "id_interet")
     private Long idInteret;
 
@@ -1,6 +1,7 @@
 package com.banque.situationbancaire.entity;
 
 import lombok.*;
+import org.hibernate.annotations.JoinFormula;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
@@ -14,8 +15,29 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "mouvement", indexes = {
     @Index(name = "idx_mouvement_compte_date", columnList = "id_compte,date_operation"),
-    @Index(name = "idx_mouvement_reference", columnList = "reference")
+    // Unique : sur une base existante, voir migration_reference_mouvement_unique.sql
+    @Index(name = "idx_mouvement_reference", columnList = "reference", unique = true),
+    @Index(name = "idx_mouvement_date", columnList = "date_operation,id_mouvement")
 })
+@NamedEntityGraph(
+    // Tout ce que lit MouvementMapper : compte, type d'opération et, pour un virement,
+    // le compte (et son client) de l'autre mouvement. Sans ce graphe, chaque mouvement
+    // chargé déclenche les deux SELECT des côtés inverses de virement, puis ceux du
+    // compte et du client de la contrepartie
+    name = Mouvement.GRAPHE_DETAIL,
+    attributeNodes = {
+        @NamedAttributeNode("compte"),
+        @NamedAttributeNode("typeOperation"),
+        @NamedAttributeNode(value = "virementEmis", subgraph = "virementEmis"),
+        @NamedAttributeNode(value = "virementRecu", subgraph = "virementRecu")
+    },
+    subgraphs = {
+        @NamedSubgraph(name = "virementEmis", attributeNodes = @NamedAttributeNode(value = "mouvementCredit", subgraph = "contrepartie")),
+        @NamedSubgraph(name = "virementRecu", attributeNodes = @NamedAttributeNode(value = "mouvementDebit", subgraph = "contrepartie")),
+        @NamedSubgraph(name = "contrepartie", attributeNodes = @NamedAttributeNode(value = "compte", subgraph = "compteClient")),
+        @NamedSubgraph(name = "compteClient", attributeNodes = @NamedAttributeNode("client"))
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,8 +46,11 @@ public class Mouvement implements Serializable {
     
     private static final long serialVersionUID = 1L;
 
+    public static final String GRAPHE_DETAIL = "Mouvement.detail";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mouvement_seq")
+    @SequenceGenerator(name = "mouvement_seq", sequenceName = "mouvement_id_mouvement_seq", allocationSize = 50)
     @Column(name = "id_mouvement")
     private Long idMouvement;
 
@@ -63,11 +88,20 @@ public class Mouvement implements Serializable {
     @Column(name = "libelle_operation", length = 255)
     private String libelleOperation;
 
-    @OneToOne(mappedBy = "mouvementDebit", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // Côtés du virement en lecture seule. La clé est calculée par sous-requête (index
+    // idx_virement_mouvement_debit / _credit) : l'association est réellement paresseuse
+    // et vaut null sans requête, alors qu'un one-to-one inverse (mappedBy) est résolu
+    // par un SELECT pour chaque mouvement chargé, y compris la contrepartie d'un virement.
+    // La suppression du virement avec le mouvement est faite par MouvementRepository.deleteById
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinFormula(value = "(SELECT v.id_virement FROM virement v WHERE v.id_mouvement_debit = id_mouvement)",
+        referencedColumnName = "id_virement")
     @ToString.Exclude
     private Virement virementEmis;
 
-    @OneToOne(mappedBy = "mouvementCredit", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinFormula(value = "(SELECT v.id_virement FROM virement v WHERE v.id_mouvement_credit = id_mouvement)",
+        referencedColumnName = "id_virement")
     @ToString.Exclude
     private Virement virementRecu;
 
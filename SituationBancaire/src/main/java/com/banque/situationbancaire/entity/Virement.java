@@ -12,7 +12,11 @@ import java.time.LocalDateTime;
  * Entité représentant un virement entre deux comptes
  */
 @Entity
-@Table(name = "virement")
+@Table(name = "virement", indexes = {
+    // Sous-requêtes des associations Mouvement.virementEmis / virementRecu
+    @Index(name = "idx_virement_mouvement_debit", columnList = "id_mouvement_debit"),
+    @Index(name = "idx_virement_mouvement_credit", columnList = "id_mouvement_credit")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,7 +26,8 @@ public class Virement implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "virement_seq")
+    @SequenceGenerator(name = "virement_seq", sequenceName = "virement_id_virement_seq", allocationSize = 50)
     @Column(name = "id_virement")
     private Long idVirement;
 
@@ -1,10 +1,53 @@
 package com.banque.situationbancaire.entity.enums;
 
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Périodicité des frais de tenue de compte
  */
 public enum PeriodiciteFreais {
-    MENSUEL,
-    TRIMESTRIEL,
-    ANNUEL
+    MENSUEL(1),
+    TRIMESTRIEL(3),
+    ANNUEL(12);
+    
+    private final int nombreMois;
+    
+    PeriodiciteFreais(int nombreMois) {
+        this.nombreMois = nombreMois;
+    }
+    
+    public int getNombreMois() {
+        return nombreMois;
+    }
+    
+    /**
+     * Premier jour de la période (mois, trimestre ou année civile) contenant la date
+     */
+    public LocalDate debutPeriode(LocalDate date) {
+        int moisDebut = ((date.getMonthValue() - 1) / nombreMois) * nombreMois + 1;
+        return LocalDate.of(date.getYear(), moisDebut, 1);
+    }
+    
+    /**
+     * Dernier jour de la période contenant la date
+     */
+    public LocalDate finPeriode(LocalDate date) {
+        return debutPeriode(date).plusMonths(nombreMois - 1L).with(TemporalAdjusters.lastDayOfMonth());
+    }
+    
+    /**
+     * Périodicités dont une période se termine à la date donnée
+     */
+    public static List<PeriodiciteFreais> echuesAu(LocalDate date) {
+        List<PeriodiciteFreais> echues = new ArrayList<>();
+        for (PeriodiciteFreais periodicite : values()) {
+            if (periodicite.finPeriode(date).equals(date)) {
+                echues.add(periodicite);
+            }
+        }
+        return echues;
+    }
 }
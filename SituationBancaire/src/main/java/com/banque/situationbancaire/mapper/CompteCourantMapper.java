@@ -18,6 +18,30 @@ public class CompteCourantMapper {
      * Convertit une entité CompteCourant vers un CompteCourantDTO
      */
     public static CompteCourantDTO toDTO(CompteCourant compte) {
+        CompteCourantDTO dto = toResumeDTO(compte);
+        if (dto == null) {
+            return null;
+        }
+        
+        // Calcul du solde à partir du solde initial et des mouvements
+        dto.setSolde(calculateSoldeActuel(compte));
+        
+        // Conversion des mouvements si nécessaire
+        if (compte.getMouvements() != null && !compte.getMouvements().isEmpty()) {
+            List<MouvementDTO> mouvementsDTO = compte.getMouvements().stream()
+                .map(MouvementMapper::toDTO)
+                .collect(Collectors.toList());
+            dto.setMouvements(mouvementsDTO);
+        }
+        
+        return dto;
+    }
+    
+    /**
+     * Convertit un compte sans ses mouvements, pour les listes : ne déclenche
+     * aucun chargement de la collection des mouvements
+     */
+    public static CompteCourantDTO toResumeDTO(CompteCourant compte) {
         if (compte == null) {
             return null;
         }
@@ -26,8 +50,8 @@ public class CompteCourantMapper {
         dto.setIdCompte(compte.getIdCompte());
         dto.setNumeroCompte(compte.getNumeroCompte());
         
-        // Calcul du solde à partir du solde initial et des mouvements
-        dto.setSolde(calculateSoldeActuel(compte));
+        // Solde matérialisé (null pour un compte non encore initialisé)
+        dto.setSolde(compte.getSoldeActuel());
         dto.setDecouvertAutorise(BigDecimal.ZERO); // À implémenter selon les paramètres
         dto.setStatut(compte.getStatut() != null ? compte.getStatut().name() : null);
         
@@ -50,14 +74,6 @@ public class CompteCourantMapper {
             dto.setTypeCompte(compte.getTypeCompte().getLibelle());
         }
         
-        // Conversion des mouvements si nécessaire
-        if (compte.getMouvements() != null && !compte.getMouvements().isEmpty()) {
-            List<MouvementDTO> mouvementsDTO = compte.getMouvements().stream()
-                .map(MouvementMapper::toDTO)
-                .collect(Collectors.toList());
-            dto.setMouvements(mouvementsDTO);
-        }
-        
         return dto;
     }
     
@@ -99,6 +115,11 @@ public class CompteCourantMapper {
      * Calcule le solde actuel d'un compte
      */
     private static BigDecimal calculateSoldeActuel(CompteCourant compte) {
+        // Solde matérialisé disponible : pas besoin de parcourir les mouvements
+        if (compte.getSoldeActuel() != null) {
+            return compte.getSoldeActuel();
+        }
+        
         if (compte.getSoldeInitial() == null) {
             return BigDecimal.ZERO;
         }
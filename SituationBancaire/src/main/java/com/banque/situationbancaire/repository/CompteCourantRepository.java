@@ -1,12 +1,21 @@
 package com.banque.situationbancaire.repository;
 
 import com.banque.situationbancaire.entity.CompteCourant;
+import com.banque.situationbancaire.entity.enums.PeriodiciteFreais;
+import com.banque.situationbancaire.entity.enums.StatutCompte;
 
 import jakarta.ejb.Stateless;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -15,6 +24,11 @@ import java.util.Optional;
 @Stateless
 public class CompteCourantRepository {
 
+    private static final String LOCK_TIMEOUT_HINT = "jakarta.persistence.lock.timeout";
+
+    // Délai maximal d'attente d'un verrou de compte avant échec de l'opération
+    private static final int LOCK_TIMEOUT_MS = 5000;
+
     @PersistenceContext(unitName = "SituationBancairePU")
     private EntityManager em;
 
@@ -31,25 +45,245 @@ public class CompteCourantRepository {
         return Optional.ofNullable(em.find(CompteCourant.class, id));
     }
 
+    /**
+     * Charge un compte avec son client et son type de compte (lus par CompteCourantMapper)
+     */
+    public Optional<CompteCourant> findByIdAvecDetails(Long id) {
+        TypedQuery<CompteCourant> query = em.createQuery(
+            "SELECT c FROM CompteCourant c JOIN FETCH c.client JOIN FETCH c.typeCompte " +
+            "WHERE c.idCompte = :id", CompteCourant.class);
+        query.setParameter("id", id);
+        return query.getResultList().stream().findFirst();
+    }
+
     public Optional<CompteCourant> findByNumeroCompte(String numeroCompte) {
+        TypedQuery<CompteCourant> query = em.createQuery(
+            "SELECT c FROM CompteCourant c JOIN FETCH c.client JOIN FETCH c.typeCompte " +
+            "WHERE c.numeroCompte = :numeroCompte", CompteCourant.class);
+        query.setParameter("numeroCompte", numeroCompte);
+        return query.getResultList().stream().findFirst();
+    }
+
+    /**
+     * Charge un compte en posant un verrou en écriture sur sa ligne
+     * (SELECT ... FOR UPDATE), conservé jusqu'à la fin de la transaction
+     */
+    public Optional<CompteCourant> findByNumeroCompteForUpdate(String numeroCompte) {
         TypedQuery<CompteCourant> query = em.createQuery(
             "SELECT c FROM CompteCourant c WHERE c.numeroCompte = :numeroCompte", CompteCourant.class);
         query.setParameter("numeroCompte", numeroCompte);
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        query.setHint(LOCK_TIMEOUT_HINT, LOCK_TIMEOUT_MS);
+        return query.getResultList().stream().findFirst();
+    }
+
+    /**
+     * Charge un compte par son ID en posant un verrou en écriture sur sa ligne
+     */
+    public Optional<CompteCourant> findByIdForUpdate(Long id) {
+        return Optional.ofNullable(em.find(CompteCourant.class, id, LockModeType.PESSIMISTIC_WRITE,
+            Map.<String, Object>of(LOCK_TIMEOUT_HINT, LOCK_TIMEOUT_MS)));
+    }
+
+    /**
+     * Charge un lot de comptes, dans l'ordre des IDs, en posant un verrou en
+     * écriture sur leurs lignes (un seul SELECT ... FOR UPDATE)
+     */
+    public List<CompteCourant> findByIdsForUpdate(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        TypedQuery<CompteCourant> query = em.createQuery(
+            "SELECT c FROM CompteCourant c WHERE c.idCompte IN :ids ORDER BY c.idCompte", CompteCourant.class);
+        query.setParameter("ids", ids);
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        query.setHint(LOCK_TIMEOUT_HINT, LOCK_TIMEOUT_MS);
+        return query.getResultList();
+    }
+
+    /**
+     * Résout l'ID d'un compte sans charger ni verrouiller l'entité
+     */
+    public Optional<Long> findIdByNumeroCompte(String numeroCompte) {
+        TypedQuery<Long> query = em.createQuery(
+            "SELECT c.idCompte FROM CompteCourant c WHERE c.numeroCompte = :numeroCompte", Long.class);
+        query.setParameter("numeroCompte", numeroCompte);
         return query.getResultList().stream().findFirst();
     }
 
     public List<CompteCourant> findByClientId(Long clientId) {
         TypedQuery<CompteCourant> query = em.createQuery(
-            "SELECT c FROM CompteCourant c WHERE c.client.idClient = :clientId", CompteCourant.class);
+            "SELECT c FROM CompteCourant c JOIN FETCH c.client JOIN FETCH c.typeCompte " +
+            "WHERE c.client.idClient = :clientId ORDER BY c.idCompte", CompteCourant.class);
         query.setParameter("clientId", clientId);
         return query.getResultList();
     }
 
     public List<CompteCourant> findAll() {
-        TypedQuery<CompteCourant> query = em.createQuery("SELECT c FROM CompteCourant c", CompteCourant.class);
+        TypedQuery<CompteCourant> query = em.createQuery(
+            "SELECT c FROM CompteCourant c JOIN FETCH c.client JOIN FETCH c.typeCompte ORDER BY c.idCompte",
+            CompteCourant.class);
+        return query.getResultList();
+    }
+
+    /**
+     * Récupère une page de comptes avec leur client et leur type de compte
+     * @param statut Statut à filtrer, ou null pour tous les comptes
+     * @param premier Index du premier compte retourné
+     * @param taille Nombre maximal de comptes retournés
+     */
+    public List<CompteCourant> findPage(StatutCompte statut, int premier, int taille) {
+        TypedQuery<CompteCourant> query = em.createQuery(
+            "SELECT c FROM CompteCourant c JOIN FETCH c.client JOIN FETCH c.typeCompte " +
+            "WHERE (:statut IS NULL OR c.statut = :statut) ORDER BY c.idCompte", CompteCourant.class);
+        query.setParameter("statut", statut);
+        query.setFirstResult(premier);
+        query.setMaxResults(taille);
+        return query.getResultList();
+    }
+
+    public long countByStatut(StatutCompte statut) {
+        TypedQuery<Long> query = em.createQuery(
+            "SELECT COUNT(c) FROM CompteCourant c WHERE (:statut IS NULL OR c.statut = :statut)", Long.class);
+        query.setParameter("statut", statut);
+        return query.getSingleResult();
+    }
+
+    /**
+     * Compte les comptes par statut en une seule requête groupée
+     */
+    public Map<StatutCompte, Long> countGroupByStatut() {
+        TypedQuery<Object[]> query = em.createQuery(
+            "SELECT c.statut, COUNT(c) FROM CompteCourant c GROUP BY c.statut", Object[].class);
+        Map<StatutCompte, Long> resultat = new HashMap<>();
+        for (Object[] ligne : query.getResultList()) {
+            resultat.put((StatutCompte) ligne[0], (Long) ligne[1]);
+        }
+        return resultat;
+    }
+
+    /**
+     * Calcule en une requête groupée le total des mouvements de plusieurs comptes
+     * (utilisé pour les comptes dont le solde n'est pas encore matérialisé)
+     * @return Total des mouvements par ID de compte (absent si aucun mouvement)
+     */
+    public Map<Long, BigDecimal> sommerMouvementsParCompte(Collection<Long> idsComptes) {
+        Map<Long, BigDecimal> resultat = new HashMap<>();
+        if (idsComptes.isEmpty()) {
+            return resultat;
+        }
+        TypedQuery<Object[]> query = em.createQuery(
+            "SELECT m.compte.idCompte, SUM(m.montant) FROM Mouvement m " +
+            "WHERE m.compte.idCompte IN :ids GROUP BY m.compte.idCompte", Object[].class);
+        query.setParameter("ids", idsComptes);
+        for (Object[] ligne : query.getResultList()) {
+            resultat.put((Long) ligne[0], (BigDecimal) ligne[1]);
+        }
+        return resultat;
+    }
+
+    /**
+     * Récupère une page d'IDs de comptes, ordonnés par ID
+     * @param dernierId Dernier ID traité (exclu), 0 pour commencer
+     * @param taille Nombre maximal d'IDs retournés
+     */
+    public List<Long> findIdsPage(Long dernierId, int taille) {
+        TypedQuery<Long> query = em.createQuery(
+            "SELECT c.idCompte FROM CompteCourant c WHERE c.idCompte > :dernierId ORDER BY c.idCompte", Long.class);
+        query.setParameter("dernierId", dernierId);
+        query.setMaxResults(taille);
         return query.getResultList();
     }
 
+    /**
+     * Compare, pour une page de comptes, le solde matérialisé au solde
+     * recalculé depuis le grand livre (une seule requête groupée)
+     * @param idsComptes IDs des comptes de la page
+     * @return Lignes [idCompte, soldeInitial, soldeActuel, totalMouvements]
+     */
+    public List<Object[]> findSoldesGrandLivre(Collection<Long> idsComptes) {
+        if (idsComptes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        TypedQuery<Object[]> query = em.createQuery(
+            "SELECT c.idCompte, c.soldeInitial, c.soldeActuel, COALESCE(SUM(m.montant), 0) " +
+            "FROM CompteCourant c LEFT JOIN c.mouvements m " +
+            "WHERE c.idCompte IN :ids " +
+            "GROUP BY c.idCompte, c.soldeInitial, c.soldeActuel " +
+            "ORDER BY c.idCompte", Object[].class);
+        query.setParameter("ids", idsComptes);
+        return query.getResultList();
+    }
+
+    /**
+     * Récupère un lot d'IDs de comptes non fermés à découvert en fin de journée
+     * dont les intérêts de ce jour n'ont pas encore été calculés, ordonnés par ID.
+     * Le solde de fin de journée est le solde actuel moins les mouvements
+     * postérieurs au jour : soldeActuel - apres &lt; 0, soit soldeActuel &lt; apres.
+     * @param jour Jour de calcul des intérêts
+     * @param dernierId Dernier ID traité (exclu), 0 pour commencer
+     * @param taille Nombre maximal d'IDs retournés
+     */
+    public List<Long> findIdsADecouvertSansInteret(LocalDate jour, Long dernierId, int taille) {
+        TypedQuery<Long> query = em.createQuery(
+            "SELECT c.idCompte FROM CompteCourant c " +
+            "WHERE c.idCompte > :dernierId AND c.statut <> :ferme " +
+            "AND c.soldeActuel < (SELECT COALESCE(SUM(m.montant), 0) FROM Mouvement m " +
+            "WHERE m.compte = c AND m.dateOperation >= :finJour) " +
+            "AND NOT EXISTS (SELECT i.idInteret FROM InteretJournalier i " +
+            "WHERE i.compte = c AND i.dateJour = :jour) " +
+            "ORDER BY c.idCompte", Long.class);
+        query.setParameter("dernierId", dernierId);
+        query.setParameter("ferme", StatutCompte.FERME);
+        query.setParameter("finJour", jour.plusDays(1).atStartOfDay());
+        query.setParameter("jour", jour);
+        query.setMaxResults(taille);
+        return query.getResultList();
+    }
+
+    /**
+     * Récupère un lot d'IDs de comptes ouverts d'une plage d'IDs, dont le type
+     * de compte a l'une des périodicités de frais données et dont les frais de
+     * tenue couvrant la date donnée n'ont pas encore été prélevés
+     * @param date Date de référence du prélèvement
+     * @param periodicites Périodicités de frais dont une période se termine à la date
+     * @param dernierId Dernier ID traité (exclu)
+     * @param idMax Borne haute de la plage (incluse)
+     * @param taille Nombre maximal d'IDs retournés
+     */
+    public List<Long> findIdsOuvertsSansFrais(LocalDate date, Collection<PeriodiciteFreais> periodicites,
+                                              Long dernierId, Long idMax, int taille) {
+        if (periodicites.isEmpty()) {
+            return new ArrayList<>();
+        }
+        TypedQuery<Long> query = em.createQuery(
+            "SELECT c.idCompte FROM CompteCourant c JOIN c.typeCompte t JOIN t.parametreActuel p " +
+            "WHERE c.idCompte > :dernierId AND c.idCompte <= :idMax AND c.statut = :ouvert " +
+            "AND p.fraisTenueComptePeriodicite IN :periodicites " +
+            "AND NOT EXISTS (SELECT f.idFrais FROM FraisTenueHistorique f " +
+            "WHERE f.compte = c AND f.periodeDebut <= :date AND f.periodeFin >= :date) " +
+            "ORDER BY c.idCompte", Long.class);
+        query.setParameter("dernierId", dernierId);
+        query.setParameter("idMax", idMax);
+        query.setParameter("ouvert", StatutCompte.OUVERT);
+        query.setParameter("periodicites", periodicites);
+        query.setParameter("date", date);
+        query.setMaxResults(taille);
+        return query.getResultList();
+    }
+
+    /**
+     * Retourne les IDs minimal et maximal des comptes ouverts, pour découper
+     * un traitement en partitions
+     * @return [idMin, idMax], valeurs null s'il n'y a aucun compte ouvert
+     */
+    public Object[] findPlageIdsOuverts() {
+        TypedQuery<Object[]> query = em.createQuery(
+            "SELECT MIN(c.idCompte), MAX(c.idCompte) FROM CompteCourant c WHERE c.statut = :ouvert", Object[].class);
+        query.setParameter("ouvert", StatutCompte.OUVERT);
+        return query.getSingleResult();
+    }
+
     public void delete(CompteCourant compte) {
         if (em.contains(compte)) {
             em.remove(compte);
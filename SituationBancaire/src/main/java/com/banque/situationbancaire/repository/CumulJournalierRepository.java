@@ -0,0 +1,38 @@
+package com.banque.situationbancaire.repository;
+
+import com.banque.situationbancaire.entity.CumulJournalier;
+
+import jakarta.ejb.Stateless;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Repository pour la gestion des cumuls journaliers de débits
+ */
+@Stateless
+public class CumulJournalierRepository {
+
+    @PersistenceContext(unitName = "SituationBancairePU")
+    private EntityManager em;
+
+    public CumulJournalier save(CumulJournalier cumul) {
+        if (cumul.getIdCumul() == null) {
+            em.persist(cumul);
+            return cumul;
+        } else {
+            return em.merge(cumul);
+        }
+    }
+
+    public Optional<CumulJournalier> findByCompteIdAndDate(Long compteId, LocalDate dateJour) {
+        TypedQuery<CumulJournalier> query = em.createQuery(
+            "SELECT c FROM CumulJournalier c WHERE c.compte.idCompte = :compteId AND c.dateJour = :dateJour",
+            CumulJournalier.class);
+        query.setParameter("compteId", compteId);
+        query.setParameter("dateJour", dateJour);
+        return query.getResultList().stream().findFirst();
+    }
+}
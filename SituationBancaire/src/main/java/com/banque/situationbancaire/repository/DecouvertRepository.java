@@ -124,6 +124,23 @@ public class DecouvertRepository {
         }
     }
     
+    /**
+     * Récupère un lot de découverts actifs dont le compte n'est plus à découvert
+     * @param dernierId Dernier ID traité (exclu), 0 pour commencer
+     * @param taille Nombre maximal de découverts retournés
+     */
+    public List<Decouvert> findActifsRembourses(Long dernierId, int taille) {
+        TypedQuery<Decouvert> query = entityManager.createQuery(
+            "SELECT d FROM Decouvert d JOIN d.compte c " +
+            "WHERE d.idDecouvert > :dernierId AND d.statut = :statut AND c.soldeActuel >= 0 " +
+            "ORDER BY d.idDecouvert",
+            Decouvert.class);
+        query.setParameter("dernierId", dernierId);
+        query.setParameter("statut", StatutDecouvert.ACTIF);
+        query.setMaxResults(taille);
+        return query.getResultList();
+    }
+    
     /**
      * Ferme un découvert
      * @param decouvert Le découvert à fermer
@@ -0,0 +1,37 @@
+package com.banque.situationbancaire.repository;
+
+import com.banque.situationbancaire.entity.FraisTenueHistorique;
+
+import jakarta.ejb.Stateless;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDate;
+
+/**
+ * Repository pour l'historique des frais de tenue de compte
+ */
+@Stateless
+public class FraisTenueHistoriqueRepository {
+
+    @PersistenceContext(unitName = "SituationBancairePU")
+    private EntityManager em;
+
+    public FraisTenueHistorique save(FraisTenueHistorique frais) {
+        if (frais.getIdFrais() == null) {
+            em.persist(frais);
+            return frais;
+        } else {
+            return em.merge(frais);
+        }
+    }
+
+    public boolean existsByCompteIdAndPeriode(Long compteId, LocalDate periodeDebut) {
+        TypedQuery<Long> query = em.createQuery(
+            "SELECT COUNT(f) FROM FraisTenueHistorique f " +
+            "WHERE f.compte.idCompte = :compteId AND f.periodeDebut = :periodeDebut", Long.class);
+        query.setParameter("compteId", compteId);
+        query.setParameter("periodeDebut", periodeDebut);
+        return query.getSingleResult() > 0;
+    }
+}
@@ -0,0 +1,37 @@
+package com.banque.situationbancaire.repository;
+
+import com.banque.situationbancaire.entity.InteretJournalier;
+
+import jakarta.ejb.Stateless;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDate;
+
+/**
+ * Repository pour la gestion des intérêts journaliers de découvert
+ */
+@Stateless
+public class InteretJournalierRepository {
+
+    @PersistenceContext(unitName = "SituationBancairePU")
+    private EntityManager em;
+
+    public InteretJournalier save(InteretJournalier interet) {
+        if (interet.getIdInteret() == null) {
+            em.persist(interet);
+            return interet;
+        } else {
+            return em.merge(interet);
+        }
+    }
+
+    public boolean existsByCompteIdAndDate(Long compteId, LocalDate dateJour) {
+        TypedQuery<Long> query = em.createQuery(
+            "SELECT COUNT(i) FROM InteretJournalier i WHERE i.compte.idCompte = :compteId AND i.dateJour = :dateJour",
+            Long.class);
+        query.setParameter("compteId", compteId);
+        query.setParameter("dateJour", dateJour);
+        return query.getSingleResult() > 0;
+    }
+}
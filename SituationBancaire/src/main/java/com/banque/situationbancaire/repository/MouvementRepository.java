@@ -4,11 +4,13 @@ import com.banque.situationbancaire.entity.Mouvement;
 
 import jakarta.ejb.Stateless;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository pour la gestion des mouvements bancaires
@@ -16,6 +18,11 @@ import java.util.Optional;
 @Stateless
 public class MouvementRepository {
 
+    // Nombre de lignes lues par aller-retour JDBC lors d'un parcours en flux
+    private static final int TAILLE_FETCH_FLUX = 500;
+
+    private static final String HINT_FETCHGRAPH = "jakarta.persistence.fetchgraph";
+
     @PersistenceContext(unitName = "SituationBancairePU")
     private EntityManager em;
 
@@ -36,7 +43,12 @@ public class MouvementRepository {
         TypedQuery<Mouvement> query = em.createQuery(
             "SELECT m FROM Mouvement m WHERE m.reference = :reference", Mouvement.class);
         query.setParameter("reference", reference);
-        return query.getResultList().stream().findFirst();
+        avecGrapheDetail(query);
+        try {
+            return Optional.of(query.getSingleResult());
+        } catch (NoResultException e) {
+            return Optional.empty();
+        }
     }
 
     public List<Mouvement> findByCompteId(Long compteId) {
@@ -44,9 +56,106 @@ public class MouvementRepository {
             "SELECT m FROM Mouvement m WHERE m.compte.idCompte = :compteId ORDER BY m.dateOperation DESC", 
             Mouvement.class);
         query.setParameter("compteId", compteId);
+        avecGrapheDetail(query);
         return query.getResultList();
     }
 
+    /**
+     * Récupère une page de mouvements par pagination keyset sur
+     * (date_operation, id_mouvement) décroissants : le coût ne dépend pas
+     * de la profondeur de la page dans l'historique
+     * @param compteId ID du compte, ou null pour tous les comptes
+     * @param dateDebut Borne basse incluse, ou null
+     * @param dateFin Borne haute incluse, ou null
+     * @param curseurDate Date du dernier mouvement de la page précédente, ou null pour la première page
+     * @param curseurId ID du dernier mouvement de la page précédente
+     * @param limite Nombre maximal de mouvements retournés
+     */
+    public List<Mouvement> findPageKeyset(Long compteId, LocalDateTime dateDebut, LocalDateTime dateFin,
+                                          LocalDateTime curseurDate, Long curseurId, int limite) {
+        StringBuilder jpql = new StringBuilder(
+            "SELECT m FROM Mouvement m WHERE 1 = 1");
+        if (compteId != null) {
+            jpql.append(" AND m.compte.idCompte = :compteId");
+        }
+        if (dateDebut != null) {
+            jpql.append(" AND m.dateOperation >= :dateDebut");
+        }
+        if (dateFin != null) {
+            jpql.append(" AND m.dateOperation <= :dateFin");
+        }
+        if (curseurDate != null) {
+            jpql.append(" AND (m.dateOperation < :curseurDate" +
+                " OR (m.dateOperation = :curseurDate AND m.idMouvement < :curseurId))");
+        }
+        jpql.append(" ORDER BY m.dateOperation DESC, m.idMouvement DESC");
+
+        TypedQuery<Mouvement> query = em.createQuery(jpql.toString(), Mouvement.class);
+        if (compteId != null) {
+            query.setParameter("compteId", compteId);
+        }
+        if (dateDebut != null) {
+            query.setParameter("dateDebut", dateDebut);
+        }
+        if (dateFin != null) {
+            query.setParameter("dateFin", dateFin);
+        }
+        if (curseurDate != null) {
+            query.setParameter("curseurDate", curseurDate);
+            query.setParameter("curseurId", curseurId);
+        }
+        avecGrapheDetail(query);
+        query.setMaxResults(limite);
+        return query.getResultList();
+    }
+
+    /**
+     * Parcourt en flux les lignes d'un relevé, par ordre chronologique, sans
+     * charger d'entités : le curseur JDBC lit TAILLE_FETCH_FLUX lignes à la fois
+     * et rien n'est conservé dans le contexte de persistance.
+     * Le flux doit être fermé par l'appelant.
+     * @param curseurDate Date de la dernière ligne déjà exportée, ou null pour commencer
+     * @param curseurId ID de la dernière ligne déjà exportée
+     * @param limite Nombre maximal de lignes
+     * @return Lignes [idMouvement, dateOperation, reference, libelleTypeOperation,
+     *         libelleOperation, montant, soldeApresOperation]
+     */
+    public Stream<Object[]> streamReleve(Long compteId, LocalDateTime dateDebut, LocalDateTime dateFin,
+                                         LocalDateTime curseurDate, Long curseurId, int limite) {
+        StringBuilder jpql = new StringBuilder(
+            "SELECT m.idMouvement, m.dateOperation, m.reference, t.libelleOperation, " +
+            "m.libelleOperation, m.montant, m.soldeApresOperation " +
+            "FROM Mouvement m JOIN m.typeOperation t WHERE m.compte.idCompte = :compteId");
+        if (dateDebut != null) {
+            jpql.append(" AND m.dateOperation >= :dateDebut");
+        }
+        if (dateFin != null) {
+            jpql.append(" AND m.dateOperation <= :dateFin");
+        }
+        if (curseurDate != null) {
+            jpql.append(" AND (m.dateOperation > :curseurDate" +
+                " OR (m.dateOperation = :curseurDate AND m.idMouvement > :curseurId))");
+        }
+        jpql.append(" ORDER BY m.dateOperation ASC, m.idMouvement ASC");
+
+        TypedQuery<Object[]> query = em.createQuery(jpql.toString(), Object[].class);
+        query.setParameter("compteId", compteId);
+        if (dateDebut != null) {
+            query.setParameter("dateDebut", dateDebut);
+        }
+        if (dateFin != null) {
+            query.setParameter("dateFin", dateFin);
+        }
+        if (curseurDate != null) {
+            query.setParameter("curseurDate", curseurDate);
+            query.setParameter("curseurId", curseurId);
+        }
+        query.setHint("org.hibernate.fetchSize", TAILLE_FETCH_FLUX);
+        query.setHint("org.hibernate.readOnly", true);
+        query.setMaxResults(limite);
+        return query.getResultStream();
+    }
+
     public List<Mouvement> findByCompteIdBetweenDates(Long compteId, LocalDateTime dateDebut, LocalDateTime dateFin) {
         TypedQuery<Mouvement> query = em.createQuery(
             "SELECT m FROM Mouvement m WHERE m.compte.idCompte = :compteId " +
@@ -55,6 +164,7 @@ public class MouvementRepository {
         query.setParameter("compteId", compteId);
         query.setParameter("dateDebut", dateDebut);
         query.setParameter("dateFin", dateFin);
+        avecGrapheDetail(query);
         return query.getResultList();
     }
 
@@ -75,20 +185,84 @@ public class MouvementRepository {
         query.setParameter("compteId", compteId);
         return query.getSingleResult();
     }
+
+    /**
+     * Calcule le total des mouvements d'un compte postérieurs à une date
+     * (pour reconstituer un solde de fin de journée passée)
+     */
+    public java.math.BigDecimal calculerSoldeMouvementsApres(Long compteId, LocalDateTime date) {
+        TypedQuery<java.math.BigDecimal> query = em.createQuery(
+            "SELECT COALESCE(SUM(m.montant), 0) FROM Mouvement m " +
+            "WHERE m.compte.idCompte = :compteId AND m.dateOperation >= :date", 
+            java.math.BigDecimal.class);
+        query.setParameter("compteId", compteId);
+        query.setParameter("date", date);
+        return query.getSingleResult();
+    }
+    
+    /**
+     * Somme des débits d'un compte sur une période, groupée par code d'opération
+     * @return Lignes [codeOperation, total des montants absolus]
+     */
+    public List<Object[]> sommerDebitsParCodeOperation(Long compteId, LocalDateTime dateDebut, LocalDateTime dateFin) {
+        TypedQuery<Object[]> query = em.createQuery(
+            "SELECT t.codeOperation, SUM(-m.montant) FROM Mouvement m JOIN m.typeOperation t " +
+            "WHERE m.compte.idCompte = :compteId AND m.montant < 0 " +
+            "AND m.dateOperation BETWEEN :dateDebut AND :dateFin GROUP BY t.codeOperation",
+            Object[].class);
+        query.setParameter("compteId", compteId);
+        query.setParameter("dateDebut", dateDebut);
+        query.setParameter("dateFin", dateFin);
+        return query.getResultList();
+    }
     
     public List<Mouvement> findAll() {
         TypedQuery<Mouvement> query = em.createQuery(
             "SELECT m FROM Mouvement m ORDER BY m.dateOperation DESC", 
             Mouvement.class);
+        avecGrapheDetail(query);
+        return query.getResultList();
+    }
+
+    /**
+     * Liste tous les mouvements sous forme de projection, sans charger d'entités
+     * (ni donc les côtés inverses des virements)
+     * @return Lignes [idMouvement, idCompte, numeroCompte, idTypeOperation, montant,
+     *         soldeAvantOperation, soldeApresOperation, dateOperation, reference,
+     *         libelleOperation, idAdministrateur]
+     */
+    public List<Object[]> findAllResume() {
+        TypedQuery<Object[]> query = em.createQuery(
+            "SELECT m.idMouvement, c.idCompte, c.numeroCompte, t.idTypeOperation, m.montant, " +
+            "m.soldeAvantOperation, m.soldeApresOperation, m.dateOperation, m.reference, " +
+            "m.libelleOperation, m.idAdministrateur " +
+            "FROM Mouvement m JOIN m.compte c JOIN m.typeOperation t " +
+            "ORDER BY m.dateOperation DESC, m.idMouvement DESC", Object[].class);
+        query.setHint("org.hibernate.readOnly", true);
         return query.getResultList();
     }
     
     public void deleteById(Long id) {
         findById(id).ifPresent(mouvement -> {
             if (!em.contains(mouvement)) {
-                em.merge(mouvement);
+                mouvement = em.merge(mouvement);
+            }
+            // Virement.mouvementDebit / mouvementCredit référencent le mouvement :
+            // le virement est supprimé avant lui (pas de cascade côté Mouvement)
+            if (mouvement.getVirementEmis() != null) {
+                em.remove(mouvement.getVirementEmis());
+            }
+            if (mouvement.getVirementRecu() != null) {
+                em.remove(mouvement.getVirementRecu());
             }
             em.remove(mouvement);
         });
     }
+
+    /**
+     * Charge avec les mouvements tout ce que lit MouvementMapper (voir Mouvement.GRAPHE_DETAIL)
+     */
+    private void avecGrapheDetail(TypedQuery<Mouvement> query) {
+        query.setHint(HINT_FETCHGRAPH, em.getEntityGraph(Mouvement.GRAPHE_DETAIL));
+    }
 }
@@ -6,6 +6,7 @@ import jakarta.ejb.Stateless;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,4 +28,10 @@ public class TypeOperationRepository {
     public Optional<TypeOperation> findById(Long id) {
         return Optional.ofNullable(em.find(TypeOperation.class, id));
     }
+
+    public List<TypeOperation> findAll() {
+        TypedQuery<TypeOperation> query = em.createQuery(
+            "SELECT t FROM TypeOperation t ORDER BY t.codeOperation", TypeOperation.class);
+        return query.getResultList();
+    }
 }
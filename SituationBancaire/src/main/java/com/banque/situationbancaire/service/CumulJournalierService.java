@@ -0,0 +1,88 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.entity.CompteCourant;
+import com.banque.situationbancaire.entity.CumulJournalier;
+import com.banque.situationbancaire.entity.Mouvement;
+import com.banque.situationbancaire.repository.CumulJournalierRepository;
+import com.banque.situationbancaire.repository.MouvementRepository;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service de gestion des cumuls journaliers de retraits et virements émis.
+ * Les cumuls sont maintenus à chaque écriture de mouvement, ce qui ramène
+ * le contrôle des plafonds à une seule lecture indexée par (compte, jour).
+ */
+@Stateless
+public class CumulJournalierService {
+
+    @EJB
+    private CumulJournalierRepository cumulJournalierRepository;
+
+    @EJB
+    private MouvementRepository mouvementRepository;
+
+    /**
+     * Retourne le cumul d'un compte pour une journée. Si aucun cumul n'a encore
+     * été enregistré ce jour-là, il est reconstitué (sans être persisté) à
+     * partir des mouvements du jour en une requête groupée.
+     */
+    public CumulJournalier obtenirCumul(CompteCourant compte, LocalDate jour) {
+        return cumulJournalierRepository.findByCompteIdAndDate(compte.getIdCompte(), jour)
+            .orElseGet(() -> reconstituerCumul(compte, jour));
+    }
+
+    /**
+     * Ajoute un mouvement de débit aux cumuls de son jour d'opération.
+     * À appeler avant la persistance du mouvement.
+     */
+    public void enregistrerDebit(Mouvement mouvement) {
+        cumuler(mouvement, BigDecimal.ONE);
+    }
+
+    /**
+     * Retire un mouvement de débit des cumuls de son jour d'opération
+     * (mise à jour ou suppression administrative)
+     */
+    public void annulerDebit(Mouvement mouvement) {
+        cumuler(mouvement, BigDecimal.ONE.negate());
+    }
+
+    private void cumuler(Mouvement mouvement, BigDecimal signe) {
+        if (mouvement.getMontant().compareTo(BigDecimal.ZERO) >= 0 || mouvement.getTypeOperation() == null) {
+            return;
+        }
+        String codeOperation = mouvement.getTypeOperation().getCodeOperation();
+        if (!"RETRAIT".equals(codeOperation) && !"VIREMENT".equals(codeOperation)) {
+            return;
+        }
+
+        CumulJournalier cumul = obtenirCumul(mouvement.getCompte(), mouvement.getDateOperation().toLocalDate());
+        if (cumul.getIdCumul() == null) {
+            cumulJournalierRepository.save(cumul);
+            // Un mouvement déjà persisté figure dans le cumul reconstitué depuis les mouvements
+            if (mouvement.getIdMouvement() != null && signe.signum() > 0) {
+                return;
+            }
+        }
+        cumul.cumuler(codeOperation, mouvement.getMontant().abs().multiply(signe));
+    }
+
+    private CumulJournalier reconstituerCumul(CompteCourant compte, LocalDate jour) {
+        CumulJournalier cumul = CumulJournalier.builder()
+            .compte(compte)
+            .dateJour(jour)
+            .build();
+
+        List<Object[]> totaux = mouvementRepository.sommerDebitsParCodeOperation(
+            compte.getIdCompte(), jour.atStartOfDay(), jour.atTime(23, 59, 59));
+        for (Object[] ligne : totaux) {
+            cumul.cumuler((String) ligne[0], (BigDecimal) ligne[1]);
+        }
+        return cumul;
+    }
+}
@@ -0,0 +1,142 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.entity.enums.PeriodiciteFreais;
+import com.banque.situationbancaire.repository.CompteCourantRepository;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.AsyncResult;
+import jakarta.ejb.Asynchronous;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Traitement de fin de mois des frais de tenue de compte.
+ * Les comptes ouverts sont répartis en partitions par plage d'IDs traitées en
+ * parallèle ; dans chaque partition les comptes sont traités par lots, chaque
+ * lot dans sa propre transaction. Le traitement est reprenable : un compte
+ * dont les frais de la période sont déjà prélevés n'est plus sélectionné.
+ * Chaque exécution mensuelle reprend d'abord le mois précédent, ce qui
+ * rattrape les lots ou partitions en échec sans double prélèvement.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class FraisTenueBatch {
+
+    private static final Logger LOGGER = Logger.getLogger(FraisTenueBatch.class.getName());
+
+    private static final int TAILLE_LOT = 200;
+    private static final int NOMBRE_PARTITIONS = 4;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    @EJB
+    private CompteCourantRepository compteCourantRepository;
+
+    @EJB
+    private FraisTenueService fraisTenueService;
+
+    /**
+     * Prélève les frais le dernier jour de chaque mois, après les intérêts de découvert.
+     * Les comptes restés sans frais à la fin du mois précédent sont repris d'abord
+     * (frais_tenue_historique est unique par compte et par début de période).
+     */
+    @Schedule(dayOfMonth = "Last", hour = "4", minute = "0", persistent = false)
+    public void executerTraitementFinDeMois() {
+        LocalDate aujourdHui = LocalDate.now();
+        prelever(aujourdHui.withDayOfMonth(1).minusDays(1));
+        prelever(aujourdHui);
+    }
+
+    /**
+     * Prélève les frais de tenue des périodes se terminant à la date donnée
+     * (peut être relancé pour rattraper un mois manqué)
+     * @param dateFinPeriode Dernier jour du mois traité
+     * @return Le nombre de comptes prélevés
+     */
+    public int prelever(LocalDate dateFinPeriode) {
+        Object[] plage = compteCourantRepository.findPlageIdsOuverts();
+        if (plage[0] == null) {
+            return 0;
+        }
+        long idMin = ((Number) plage[0]).longValue();
+        long idMax = ((Number) plage[1]).longValue();
+        long largeur = (idMax - idMin) / NOMBRE_PARTITIONS + 1;
+
+        LOGGER.info("Début du prélèvement des frais de tenue au " + dateFinPeriode
+            + " (comptes " + idMin + " à " + idMax + ")");
+
+        // Les appels passent par le proxy EJB pour être réellement asynchrones
+        FraisTenueBatch proxy = sessionContext.getBusinessObject(FraisTenueBatch.class);
+        List<Future<Integer>> partitions = new ArrayList<>();
+        for (long debut = idMin; debut <= idMax; debut += largeur) {
+            partitions.add(proxy.traiterPartition(dateFinPeriode, debut, Math.min(debut + largeur - 1, idMax)));
+        }
+
+        int comptesPreleves = 0;
+        for (Future<Integer> partition : partitions) {
+            try {
+                comptesPreleves += partition.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Prélèvement des frais de tenue interrompu", e);
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.SEVERE, "Échec d'une partition du prélèvement des frais de tenue", e.getCause());
+            }
+        }
+
+        LOGGER.info("Frais de tenue au " + dateFinPeriode + " : " + comptesPreleves + " comptes prélevés");
+        return comptesPreleves;
+    }
+
+    /**
+     * Prélève les frais de tenue des comptes ouverts d'une plage d'IDs
+     * @param dateFinPeriode Dernier jour du mois traité
+     * @param idMin Premier ID de la plage (inclus)
+     * @param idMax Dernier ID de la plage (inclus)
+     * @return Le nombre de comptes prélevés dans la plage
+     */
+    @Asynchronous
+    public Future<Integer> traiterPartition(LocalDate dateFinPeriode, long idMin, long idMax) {
+        int comptesTraites = 0;
+        int comptesPreleves = 0;
+        int lotsEnEchec = 0;
+        Long dernierId = idMin - 1;
+        List<Long> lot;
+        // Seuls les comptes dont la période de frais se termine ce jour sont sélectionnés
+        List<PeriodiciteFreais> periodicites = PeriodiciteFreais.echuesAu(dateFinPeriode);
+
+        do {
+            lot = compteCourantRepository.findIdsOuvertsSansFrais(dateFinPeriode, periodicites,
+                dernierId, idMax, TAILLE_LOT);
+            if (lot.isEmpty()) {
+                break;
+            }
+            try {
+                comptesPreleves += fraisTenueService.traiterLot(dateFinPeriode, lot);
+            } catch (Exception e) {
+                // Le lot est annulé et sera repris à l'exécution du mois suivant
+                lotsEnEchec++;
+                LOGGER.log(Level.SEVERE, "Échec du lot de comptes " + lot.get(0) + " à "
+                    + lot.get(lot.size() - 1) + " pour les frais de tenue au " + dateFinPeriode, e);
+            }
+            comptesTraites += lot.size();
+            dernierId = lot.get(lot.size() - 1);
+        } while (lot.size() == TAILLE_LOT);
+
+        LOGGER.info("Partition " + idMin + "-" + idMax + " : " + comptesTraites + " comptes traités, "
+            + comptesPreleves + " prélevés, " + lotsEnEchec + " lots en échec");
+        return new AsyncResult<>(comptesPreleves);
+    }
+}
@@ -0,0 +1,155 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.entity.CompteCourant;
+import com.banque.situationbancaire.entity.FraisTenueHistorique;
+import com.banque.situationbancaire.entity.Mouvement;
+import com.banque.situationbancaire.entity.ParametresCompte;
+import com.banque.situationbancaire.entity.TypeOperation;
+import com.banque.situationbancaire.entity.enums.PeriodiciteFreais;
+import com.banque.situationbancaire.entity.enums.StatutCompte;
+import com.banque.situationbancaire.repository.CompteCourantRepository;
+import com.banque.situationbancaire.repository.FraisTenueHistoriqueRepository;
+import com.banque.situationbancaire.util.GenerateurReference;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Service de prélèvement des frais de tenue de compte.
+ * Les frais sont prélevés une seule fois par compte et par période (mois,
+ * trimestre ou année selon la périodicité du type de compte) : chaque
+ * prélèvement est tracé dans frais_tenue_historique, unique par compte et
+ * par début de période.
+ */
+@Stateless
+public class FraisTenueService {
+
+    private static final Logger LOGGER = Logger.getLogger(FraisTenueService.class.getName());
+
+    private static final DateTimeFormatter FORMAT_JOUR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @EJB
+    private CompteCourantRepository compteCourantRepository;
+
+    @EJB
+    private FraisTenueHistoriqueRepository fraisTenueHistoriqueRepository;
+
+    @EJB
+    private SoldeCompteService soldeCompteService;
+
+    @Inject
+    private ReferentielCache referentielCache;
+
+    /**
+     * Traite un lot de comptes dans sa propre transaction. Le lot ne contient
+     * que des comptes dont la période de frais se termine à la date de
+     * référence (voir CompteCourantRepository.findIdsOuvertsSansFrais) : ils
+     * sont verrouillés ensemble, en une requête. Un compte dont la périodicité
+     * a changé depuis la sélection est ignoré.
+     * @param dateReference Date de fin de période
+     * @param idsComptes IDs des comptes du lot
+     * @return Le nombre de comptes prélevés
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int traiterLot(LocalDate dateReference, List<Long> idsComptes) {
+        int comptesPreleves = 0;
+        for (CompteCourant compte : compteCourantRepository.findByIdsForUpdate(idsComptes)) {
+            ParametresCompte parametres = parametresDuCompte(compte);
+            if (parametres == null) {
+                LOGGER.warning("Aucun paramètre configuré pour le compte : " + compte.getNumeroCompte());
+                continue;
+            }
+            PeriodiciteFreais periodicite = periodicite(parametres);
+            if (!periodicite.finPeriode(dateReference).equals(dateReference)) {
+                continue;
+            }
+            if (appliquerFraisPeriode(compte, dateReference) != null) {
+                comptesPreleves++;
+            }
+        }
+        return comptesPreleves;
+    }
+
+    /**
+     * Prélève les frais de tenue de la période contenant la date donnée.
+     * Sans effet si le compte n'est pas ouvert ou si les frais de cette période
+     * ont déjà été prélevés. Le compte doit être verrouillé.
+     * @return Le mouvement de frais créé, ou null
+     */
+    public Mouvement appliquerFraisPeriode(CompteCourant compte, LocalDate dateReference) {
+        if (compte.getStatut() != StatutCompte.OUVERT) {
+            return null; // Pas de frais sur les comptes fermés ou bloqués
+        }
+
+        ParametresCompte parametres = parametresDuCompte(compte);
+        if (parametres == null) {
+            throw new IllegalStateException("Aucun paramètre configuré pour le compte");
+        }
+
+        PeriodiciteFreais periodicite = periodicite(parametres);
+        LocalDate periodeDebut = periodicite.debutPeriode(dateReference);
+        LocalDate periodeFin = periodicite.finPeriode(dateReference);
+        if (fraisTenueHistoriqueRepository.existsByCompteIdAndPeriode(compte.getIdCompte(), periodeDebut)) {
+            return null;
+        }
+
+        BigDecimal fraisTenue = parametres.getFraisTenueCompte() != null
+            ? parametres.getFraisTenueCompte() : BigDecimal.ZERO;
+
+        // La période est marquée comme traitée même sans frais à prélever
+        fraisTenueHistoriqueRepository.save(FraisTenueHistorique.builder()
+            .compte(compte)
+            .montantFrais(fraisTenue)
+            .periodeDebut(periodeDebut)
+            .periodeFin(periodeFin)
+            .build());
+
+        if (fraisTenue.signum() <= 0) {
+            return null;
+        }
+
+        Optional<TypeOperation> typeFrais = referentielCache.getTypeOperation("FRAIS");
+        if (typeFrais.isEmpty()) {
+            throw new IllegalStateException("Type d'opération FRAIS non configuré");
+        }
+
+        BigDecimal soldeAvant = soldeCompteService.obtenirSolde(compte);
+        Mouvement mouvement = Mouvement.builder()
+            .compte(compte)
+            .typeOperation(typeFrais.get())
+            .montant(fraisTenue.negate()) // Négatif car c'est un débit
+            .soldeAvantOperation(soldeAvant)
+            .soldeApresOperation(soldeAvant.subtract(fraisTenue))
+            .dateOperation(LocalDateTime.now())
+            .libelleOperation("Frais de tenue de compte du " + periodeDebut.format(FORMAT_JOUR)
+                + " au " + periodeFin.format(FORMAT_JOUR))
+            .reference(GenerateurReference.genererReference("FRA"))
+            .build();
+
+        Mouvement mouvementCree = soldeCompteService.enregistrerMouvement(mouvement);
+        LOGGER.info("Frais de tenue du " + periodeDebut + " au " + periodeFin + " prélevés : "
+            + fraisTenue + " XOF sur le compte " + compte.getNumeroCompte());
+        return mouvementCree;
+    }
+
+    private ParametresCompte parametresDuCompte(CompteCourant compte) {
+        return compte.getTypeCompte() != null
+            ? referentielCache.getParametres(compte.getTypeCompte().getIdTypeCompte()).orElse(null)
+            : null;
+    }
+
+    private PeriodiciteFreais periodicite(ParametresCompte parametres) {
+        return parametres.getFraisTenueComptePeriodicite() != null
+            ? parametres.getFraisTenueComptePeriodicite() : PeriodiciteFreais.MENSUEL;
+    }
+}
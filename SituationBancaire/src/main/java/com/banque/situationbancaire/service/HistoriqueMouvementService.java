@@ -0,0 +1,67 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.dto.MouvementDTO;
+import com.banque.situationbancaire.dto.PageCurseurDTO;
+import com.banque.situationbancaire.entity.Mouvement;
+import com.banque.situationbancaire.repository.MouvementRepository;
+import com.banque.situationbancaire.util.CurseurHistorique;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service de consultation paginée de l'historique des mouvements.
+ * La pagination se fait par curseur sur (date_operation, id_mouvement)
+ * décroissants : chaque page est une lecture d'index bornée, quelle que
+ * soit l'ancienneté du compte ou la profondeur de la page.
+ */
+@Stateless
+public class HistoriqueMouvementService {
+
+    public static final int TAILLE_PAGE_MAX = 200;
+
+    @EJB
+    private MouvementRepository mouvementRepository;
+
+    /**
+     * Lit une page d'historique et calcule le curseur de la page suivante
+     * @param idCompte ID du compte, ou null pour les mouvements de tous les comptes
+     * @param dateDebut Borne basse incluse, ou null
+     * @param dateFin Borne haute incluse, ou null
+     * @param curseur Curseur de la page précédente, ou null pour la première page
+     * @param taille Nombre de mouvements par page (borné à TAILLE_PAGE_MAX)
+     * @param mapper Conversion des mouvements en DTO
+     */
+    public PageCurseurDTO<MouvementDTO> paginer(Long idCompte, LocalDateTime dateDebut, LocalDateTime dateFin,
+                                                String curseur, int taille,
+                                                Function<Mouvement, MouvementDTO> mapper) {
+        if (taille <= 0) {
+            throw new IllegalArgumentException("La taille de page doit être positive");
+        }
+        int tailleEffective = Math.min(taille, TAILLE_PAGE_MAX);
+        CurseurHistorique position = CurseurHistorique.decoder(curseur);
+
+        // Un mouvement de plus que demandé pour savoir s'il reste une page
+        List<Mouvement> mouvements = mouvementRepository.findPageKeyset(idCompte, dateDebut, dateFin,
+            position != null ? position.getDateOperation() : null,
+            position != null ? position.getIdMouvement() : null,
+            tailleEffective + 1);
+
+        String curseurSuivant = null;
+        if (mouvements.size() > tailleEffective) {
+            mouvements = mouvements.subList(0, tailleEffective);
+            Mouvement dernier = mouvements.get(tailleEffective - 1);
+            curseurSuivant = new CurseurHistorique(dernier.getDateOperation(), dernier.getIdMouvement()).encoder();
+        }
+
+        return PageCurseurDTO.<MouvementDTO>builder()
+                .elements(mouvements.stream().map(mapper).collect(Collectors.toList()))
+                .taille(tailleEffective)
+                .curseurSuivant(curseurSuivant)
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.entity.Decouvert;
+import com.banque.situationbancaire.repository.CompteCourantRepository;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Traitement de fin de journée des intérêts de découvert.
+ * Les comptes à découvert sont traités par lots, chaque lot dans sa propre
+ * transaction. Le traitement est reprenable : un compte dont les intérêts du
+ * jour sont déjà calculés n'est plus sélectionné, une relance après incident
+ * reprend donc là où le traitement s'est arrêté. Chaque nuit reprend aussi
+ * les jours précédents (propriété interets.joursRattrapage), ce qui rattrape
+ * les lots en échec sans double prélèvement.
+ */
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class InteretDecouvertBatch {
+
+    private static final Logger LOGGER = Logger.getLogger(InteretDecouvertBatch.class.getName());
+
+    private static final int TAILLE_LOT = 200;
+
+    // Nombre de jours précédant la veille repris à chaque exécution nocturne
+    private static final int JOURS_RATTRAPAGE = Integer.getInteger("interets.joursRattrapage", 3);
+
+    @EJB
+    private CompteCourantRepository compteCourantRepository;
+
+    @EJB
+    private InteretDecouvertService interetDecouvertService;
+
+    /**
+     * Calcule chaque nuit les intérêts de la veille, après la réconciliation des soldes,
+     * en reprenant d'abord les comptes restés sans intérêts les jours précédents
+     */
+    @Schedule(hour = "3", minute = "0", persistent = false)
+    public void executerTraitementNocturne() {
+        LocalDate veille = LocalDate.now().minusDays(1);
+        for (LocalDate jour = veille.minusDays(JOURS_RATTRAPAGE); !jour.isAfter(veille); jour = jour.plusDays(1)) {
+            calculerInteretsDuJour(jour);
+        }
+    }
+
+    /**
+     * Calcule les intérêts de découvert d'un jour pour tous les comptes concernés
+     * (peut être relancé pour rattraper un jour manqué)
+     * @param jour Jour de calcul
+     * @return Le nombre de comptes prélevés
+     */
+    public int calculerInteretsDuJour(LocalDate jour) {
+        LOGGER.info("Début du calcul des intérêts de découvert du " + jour);
+
+        int comptesTraites = 0;
+        int comptesPreleves = 0;
+        int lotsEnEchec = 0;
+        Long dernierId = 0L;
+        List<Long> lot;
+
+        do {
+            lot = compteCourantRepository.findIdsADecouvertSansInteret(jour, dernierId, TAILLE_LOT);
+            if (lot.isEmpty()) {
+                break;
+            }
+            try {
+                comptesPreleves += interetDecouvertService.traiterLot(jour, lot);
+            } catch (Exception e) {
+                // Le lot est annulé et sera repris par les prochaines exécutions nocturnes
+                lotsEnEchec++;
+                LOGGER.log(Level.SEVERE, "Échec du lot de comptes " + lot.get(0) + " à "
+                    + lot.get(lot.size() - 1) + " pour les intérêts du " + jour, e);
+            }
+            comptesTraites += lot.size();
+            dernierId = lot.get(lot.size() - 1);
+        } while (lot.size() == TAILLE_LOT);
+
+        int decouvertsClotures = cloturerDecouvertsRembourses();
+
+        LOGGER.info("Intérêts de découvert du " + jour + " : " + comptesTraites + " comptes traités, "
+            + comptesPreleves + " prélevés, " + lotsEnEchec + " lots en échec, "
+            + decouvertsClotures + " découverts clôturés");
+        return comptesPreleves;
+    }
+
+    private int cloturerDecouvertsRembourses() {
+        int total = 0;
+        Long dernierId = 0L;
+        List<Decouvert> lot;
+        do {
+            lot = interetDecouvertService.cloturerLotRembourses(dernierId, TAILLE_LOT);
+            if (!lot.isEmpty()) {
+                dernierId = lot.get(lot.size() - 1).getIdDecouvert();
+                total += lot.size();
+            }
+        } while (lot.size() == TAILLE_LOT);
+        return total;
+    }
+}
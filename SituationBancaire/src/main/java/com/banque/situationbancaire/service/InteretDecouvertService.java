@@ -0,0 +1,185 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.entity.CompteCourant;
+import com.banque.situationbancaire.entity.Decouvert;
+import com.banque.situationbancaire.entity.InteretJournalier;
+import com.banque.situationbancaire.entity.Mouvement;
+import com.banque.situationbancaire.entity.ParametresCompte;
+import com.banque.situationbancaire.entity.TypeOperation;
+import com.banque.situationbancaire.entity.enums.StatutDecouvert;
+import com.banque.situationbancaire.repository.CompteCourantRepository;
+import com.banque.situationbancaire.repository.DecouvertRepository;
+import com.banque.situationbancaire.repository.InteretJournalierRepository;
+import com.banque.situationbancaire.repository.MouvementRepository;
+import com.banque.situationbancaire.util.GenerateurReference;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Service de calcul des intérêts journaliers de découvert.
+ * Les intérêts d'un jour sont calculés une seule fois par compte, sur le solde
+ * de fin de journée : chaque calcul est tracé dans interet_journalier (unique
+ * par compte et par jour) et rattaché au découvert actif du compte.
+ */
+@Stateless
+public class InteretDecouvertService {
+
+    private static final Logger LOGGER = Logger.getLogger(InteretDecouvertService.class.getName());
+
+    // Seuil minimum pour prélever les intérêts du jour (1 XOF)
+    private static final BigDecimal SEUIL_PRELEVEMENT = BigDecimal.ONE;
+    private static final DateTimeFormatter FORMAT_JOUR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @EJB
+    private CompteCourantRepository compteCourantRepository;
+
+    @EJB
+    private MouvementRepository mouvementRepository;
+
+    @EJB
+    private InteretJournalierRepository interetJournalierRepository;
+
+    @Inject
+    private DecouvertRepository decouvertRepository;
+
+    @EJB
+    private SoldeCompteService soldeCompteService;
+
+    @Inject
+    private ReferentielCache referentielCache;
+
+    /**
+     * Traite un lot de comptes dans sa propre transaction
+     * @param jour Jour de calcul des intérêts
+     * @param idsComptes IDs des comptes du lot
+     * @return Le nombre de comptes prélevés
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int traiterLot(LocalDate jour, List<Long> idsComptes) {
+        int comptesPreleves = 0;
+        for (Long idCompte : idsComptes) {
+            Optional<CompteCourant> compte = compteCourantRepository.findByIdForUpdate(idCompte);
+            if (compte.isPresent() && appliquerInteretsJour(compte.get(), jour) != null) {
+                comptesPreleves++;
+            }
+        }
+        return comptesPreleves;
+    }
+
+    /**
+     * Calcule et prélève les intérêts de découvert d'un compte pour un jour donné.
+     * Sans effet si les intérêts de ce jour ont déjà été calculés ou si le compte
+     * n'était pas à découvert en fin de journée. Le compte doit être verrouillé.
+     * @return Le mouvement d'intérêts créé, ou null
+     */
+    public Mouvement appliquerInteretsJour(CompteCourant compte, LocalDate jour) {
+        if (interetJournalierRepository.existsByCompteIdAndDate(compte.getIdCompte(), jour)) {
+            return null;
+        }
+
+        // Solde de fin de journée : solde courant moins les mouvements postérieurs
+        BigDecimal soldeFinJour = soldeCompteService.obtenirSolde(compte).subtract(
+            mouvementRepository.calculerSoldeMouvementsApres(compte.getIdCompte(), jour.plusDays(1).atStartOfDay()));
+        if (soldeFinJour.compareTo(BigDecimal.ZERO) >= 0) {
+            return null;
+        }
+
+        ParametresCompte parametres = compte.getTypeCompte() != null
+            ? referentielCache.getParametres(compte.getTypeCompte().getIdTypeCompte()).orElse(null)
+            : null;
+        if (parametres == null || parametres.getTauxDecouvert() == null) {
+            LOGGER.warning("Aucun taux de découvert configuré pour le compte : " + compte.getNumeroCompte());
+            return null;
+        }
+
+        BigDecimal montantDecouvert = soldeFinJour.abs();
+        BigDecimal tauxAnnuel = parametres.getTauxDecouvert().getTauxAnnuel();
+
+        // Convertir le taux annuel en taux journalier (divisé par 365)
+        BigDecimal tauxJournalier = tauxAnnuel.divide(new BigDecimal("365"), 6, RoundingMode.HALF_UP);
+        BigDecimal interets = montantDecouvert.multiply(tauxJournalier).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+        BigDecimal interetsPreleves = interets.compareTo(SEUIL_PRELEVEMENT) >= 0 ? interets : BigDecimal.ZERO;
+
+        Decouvert decouvert = suivreDecouvert(compte, montantDecouvert, parametres, jour);
+
+        interetJournalierRepository.save(InteretJournalier.builder()
+            .compte(compte)
+            .decouvert(decouvert)
+            .dateJour(jour)
+            .montantBase(montantDecouvert)
+            .tauxApplique(tauxAnnuel)
+            .interetJour(interetsPreleves)
+            .build());
+
+        Optional<TypeOperation> typeInterets = referentielCache.getTypeOperation("INTERETS");
+        if (interetsPreleves.signum() == 0 || typeInterets.isEmpty()) {
+            return null;
+        }
+
+        BigDecimal soldeAvant = soldeCompteService.obtenirSolde(compte);
+        Mouvement mouvementInterets = Mouvement.builder()
+            .compte(compte)
+            .typeOperation(typeInterets.get())
+            .montant(interetsPreleves.negate()) // Négatif car c'est un débit
+            .soldeAvantOperation(soldeAvant)
+            .soldeApresOperation(soldeAvant.subtract(interetsPreleves))
+            .dateOperation(LocalDateTime.now())
+            .libelleOperation("Intérêts découvert du " + jour.format(FORMAT_JOUR))
+            .reference(GenerateurReference.genererReference("INT"))
+            .build();
+
+        Mouvement mouvementCree = soldeCompteService.enregistrerMouvement(mouvementInterets);
+        LOGGER.info("Intérêts de découvert du " + jour + " appliqués : " + interetsPreleves
+            + " XOF sur le compte " + compte.getNumeroCompte());
+        return mouvementCree;
+    }
+
+    /**
+     * Clôture (statut REMBOURSE) un lot de découverts actifs dont le compte
+     * est revenu en positif, dans sa propre transaction
+     * @param dernierId Dernier ID de découvert traité (exclu)
+     * @param taille Taille du lot
+     * @return Les découverts clôturés
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<Decouvert> cloturerLotRembourses(Long dernierId, int taille) {
+        List<Decouvert> decouverts = decouvertRepository.findActifsRembourses(dernierId, taille);
+        for (Decouvert decouvert : decouverts) {
+            decouvert.setStatut(StatutDecouvert.REMBOURSE);
+            decouvert.setDateFin(LocalDate.now());
+            decouvert.setMontantDecouvert(BigDecimal.ZERO);
+        }
+        return decouverts;
+    }
+
+    /**
+     * Ouvre ou met à jour le découvert actif du compte avec le montant du jour
+     */
+    private Decouvert suivreDecouvert(CompteCourant compte, BigDecimal montantDecouvert,
+                                      ParametresCompte parametres, LocalDate jour) {
+        Decouvert decouvert = decouvertRepository.findActiveByCompte(compte.getIdCompte())
+            .orElseGet(() -> Decouvert.builder()
+                .compte(compte)
+                .montantAutorise(parametres.getMontantDecouvertAutorise())
+                .dateDebut(jour)
+                .build());
+        decouvert.setMontantDecouvert(montantDecouvert);
+        if (!decouvert.estDansLesLimites()) {
+            LOGGER.warning("Découvert du compte " + compte.getNumeroCompte() + " au-delà de l'autorisation : "
+                + decouvert.calculerDepassement() + " XOF de dépassement");
+        }
+        return decouvertRepository.save(decouvert);
+    }
+}
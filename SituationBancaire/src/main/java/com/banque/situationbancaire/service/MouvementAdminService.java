@@ -1,6 +1,7 @@
 package com.banque.situationbancaire.service;
 
 import com.banque.situationbancaire.dto.MouvementDTO;
+import com.banque.situationbancaire.dto.PageCurseurDTO;
 import com.banque.situationbancaire.entity.Mouvement;
 import com.banque.situationbancaire.entity.CompteCourant;
 import com.banque.situationbancaire.entity.TypeOperation;
@@ -9,9 +10,12 @@ import com.banque.situationbancaire.repository.CompteCourantRepository;
 import com.banque.situationbancaire.repository.TypeOperationRepository;
 import com.banque.situationbancaire.ejb.remote.UserSessionBeanRemote;
 import com.banque.situationbancaire.ejb.remote.MouvementAdminServiceRemote;
+import com.banque.situationbancaire.util.GenerateurReference;
 
 import jakarta.ejb.EJB;
 import jakarta.ejb.Stateless;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -35,6 +39,15 @@ public class MouvementAdminService implements MouvementAdminServiceRemote {
     @EJB
     private AuthorizationService authorizationService;
 
+    @EJB
+    private SoldeCompteService soldeCompteService;
+
+    @EJB
+    private CumulJournalierService cumulJournalierService;
+
+    @EJB
+    private HistoriqueMouvementService historiqueMouvementService;
+
     private static final String TABLE_MOUVEMENT = "mouvement";
 
     /**
@@ -46,12 +59,20 @@ public class MouvementAdminService implements MouvementAdminServiceRemote {
             throw new SecurityException("Vous n'avez pas la permission d'insérer un mouvement");
         }
 
-        CompteCourant compte = compteCourantRepository.findById(mouvementDTO.getIdCompte())
+        CompteCourant compte = compteCourantRepository.findByIdForUpdate(mouvementDTO.getIdCompte())
                 .orElseThrow(() -> new RuntimeException("Compte non trouvé"));
 
         TypeOperation typeOperation = typeOperationRepository.findById(mouvementDTO.getIdTypeOperation())
                 .orElseThrow(() -> new RuntimeException("Type d'opération non trouvé"));
 
+        // La référence est unique : générée si l'administrateur n'en fournit pas
+        String reference = mouvementDTO.getReference();
+        if (reference == null || reference.isBlank()) {
+            reference = GenerateurReference.genererReference("ADM");
+        } else if (mouvementRepository.findByReference(reference).isPresent()) {
+            throw new RuntimeException("Un mouvement existe déjà avec la référence " + reference);
+        }
+
         Mouvement mouvement = Mouvement.builder()
                 .compte(compte)
                 .typeOperation(typeOperation)
@@ -59,12 +80,12 @@ public class MouvementAdminService implements MouvementAdminServiceRemote {
                 .soldeAvantOperation(mouvementDTO.getSoldeAvantOperation())
                 .soldeApresOperation(mouvementDTO.getSoldeApresOperation())
                 .dateOperation(LocalDateTime.now())
-                .reference(mouvementDTO.getReference())
+                .reference(reference)
                 .libelleOperation(mouvementDTO.getLibelleOperation())
                 .idAdministrateur(userSession.getUtilisateur().getIdUtilisateur())
                 .build();
 
-        mouvement = mouvementRepository.save(mouvement);
+        mouvement = soldeCompteService.enregistrerMouvement(mouvement);
         return toDTO(mouvement);
     }
 
@@ -90,11 +111,27 @@ public class MouvementAdminService implements MouvementAdminServiceRemote {
             throw new SecurityException("Vous n'avez pas la permission de consulter les mouvements");
         }
 
-        return mouvementRepository.findAll().stream()
+        // Projection : une seule requête, sans entité ni chargement paresseux par ligne
+        return mouvementRepository.findAllResume().stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère une page de mouvements (SELECT) avec vérification des permissions
+     */
+    public PageCurseurDTO<MouvementDTO> findPage(Long idCompte, LocalDate dateDebut, LocalDate dateFin,
+                                                 String curseur, int taille, UserSessionBeanRemote userSession) {
+        if (!authorizationService.checkPermission(userSession, TABLE_MOUVEMENT, "SELECT")) {
+            throw new SecurityException("Vous n'avez pas la permission de consulter les mouvements");
+        }
+
+        return historiqueMouvementService.paginer(idCompte,
+                dateDebut != null ? dateDebut.atStartOfDay() : null,
+                dateFin != null ? dateFin.atTime(23, 59, 59) : null,
+                curseur, taille, this::toDTO);
+    }
+
     /**
      * Met à jour un mouvement (UPDATE) avec vérification des permissions
      */
@@ -107,6 +144,10 @@ public class MouvementAdminService implements MouvementAdminServiceRemote {
         Mouvement mouvement = mouvementRepository.findById(mouvementDTO.getIdMouvement())
                 .orElseThrow(() -> new RuntimeException("Mouvement non trouvé"));
 
+        // Retirer l'ancien montant du solde matérialisé et des cumuls avant modification
+        soldeCompteService.corrigerSolde(mouvement.getCompte(), mouvement.getMontant().negate());
+        cumulJournalierService.annulerDebit(mouvement);
+
         if (mouvementDTO.getIdCompte() != null) {
             CompteCourant compte = compteCourantRepository.findById(mouvementDTO.getIdCompte())
                     .orElseThrow(() -> new RuntimeException("Compte non trouvé"));
@@ -126,6 +167,9 @@ public class MouvementAdminService implements MouvementAdminServiceRemote {
             mouvement.setLibelleOperation(mouvementDTO.getLibelleOperation());
         }
 
+        soldeCompteService.corrigerSolde(mouvement.getCompte(), mouvement.getMontant());
+        cumulJournalierService.enregistrerDebit(mouvement);
+
         mouvement = mouvementRepository.save(mouvement);
         return toDTO(mouvement);
     }
@@ -139,6 +183,10 @@ public class MouvementAdminService implements MouvementAdminServiceRemote {
             throw new SecurityException("Vous n'avez pas la permission de supprimer un mouvement");
         }
 
+        mouvementRepository.findById(id).ifPresent(mouvement -> {
+            soldeCompteService.corrigerSolde(mouvement.getCompte(), mouvement.getMontant().negate());
+            cumulJournalierService.annulerDebit(mouvement);
+        });
         mouvementRepository.deleteById(id);
     }
 
@@ -157,4 +205,20 @@ public class MouvementAdminService implements MouvementAdminServiceRemote {
                 .idAdministrateur(mouvement.getIdAdministrateur())
                 .build();
     }
+
+    private MouvementDTO toDTO(Object[] ligne) {
+        return MouvementDTO.builder()
+                .idMouvement((Long) ligne[0])
+                .idCompte((Long) ligne[1])
+                .numeroCompte((String) ligne[2])
+                .idTypeOperation((Long) ligne[3])
+                .montant((BigDecimal) ligne[4])
+                .soldeAvantOperation((BigDecimal) ligne[5])
+                .soldeApresOperation((BigDecimal) ligne[6])
+                .dateOperation((LocalDateTime) ligne[7])
+                .reference((String) ligne[8])
+                .libelleOperation((String) ligne[9])
+                .idAdministrateur((Integer) ligne[10])
+                .build();
+    }
 }
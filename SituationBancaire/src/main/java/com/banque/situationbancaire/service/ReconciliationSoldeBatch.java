@@ -0,0 +1,70 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.repository.CompteCourantRepository;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Réconciliation nocturne des soldes matérialisés avec le grand livre.
+ * Les comptes sont parcourus par pages, chaque page dans sa propre
+ * transaction : les verrous des comptes corrigés sont relâchés à la fin de
+ * leur page, et une page en échec n'annule pas les corrections des autres.
+ */
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ReconciliationSoldeBatch {
+
+    private static final Logger LOGGER = Logger.getLogger(ReconciliationSoldeBatch.class.getName());
+
+    private static final int TAILLE_PAGE = 500;
+
+    @EJB
+    private CompteCourantRepository compteCourantRepository;
+
+    @EJB
+    private SoldeCompteService soldeCompteService;
+
+    /**
+     * Vérifie chaque nuit le solde matérialisé de tous les comptes contre le
+     * grand livre et réaligne les écarts
+     * @return Le nombre de comptes corrigés
+     */
+    @Schedule(hour = "2", minute = "30", persistent = false)
+    public int reconcilierSoldes() {
+        LOGGER.info("Début de la réconciliation des soldes avec le grand livre");
+
+        int comptesVerifies = 0;
+        int comptesCorriges = 0;
+        int pagesEnEchec = 0;
+        Long dernierId = 0L;
+        List<Long> page;
+
+        do {
+            page = compteCourantRepository.findIdsPage(dernierId, TAILLE_PAGE);
+            if (page.isEmpty()) {
+                break;
+            }
+            try {
+                comptesCorriges += soldeCompteService.reconcilierPage(page);
+            } catch (Exception e) {
+                // Les écarts de la page restent en place jusqu'à la prochaine exécution
+                pagesEnEchec++;
+                LOGGER.log(Level.SEVERE, "Échec de la réconciliation des comptes " + page.get(0)
+                    + " à " + page.get(page.size() - 1), e);
+            }
+            comptesVerifies += page.size();
+            dernierId = page.get(page.size() - 1);
+        } while (page.size() == TAILLE_PAGE);
+
+        LOGGER.info("Réconciliation terminée : " + comptesVerifies + " comptes vérifiés, "
+            + comptesCorriges + " corrigés, " + pagesEnEchec + " pages en échec");
+        return comptesCorriges;
+    }
+}
@@ -0,0 +1,169 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.entity.ParametresCompte;
+import com.banque.situationbancaire.entity.TauxInteretDecouvert;
+import com.banque.situationbancaire.entity.TypeCompte;
+import com.banque.situationbancaire.entity.TypeOperation;
+import com.banque.situationbancaire.repository.TypeCompteRepository;
+import com.banque.situationbancaire.repository.TypeOperationRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Cache en mémoire des données de référence (types d'opération, types de
+ * compte, paramètres et taux de découvert), chargé au démarrage.
+ * Ces données changent quelques fois par an : les opérations les lisent
+ * ici sans requête. Le cache est rechargé sur invalidation explicite et
+ * automatiquement au passage d'une date de début ou de fin de validité.
+ * Les entités sont chargées hors transaction de l'appelant et restent détachées.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ReferentielCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ReferentielCache.class.getName());
+
+    @Inject
+    private TypeOperationRepository typeOperationRepository;
+
+    @Inject
+    private TypeCompteRepository typeCompteRepository;
+
+    // Instantané immuable remplacé en bloc : les lectures ne prennent aucun verrou
+    private volatile Referentiel referentiel;
+
+    @PostConstruct
+    public void init() {
+        charger();
+    }
+
+    /**
+     * Recharge l'ensemble des données de référence depuis la base.
+     * À appeler après toute modification des types ou des paramètres de compte.
+     */
+    public synchronized void invalider() {
+        LOGGER.info("Invalidation du cache des données de référence");
+        charger();
+    }
+
+    /**
+     * Récupère un type d'opération par son code (DEPOT, RETRAIT, VIREMENT, ...)
+     */
+    public Optional<TypeOperation> getTypeOperation(String code) {
+        return Optional.ofNullable(referentielCourant().typesOperation.get(code));
+    }
+
+    /**
+     * Récupère un type de compte avec ses paramètres actuels et son taux de découvert
+     */
+    public Optional<TypeCompte> getTypeCompte(Long idTypeCompte) {
+        return Optional.ofNullable(referentielCourant().typesCompte.get(idTypeCompte));
+    }
+
+    /**
+     * Récupère les paramètres actuels d'un type de compte
+     */
+    public Optional<ParametresCompte> getParametres(Long idTypeCompte) {
+        return getTypeCompte(idTypeCompte).map(TypeCompte::getParametreActuel);
+    }
+
+    /**
+     * Numéro de version du référentiel, incrémenté à chaque rechargement
+     */
+    public long getVersion() {
+        return referentielCourant().version;
+    }
+
+    private Referentiel referentielCourant() {
+        Referentiel courant = referentiel;
+        if (!LocalDate.now().isBefore(courant.prochaineEcheance)) {
+            synchronized (this) {
+                if (referentiel == courant) {
+                    LOGGER.info("Changement de période de validité des paramètres, rechargement du cache");
+                    charger();
+                }
+            }
+            courant = referentiel;
+        }
+        return courant;
+    }
+
+    private void charger() {
+        LocalDate aujourdHui = LocalDate.now();
+        LocalDate prochaineEcheance = LocalDate.MAX;
+
+        Map<String, TypeOperation> typesOperation = new HashMap<>();
+        for (TypeOperation typeOperation : typeOperationRepository.findAll()) {
+            typesOperation.put(typeOperation.getCodeOperation(), typeOperation);
+        }
+
+        Map<Long, TypeCompte> typesCompte = new HashMap<>();
+        List<TypeCompte> types = typeCompteRepository.findAll();
+        for (TypeCompte typeCompte : types) {
+            typesCompte.put(typeCompte.getIdTypeCompte(), typeCompte);
+            ParametresCompte parametres = typeCompte.getParametreActuel();
+            if (parametres != null) {
+                prochaineEcheance = min(prochaineEcheance,
+                    prochaineBorne(parametres.getDateDebut(), parametres.getDateFin(), aujourdHui));
+                TauxInteretDecouvert taux = parametres.getTauxDecouvert();
+                if (taux != null) {
+                    prochaineEcheance = min(prochaineEcheance,
+                        prochaineBorne(taux.getDateDebut(), taux.getDateFin(), aujourdHui));
+                }
+            }
+        }
+
+        long version = referentiel != null ? referentiel.version + 1 : 1;
+        referentiel = new Referentiel(Map.copyOf(typesOperation), Map.copyOf(typesCompte), prochaineEcheance, version);
+        LOGGER.info("Cache des données de référence chargé (version " + version + ") : "
+            + typesOperation.size() + " types d'opération, " + typesCompte.size() + " types de compte");
+    }
+
+    /**
+     * Première date future à laquelle une période [dateDebut, dateFin] commence ou se termine
+     */
+    private static LocalDate prochaineBorne(LocalDate dateDebut, LocalDate dateFin, LocalDate aujourdHui) {
+        LocalDate borne = LocalDate.MAX;
+        if (dateDebut != null && dateDebut.isAfter(aujourdHui)) {
+            borne = dateDebut;
+        }
+        if (dateFin != null && dateFin.plusDays(1).isAfter(aujourdHui)) {
+            borne = min(borne, dateFin.plusDays(1));
+        }
+        return borne;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static final class Referentiel {
+        private final Map<String, TypeOperation> typesOperation;
+        private final Map<Long, TypeCompte> typesCompte;
+        private final LocalDate prochaineEcheance;
+        private final long version;
+
+        private Referentiel(Map<String, TypeOperation> typesOperation, Map<Long, TypeCompte> typesCompte,
+                            LocalDate prochaineEcheance, long version) {
+            this.typesOperation = typesOperation;
+            this.typesCompte = typesCompte;
+            this.prochaineEcheance = prochaineEcheance;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.dto.BlocReleveDTO;
+import com.banque.situationbancaire.repository.MouvementRepository;
+import com.banque.situationbancaire.util.CurseurHistorique;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service d'export des relevés de compte au format CSV.
+ * Chaque bloc est produit en parcourant un flux JDBC (fetch size borné)
+ * sans charger d'entités, puis les blocs s'enchaînent par curseur : la
+ * mémoire utilisée ne dépend pas du nombre de mouvements exportés.
+ */
+@Stateless
+public class ReleveCompteService {
+
+    public static final int TAILLE_BLOC_MAX = 10000;
+
+    private static final String SEPARATEUR = ";";
+    private static final String EN_TETE = "Date;Reference;Type;Libelle;Debit;Credit;Solde\n";
+    private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    @EJB
+    private MouvementRepository mouvementRepository;
+
+    /**
+     * Produit un bloc du relevé, par ordre chronologique
+     * @param idCompte ID du compte
+     * @param dateDebut Borne basse incluse, ou null
+     * @param dateFin Borne haute incluse, ou null
+     * @param curseur Curseur du bloc précédent, ou null pour le premier bloc (avec en-tête)
+     * @param taille Nombre de lignes par bloc (borné à TAILLE_BLOC_MAX)
+     */
+    public BlocReleveDTO exporterBloc(Long idCompte, LocalDateTime dateDebut, LocalDateTime dateFin,
+                                      String curseur, int taille) {
+        if (taille <= 0) {
+            throw new IllegalArgumentException("La taille de bloc doit être positive");
+        }
+        int tailleEffective = Math.min(taille, TAILLE_BLOC_MAX);
+        CurseurHistorique position = CurseurHistorique.decoder(curseur);
+
+        StringBuilder csv = new StringBuilder(position == null ? EN_TETE : "");
+        int nombreLignes = 0;
+        String curseurSuivant = null;
+
+        // Une ligne de plus que demandé pour savoir s'il reste un bloc
+        try (Stream<Object[]> lignes = mouvementRepository.streamReleve(idCompte, dateDebut, dateFin,
+                position != null ? position.getDateOperation() : null,
+                position != null ? position.getIdMouvement() : null,
+                tailleEffective + 1)) {
+            Iterator<Object[]> iterateur = lignes.iterator();
+            Object[] derniere = null;
+            while (iterateur.hasNext()) {
+                Object[] ligne = iterateur.next();
+                if (nombreLignes == tailleEffective) {
+                    curseurSuivant = new CurseurHistorique((LocalDateTime) derniere[1], (Long) derniere[0]).encoder();
+                    break;
+                }
+                ecrireLigne(csv, ligne);
+                derniere = ligne;
+                nombreLignes++;
+            }
+        }
+
+        return BlocReleveDTO.builder()
+                .contenuCsv(csv.toString())
+                .nombreLignes(nombreLignes)
+                .curseurSuivant(curseurSuivant)
+                .build();
+    }
+
+    private void ecrireLigne(StringBuilder csv, Object[] ligne) {
+        BigDecimal montant = (BigDecimal) ligne[5];
+        csv.append(((LocalDateTime) ligne[1]).format(FORMAT_DATE)).append(SEPARATEUR);
+        csv.append(echapper((String) ligne[2])).append(SEPARATEUR);
+        csv.append(echapper((String) ligne[3])).append(SEPARATEUR);
+        csv.append(echapper((String) ligne[4])).append(SEPARATEUR);
+        csv.append(montant.signum() < 0 ? montant.negate().toPlainString() : "").append(SEPARATEUR);
+        csv.append(montant.signum() >= 0 ? montant.toPlainString() : "").append(SEPARATEUR);
+        csv.append(((BigDecimal) ligne[6]).toPlainString()).append('\n');
+    }
+
+    /**
+     * Échappe un champ texte selon la RFC 4180 (guillemets si séparateur,
+     * guillemet ou retour à la ligne)
+     */
+    private String echapper(String valeur) {
+        if (valeur == null) {
+            return "";
+        }
+        if (valeur.contains(SEPARATEUR) || valeur.contains("\"") || valeur.contains("\n") || valeur.contains("\r")) {
+            return "\"" + valeur.replace("\"", "\"\"") + "\"";
+        }
+        return valeur;
+    }
+}
@@ -0,0 +1,112 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.entity.CompteCourant;
+import com.banque.situationbancaire.entity.Mouvement;
+import com.banque.situationbancaire.repository.CompteCourantRepository;
+import com.banque.situationbancaire.repository.MouvementRepository;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Service de gestion du solde matérialisé des comptes courants.
+ * Le solde est lu et mis à jour en O(1) sur le compte ; le grand livre
+ * (table mouvement) reste la référence et sert à la réconciliation.
+ */
+@Stateless
+public class SoldeCompteService {
+
+    private static final Logger LOGGER = Logger.getLogger(SoldeCompteService.class.getName());
+
+    @EJB
+    private CompteCourantRepository compteCourantRepository;
+
+    @EJB
+    private MouvementRepository mouvementRepository;
+
+    @EJB
+    private CumulJournalierService cumulJournalierService;
+
+    /**
+     * Retourne le solde courant d'un compte géré, en l'initialisant depuis
+     * le grand livre s'il n'a pas encore été matérialisé
+     */
+    public BigDecimal obtenirSolde(CompteCourant compte) {
+        if (compte.getSoldeActuel() == null) {
+            compte.setSoldeActuel(calculerSoldeGrandLivre(compte));
+            LOGGER.info("Solde matérialisé initialisé pour le compte " + compte.getNumeroCompte());
+        }
+        return compte.getSoldeActuel();
+    }
+
+    /**
+     * Persiste un mouvement et répercute son montant sur le solde du compte
+     * et sur les cumuls journaliers de débits dans la même transaction
+     */
+    public Mouvement enregistrerMouvement(Mouvement mouvement) {
+        obtenirSolde(mouvement.getCompte());
+        cumulJournalierService.enregistrerDebit(mouvement);
+        Mouvement mouvementCree = mouvementRepository.save(mouvement);
+        mouvement.getCompte().appliquerMouvement(mouvement.getMontant());
+        return mouvementCree;
+    }
+
+    /**
+     * Répercute une correction de montant (mise à jour ou suppression d'un
+     * mouvement existant) sur le solde du compte
+     */
+    public void corrigerSolde(CompteCourant compte, BigDecimal ecart) {
+        obtenirSolde(compte);
+        compte.appliquerMouvement(ecart);
+    }
+
+    /**
+     * Recalcule le solde d'un compte à partir du grand livre
+     */
+    public BigDecimal calculerSoldeGrandLivre(CompteCourant compte) {
+        BigDecimal totalMouvements = mouvementRepository.calculerSoldeMouvements(compte.getIdCompte());
+        return compte.getSoldeInitial().add(totalMouvements != null ? totalMouvements : BigDecimal.ZERO);
+    }
+
+    /**
+     * Réaligne sur le grand livre les soldes matérialisés d'une page de comptes,
+     * dans sa propre transaction. Seuls les comptes en écart sont verrouillés.
+     * @param idsComptes IDs des comptes de la page
+     * @return Le nombre de comptes corrigés
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int reconcilierPage(List<Long> idsComptes) {
+        int comptesCorriges = 0;
+        for (Object[] ligne : compteCourantRepository.findSoldesGrandLivre(idsComptes)) {
+            Long idCompte = (Long) ligne[0];
+            BigDecimal soldeInitial = (BigDecimal) ligne[1];
+            BigDecimal soldeActuel = (BigDecimal) ligne[2];
+            BigDecimal soldeGrandLivre = soldeInitial.add((BigDecimal) ligne[3]);
+            if (soldeActuel != null && soldeActuel.compareTo(soldeGrandLivre) == 0) {
+                continue;
+            }
+
+            // Relecture du compte et du grand livre : l'écart peut venir d'une
+            // opération validée entre la requête groupée et ce point
+            CompteCourant compte = compteCourantRepository.findByIdForUpdate(idCompte).orElse(null);
+            if (compte == null) {
+                continue;
+            }
+            BigDecimal soldeAttendu = calculerSoldeGrandLivre(compte);
+            if (compte.getSoldeActuel() == null || compte.getSoldeActuel().compareTo(soldeAttendu) != 0) {
+                if (compte.getSoldeActuel() != null) {
+                    LOGGER.severe("Écart de solde sur le compte " + compte.getNumeroCompte()
+                        + " : matérialisé " + compte.getSoldeActuel() + ", grand livre " + soldeAttendu);
+                }
+                compte.setSoldeActuel(soldeAttendu);
+                comptesCorriges++;
+            }
+        }
+        return comptesCorriges;
+    }
+}
@@ -37,6 +37,9 @@ public class UserSessionBean implements UserSessionBeanRemote, Serializable {
     // Liste des permissions (actions autorisées pour le rôle de l'utilisateur)
     private List<ActionRoleDTO> actionsAutorisees;
     
+    // Incrémentée à chaque (ré)initialisation des permissions
+    private long versionPermissions;
+    
     /**
      * Initialise la session utilisateur
      */
@@ -45,6 +48,7 @@ public class UserSessionBean implements UserSessionBeanRemote, Serializable {
         this.utilisateur = user;
         this.directions = dirs != null ? new ArrayList<>(dirs) : new ArrayList<>();
         this.actionsAutorisees = actions != null ? new ArrayList<>(actions) : new ArrayList<>();
+        this.versionPermissions++;
     }
 
     /**
@@ -105,6 +109,13 @@ public class UserSessionBean implements UserSessionBeanRemote, Serializable {
         return this.utilisateur != null && this.sessionId != null;
     }
 
+    /**
+     * Version des permissions, ou -1 si la session n'est plus valide
+     */
+    public long getVersionPermissions() {
+        return isValid() ? this.versionPermissions : -1;
+    }
+
     /**
      * Récupère l'utilisateur de la session
      */
@@ -0,0 +1,60 @@
+package com.banque.situationbancaire.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position dans un historique de mouvements trié par (date_operation, id_mouvement),
+ * encodée en jeton opaque pour la pagination par curseur
+ */
+public final class CurseurHistorique {
+
+    private static final char SEPARATEUR = '|';
+
+    private final LocalDateTime dateOperation;
+    private final Long idMouvement;
+
+    public CurseurHistorique(LocalDateTime dateOperation, Long idMouvement) {
+        this.dateOperation = dateOperation;
+        this.idMouvement = idMouvement;
+    }
+
+    public LocalDateTime getDateOperation() {
+        return dateOperation;
+    }
+
+    public Long getIdMouvement() {
+        return idMouvement;
+    }
+
+    /**
+     * Encode la position du dernier mouvement d'une page
+     */
+    public String encoder() {
+        String valeur = dateOperation.toString() + SEPARATEUR + idMouvement;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valeur.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un jeton de curseur
+     * @param jeton Jeton reçu du client, ou null/vide pour la première page
+     * @return Le curseur, ou null pour la première page
+     * @throws IllegalArgumentException si le jeton est invalide
+     */
+    public static CurseurHistorique decoder(String jeton) {
+        if (jeton == null || jeton.isBlank()) {
+            return null;
+        }
+        try {
+            String valeur = new String(Base64.getUrlDecoder().decode(jeton.trim()), StandardCharsets.UTF_8);
+            int position = valeur.indexOf(SEPARATEUR);
+            return new CurseurHistorique(
+                LocalDateTime.parse(valeur.substring(0, position)),
+                Long.valueOf(valeur.substring(position + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide : " + jeton);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.banque.situationbancaire.util;
+
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur d'identifiants uniques pour les références de mouvement et les
+ * numéros de compte, sur le modèle Snowflake : 41 bits de millisecondes depuis
+ * le 01/01/2024, 10 bits d'identifiant de nœud et 12 bits de séquence.
+ *
+ * La génération est sans verrou (compare-and-set sur un seul AtomicLong) et
+ * strictement croissante sur un nœud, y compris si l'horloge recule ou si
+ * plus de 4096 identifiants sont demandés dans la même milliseconde : la
+ * milliseconde logique avance alors d'elle-même au lieu d'attendre.
+ *
+ * L'identifiant de nœud est lu dans la propriété système banque.noeud.id
+ * (0 à 1023) et, à défaut, dérivé de jboss.node.name ou du nom d'hôte.
+ */
+public final class GenerateurReference {
+
+    private static final long EPOQUE = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int BITS_NOEUD = 10;
+    private static final int BITS_SEQUENCE = 12;
+    private static final long MASQUE_NOEUD = (1L << BITS_NOEUD) - 1;
+
+    private static final long NOEUD = determinerNoeud();
+
+    // Dernière valeur émise sans le nœud : (milliseconde logique << 12) | séquence
+    private static final AtomicLong DERNIER = new AtomicLong();
+
+    private GenerateurReference() {
+    }
+
+    /**
+     * Retourne un identifiant unique et croissant sur ce nœud
+     */
+    public static long prochainId() {
+        long horloge = (System.currentTimeMillis() - EPOQUE) << BITS_SEQUENCE;
+        long precedent;
+        long suivant;
+        do {
+            precedent = DERNIER.get();
+            suivant = Math.max(horloge, precedent + 1);
+        } while (!DERNIER.compareAndSet(precedent, suivant));
+
+        long milliseconde = suivant >>> BITS_SEQUENCE;
+        long sequence = suivant & ((1L << BITS_SEQUENCE) - 1);
+        return (milliseconde << (BITS_NOEUD + BITS_SEQUENCE)) | (NOEUD << BITS_SEQUENCE) | sequence;
+    }
+
+    /**
+     * Retourne une référence préfixée (ex: VIR + identifiant décimal)
+     */
+    public static String genererReference(String prefixe) {
+        return prefixe.concat(Long.toString(prochainId()));
+    }
+
+    private static long determinerNoeud() {
+        String configure = System.getProperty("banque.noeud.id");
+        if (configure != null && !configure.isBlank()) {
+            return Long.parseLong(configure.trim()) & MASQUE_NOEUD;
+        }
+        String nom = System.getProperty("jboss.node.name");
+        if (nom == null) {
+            try {
+                nom = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                nom = "local";
+            }
+        }
+        return nom.hashCode() & MASQUE_NOEUD;
+    }
+}
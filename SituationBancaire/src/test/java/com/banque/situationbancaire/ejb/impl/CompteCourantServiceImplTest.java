@@ -0,0 +1,141 @@
+package com.banque.situationbancaire.ejb.impl;
+
+import com.banque.situationbancaire.dto.CompteCourantDTO;
+import com.banque.situationbancaire.entity.Client;
+import com.banque.situationbancaire.entity.CompteCourant;
+import com.banque.situationbancaire.entity.Mouvement;
+import com.banque.situationbancaire.entity.ParametresCompte;
+import com.banque.situationbancaire.entity.TauxInteretDecouvert;
+import com.banque.situationbancaire.entity.TypeCompte;
+import com.banque.situationbancaire.entity.TypeOperation;
+import com.banque.situationbancaire.entity.enums.CategorieOperation;
+import com.banque.situationbancaire.entity.enums.NatureOperation;
+import com.banque.situationbancaire.repository.CompteCourantRepository;
+import com.banque.situationbancaire.support.BaseDeDonneesTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Nombre d'ordres SQL de la recherche d'un compte par ID : le client et le
+ * type de compte viennent avec le compte, et ses mouvements ne sont pas
+ * chargés (seulement sommés si le solde n'est pas encore matérialisé)
+ */
+class CompteCourantServiceImplTest extends BaseDeDonneesTest {
+
+    private static final int MOUVEMENTS = 10;
+
+    private CompteCourantServiceImpl compteCourantService;
+
+    private CompteCourant compteMaterialise;
+    private CompteCourant compteNonMaterialise;
+
+    @BeforeEach
+    void preparer() {
+        compteCourantService = new CompteCourantServiceImpl();
+        injecter(compteCourantService, "compteCourantRepository", injecter(new CompteCourantRepository(), "em", em));
+
+        creerJeuDeDonnees();
+    }
+
+    @Test
+    void compteAvecSoldeMaterialiseEnUneRequete() {
+        statistiques().clear();
+
+        CompteCourantDTO compte = compteCourantService.rechercherCompteParId(compteMaterialise.getIdCompte());
+
+        assertEquals("CC-MAT", compte.getNumeroCompte());
+        assertEquals(0, new BigDecimal("10000").compareTo(compte.getSolde()));
+        assertNull(compte.getMouvements());
+        assertEquals(1, statistiques().getPrepareStatementCount());
+    }
+
+    @Test
+    void compteSansSoldeMaterialiseEnDeuxRequetes() {
+        statistiques().clear();
+
+        CompteCourantDTO compte = compteCourantService.rechercherCompteParId(compteNonMaterialise.getIdCompte());
+
+        // Solde initial + somme des mouvements, calculée en base
+        assertEquals(0, new BigDecimal("10500").compareTo(compte.getSolde()));
+        assertNull(compte.getMouvements());
+        assertEquals(2, statistiques().getPrepareStatementCount());
+    }
+
+    private void creerJeuDeDonnees() {
+        TauxInteretDecouvert taux = TauxInteretDecouvert.builder()
+            .tauxAnnuel(new BigDecimal("0.1500"))
+            .dateDebut(LocalDate.of(2024, 1, 1))
+            .build();
+        ParametresCompte parametres = ParametresCompte.builder()
+            .tauxDecouvert(taux)
+            .plafondRetraitJournalier(new BigDecimal("500000"))
+            .plafondVirementJournalier(new BigDecimal("1000000"))
+            .fraisTenueCompte(new BigDecimal("1000"))
+            .dateDebut(LocalDate.of(2024, 1, 1))
+            .build();
+        TypeCompte typeCompte = TypeCompte.builder()
+            .parametreActuel(parametres)
+            .codeType("STANDARD")
+            .libelle("Compte standard")
+            .build();
+        TypeOperation depot = TypeOperation.builder()
+            .codeOperation("DEPOT").libelleOperation("Dépôt")
+            .categorie(CategorieOperation.CREDIT).nature(NatureOperation.DEPOT)
+            .build();
+        compteMaterialise = compte(typeCompte, "CC-MAT", "CIN-MAT", "0", "10000");
+        compteNonMaterialise = compte(typeCompte, "CC-NUL", "CIN-NUL", "500", null);
+
+        List<Object> entites = new ArrayList<>(List.of(taux, parametres, typeCompte, depot,
+            compteMaterialise.getClient(), compteMaterialise,
+            compteNonMaterialise.getClient(), compteNonMaterialise));
+        for (CompteCourant compte : List.of(compteMaterialise, compteNonMaterialise)) {
+            for (int i = 0; i < MOUVEMENTS; i++) {
+                entites.add(Mouvement.builder()
+                    .compte(compte)
+                    .typeOperation(depot)
+                    .montant(new BigDecimal("1000"))
+                    .soldeAvantOperation(BigDecimal.ZERO)
+                    .soldeApresOperation(new BigDecimal("1000"))
+                    .dateOperation(LocalDateTime.of(2025, 3, 1, 10, i))
+                    .reference(compte.getNumeroCompte() + "-" + i)
+                    .build());
+            }
+        }
+        enregistrer(entites.toArray());
+
+        // Compte antérieur au solde matérialisé : la colonne est restée vide
+        em.getTransaction().begin();
+        em.createQuery("UPDATE CompteCourant c SET c.soldeActuel = NULL WHERE c.idCompte = :id")
+            .setParameter("id", compteNonMaterialise.getIdCompte())
+            .executeUpdate();
+        em.getTransaction().commit();
+    }
+
+    private static CompteCourant compte(TypeCompte typeCompte, String numero, String cin, String soldeInitial,
+                                        String soldeActuel) {
+        Client client = Client.builder()
+            .nom("SARR").prenom(numero)
+            .dateNaissance(LocalDate.of(1990, 1, 1))
+            .numCin(cin)
+            .email(cin.toLowerCase() + "@banque.test")
+            .motDePasse("secret")
+            .build();
+        return CompteCourant.builder()
+            .numeroCompte(numero)
+            .client(client)
+            .typeCompte(typeCompte)
+            .dateOuverture(LocalDate.of(2025, 1, 1))
+            .soldeInitial(new BigDecimal(soldeInitial))
+            .soldeActuel(soldeActuel != null ? new BigDecimal(soldeActuel) : null)
+            .build();
+    }
+}
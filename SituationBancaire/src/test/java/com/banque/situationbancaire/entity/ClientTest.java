@@ -0,0 +1,35 @@
+package com.banque.situationbancaire.entity;
+
+import jakarta.persistence.Column;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Le numéro de client généré à la persistance doit tenir dans sa colonne
+ */
+class ClientTest {
+
+    @Test
+    void numeroClientGenereTientDansLaColonne() throws Exception {
+        int longueurColonne = Client.class.getDeclaredField("numeroClient").getAnnotation(Column.class).length();
+
+        Client client = new Client();
+        client.onCreate();
+
+        assertNotNull(client.getNumeroClient());
+        assertTrue(client.getNumeroClient().startsWith("CLI"));
+        assertTrue(client.getNumeroClient().length() <= longueurColonne,
+            client.getNumeroClient() + " dépasse " + longueurColonne + " caractères");
+    }
+
+    @Test
+    void colonneAccepteLeNumeroLePlusLong() throws Exception {
+        int longueurColonne = Client.class.getDeclaredField("numeroClient").getAnnotation(Column.class).length();
+
+        // Identifiant long positif le plus grand : 19 chiffres
+        int longueurMax = "CLI".length() + Long.toString(Long.MAX_VALUE).length();
+        assertTrue(longueurMax <= longueurColonne);
+    }
+}
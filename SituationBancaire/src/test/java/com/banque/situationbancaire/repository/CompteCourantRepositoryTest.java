@@ -0,0 +1,163 @@
+package com.banque.situationbancaire.repository;
+
+import com.banque.situationbancaire.entity.Client;
+import com.banque.situationbancaire.entity.CompteCourant;
+import com.banque.situationbancaire.entity.InteretJournalier;
+import com.banque.situationbancaire.entity.Mouvement;
+import com.banque.situationbancaire.entity.ParametresCompte;
+import com.banque.situationbancaire.entity.TauxInteretDecouvert;
+import com.banque.situationbancaire.entity.TypeCompte;
+import com.banque.situationbancaire.entity.TypeOperation;
+import com.banque.situationbancaire.entity.enums.CategorieOperation;
+import com.banque.situationbancaire.entity.enums.NatureOperation;
+import com.banque.situationbancaire.entity.enums.PeriodiciteFreais;
+import com.banque.situationbancaire.support.BaseDeDonneesTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Sélection des comptes des traitements de fin de période : intérêts de
+ * découvert sur le solde de fin de journée, et non sur le solde au moment du
+ * traitement ; frais de tenue sur les seules périodes qui se terminent
+ */
+class CompteCourantRepositoryTest extends BaseDeDonneesTest {
+
+    private static final LocalDate JOUR = LocalDate.of(2025, 3, 10);
+
+    private CompteCourantRepository compteCourantRepository;
+
+    private TypeCompte typeCompte;
+    private TypeCompte typeTrimestriel;
+    private TypeOperation depot;
+    private TypeOperation retrait;
+
+    @BeforeEach
+    void preparer() {
+        compteCourantRepository = injecter(new CompteCourantRepository(), "em", em);
+
+        TauxInteretDecouvert taux = TauxInteretDecouvert.builder()
+            .tauxAnnuel(new BigDecimal("0.1500"))
+            .dateDebut(LocalDate.of(2024, 1, 1))
+            .build();
+        ParametresCompte parametres = ParametresCompte.builder()
+            .tauxDecouvert(taux)
+            .plafondRetraitJournalier(new BigDecimal("500000"))
+            .plafondVirementJournalier(new BigDecimal("1000000"))
+            .fraisTenueCompte(new BigDecimal("1000"))
+            .dateDebut(LocalDate.of(2024, 1, 1))
+            .build();
+        typeCompte = TypeCompte.builder()
+            .parametreActuel(parametres)
+            .codeType("STANDARD")
+            .libelle("Compte standard")
+            .build();
+        depot = TypeOperation.builder()
+            .codeOperation("DEPOT").libelleOperation("Dépôt")
+            .categorie(CategorieOperation.CREDIT).nature(NatureOperation.DEPOT)
+            .build();
+        retrait = TypeOperation.builder()
+            .codeOperation("RETRAIT").libelleOperation("Retrait")
+            .categorie(CategorieOperation.DEBIT).nature(NatureOperation.RETRAIT)
+            .build();
+        ParametresCompte parametresTrimestriels = ParametresCompte.builder()
+            .tauxDecouvert(taux)
+            .plafondRetraitJournalier(new BigDecimal("500000"))
+            .plafondVirementJournalier(new BigDecimal("1000000"))
+            .fraisTenueCompte(new BigDecimal("2500"))
+            .fraisTenueComptePeriodicite(PeriodiciteFreais.TRIMESTRIEL)
+            .dateDebut(LocalDate.of(2024, 1, 1))
+            .build();
+        typeTrimestriel = TypeCompte.builder()
+            .parametreActuel(parametresTrimestriels)
+            .codeType("TRIMESTRE")
+            .libelle("Compte à frais trimestriels")
+            .build();
+        enregistrer(taux, parametres, typeCompte, parametresTrimestriels, typeTrimestriel, depot, retrait);
+    }
+
+    @Test
+    void selectionSurLeSoldeDeFinDeJournee() {
+        // À découvert le soir du jour, renfloué le lendemain : sélectionné
+        CompteCourant renfloue = compte("CC-RENF", "CIN1", "5000");
+        Mouvement depotLendemain = mouvement(renfloue, depot, "8000", JOUR.plusDays(1), "DEP1");
+        // Créditeur le soir du jour, à découvert depuis le lendemain : exclu
+        CompteCourant debiteLendemain = compte("CC-DEBI", "CIN2", "-1000");
+        Mouvement retraitLendemain = mouvement(debiteLendemain, retrait, "-1500", JOUR.plusDays(1), "RET1");
+        // À découvert, intérêts du jour déjà calculés : exclu
+        CompteCourant dejaCalcule = compte("CC-CALC", "CIN3", "-2000");
+        InteretJournalier interet = InteretJournalier.builder()
+            .compte(dejaCalcule)
+            .dateJour(JOUR)
+            .montantBase(new BigDecimal("2000"))
+            .tauxApplique(new BigDecimal("0.1500"))
+            .interetJour(new BigDecimal("0.82"))
+            .build();
+        // À découvert sans mouvement depuis : sélectionné
+        CompteCourant aDecouvert = compte("CC-DECO", "CIN4", "-500");
+
+        enregistrer(renfloue.getClient(), renfloue, depotLendemain,
+            debiteLendemain.getClient(), debiteLendemain, retraitLendemain,
+            dejaCalcule.getClient(), dejaCalcule, interet,
+            aDecouvert.getClient(), aDecouvert);
+
+        List<Long> ids = compteCourantRepository.findIdsADecouvertSansInteret(JOUR, 0L, 100);
+
+        assertEquals(List.of(renfloue.getIdCompte(), aDecouvert.getIdCompte()), ids);
+    }
+
+    @Test
+    void fraisSelectionnesSurLesPeriodesQuiSeTerminent() {
+        CompteCourant mensuel = compte("CC-MENS", "CIN1", "1000");
+        CompteCourant trimestriel = compte("CC-TRIM", "CIN2", "1000");
+        trimestriel.setTypeCompte(typeTrimestriel);
+        enregistrer(mensuel.getClient(), mensuel, trimestriel.getClient(), trimestriel);
+
+        // Fin janvier : seuls les frais mensuels sont dus, le compte trimestriel n'est pas sélectionné
+        LocalDate finJanvier = LocalDate.of(2025, 1, 31);
+        assertEquals(List.of(mensuel.getIdCompte()), compteCourantRepository.findIdsOuvertsSansFrais(
+            finJanvier, PeriodiciteFreais.echuesAu(finJanvier), 0L, Long.MAX_VALUE, 100));
+
+        // Fin mars : fin du premier trimestre
+        LocalDate finMars = LocalDate.of(2025, 3, 31);
+        assertEquals(List.of(mensuel.getIdCompte(), trimestriel.getIdCompte()), compteCourantRepository.findIdsOuvertsSansFrais(
+            finMars, PeriodiciteFreais.echuesAu(finMars), 0L, Long.MAX_VALUE, 100));
+    }
+
+    private CompteCourant compte(String numero, String cin, String solde) {
+        Client client = Client.builder()
+            .nom("NDIAYE").prenom(numero)
+            .dateNaissance(LocalDate.of(1990, 1, 1))
+            .numCin(cin)
+            .email(cin.toLowerCase() + "@banque.test")
+            .motDePasse("secret")
+            .build();
+        return CompteCourant.builder()
+            .numeroCompte(numero)
+            .client(client)
+            .typeCompte(typeCompte)
+            .dateOuverture(LocalDate.of(2025, 1, 1))
+            .soldeInitial(BigDecimal.ZERO)
+            .soldeActuel(new BigDecimal(solde))
+            .build();
+    }
+
+    private static Mouvement mouvement(CompteCourant compte, TypeOperation type, String montant,
+                                       LocalDate jour, String reference) {
+        BigDecimal valeur = new BigDecimal(montant);
+        return Mouvement.builder()
+            .compte(compte)
+            .typeOperation(type)
+            .montant(valeur)
+            .soldeAvantOperation(compte.getSoldeActuel().subtract(valeur))
+            .soldeApresOperation(compte.getSoldeActuel())
+            .dateOperation(jour.atTime(10, 0))
+            .reference(reference)
+            .build();
+    }
+}
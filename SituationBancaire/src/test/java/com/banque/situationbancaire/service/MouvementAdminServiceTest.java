@@ -0,0 +1,211 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.dto.MouvementDTO;
+import com.banque.situationbancaire.dto.PageCurseurDTO;
+import com.banque.situationbancaire.ejb.remote.UserSessionBeanRemote;
+import com.banque.situationbancaire.entity.Client;
+import com.banque.situationbancaire.entity.CompteCourant;
+import com.banque.situationbancaire.entity.Mouvement;
+import com.banque.situationbancaire.entity.ParametresCompte;
+import com.banque.situationbancaire.entity.TauxInteretDecouvert;
+import com.banque.situationbancaire.entity.TypeCompte;
+import com.banque.situationbancaire.entity.TypeOperation;
+import com.banque.situationbancaire.entity.Virement;
+import com.banque.situationbancaire.entity.enums.CategorieOperation;
+import com.banque.situationbancaire.entity.enums.NatureOperation;
+import com.banque.situationbancaire.mapper.MouvementMapper;
+import com.banque.situationbancaire.repository.MouvementRepository;
+import com.banque.situationbancaire.support.BaseDeDonneesTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Nombre d'ordres SQL par appel de consultation des mouvements : il ne doit
+ * pas dépendre du nombre de mouvements lus (pas de requête par ligne pour le
+ * compte, le type d'opération ou les côtés du virement)
+ */
+class MouvementAdminServiceTest extends BaseDeDonneesTest {
+
+    private static final int DEPOTS = 10;
+    private static final int VIREMENTS = 5;
+
+    private MouvementRepository mouvementRepository;
+    private MouvementAdminService mouvementAdminService;
+    private UserSessionBeanRemote session;
+
+    private CompteCourant compteEmetteur;
+    private CompteCourant compteBeneficiaire;
+
+    @BeforeEach
+    void preparer() {
+        mouvementRepository = injecter(new MouvementRepository(), "em", em);
+        HistoriqueMouvementService historique = injecter(new HistoriqueMouvementService(),
+            "mouvementRepository", mouvementRepository);
+        mouvementAdminService = new MouvementAdminService();
+        injecter(mouvementAdminService, "mouvementRepository", mouvementRepository);
+        injecter(mouvementAdminService, "historiqueMouvementService", historique);
+        injecter(mouvementAdminService, "authorizationService", new AuthorizationService());
+
+        // Session distante autorisant tout
+        session = (UserSessionBeanRemote) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {UserSessionBeanRemote.class},
+            (proxy, methode, arguments) -> methode.getReturnType() == boolean.class ? Boolean.TRUE : null);
+
+        creerJeuDeDonnees();
+    }
+
+    @Test
+    void pageDeMouvementsEnUneRequete() {
+        statistiques().clear();
+
+        PageCurseurDTO<MouvementDTO> page = mouvementAdminService.findPage(null, null, null, null, 50, session);
+
+        assertEquals(DEPOTS + 2 * VIREMENTS, page.getElements().size());
+        assertNull(page.getCurseurSuivant());
+        assertEquals(1, statistiques().getPrepareStatementCount());
+    }
+
+    @Test
+    void listeCompleteEnUneRequete() {
+        statistiques().clear();
+
+        List<MouvementDTO> mouvements = mouvementAdminService.findAll(session);
+
+        assertEquals(DEPOTS + 2 * VIREMENTS, mouvements.size());
+        assertEquals(1, statistiques().getPrepareStatementCount());
+    }
+
+    @Test
+    void historiqueAvecContrepartieDesVirementsEnUneRequete() {
+        statistiques().clear();
+
+        List<MouvementDTO> emis = mouvementRepository.findByCompteId(compteEmetteur.getIdCompte()).stream()
+            .map(MouvementMapper::toDTO).collect(Collectors.toList());
+
+        assertEquals(DEPOTS + VIREMENTS, emis.size());
+        assertEquals(VIREMENTS, emis.stream().filter(m -> "CC-BENEF".equals(m.getNumeroCompteBeneficiaire())).count());
+        assertEquals(1, statistiques().getPrepareStatementCount());
+
+        em.clear();
+        statistiques().clear();
+
+        List<MouvementDTO> recus = mouvementRepository.findByCompteId(compteBeneficiaire.getIdCompte()).stream()
+            .map(MouvementMapper::toDTO).collect(Collectors.toList());
+
+        assertEquals(VIREMENTS, recus.size());
+        assertEquals(VIREMENTS, recus.stream().filter(m -> "DIOP Awa".equals(m.getNomBeneficiaire())).count());
+        assertEquals(1, statistiques().getPrepareStatementCount());
+    }
+
+    @Test
+    void suppressionDuMouvementSupprimeLeVirement() {
+        Long idDebit = em.createQuery(
+                "SELECT m.idMouvement FROM Mouvement m WHERE m.reference = 'VIRD0'", Long.class)
+            .getSingleResult();
+
+        em.getTransaction().begin();
+        mouvementRepository.deleteById(idDebit);
+        em.getTransaction().commit();
+        em.clear();
+
+        assertEquals(VIREMENTS - 1L, em.createQuery("SELECT COUNT(v) FROM Virement v", Long.class).getSingleResult());
+        assertNull(em.find(Mouvement.class, idDebit));
+    }
+
+    private void creerJeuDeDonnees() {
+        TauxInteretDecouvert taux = TauxInteretDecouvert.builder()
+            .tauxAnnuel(new BigDecimal("0.1500"))
+            .dateDebut(LocalDate.of(2024, 1, 1))
+            .build();
+        ParametresCompte parametres = ParametresCompte.builder()
+            .tauxDecouvert(taux)
+            .plafondRetraitJournalier(new BigDecimal("500000"))
+            .plafondVirementJournalier(new BigDecimal("1000000"))
+            .fraisTenueCompte(new BigDecimal("1000"))
+            .dateDebut(LocalDate.of(2024, 1, 1))
+            .build();
+        TypeCompte typeCompte = TypeCompte.builder()
+            .parametreActuel(parametres)
+            .codeType("STANDARD")
+            .libelle("Compte standard")
+            .build();
+        TypeOperation depot = TypeOperation.builder()
+            .codeOperation("DEPOT").libelleOperation("Dépôt")
+            .categorie(CategorieOperation.CREDIT).nature(NatureOperation.DEPOT)
+            .build();
+        TypeOperation virement = TypeOperation.builder()
+            .codeOperation("VIREMENT").libelleOperation("Virement")
+            .categorie(CategorieOperation.DEBIT).nature(NatureOperation.VIREMENT)
+            .build();
+
+        compteEmetteur = compte("CC-EMET", client("DIOP", "Awa", "CIN1"), typeCompte);
+        compteBeneficiaire = compte("CC-BENEF", client("FALL", "Moussa", "CIN2"), typeCompte);
+
+        List<Object> entites = new ArrayList<>(List.of(taux, parametres, typeCompte, depot, virement,
+            compteEmetteur.getClient(), compteBeneficiaire.getClient(), compteEmetteur, compteBeneficiaire));
+
+        LocalDateTime date = LocalDateTime.of(2025, 3, 1, 9, 0);
+        for (int i = 0; i < DEPOTS; i++) {
+            entites.add(mouvement(compteEmetteur, depot, new BigDecimal("10000"), date = date.plusMinutes(1), "DEP" + i));
+        }
+        for (int i = 0; i < VIREMENTS; i++) {
+            date = date.plusMinutes(1);
+            Mouvement debit = mouvement(compteEmetteur, virement, new BigDecimal("-2000"), date, "VIRD" + i);
+            Mouvement credit = mouvement(compteBeneficiaire, virement, new BigDecimal("2000"), date, "VIRC" + i);
+            entites.add(debit);
+            entites.add(credit);
+            entites.add(Virement.builder()
+                .mouvementDebit(debit)
+                .mouvementCredit(credit)
+                .montant(new BigDecimal("2000"))
+                .dateVirement(date)
+                .build());
+        }
+        enregistrer(entites.toArray());
+    }
+
+    private static Client client(String nom, String prenom, String cin) {
+        return Client.builder()
+            .nom(nom).prenom(prenom)
+            .dateNaissance(LocalDate.of(1990, 1, 1))
+            .numCin(cin)
+            .email(cin.toLowerCase() + "@banque.test")
+            .motDePasse("secret")
+            .build();
+    }
+
+    private static CompteCourant compte(String numero, Client client, TypeCompte typeCompte) {
+        return CompteCourant.builder()
+            .numeroCompte(numero)
+            .client(client)
+            .typeCompte(typeCompte)
+            .dateOuverture(LocalDate.of(2025, 1, 1))
+            .soldeInitial(BigDecimal.ZERO)
+            .soldeActuel(BigDecimal.ZERO)
+            .build();
+    }
+
+    private static Mouvement mouvement(CompteCourant compte, TypeOperation type, BigDecimal montant,
+                                       LocalDateTime date, String reference) {
+        return Mouvement.builder()
+            .compte(compte)
+            .typeOperation(type)
+            .montant(montant)
+            .soldeAvantOperation(BigDecimal.ZERO)
+            .soldeApresOperation(montant)
+            .dateOperation(date)
+            .reference(reference)
+            .build();
+    }
+}
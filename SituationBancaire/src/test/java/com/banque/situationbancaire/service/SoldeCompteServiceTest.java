@@ -0,0 +1,116 @@
+package com.banque.situationbancaire.service;
+
+import com.banque.situationbancaire.entity.Client;
+import com.banque.situationbancaire.entity.CompteCourant;
+import com.banque.situationbancaire.entity.Mouvement;
+import com.banque.situationbancaire.entity.ParametresCompte;
+import com.banque.situationbancaire.entity.TauxInteretDecouvert;
+import com.banque.situationbancaire.entity.TypeCompte;
+import com.banque.situationbancaire.entity.TypeOperation;
+import com.banque.situationbancaire.entity.enums.CategorieOperation;
+import com.banque.situationbancaire.entity.enums.NatureOperation;
+import com.banque.situationbancaire.repository.CompteCourantRepository;
+import com.banque.situationbancaire.repository.MouvementRepository;
+import com.banque.situationbancaire.support.BaseDeDonneesTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Réconciliation d'une page de comptes : seuls les soldes en écart avec le
+ * grand livre sont relus sous verrou et réalignés
+ */
+class SoldeCompteServiceTest extends BaseDeDonneesTest {
+
+    private SoldeCompteService soldeCompteService;
+
+    private TypeCompte typeCompte;
+    private TypeOperation depot;
+
+    @BeforeEach
+    void preparer() {
+        soldeCompteService = new SoldeCompteService();
+        injecter(soldeCompteService, "compteCourantRepository", injecter(new CompteCourantRepository(), "em", em));
+        injecter(soldeCompteService, "mouvementRepository", injecter(new MouvementRepository(), "em", em));
+
+        TauxInteretDecouvert taux = TauxInteretDecouvert.builder()
+            .tauxAnnuel(new BigDecimal("0.1500"))
+            .dateDebut(LocalDate.of(2024, 1, 1))
+            .build();
+        ParametresCompte parametres = ParametresCompte.builder()
+            .tauxDecouvert(taux)
+            .plafondRetraitJournalier(new BigDecimal("500000"))
+            .plafondVirementJournalier(new BigDecimal("1000000"))
+            .fraisTenueCompte(new BigDecimal("1000"))
+            .dateDebut(LocalDate.of(2024, 1, 1))
+            .build();
+        typeCompte = TypeCompte.builder()
+            .parametreActuel(parametres)
+            .codeType("STANDARD")
+            .libelle("Compte standard")
+            .build();
+        depot = TypeOperation.builder()
+            .codeOperation("DEPOT").libelleOperation("Dépôt")
+            .categorie(CategorieOperation.CREDIT).nature(NatureOperation.DEPOT)
+            .build();
+        enregistrer(taux, parametres, typeCompte, depot);
+    }
+
+    @Test
+    void pageReconcilieeCorrigeSeulementLesEcarts() {
+        CompteCourant aligne = compte("CC-ALIG", "CIN1", "3000");
+        CompteCourant enEcart = compte("CC-ECAR", "CIN2", "9999");
+        CompteCourant nonMaterialise = compte("CC-NULL", "CIN3", null);
+        enregistrer(aligne.getClient(), aligne, mouvement(aligne, "3000", "DEP1"),
+            enEcart.getClient(), enEcart, mouvement(enEcart, "2000", "DEP2"),
+            nonMaterialise.getClient(), nonMaterialise, mouvement(nonMaterialise, "500", "DEP3"));
+
+        em.getTransaction().begin();
+        int corriges = soldeCompteService.reconcilierPage(
+            List.of(aligne.getIdCompte(), enEcart.getIdCompte(), nonMaterialise.getIdCompte()));
+        em.getTransaction().commit();
+        em.clear();
+
+        assertEquals(2, corriges);
+        assertEquals(0, new BigDecimal("3000").compareTo(em.find(CompteCourant.class, aligne.getIdCompte()).getSoldeActuel()));
+        assertEquals(0, new BigDecimal("2000").compareTo(em.find(CompteCourant.class, enEcart.getIdCompte()).getSoldeActuel()));
+        assertEquals(0, new BigDecimal("500").compareTo(em.find(CompteCourant.class, nonMaterialise.getIdCompte()).getSoldeActuel()));
+    }
+
+    private CompteCourant compte(String numero, String cin, String solde) {
+        Client client = Client.builder()
+            .nom("NDIAYE").prenom(numero)
+            .dateNaissance(LocalDate.of(1990, 1, 1))
+            .numCin(cin)
+            .email(cin.toLowerCase() + "@banque.test")
+            .motDePasse("secret")
+            .build();
+        return CompteCourant.builder()
+            .numeroCompte(numero)
+            .client(client)
+            .typeCompte(typeCompte)
+            .dateOuverture(LocalDate.of(2025, 1, 1))
+            .soldeInitial(BigDecimal.ZERO)
+            .soldeActuel(solde != null ? new BigDecimal(solde) : null)
+            .build();
+    }
+
+    private Mouvement mouvement(CompteCourant compte, String montant, String reference) {
+        BigDecimal valeur = new BigDecimal(montant);
+        return Mouvement.builder()
+            .compte(compte)
+            .typeOperation(depot)
+            .montant(valeur)
+            .soldeAvantOperation(BigDecimal.ZERO)
+            .soldeApresOperation(valeur)
+            .dateOperation(LocalDateTime.of(2025, 3, 1, 10, 0))
+            .reference(reference)
+            .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.banque.situationbancaire.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base des tests de requêtes : l'unité de persistance SituationBancairePU
+ * (mêmes entités et mêmes réglages de lots et de séquences qu'en production)
+ * sur une base H2 en mémoire, avec les statistiques Hibernate activées pour
+ * compter les ordres SQL préparés par appel de service.
+ */
+public abstract class BaseDeDonneesTest {
+
+    private static final AtomicInteger COMPTEUR_BASES = new AtomicInteger();
+
+    protected EntityManagerFactory emf;
+    protected EntityManager em;
+
+    @BeforeEach
+    void ouvrirBase() {
+        JdbcDataSource source = new JdbcDataSource();
+        source.setURL("jdbc:h2:mem:situation" + COMPTEUR_BASES.incrementAndGet()
+            + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+        // La source JTA du serveur est remplacée par la base H2, en transactions locales
+        Map<String, Object> proprietes = new HashMap<>();
+        proprietes.put("jakarta.persistence.transactionType", "RESOURCE_LOCAL");
+        proprietes.put("jakarta.persistence.jtaDataSource", source);
+        proprietes.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        proprietes.put("hibernate.hbm2ddl.auto", "create-drop");
+        proprietes.put("hibernate.show_sql", "false");
+        proprietes.put("hibernate.generate_statistics", "true");
+        emf = Persistence.createEntityManagerFactory("SituationBancairePU", proprietes);
+        em = emf.createEntityManager();
+    }
+
+    @AfterEach
+    void fermerBase() {
+        if (em != null && em.isOpen()) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    /**
+     * Statistiques de la fabrique, à remettre à zéro avant l'appel mesuré
+     */
+    protected Statistics statistiques() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Persiste les entités dans une transaction, puis vide le contexte de
+     * persistance pour que l'appel mesuré relise tout depuis la base
+     */
+    protected void enregistrer(Object... entites) {
+        em.getTransaction().begin();
+        for (Object entite : entites) {
+            em.persist(entite);
+        }
+        em.getTransaction().commit();
+        em.clear();
+    }
+
+    /**
+     * Renseigne un champ injecté par le conteneur (@PersistenceContext, @EJB, @Inject)
+     */
+    protected static <T> T injecter(T cible, String champ, Object valeur) {
+        Class<?> type = cible.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(champ);
+                field.setAccessible(true);
+                field.set(cible, valeur);
+                return cible;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException("Champ introuvable : " + champ);
+    }
+}
@@ -0,0 +1,13 @@
+-- Migration : élargissement du numéro de client
+-- PostgreSQL version
+--
+-- Les numéros de client sont générés par GenerateurReference : préfixe CLI
+-- suivi d'un identifiant décimal de 18 à 19 chiffres, soit jusqu'à 22
+-- caractères. La colonne passe de 20 à 32 caractères.
+-- hibernate.hbm2ddl.auto=update n'élargit pas une colonne existante :
+-- à exécuter avant le déploiement, sans quoi toute création de client échoue.
+
+-- ============================================
+--   BASE : Situation bancaire
+-- ============================================
+ALTER TABLE client ALTER COLUMN numero_client TYPE VARCHAR(32);
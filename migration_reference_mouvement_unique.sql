@@ -0,0 +1,38 @@
+-- Migration : unicité des références de mouvement
+-- PostgreSQL version
+--
+-- Les références de mouvement sont générées par GenerateurReference et
+-- doivent être uniques. L'index idx_mouvement_reference existait déjà, non
+-- unique : hibernate.hbm2ddl.auto=update ne le recrée pas (il le trouve par
+-- son nom), il faut donc le remplacer par un index unique.
+-- À exécuter avant le déploiement. La migration s'arrête sans rien modifier
+-- si des doublons existent : les lister avec la requête ci-dessous et les
+-- corriger d'abord.
+--
+--   SELECT reference, COUNT(*) FROM mouvement
+--   WHERE reference IS NOT NULL
+--   GROUP BY reference HAVING COUNT(*) > 1;
+
+-- ============================================
+--   BASE : Situation bancaire
+-- ============================================
+BEGIN;
+
+DO $$
+DECLARE
+    doublons BIGINT;
+BEGIN
+    SELECT COUNT(*) INTO doublons FROM (
+        SELECT reference FROM mouvement
+        WHERE reference IS NOT NULL
+        GROUP BY reference HAVING COUNT(*) > 1
+    ) d;
+    IF doublons > 0 THEN
+        RAISE EXCEPTION '% références de mouvement en double, migration annulée', doublons;
+    END IF;
+END $$;
+
+DROP INDEX IF EXISTS idx_mouvement_reference;
+CREATE UNIQUE INDEX idx_mouvement_reference ON mouvement (reference);
+
+COMMIT;
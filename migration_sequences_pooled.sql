@@ -0,0 +1,28 @@
+-- Migration : identifiants par séquence avec l'optimiseur pooled-lo
+-- PostgreSQL version
+--
+-- Les entités à fort volume n'utilisent plus IDENTITY (qui désactive le
+-- regroupement des INSERT en lots) mais une séquence dont chaque appel réserve
+-- 50 identifiants. Les séquences existantes (créées par SERIAL ou IDENTITY)
+-- sont conservées : seul leur incrément change. Les insertions SQL qui
+-- utilisent la valeur par défaut de la colonne restent possibles.
+-- À exécuter avant le déploiement, sans quoi Hibernate refuse de démarrer
+-- (incrément de séquence différent de allocationSize).
+
+-- ============================================
+--   BASE : Situation bancaire
+-- ============================================
+ALTER SEQUENCE IF EXISTS compte_courant_id_compte_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS mouvement_id_mouvement_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS virement_id_virement_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS interet_journalier_id_interet_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS frais_tenue_historique_id_frais_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS cumul_journalier_id_cumul_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS decouvert_id_decouvert_seq INCREMENT BY 50;
+
+-- ============================================
+--   BASE : Prêts
+-- ============================================
+ALTER SEQUENCE IF EXISTS pret_id_pret_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS echeance_id_echeance_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS remboursement_id_remboursement_seq INCREMENT BY 50;
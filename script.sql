@@ -9,7 +9,7 @@ USE compte_epargne_db;
 -- Table des clients (avec login)
 CREATE TABLE client (
     id_client INT AUTO_INCREMENT PRIMARY KEY,
-    numero_client VARCHAR(20) UNIQUE NOT NULL,
+    numero_client VARCHAR(32) UNIQUE NOT NULL,
     nom VARCHAR(100) NOT NULL,
     prenom VARCHAR(100) NOT NULL,
     date_naissance DATE NOT NULL,
@@ -61,6 +61,8 @@ CREATE TABLE pret (
     montant_total_du DECIMAL(15,2) NOT NULL,
     mensualite DECIMAL(15,2) NOT NULL,
     
+    capital_restant_du DECIMAL(15,2), -- Diminué à chaque remboursement
+    
     -- Champs pour suivi global des pénalités
     total_penalites DECIMAL(10,2) DEFAULT 0, -- Somme des pénalités appliquées
     
@@ -104,6 +106,10 @@ CREATE TABLE echeance (
     jours_retard INTEGER DEFAULT 0,
     date_calcul_penalite DATE, -- Date à laquelle les pénalités ont été calculées
     
+    -- Cumul des paiements reçus, mis à jour à chaque remboursement
+    montant_paye DECIMAL(15,2) DEFAULT 0,
+    penalite_payee DECIMAL(10,2) DEFAULT 0,
+    
     FOREIGN KEY (id_pret) REFERENCES pret(id_pret),
     UNIQUE (id_pret, numero_echeance)
 );
@@ -163,4 +169,13 @@ CREATE INDEX idx_pret_statut ON pret(statut);
 CREATE INDEX idx_echeance_pret ON echeance(id_pret);
 CREATE INDEX idx_echeance_date ON echeance(date_echeance);
 CREATE INDEX idx_echeance_statut ON echeance(statut);
-CREATE INDEX idx_remboursement_echeance ON remboursement(id_echeance);
\ No newline at end of file
+CREATE INDEX idx_remboursement_echeance ON remboursement(id_echeance);
+
+-- Séquences des tables à fort volume : incrément de 50 pour l'optimiseur
+-- pooled-lo d'Hibernate (insertions des échéances regroupées en lots)
+ALTER SEQUENCE pret_id_pret_seq INCREMENT BY 50;
+ALTER SEQUENCE echeance_id_echeance_seq INCREMENT BY 50;
+ALTER SEQUENCE remboursement_id_remboursement_seq INCREMENT BY 50;
+
+-- Parcours quotidien des échéances échues (moteur de retard)
+CREATE INDEX idx_echeance_statut_date ON echeance(statut, date_echeance);